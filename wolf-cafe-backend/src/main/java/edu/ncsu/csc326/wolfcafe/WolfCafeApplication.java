@@ -4,11 +4,13 @@ import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main class for the WolfCafe application.
  */
 @SpringBootApplication
+@EnableScheduling
 public class WolfCafeApplication {
 
 	/**
@@ -0,0 +1,77 @@
+package edu.ncsu.csc326.wolfcafe.config;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Moves each id sequence past the ids already in its table. Databases created
+ * when ids came from auto increment columns have rows the new sequence tables
+ * don't know about, and the first ids handed out would collide with them.
+ * Runs once at startup, after Hibernate has updated the schema and before
+ * anything is saved.
+ */
+@Component
+public class IdSequenceAligner implements InitializingBean {
+
+    /**
+     * Ids a pooled sequence hands out from one fetch. Must match the
+     * allocationSize on the entities
+     */
+    private static final int                 ALLOCATION_SIZE = 50;
+
+    /** Sequence table for each entity table */
+    private static final Map<String, String> SEQUENCES       = Map.of( "orders", "orders_seq", "order_item",
+            "order_item_seq", "items", "items_seq", "item_ingredient", "item_ingredient_seq", "ingredient",
+            "ingredient_seq", "inventory", "inventory_seq", "users", "users_seq", "consumption_event",
+            "consumption_event_seq" );
+
+    /** Runs the statements */
+    private final JdbcTemplate               jdbcTemplate;
+
+    /**
+     * Constructs the aligner. The entity manager factory isn't used, but
+     * asking for it makes sure the schema exists first.
+     *
+     * @param jdbcTemplate
+     *            template to run the statements with
+     * @param entityManagerFactory
+     *            the entity manager factory
+     */
+    public IdSequenceAligner ( final JdbcTemplate jdbcTemplate, final EntityManagerFactory entityManagerFactory ) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet () {
+        SEQUENCES.forEach( this::align );
+    }
+
+    /**
+     * Moves one sequence past the largest id in its table. A pooled sequence
+     * hands out the ALLOCATION_SIZE ids below the value it reads, so the
+     * value must be at least that far past the largest id.
+     *
+     * @param table
+     *            the entity table
+     * @param sequence
+     *            the table emulating its sequence
+     */
+    private void align ( final String table, final String sequence ) {
+        final Long maxId = jdbcTemplate.queryForObject( "SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class );
+        final long next = maxId + ALLOCATION_SIZE + 1;
+        final List<Long> current = jdbcTemplate.queryForList( "SELECT next_val FROM " + sequence, Long.class );
+        if ( current.isEmpty() ) {
+            jdbcTemplate.update( "INSERT INTO " + sequence + " (next_val) VALUES (?)", next );
+        }
+        else if ( current.get( 0 ) < next ) {
+            jdbcTemplate.update( "UPDATE " + sequence + " SET next_val = ?", next );
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package edu.ncsu.csc326.wolfcafe.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Hibernate settings that the entity mappings rely on. Entities take their ids
+ * from pooled sequences, so Hibernate knows each id before the insert and can
+ * send inserts and updates in JDBC batches. Any of these can still be
+ * overridden in application.properties.
+ *
+ * MySQL's driver still sends each statement in a batch on its own round trip
+ * unless rewriteBatchedStatements is on, in which case it rewrites a batch of
+ * inserts into one multi-row insert. It is turned on for the connection pool
+ * here, unless the datasource URL or the pool's data source properties
+ * already set it.
+ */
+@Configuration
+public class PersistenceConfig {
+
+    /** Most statements sent in one JDBC batch */
+    public static final int     JDBC_BATCH_SIZE            = 50;
+
+    /** MySQL driver property that sends a batch of inserts as one statement */
+    private static final String REWRITE_BATCHED_STATEMENTS = "rewriteBatchedStatements";
+
+    /**
+     * Turns on JDBC batching, with statements grouped by table so a batch
+     * isn't broken up each time the table changes.
+     *
+     * @return customizer adding the batching settings
+     */
+    @Bean
+    public HibernatePropertiesCustomizer batchingCustomizer () {
+        return properties -> {
+            properties.putIfAbsent( "hibernate.jdbc.batch_size", String.valueOf( JDBC_BATCH_SIZE ) );
+            properties.putIfAbsent( "hibernate.order_inserts", "true" );
+            properties.putIfAbsent( "hibernate.order_updates", "true" );
+            properties.putIfAbsent( "hibernate.jdbc.batch_versioned_data", "true" );
+        };
+    }
+
+    /**
+     * Has MySQL's driver send each JDBC batch of inserts as one multi-row
+     * insert. Set on the pool before it opens its first connection, and
+     * skipped if the datasource URL already says either way.
+     *
+     * @return post processor setting the driver property
+     */
+    @Bean
+    public static BeanPostProcessor rewriteBatchedStatements () {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization ( final Object bean, final String beanName ) {
+                if ( bean instanceof final HikariDataSource dataSource
+                        && !String.valueOf( dataSource.getJdbcUrl() ).contains( REWRITE_BATCHED_STATEMENTS ) ) {
+                    dataSource.getDataSourceProperties().putIfAbsent( REWRITE_BATCHED_STATEMENTS, "true" );
+                }
+                return bean;
+            }
+        };
+    }
+
+}
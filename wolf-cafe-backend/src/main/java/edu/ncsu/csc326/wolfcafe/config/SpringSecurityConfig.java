@@ -2,6 +2,7 @@ package edu.ncsu.csc326.wolfcafe.config;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -10,7 +11,6 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -18,6 +18,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import edu.ncsu.csc326.wolfcafe.security.BoundedPasswordEncoder;
 import edu.ncsu.csc326.wolfcafe.security.JwtAuthenticationEntryPoint;
 import edu.ncsu.csc326.wolfcafe.security.JwtAuthenticationFilter;
 import lombok.AllArgsConstructor;
@@ -38,13 +39,23 @@ public class SpringSecurityConfig {
     private final JwtAuthenticationFilter     authenticationFilter;
 
     /**
-     * Encodes passwords
+     * Encodes passwords with BCrypt on a bounded pool of threads, so a burst
+     * of logins can't take every core
      *
+     * @param strength
+     *            BCrypt strength for new hashes
+     * @param threads
+     *            most hashes run at once, or 0 for half the cores
+     * @param queueLimit
+     *            most hashes waiting before logins are turned away
      * @return object to encode passwords
      */
     @Bean
-    public static PasswordEncoder passwordEncoder () {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder ( @Value ( "${app.bcrypt-strength:10}" ) final int strength,
+            @Value ( "${app.password-hashing-threads:0}" ) final int threads,
+            @Value ( "${app.password-hashing-queue:32}" ) final int queueLimit ) {
+        return new BoundedPasswordEncoder( strength,
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors() / 2, queueLimit );
     }
 
     /**
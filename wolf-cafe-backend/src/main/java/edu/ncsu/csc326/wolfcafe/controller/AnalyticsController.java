@@ -0,0 +1,143 @@
+package edu.ncsu.csc326.wolfcafe.controller;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.ncsu.csc326.wolfcafe.dto.ConsumptionDto;
+import edu.ncsu.csc326.wolfcafe.dto.ConsumptionForecastDto;
+import edu.ncsu.csc326.wolfcafe.dto.ItemSalesDto;
+import edu.ncsu.csc326.wolfcafe.dto.SalesRollupDto;
+import edu.ncsu.csc326.wolfcafe.service.ConsumptionLogService;
+import edu.ncsu.csc326.wolfcafe.service.SalesRollupService;
+import lombok.AllArgsConstructor;
+
+/**
+ * AnalyticsController provides the endpoints for the sales and inventory
+ * dashboards. They read the hourly and daily rollups rather than the orders
+ * themselves.
+ */
+@RestController
+@RequestMapping ( "api/analytics" )
+@AllArgsConstructor
+@CrossOrigin ( "*" )
+public class AnalyticsController {
+
+    /** Connection to the rollups */
+    private final SalesRollupService    salesRollupService;
+
+    /** Connection to the ingredient consumption log */
+    private final ConsumptionLogService consumptionLogService;
+
+    /**
+     * Returns the sales totals of each hour or day that had sales in a time
+     * range, oldest first. Requires the ADMIN or STAFF role
+     *
+     * @param granularity
+     *            "hour" or "day"
+     * @param from
+     *            only buckets starting at or after this time, optional
+     * @param to
+     *            only buckets starting before this time, optional
+     * @return the totals
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( "/sales" )
+    public ResponseEntity<List<SalesRollupDto>> getSales (
+            @RequestParam ( defaultValue = "day" ) final String granularity,
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE_TIME ) final LocalDateTime from,
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE_TIME ) final LocalDateTime to ) {
+        return ResponseEntity.ok( salesRollupService.getSales( granularity, from, to ) );
+    }
+
+    /**
+     * Returns the units of each item sold in each hour or day in a time range,
+     * oldest first. Requires the ADMIN or STAFF role
+     *
+     * @param granularity
+     *            "hour" or "day"
+     * @param from
+     *            only buckets starting at or after this time, optional
+     * @param to
+     *            only buckets starting before this time, optional
+     * @return the units sold
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( "/items" )
+    public ResponseEntity<List<ItemSalesDto>> getItemSales (
+            @RequestParam ( defaultValue = "day" ) final String granularity,
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE_TIME ) final LocalDateTime from,
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE_TIME ) final LocalDateTime to ) {
+        return ResponseEntity.ok( salesRollupService.getItemSales( granularity, from, to ) );
+    }
+
+    /**
+     * Returns the quantity of each ingredient used in each hour or day in a
+     * time range, oldest first. Hourly buckets are only kept for the last
+     * few days. Requires the ADMIN or STAFF role
+     *
+     * @param granularity
+     *            "hour" or "day"
+     * @param from
+     *            only buckets starting at or after this time, optional
+     * @param to
+     *            only buckets starting before this time, optional
+     * @return the quantities used
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( "/consumption" )
+    public ResponseEntity<List<ConsumptionDto>> getConsumption (
+            @RequestParam ( defaultValue = "day" ) final String granularity,
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE_TIME ) final LocalDateTime from,
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE_TIME ) final LocalDateTime to ) {
+        return ResponseEntity.ok( consumptionLogService.getConsumption( granularity, from, to ) );
+    }
+
+    /**
+     * Returns when each ingredient is projected to run out at its recent
+     * rate of use, soonest first. Requires the ADMIN or STAFF role
+     *
+     * @return the forecast for each ingredient
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( "/forecast" )
+    public ResponseEntity<List<ConsumptionForecastDto>> getForecast () {
+        return ResponseEntity.ok( consumptionLogService.forecast() );
+    }
+
+    /**
+     * Returns the number of ingredient debits dropped since startup because
+     * the consumption log's buffer was full. Requires the ADMIN or STAFF role
+     *
+     * @return the number of debits dropped
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( "/consumption/dropped" )
+    public ResponseEntity<Long> getDroppedConsumption () {
+        return ResponseEntity.ok( consumptionLogService.getDropped() );
+    }
+
+    /**
+     * Works out every rollup again from the order history. Requires the ADMIN
+     * role
+     *
+     * @return a message that the rollups were rebuilt
+     */
+    @PreAuthorize ( "hasRole('ADMIN')" )
+    @PostMapping ( "/rebuild" )
+    public ResponseEntity<String> rebuild () {
+        salesRollupService.rebuild();
+        return ResponseEntity.ok( "Sales rollups rebuilt." );
+    }
+
+}
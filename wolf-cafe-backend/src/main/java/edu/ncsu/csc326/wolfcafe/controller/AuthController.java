@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -19,7 +20,10 @@ import edu.ncsu.csc326.wolfcafe.dto.EditUserDto;
 import edu.ncsu.csc326.wolfcafe.dto.JwtAuthResponse;
 import edu.ncsu.csc326.wolfcafe.dto.LoginDto;
 import edu.ncsu.csc326.wolfcafe.dto.RegisterDto;
+import edu.ncsu.csc326.wolfcafe.dto.UserDetailsCacheMetricsDto;
+import edu.ncsu.csc326.wolfcafe.dto.UserDto;
 import edu.ncsu.csc326.wolfcafe.entity.User;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
 import edu.ncsu.csc326.wolfcafe.repository.UserRepository;
 import edu.ncsu.csc326.wolfcafe.service.AuthService;
 import lombok.AllArgsConstructor;
@@ -88,6 +92,24 @@ public class AuthController {
         return new ResponseEntity<>( jwtAuthResponse, HttpStatus.OK );
     }
 
+    /**
+     * Logs out by revoking the token the request was sent with, so it can't
+     * be used again even before it expires.
+     *
+     * @param authorization
+     *            the Authorization header, holding the token
+     * @return response indicating success
+     */
+    @PostMapping ( "/logout" )
+    public ResponseEntity<String> logout (
+            @RequestHeader ( value = "Authorization", required = false ) final String authorization ) {
+        if ( authorization == null || !authorization.startsWith( "Bearer " ) ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "No token to log out." );
+        }
+        authService.logout( authorization.substring( 7 ) );
+        return ResponseEntity.ok( "Logged out successfully." );
+    }
+
     /**
      * Retrieves all staff users. Requires ADMIN role.
      *
@@ -95,10 +117,8 @@ public class AuthController {
      */
     @PreAuthorize ( "hasRole('ADMIN')" )
     @GetMapping ( "/staff" )
-    public ResponseEntity<List<User>> getAllStaff () {
-        final List<User> staff = userRepository.findAll().stream()
-                .filter( u -> u.getRoles().stream().anyMatch( r -> r.getName().equals( "ROLE_STAFF" ) ) ).toList();
-        return ResponseEntity.ok( staff );
+    public ResponseEntity<List<UserDto>> getAllStaff () {
+        return ResponseEntity.ok( authService.getAllStaff() );
     }
 
     /**
@@ -154,9 +174,20 @@ public class AuthController {
      */
     @GetMapping ( "/all" )
     @PreAuthorize ( "hasRole('ADMIN')" )
-    public ResponseEntity<List<User>> getAllUsers () {
-        final List<User> users = userRepository.findAll();
-        return ResponseEntity.ok( users );
+    public ResponseEntity<List<UserDto>> getAllUsers () {
+        return ResponseEntity.ok( authService.getAllUsers() );
+    }
+
+    /**
+     * Returns how well the cache of users loaded for authentication is
+     * doing, only accessible to admin users
+     *
+     * @return the cache metrics
+     */
+    @GetMapping ( "/cache/metrics" )
+    @PreAuthorize ( "hasRole('ADMIN')" )
+    public ResponseEntity<UserDetailsCacheMetricsDto> getUserCacheMetrics () {
+        return ResponseEntity.ok( authService.getUserCacheMetrics() );
     }
 
 }
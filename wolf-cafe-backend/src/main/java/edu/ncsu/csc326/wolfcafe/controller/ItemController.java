@@ -2,7 +2,9 @@ package edu.ncsu.csc326.wolfcafe.controller;
 
 import java.util.List;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,9 +16,13 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import edu.ncsu.csc326.wolfcafe.dto.ItemAvailabilityDto;
 import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
 import edu.ncsu.csc326.wolfcafe.service.ItemService;
+import edu.ncsu.csc326.wolfcafe.service.MenuAvailabilityService;
+import edu.ncsu.csc326.wolfcafe.service.MenuCacheService;
 import lombok.AllArgsConstructor;
 
 /**
@@ -30,7 +36,13 @@ import lombok.AllArgsConstructor;
 public class ItemController {
 
     /** Link to ItemService */
-    private final ItemService itemService;
+    private final ItemService             itemService;
+
+    /** Index of how many of each item can be made */
+    private final MenuAvailabilityService menuAvailabilityService;
+
+    /** Cached JSON of the whole menu */
+    private final MenuCacheService        menuCacheService;
 
     /**
      * Adds an item to the list of items. Requires the STAFF or ADMIN role.
@@ -61,14 +73,36 @@ public class ItemController {
     }
 
     /**
-     * Returns all items. Requires the ADMIN, STAFF or CUSTOMER role.
+     * Returns all items, from the cached menu. The response has an ETag, and
+     * a request whose If-None-Match header holds the current one gets NOT
+     * MODIFIED with no body. Each recipe line keeps the quantity the item
+     * needs, but its ingredient has no stock quantity, since that would
+     * change the menu with every order; GET /api/items/availability has
+     * the live stock.
      *
-     * @return a list of all items
+     * @param request
+     *            the request, to check its If-None-Match header
+     * @return a list of all items as JSON, or null if not modified
      */
     @GetMapping
-    public ResponseEntity<List<ItemDto>> getAllItems () {
-        final List<ItemDto> items = itemService.getAllItems();
-        return ResponseEntity.ok( items );
+    public ResponseEntity<byte[]> getAllItems ( final WebRequest request ) {
+        final MenuCacheService.Menu menu = menuCacheService.getMenu( itemService::getAllItems );
+        if ( request.checkNotModified( menu.etag() ) ) {
+            return null;
+        }
+        return ResponseEntity.ok().contentType( MediaType.APPLICATION_JSON ).eTag( menu.etag() )
+                .cacheControl( CacheControl.noCache() ).body( menu.json() );
+    }
+
+    /**
+     * Returns how many of each item can be made from the stock that isn't
+     * already held for other orders.
+     *
+     * @return the availability of every item
+     */
+    @GetMapping ( "/availability" )
+    public ResponseEntity<List<ItemAvailabilityDto>> getAvailability () {
+        return ResponseEntity.ok( menuAvailabilityService.getAvailability() );
     }
 
     /**
@@ -1,21 +1,47 @@
 package edu.ncsu.csc326.wolfcafe.controller;
 
+import java.security.Principal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import edu.ncsu.csc326.wolfcafe.dto.BatchFulfillmentDto;
+import edu.ncsu.csc326.wolfcafe.dto.FulfillmentResultDto;
+import edu.ncsu.csc326.wolfcafe.dto.IntakeMetricsDto;
+import edu.ncsu.csc326.wolfcafe.dto.IntakeTicketDto;
 import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderPageDto;
+import edu.ncsu.csc326.wolfcafe.dto.QueuedOrderDto;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.service.AuthService;
+import edu.ncsu.csc326.wolfcafe.service.IdempotencyService;
+import edu.ncsu.csc326.wolfcafe.service.KitchenQueueService;
+import edu.ncsu.csc326.wolfcafe.service.OrderEventService;
+import edu.ncsu.csc326.wolfcafe.service.OrderExportService;
+import edu.ncsu.csc326.wolfcafe.service.OrderIntakeService;
 import edu.ncsu.csc326.wolfcafe.service.OrderService;
 import lombok.AllArgsConstructor;
 
@@ -28,41 +54,183 @@ import lombok.AllArgsConstructor;
 @CrossOrigin ( "*" )
 public class OrderController {
 
+    /** Longest idempotency key accepted */
+    private static final int          MAX_KEY_LENGTH    = 255;
+
+    /** Orders returned in a page when the client doesn't say */
+    private static final String       DEFAULT_PAGE_SIZE = "50";
+
+    /** Content type of the CSV export */
+    private static final MediaType    CSV               = new MediaType( "text", "csv" );
+
     /** Connection to service */
-    private final OrderService orderService;
+    private final OrderService        orderService;
+
+    /** Recommends the order to make pending orders in */
+    private final KitchenQueueService kitchenQueueService;
+
+    /** Remembers created orders by the client's idempotency key */
+    private final IdempotencyService  idempotencyService;
+
+    /** Queues orders to be saved off the request thread */
+    private final OrderIntakeService  orderIntakeService;
+
+    /** Streams the order history */
+    private final OrderExportService  orderExportService;
+
+    /** Pushes order changes to live boards */
+    private final OrderEventService   orderEventService;
+
+    /** Looks up the user a request was made by */
+    private final AuthService         authService;
 
     /**
-     * Returns all orders. Requires the ADMIN, STAFF or CUSTOMER role.
+     * Returns a page of all orders, newest first. Requires the ADMIN, STAFF or
+     * CUSTOMER role.
      *
-     * @return a list of all orders
+     * @param cursor
+     *            nextCursor from the previous page, omitted for the first
+     * @param size
+     *            most orders to return
+     * @return a page of orders
      */
     @GetMapping
-    public ResponseEntity<List<OrderDto>> getAllOrders () {
-        final List<OrderDto> orders = orderService.getAllOrders();
-        return ResponseEntity.ok( orders );
+    public ResponseEntity<OrderPageDto> getAllOrders ( @RequestParam ( required = false ) final String cursor,
+            @RequestParam ( defaultValue = DEFAULT_PAGE_SIZE ) final int size ) {
+        return ResponseEntity.ok( orderService.getOrderPage( cursor, size ) );
     }
 
     /**
-     * Returns all orders placed today. Requires the ADMIN or STAFF role
+     * Returns a page of the orders placed today, or on the given day, newest
+     * first. Requires the ADMIN or STAFF role
      *
-     * @return a list of orders from today
+     * @param date
+     *            day to list orders from, omitted for today
+     * @param cursor
+     *            nextCursor from the previous page, omitted for the first
+     * @param size
+     *            most orders to return
+     * @return a page of orders from the day
      */
     @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
     @GetMapping ( "/today" )
-    public ResponseEntity<List<OrderDto>> getTodayOrders () {
-        return ResponseEntity.ok( orderService.getOrdersByCreatedDate( LocalDateTime.now() ) );
+    public ResponseEntity<OrderPageDto> getTodayOrders (
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE ) final LocalDate date,
+            @RequestParam ( required = false ) final String cursor,
+            @RequestParam ( defaultValue = DEFAULT_PAGE_SIZE ) final int size ) {
+        final LocalDateTime day = date != null ? date.atStartOfDay() : LocalDateTime.now();
+        return ResponseEntity.ok( orderService.getOrderPageByCreatedDate( day, cursor, size ) );
+    }
+
+    /**
+     * Exports the order history for accounting, oldest first, as
+     * newline-delimited JSON with one order per line or as CSV with one order
+     * line per row. The orders are streamed to the response as they are read,
+     * so any range can be exported. Requires the ADMIN or STAFF role
+     *
+     * @param format
+     *            "ndjson" or "csv"
+     * @param from
+     *            only orders created at or after this time, optional
+     * @param to
+     *            only orders created before this time, optional
+     * @return the export, streamed
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( "/export" )
+    public ResponseEntity<StreamingResponseBody> exportOrders (
+            @RequestParam ( defaultValue = "ndjson" ) final String format,
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE_TIME ) final LocalDateTime from,
+            @RequestParam ( required = false ) @DateTimeFormat ( iso = ISO.DATE_TIME ) final LocalDateTime to ) {
+        if ( from != null && to != null && !from.isBefore( to ) ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "from must be before to" );
+        }
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if ( "csv".equalsIgnoreCase( format ) ) {
+            return response.contentType( CSV )
+                    .header( HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.csv\"" )
+                    .body( out -> orderExportService.writeCsv( from, to, out ) );
+        }
+        if ( "ndjson".equalsIgnoreCase( format ) ) {
+            return response.contentType( MediaType.APPLICATION_NDJSON )
+                    .header( HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"" )
+                    .body( out -> orderExportService.writeNdjson( from, to, out ) );
+        }
+        throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "format must be ndjson or csv" );
     }
 
     /**
-     * Returns all orders placed by the given customer id. Requires the ADMIN,
-     * STAFF or CUSTOMER role
+     * Opens a Server-Sent Events stream of every order as it is created,
+     * changes status or is deleted, for the live order board. Events are only
+     * sent once the change is committed, and the client should reload the
+     * board when it reconnects. Requires the ADMIN or STAFF role
      *
-     * @return a list of orders from today
+     * @return the event stream
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE )
+    public SseEmitter streamOrderEvents () {
+        return orderEventService.subscribe( null );
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of the given customer's orders as
+     * they are created, change status or are deleted. Requires the ADMIN,
+     * STAFF or CUSTOMER role, and a customer may only follow their own orders
+     *
+     * @param id
+     *            id of the customer
+     * @param authentication
+     *            who is asking
+     * @return the event stream
+     * @throws AccessDeniedException
+     *             if a customer asks for someone else's orders
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF', 'CUSTOMER')" )
+    @GetMapping ( value = "/events/user/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE )
+    public SseEmitter streamCustomerOrderEvents ( @PathVariable ( "id" ) final Long id,
+            final Authentication authentication ) {
+        final boolean staff = authentication.getAuthorities().stream().map( GrantedAuthority::getAuthority )
+                .anyMatch( role -> "ROLE_ADMIN".equals( role ) || "ROLE_STAFF".equals( role ) );
+        // Denied the same way as a missing role, since an error body can't
+        // be sent to a client that only accepts an event stream
+        if ( !staff && !id.equals( authService.getIdByUsernameOrEmail( authentication.getName() ) ) ) {
+            throw new AccessDeniedException( "Customers may only follow their own orders" );
+        }
+        return orderEventService.subscribe( id );
+    }
+
+    /**
+     * Returns the pending orders in the order the kitchen should make them,
+     * with the ones that can't be made from the current stock last. Requires
+     * the ADMIN or STAFF role
+     *
+     * @return the kitchen queue
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( "/queue" )
+    public ResponseEntity<List<QueuedOrderDto>> getKitchenQueue () {
+        return ResponseEntity.ok( kitchenQueueService.getQueue() );
+    }
+
+    /**
+     * Returns a page of the orders placed by the given customer id, newest
+     * first. Requires the ADMIN, STAFF or CUSTOMER role
+     *
+     * @param id
+     *            id of the customer
+     * @param cursor
+     *            nextCursor from the previous page, omitted for the first
+     * @param size
+     *            most orders to return
+     * @return a page of the customer's orders
      */
     @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF', 'CUSTOMER')" )
     @GetMapping ( "/user/{id}" )
-    public ResponseEntity<List<OrderDto>> getCustomerOrders ( @PathVariable ( "id" ) final Long id ) {
-        return ResponseEntity.ok( orderService.getOrdersByUser( id ) );
+    public ResponseEntity<OrderPageDto> getCustomerOrders ( @PathVariable ( "id" ) final Long id,
+            @RequestParam ( required = false ) final String cursor,
+            @RequestParam ( defaultValue = DEFAULT_PAGE_SIZE ) final int size ) {
+        return ResponseEntity.ok( orderService.getOrderPageByUser( id, cursor, size ) );
     }
 
     /**
@@ -78,20 +246,88 @@ public class OrderController {
     }
 
     /**
-     * Creates a new order that has been paid for(checked on frontend)
+     * Creates a new order that has been paid for(checked on frontend). If the
+     * request has an Idempotency-Key header, retries with the same key return
+     * the order created by the first request instead of creating another.
      *
      * @param orderDto
      *            the order to create
+     * @param idempotencyKey
+     *            key the client picked for this order, optional
+     * @param principal
+     *            the logged in user, if any, so keys from different users
+     *            never collide
      * @return the created order
      */
     @PostMapping
-    public ResponseEntity<OrderDto> createOrder ( @RequestBody final OrderDto orderDto ) {
+    public ResponseEntity<OrderDto> createOrder ( @RequestBody final OrderDto orderDto,
+            @RequestHeader ( value = "Idempotency-Key", required = false ) final String idempotencyKey,
+            final Principal principal ) {
+        if ( idempotencyKey == null || idempotencyKey.isBlank() ) {
+            return ResponseEntity.ok( orderService.createOrder( orderDto ) );
+        }
+        if ( idempotencyKey.length() > MAX_KEY_LENGTH ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters" );
+        }
 
-        final OrderDto savedOrderDto = orderService.createOrder( orderDto );
+        final String key = "order:" + ( principal != null ? principal.getName() : "" ) + ":" + idempotencyKey;
+        final OrderDto savedOrderDto = idempotencyService.execute( key, () -> orderService.createOrder( orderDto ) );
         return ResponseEntity.ok( savedOrderDto );
 
     }
 
+    /**
+     * Accepts a paid order to be saved in the background. The order is
+     * checked, given its id and queued, and the response carries the order's
+     * id along with a ticket to check whether it was saved or failed. If the
+     * queue is full the client is told when to try again.
+     *
+     * @param orderDto
+     *            the order to create
+     * @return ACCEPTED with the ticket and order id, or SERVICE_UNAVAILABLE
+     *         with a Retry-After header if the queue is full
+     */
+    @PostMapping ( "/intake" )
+    public ResponseEntity<IntakeTicketDto> submitOrder ( @RequestBody final OrderDto orderDto ) {
+        try {
+            return ResponseEntity.status( HttpStatus.ACCEPTED ).body( orderIntakeService.submit( orderDto ) );
+        }
+        catch ( final WolfCafeAPIException e ) {
+            if ( e.getStatus() != HttpStatus.SERVICE_UNAVAILABLE ) {
+                throw e;
+            }
+            return ResponseEntity.status( HttpStatus.SERVICE_UNAVAILABLE )
+                    .header( HttpHeaders.RETRY_AFTER, String.valueOf( orderIntakeService.getRetryAfterSeconds() ) )
+                    .build();
+        }
+    }
+
+    /**
+     * Returns where an order sent to the intake queue has got to, including
+     * its order id once it is saved.
+     *
+     * @param ticketId
+     *            the ticket given when the order was accepted
+     * @return the ticket
+     */
+    @GetMapping ( "/intake/{ticketId}" )
+    public ResponseEntity<IntakeTicketDto> getIntakeTicket ( @PathVariable ( "ticketId" ) final String ticketId ) {
+        return ResponseEntity.ok( orderIntakeService.getTicket( ticketId ) );
+    }
+
+    /**
+     * Returns how the intake queue is keeping up. Requires the ADMIN or STAFF
+     * role
+     *
+     * @return the intake queue metrics
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @GetMapping ( "/intake/metrics" )
+    public ResponseEntity<IntakeMetricsDto> getIntakeMetrics () {
+        return ResponseEntity.ok( orderIntakeService.getMetrics() );
+    }
+
     /**
      * Updates the status of the order, fulfills if updating from pending to
      * fulfilled
@@ -107,12 +343,34 @@ public class OrderController {
             orderService.updateStatus( id, status );
             return ResponseEntity.ok( "Order Successfully updated to " + status );
         }
+        catch ( final WolfCafeAPIException e ) {
+            return ResponseEntity.status( e.getStatus() ).body( "Error updating order status: " + e.getMessage() );
+        }
         catch ( final Exception e ) {
             return ResponseEntity.status( HttpStatus.BAD_REQUEST )
                     .body( "Error updating order status: " + e.getMessage() );
         }
     }
 
+    /**
+     * Fulfills a batch of orders at once. Requires the ADMIN or STAFF role.
+     *
+     * @param batchDto
+     *            ids of the orders to fulfill, and whether it is all or
+     *            nothing
+     * @return the outcome for each order, with BAD_REQUEST status if it was
+     *         all or nothing and nothing was fulfilled
+     */
+    @PreAuthorize ( "hasAnyRole('ADMIN', 'STAFF')" )
+    @PostMapping ( "/status/batch" )
+    public ResponseEntity<List<FulfillmentResultDto>> fulfillOrders ( @RequestBody final BatchFulfillmentDto batchDto ) {
+        final List<FulfillmentResultDto> results = orderService.fulfillOrders( batchDto.getOrderIds(),
+                batchDto.isAllOrNothing() );
+        final boolean rejected = batchDto.isAllOrNothing()
+                && results.stream().noneMatch( FulfillmentResultDto::isFulfilled );
+        return ResponseEntity.status( rejected ? HttpStatus.BAD_REQUEST : HttpStatus.OK ).body( results );
+    }
+
     /**
      * Deletes the order with the given id
      *
@@ -0,0 +1,29 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A batch of orders to fulfill together.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchFulfillmentDto {
+
+    /** Ids of the orders to fulfill, in the order they should be made */
+    private List<Long> orderIds = new ArrayList<>();
+
+    /**
+     * If true, either every order is fulfilled or none is. If false, each
+     * order that can be fulfilled is, in the order given
+     */
+    private boolean    allOrNothing;
+
+}
@@ -0,0 +1,31 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Quantity of one ingredient used in one hour or day.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionDto {
+
+    /** Start of the hour or day */
+    private LocalDateTime bucketStart;
+
+    /** Id of the ingredient */
+    private Long          ingredientId;
+
+    /** Name of the ingredient, null if it has since been deleted */
+    private String        ingredientName;
+
+    /** Quantity used */
+    private long          amount;
+
+}
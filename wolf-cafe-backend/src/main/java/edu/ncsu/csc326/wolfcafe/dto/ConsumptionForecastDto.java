@@ -0,0 +1,37 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * How fast an ingredient is being used and when it is projected to run out.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumptionForecastDto {
+
+    /** Id of the ingredient */
+    private Long      ingredientId;
+
+    /** Name of the ingredient */
+    private String    ingredientName;
+
+    /** Quantity in stock */
+    private int       quantity;
+
+    /** Smoothed quantity used per day */
+    private double    dailyRate;
+
+    /** Days until the stock runs out at that rate, null if it isn't used */
+    private Double    daysLeft;
+
+    /** Day the stock is projected to run out, null if it isn't used */
+    private LocalDate depletesOn;
+
+}
@@ -0,0 +1,26 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The outcome of fulfilling one order in a batch.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FulfillmentResultDto {
+
+    /** Id of the order */
+    private Long    orderId;
+
+    /** Whether the order was fulfilled */
+    private boolean fulfilled;
+
+    /** Why the order was not fulfilled, null if it was */
+    private String  message;
+
+}
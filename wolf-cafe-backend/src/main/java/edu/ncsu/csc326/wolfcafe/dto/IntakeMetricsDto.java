@@ -0,0 +1,47 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * How the asynchronous order intake queue is keeping up.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntakeMetricsDto {
+
+    /** Orders waiting on the queue */
+    private int    depth;
+
+    /** Most orders the queue holds */
+    private int    capacity;
+
+    /** How long the oldest waiting order has waited, in milliseconds */
+    private long   oldestWaitMillis;
+
+    /** Orders accepted onto the queue */
+    private long   accepted;
+
+    /** Orders turned away because the queue was full */
+    private long   rejected;
+
+    /** Orders saved */
+    private long   created;
+
+    /** Orders that could not be saved */
+    private long   failed;
+
+    /** Batches written */
+    private long   batches;
+
+    /** Average time from acceptance to being saved, in milliseconds */
+    private double averageLagMillis;
+
+    /** Longest time from acceptance to being saved, in milliseconds */
+    private long   maxLagMillis;
+
+}
@@ -0,0 +1,38 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Where an order sent through asynchronous intake has got to.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntakeTicketDto {
+
+    /** Waiting on the queue to be saved */
+    public static final String QUEUED  = "queued";
+
+    /** Saved as a pending order */
+    public static final String CREATED = "created";
+
+    /** Could not be saved */
+    public static final String FAILED  = "failed";
+
+    /** Id of the ticket, given to the client when the order is accepted */
+    private String             ticketId;
+
+    /** Queued, created or failed */
+    private String             status;
+
+    /** Id the order is saved under, given when the order is accepted */
+    private Long               orderId;
+
+    /** Why the order could not be saved, null unless it failed */
+    private String             message;
+
+}
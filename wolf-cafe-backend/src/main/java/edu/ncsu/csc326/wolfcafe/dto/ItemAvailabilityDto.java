@@ -0,0 +1,26 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * How many of a menu item can be made from the stock on hand.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityDto {
+
+    /** Id of the item */
+    private Long    itemId;
+
+    /**
+     * Number of the item that can be made, or null if the item uses no
+     * ingredients and so is never limited by stock
+     */
+    private Integer makeable;
+
+}
@@ -32,6 +32,23 @@ public class ItemDto {
     /** List of ingredients for this item */
     private List<ItemIngredientDto> ingredients = new ArrayList<>();
 
+    /**
+     * Constructs an item with no ingredients yet. Used by projection queries,
+     * which read the recipe separately.
+     *
+     * @param id
+     *            id of the item
+     * @param name
+     *            name of the item
+     * @param description
+     *            description of the item
+     * @param price
+     *            price in cents
+     */
+    public ItemDto ( final Long id, final String name, final String description, final Integer price ) {
+        this( id, name, description, price, new ArrayList<>() );
+    }
+
     /**
      * Replace the ingredient list for this recipe.
      *
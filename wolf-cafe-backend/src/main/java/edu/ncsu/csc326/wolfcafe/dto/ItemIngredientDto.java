@@ -33,6 +33,31 @@ public class ItemIngredientDto {
 
     /** The ID of the recipe this ItemIngredient belongs to */
     private Long          itemId;
+
+    /**
+     * Constructs a recipe line from flat columns. Used by projection queries,
+     * which can't build the nested ingredient themselves.
+     *
+     * @param id
+     *            id of the recipe line
+     * @param itemId
+     *            id of the item
+     * @param ingredientId
+     *            id of the ingredient
+     * @param ingredientName
+     *            name of the ingredient
+     * @param stock
+     *            quantity of the ingredient in inventory
+     * @param quantity
+     *            quantity needed in the item
+     * @param unit
+     *            unit of the quantity
+     */
+    public ItemIngredientDto ( final Long id, final Long itemId, final Long ingredientId, final String ingredientName,
+            final Integer stock, final Integer quantity, final String unit ) {
+        this( id, new IngredientDto( ingredientName, stock ), quantity, unit != null ? unit : "", itemId );
+        this.ingredient.setId( ingredientId );
+    }
     
 
     // --- Getters and Setters ---
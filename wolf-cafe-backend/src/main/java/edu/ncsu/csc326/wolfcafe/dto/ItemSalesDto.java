@@ -0,0 +1,31 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Units of one item sold in the fulfilled orders placed in one hour or day.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSalesDto {
+
+    /** Start of the hour or day */
+    private LocalDateTime bucketStart;
+
+    /** Id of the item */
+    private Long          itemId;
+
+    /** Name of the item, null if it has since been deleted */
+    private String        itemName;
+
+    /** Units sold */
+    private long          units;
+
+}
@@ -41,4 +41,30 @@ public class OrderDto {
     /** List of ingredients for this item */
     private List<OrderItemDto> items = new ArrayList<>();
 
+    /**
+     * Constructs an order with no lines yet. Used by projection queries,
+     * which read the lines separately.
+     *
+     * @param id
+     *            id of the order
+     * @param created
+     *            when the order was created
+     * @param status
+     *            status of the order
+     * @param subtotal
+     *            subtotal in cents
+     * @param tax
+     *            tax in cents
+     * @param tip
+     *            tip in cents
+     * @param customerId
+     *            id of the customer, or null for a guest
+     * @param itemStr
+     *            string representation used for history
+     */
+    public OrderDto ( final Long id, final LocalDateTime created, final String status, final Integer subtotal,
+            final Integer tax, final Integer tip, final Long customerId, final String itemStr ) {
+        this( id, created, status, subtotal, tax, tip, customerId, itemStr, new ArrayList<>() );
+    }
+
 }
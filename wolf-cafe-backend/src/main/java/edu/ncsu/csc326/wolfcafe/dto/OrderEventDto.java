@@ -0,0 +1,32 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A committed change to an order, pushed to the live order board.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderEventDto {
+
+    /** An order was placed */
+    public static final String CREATED = "created";
+
+    /** An order moved to a new status */
+    public static final String STATUS  = "status";
+
+    /** An order was deleted */
+    public static final String DELETED = "deleted";
+
+    /** What happened to the order */
+    private String             type;
+
+    /** The order as it was committed */
+    private OrderDto           order;
+
+}
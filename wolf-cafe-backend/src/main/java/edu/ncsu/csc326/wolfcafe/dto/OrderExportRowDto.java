@@ -0,0 +1,54 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One line of one order, flattened with the order's own fields, as read for
+ * the order history export. An order with no lines has one row with no line
+ * fields.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRowDto {
+
+    /** Id of the order */
+    private Long          orderId;
+
+    /** When the order was placed */
+    private LocalDateTime created;
+
+    /** Status of the order */
+    private String        status;
+
+    /** Subtotal of the order */
+    private Integer       subtotal;
+
+    /** Tax on the order */
+    private Integer       tax;
+
+    /** Tip on the order */
+    private Integer       tip;
+
+    /** Id of the customer, null if anonymous */
+    private Long          customerId;
+
+    /** Item summary of the order */
+    private String        itemStr;
+
+    /** Id of the order line, null if the order has no lines */
+    private Long          lineId;
+
+    /** Name of the item on the line */
+    private String        itemName;
+
+    /** Quantity of the item on the line */
+    private Integer       quantity;
+
+}
@@ -0,0 +1,25 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One page of orders, newest first, with the cursor to fetch the next page.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPageDto {
+
+    /** Orders on this page */
+    private List<OrderDto> orders;
+
+    /** Cursor for the next page, null if this is the last page */
+    private String         nextCursor;
+
+}
@@ -0,0 +1,34 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A pending order's place in the kitchen queue.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuedOrderDto {
+
+    /** Id of the order */
+    private Long          orderId;
+
+    /** When the order was created */
+    private LocalDateTime created;
+
+    /** Whether the order's ingredients are reserved */
+    private boolean       reserved;
+
+    /**
+     * Whether the order can be made from the current stock, after the orders
+     * ahead of it in the queue
+     */
+    private boolean       feasible;
+
+}
@@ -0,0 +1,23 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A role held by a user, for data transfer.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoleDto {
+
+    /** Role id */
+    private Long   id;
+
+    /** Role name, such as ROLE_STAFF */
+    private String name;
+
+}
@@ -0,0 +1,34 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Sales totals of the fulfilled orders placed in one hour or day.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupDto {
+
+    /** Start of the hour or day */
+    private LocalDateTime bucketStart;
+
+    /** Number of orders */
+    private long          orderCount;
+
+    /** Sum of the orders' subtotals */
+    private long          subtotal;
+
+    /** Sum of the orders' tax */
+    private long          tax;
+
+    /** Sum of the orders' tips */
+    private long          tip;
+
+}
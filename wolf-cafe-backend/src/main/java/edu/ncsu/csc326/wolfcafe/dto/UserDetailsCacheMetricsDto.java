@@ -0,0 +1,35 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * How well the cache of users loaded for authentication is doing.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDetailsCacheMetricsDto {
+
+    /** Users cached */
+    private int  size;
+
+    /** Most users the cache holds */
+    private int  capacity;
+
+    /** Lookups answered from the cache */
+    private long hits;
+
+    /** Lookups that had to load the user */
+    private long misses;
+
+    /** Users dropped because they expired or the cache was full */
+    private long evictions;
+
+    /** Users dropped because their account changed */
+    private long invalidations;
+
+}
@@ -0,0 +1,35 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A user account as listed to admins. Leaves out the password hash.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDto {
+
+    /** User's id */
+    private Long          id;
+
+    /** User's name */
+    private String        name;
+
+    /** User's username */
+    private String        username;
+
+    /** User's email */
+    private String        email;
+
+    /** User's roles */
+    private List<RoleDto> roles = new ArrayList<>();
+
+}
@@ -0,0 +1,37 @@
+package edu.ncsu.csc326.wolfcafe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One role of one user, as a flat row read by a projection query. A user with
+ * several roles has a row for each, and a user with none has one row with no
+ * role.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRoleRowDto {
+
+    /** User's id */
+    private Long   userId;
+
+    /** User's name */
+    private String name;
+
+    /** User's username */
+    private String username;
+
+    /** User's email */
+    private String email;
+
+    /** Role id, null if the user has no roles */
+    private Long   roleId;
+
+    /** Role name, null if the user has no roles */
+    private String roleName;
+
+}
@@ -0,0 +1,77 @@
+package edu.ncsu.csc326.wolfcafe.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Quantity of one ingredient used in one hour or one day. Keyed by the
+ * granularity, the start of the bucket and the ingredient, so a flush of the
+ * consumption log can add to its buckets with one upsert each.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table ( name = "consumption_bucket" )
+@IdClass ( ConsumptionBucket.Key.class )
+public class ConsumptionBucket {
+
+    /** Granularity of hourly buckets */
+    public static final String HOUR = "hour";
+
+    /** Granularity of daily buckets */
+    public static final String DAY  = "day";
+
+    /** Whether this is an hourly or daily bucket */
+    @Id
+    private String             granularity;
+
+    /** Start of the hour or day */
+    @Id
+    private LocalDateTime      bucketStart;
+
+    /** Id of the ingredient used */
+    @Id
+    private Long               ingredientId;
+
+    /** Quantity used */
+    @Column ( nullable = false )
+    private Long               amount;
+
+    /**
+     * Primary key of a bucket.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        /** Serial version */
+        private static final long serialVersionUID = 1L;
+
+        /** Whether this is an hourly or daily bucket */
+        private String            granularity;
+
+        /** Start of the hour or day */
+        private LocalDateTime     bucketStart;
+
+        /** Id of the ingredient used */
+        private Long              ingredientId;
+
+    }
+
+}
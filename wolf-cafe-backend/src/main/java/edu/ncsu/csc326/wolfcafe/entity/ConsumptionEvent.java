@@ -0,0 +1,48 @@
+package edu.ncsu.csc326.wolfcafe.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One debit of an ingredient by a fulfillment. The log is only appended to,
+ * and entries are dropped once they are older than the retention period.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table ( name = "consumption_event", indexes = @Index ( name = "idx_consumption_event_at", columnList = "consumed_at" ) )
+public class ConsumptionEvent {
+
+    /** Id of the entry */
+    @Id
+    @GeneratedValue ( strategy = GenerationType.SEQUENCE, generator = "consumption_event_seq" )
+    @SequenceGenerator ( name = "consumption_event_seq", sequenceName = "consumption_event_seq", allocationSize = 50 )
+    private Long          id;
+
+    /** Id of the ingredient used */
+    @Column ( nullable = false )
+    private Long          ingredientId;
+
+    /** When the fulfillment committed */
+    @Column ( name = "consumed_at", nullable = false )
+    private LocalDateTime consumedAt;
+
+    /** Quantity of the ingredient used */
+    @Column ( nullable = false )
+    private Integer       amount;
+
+}
@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 import jakarta.persistence.CascadeType;
@@ -14,6 +17,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 
 /**
  * Create Ingredient class to track name of ingredient and quantity.
@@ -27,11 +32,13 @@ import jakarta.persistence.OneToMany;
  * @author- ChatGPT
  */
 @Entity
+@BatchSize ( size = 50 )
 public class Ingredient {
 
     /** id for ingredient entry */
     @Id
-    @GeneratedValue ( strategy = GenerationType.IDENTITY )
+    @GeneratedValue ( strategy = GenerationType.SEQUENCE, generator = "ingredient_seq" )
+    @SequenceGenerator ( name = "ingredient_seq", sequenceName = "ingredient_seq", allocationSize = 50 )
     private Long                       id;
 
     /** Name of the ingredient entry */
@@ -44,6 +51,14 @@ public class Ingredient {
                                                                            // for
                                                                            // null-safety
 
+    /**
+     * Version used for optimistic locking, so that two concurrent updates to
+     * the quantity can't overwrite each other
+     */
+    @Version
+    @ColumnDefault ( "0" )
+    private Long                       version;
+
     /** The inventory this ingredient belongs to */
     @ManyToOne ( optional = false )
     @JoinColumn ( name = "inventory_id", nullable = false )
@@ -146,6 +161,10 @@ public class Ingredient {
         return getQuantity();
     }
 
+    public Long getVersion () {
+        return version;
+    }
+
     public Inventory getInventory () {
         return inventory;
     }
@@ -4,6 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
@@ -13,6 +15,8 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 
 /**
  * Inventory for the coffee maker. Inventory is a Data Access Object (DAO) tied
@@ -30,7 +34,8 @@ public class Inventory {
 
     /** id for inventory entry */
     @Id
-    @GeneratedValue ( strategy = GenerationType.IDENTITY )
+    @GeneratedValue ( strategy = GenerationType.SEQUENCE, generator = "inventory_seq" )
+    @SequenceGenerator ( name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50 )
     private Long                   id;
 
     /** List of ingredients in inventory */
@@ -43,6 +48,14 @@ public class Inventory {
     @Column ( nullable = false )
     private Double                 taxRate     = 2.0;
 
+    /**
+     * Version used for optimistic locking, so that two concurrent updates to
+     * the inventory can't overwrite each other
+     */
+    @Version
+    @ColumnDefault ( "0" )
+    private Long                   version;
+
     /**
      * Empty constructor for Hibernate. Intentionally empty so that Hibernate
      * can instantiate an Inventory object.
@@ -154,6 +167,15 @@ public class Inventory {
         return this.taxRate;
     }
 
+    /**
+     * Returns the version of the inventory, used for optimistic locking.
+     *
+     * @return the version
+     */
+    public Long getVersion () {
+        return version;
+    }
+
     /**
      * Override equals for entity identity.
      *
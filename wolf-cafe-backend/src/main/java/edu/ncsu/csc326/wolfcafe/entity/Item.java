@@ -3,6 +3,8 @@ package edu.ncsu.csc326.wolfcafe.entity;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -10,6 +12,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -25,11 +28,13 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table ( name = "items" )
+@BatchSize ( size = 50 )
 public class Item {
 
     /** Item id */
     @Id
-    @GeneratedValue ( strategy = GenerationType.IDENTITY )
+    @GeneratedValue ( strategy = GenerationType.SEQUENCE, generator = "items_seq" )
+    @SequenceGenerator ( name = "items_seq", sequenceName = "items_seq", allocationSize = 50 )
     private Long                 id;
 
     /** Item name */
@@ -43,8 +48,12 @@ public class Item {
     @Column ( nullable = false )
     private Integer              price;
 
-    /** List of ingredients for this item */
+    /**
+     * List of ingredients for this item. Loaded for up to 50 items at once
+     * when read lazily
+     */
     @OneToMany ( mappedBy = "item", cascade = CascadeType.ALL, orphanRemoval = true )
+    @BatchSize ( size = 50 )
     private List<ItemIngredient> ingredients = new ArrayList<>();
 
     /**
@@ -10,6 +10,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -30,7 +31,8 @@ import lombok.Setter;
 public class ItemIngredient {
 
     @Id
-    @GeneratedValue ( strategy = GenerationType.IDENTITY )
+    @GeneratedValue ( strategy = GenerationType.SEQUENCE, generator = "item_ingredient_seq" )
+    @SequenceGenerator ( name = "item_ingredient_seq", sequenceName = "item_ingredient_seq", allocationSize = 50 )
     private Long       id;
 
     /** The ingredient linked to this RecipeIngredient */
@@ -0,0 +1,70 @@
+package edu.ncsu.csc326.wolfcafe.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Units of one item sold in the fulfilled orders placed in one hour or one
+ * day. Uses the granularities of {@link SalesRollup}.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table ( name = "item_sales_rollup" )
+@IdClass ( ItemSalesRollup.Key.class )
+public class ItemSalesRollup {
+
+    /** Whether this is an hourly or daily bucket */
+    @Id
+    private String        granularity;
+
+    /** Start of the hour or day */
+    @Id
+    private LocalDateTime bucketStart;
+
+    /** Id of the item sold */
+    @Id
+    private Long          itemId;
+
+    /** Units of the item sold */
+    @Column ( nullable = false )
+    private Long          units;
+
+    /**
+     * Primary key of an item rollup.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        /** Serial version */
+        private static final long serialVersionUID = 1L;
+
+        /** Whether this is an hourly or daily bucket */
+        private String            granularity;
+
+        /** Start of the hour or day */
+        private LocalDateTime     bucketStart;
+
+        /** Id of the item sold */
+        private Long              itemId;
+
+    }
+
+}
@@ -4,17 +4,24 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -31,7 +38,8 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table ( name = "orders" )
+@Table ( name = "orders", indexes = { @Index ( name = "idx_orders_created", columnList = "created, id" ),
+        @Index ( name = "idx_orders_customer_created", columnList = "customer_id, created, id" ) } )
 public class Order {
 
     public static String    FULFILLED = "fulfilled";
@@ -39,8 +47,16 @@ public class Order {
     public static String    PENDING   = "pending";
     public static String    PICKED_UP = "picked up";
 
+    /**
+     * Taken from the same pooled sequence as before, but an id reserved for
+     * an order ahead of its insert is kept
+     */
     @Id
-    @GeneratedValue ( strategy = GenerationType.IDENTITY )
+    @GeneratedValue ( generator = "orders_seq" )
+    @GenericGenerator ( name = "orders_seq", type = ReservableSequenceGenerator.class, parameters = {
+            @Parameter ( name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "orders_seq" ),
+            @Parameter ( name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50" ),
+            @Parameter ( name = SequenceStyleGenerator.OPT_PARAM, value = "pooled" ) } )
     private Long            id;
 
     /** when the order was created */
@@ -69,15 +85,30 @@ public class Order {
     @Column
     private String          itemStr;
 
-    /** The user linked to this order, nullable for anonymous users */
-    @ManyToOne ( fetch = FetchType.EAGER, optional = true )
+    /**
+     * The user linked to this order, nullable for anonymous users. Lazy, since
+     * orders are only ever mapped with the customer's id
+     */
+    @ManyToOne ( fetch = FetchType.LAZY, optional = true )
     @JoinColumn ( name = "customer_id", nullable = true )
     private User            customer;
 
-    /** List of ingredients for this item */
+    /**
+     * List of ingredients for this item. Loaded for up to 50 orders at once
+     * when read lazily
+     */
     @OneToMany ( mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true )
+    @BatchSize ( size = 50 )
     private List<OrderItem> items     = new ArrayList<>();
 
+    /**
+     * Version used for optimistic locking, so two staff can't both move the
+     * same order out of pending
+     */
+    @Version
+    @ColumnDefault ( "0" )
+    private Long            version;
+
     /**
      * Sets the old list of items to the new list of items
      *
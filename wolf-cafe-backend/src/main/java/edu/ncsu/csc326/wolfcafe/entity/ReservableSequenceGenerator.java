@@ -0,0 +1,27 @@
+package edu.ncsu.csc326.wolfcafe.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Pooled sequence generator that keeps an id already set on a new entity. An
+ * id can then be taken from the sequence ahead of the insert, handed to the
+ * client, and the entity saved under it later. Ids are only set ahead by the
+ * service that reserved them, since a made up id could collide with one the
+ * sequence hands out.
+ */
+public class ReservableSequenceGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public boolean allowAssignedIdentifiers () {
+        return true;
+    }
+
+    @Override
+    public Object generate ( final SharedSessionContractImplementor session, final Object owner,
+            final Object currentValue, final EventType eventType ) {
+        return currentValue != null ? currentValue : generate( session, owner );
+    }
+
+}
@@ -0,0 +1,36 @@
+package edu.ncsu.csc326.wolfcafe.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A token revoked before it expired, such as by logging out. Kept until the
+ * token would have expired anyway.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table ( name = "revoked_token", indexes = @Index ( name = "idx_revoked_token_expires_at", columnList = "expires_at" ) )
+public class RevokedToken {
+
+    /** Id of the token, its jti claim */
+    @Id
+    @Column ( length = 64 )
+    private String        jti;
+
+    /** When the token expires */
+    @Column ( name = "expires_at", nullable = false )
+    private LocalDateTime expiresAt;
+
+}
@@ -0,0 +1,37 @@
+package edu.ncsu.csc326.wolfcafe.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A user whose tokens were all revoked, such as when the user was deleted or
+ * changed. Every token issued to them up to the time is revoked. Kept until
+ * the last of those tokens would have expired anyway.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table ( name = "revoked_user", indexes = @Index ( name = "idx_revoked_user_revoked_at", columnList = "revoked_at" ) )
+public class RevokedUser {
+
+    /** Id of the user */
+    @Id
+    @Column ( name = "user_id" )
+    private Long          userId;
+
+    /** When the user's tokens were last revoked */
+    @Column ( name = "revoked_at", nullable = false )
+    private LocalDateTime revokedAt;
+
+}
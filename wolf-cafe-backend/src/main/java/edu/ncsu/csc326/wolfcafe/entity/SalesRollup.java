@@ -0,0 +1,82 @@
+package edu.ncsu.csc326.wolfcafe.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Sales totals of the fulfilled orders placed in one hour or one day. Keyed
+ * by the granularity and the start of the bucket, so an order's totals can be
+ * added to its bucket with one upsert.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table ( name = "sales_rollup" )
+@IdClass ( SalesRollup.Key.class )
+public class SalesRollup {
+
+    /** Granularity of hourly buckets */
+    public static final String HOUR = "hour";
+
+    /** Granularity of daily buckets */
+    public static final String DAY  = "day";
+
+    /** Whether this is an hourly or daily bucket */
+    @Id
+    private String             granularity;
+
+    /** Start of the hour or day */
+    @Id
+    private LocalDateTime      bucketStart;
+
+    /** Number of orders */
+    @Column ( nullable = false )
+    private Long               orderCount;
+
+    /** Sum of the orders' subtotals */
+    @Column ( nullable = false )
+    private Long               subtotal;
+
+    /** Sum of the orders' tax */
+    @Column ( nullable = false )
+    private Long               tax;
+
+    /** Sum of the orders' tips */
+    @Column ( nullable = false )
+    private Long               tip;
+
+    /**
+     * Primary key of a rollup.
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        /** Serial version */
+        private static final long serialVersionUID = 1L;
+
+        /** Whether this is an hourly or daily bucket */
+        private String            granularity;
+
+        /** Start of the hour or day */
+        private LocalDateTime     bucketStart;
+
+    }
+
+}
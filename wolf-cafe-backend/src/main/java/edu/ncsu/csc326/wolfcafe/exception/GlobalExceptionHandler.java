@@ -1,5 +1,7 @@
 package edu.ncsu.csc326.wolfcafe.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -28,6 +30,29 @@ public class GlobalExceptionHandler {
                 webRequest.getDescription(false)
         );
 
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        final HttpStatus status = exception.getStatus() != null ? exception.getStatus() : HttpStatus.BAD_REQUEST;
+        if (status == HttpStatus.TOO_MANY_REQUESTS) {
+            // Turned away for load, so the front end can retry shortly
+            return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(errorDetails);
+        }
+        return new ResponseEntity<>(errorDetails, status);
+    }
+
+	/**
+	 * Handles a save that lost a race with a concurrent update of the same rows
+	 * @param exception the optimistic locking failure
+	 * @param webRequest the request that caused the exception
+	 * @return a CONFLICT ResponseEntity asking the front end to try again
+	 */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> handleOptimisticLockingFailure(OptimisticLockingFailureException exception,
+            WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(
+                LocalDateTime.now(),
+                "The data was changed by someone else at the same time, please try again",
+                webRequest.getDescription(false)
+        );
+
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
     }
 }
@@ -1,9 +1,10 @@
 package edu.ncsu.csc326.wolfcafe.mapper;
 
+import java.util.Map;
+
 import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
 import edu.ncsu.csc326.wolfcafe.entity.Item;
 import edu.ncsu.csc326.wolfcafe.entity.OrderItem;
-import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
 
 public class OrderItemMapper {
     /*
@@ -26,15 +27,17 @@ public class OrderItemMapper {
      *
      * @param dto
      *            OrderItemDto to convert
+     * @param itemsByName
+     *            the order's items, already looked up by name
      * @return OrderItem entity, or null if dto is null
      */
-    public static OrderItem mapToEntity ( final OrderItemDto dto, final ItemRepository itemRepository ) {
+    public static OrderItem mapToEntity ( final OrderItemDto dto, final Map<String, Item> itemsByName ) {
         if ( dto == null ) {
             return null;
         }
         final OrderItem orderItem = new OrderItem();
 
-        final Item item = itemRepository.findByName( dto.getItemName() ).get();
+        final Item item = itemsByName.get( dto.getItemName() );
         orderItem.setId( dto.getId() );
         orderItem.setItem( item );
         orderItem.setQuantity( dto.getQuantity() );
@@ -2,14 +2,15 @@ package edu.ncsu.csc326.wolfcafe.mapper;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
 import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
 import edu.ncsu.csc326.wolfcafe.entity.Order;
 import edu.ncsu.csc326.wolfcafe.entity.OrderItem;
-import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
-import edu.ncsu.csc326.wolfcafe.repository.UserRepository;
+import edu.ncsu.csc326.wolfcafe.entity.User;
 
 public class OrderMapper {
     /**
@@ -34,14 +35,19 @@ public class OrderMapper {
     }
 
     /**
-     * Converts a OrderDto object to a Order entity.
+     * Converts a OrderDto object to a Order entity. The items and customer are
+     * looked up by the caller, so mapping doesn't query the database.
      *
      * @param orderDto
      *            OrderDto to convert
+     * @param itemsByName
+     *            the order's items, keyed by name
+     * @param customer
+     *            the customer placing the order, or null if anonymous
      * @return Order entity
      */
-    public static Order mapToEntity ( final OrderDto orderDto, final ItemRepository itemRepository,
-            final UserRepository userRepository ) {
+    public static Order mapToEntity ( final OrderDto orderDto, final Map<String, Item> itemsByName,
+            final User customer ) {
         if ( orderDto == null ) {
             return null;
         }
@@ -55,11 +61,10 @@ public class OrderMapper {
         order.setTax( orderDto.getTax() );
         order.setTip( orderDto.getTip() );
         order.setItemStr( orderDto.getItemStr() );
-        order.setCustomer(
-                orderDto.getCustomerId() != null ? userRepository.findById( orderDto.getCustomerId() ).get() : null );
+        order.setCustomer( customer );
 
         final List<OrderItem> items = orderDto.getItems() != null ? orderDto.getItems().stream()
-                .map( dto -> OrderItemMapper.mapToEntity( dto, itemRepository ) ).collect( Collectors.toList() )
+                .map( dto -> OrderItemMapper.mapToEntity( dto, itemsByName ) ).collect( Collectors.toList() )
                 : Collections.emptyList();
 
         order.setItems( items );
@@ -0,0 +1,62 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import edu.ncsu.csc326.wolfcafe.entity.ConsumptionBucket;
+
+/**
+ * Repository interface for the ingredient consumption buckets.
+ */
+public interface ConsumptionBucketRepository
+        extends JpaRepository<ConsumptionBucket, ConsumptionBucket.Key>, ConsumptionBucketRepositoryCustom {
+
+    /**
+     * Returns the buckets of one granularity that start in a time range,
+     * oldest first.
+     *
+     * @param granularity
+     *            hour or day
+     * @param from
+     *            start of the range, inclusive
+     * @param to
+     *            end of the range, exclusive
+     * @return the buckets
+     */
+    @Query ( "SELECT b FROM ConsumptionBucket b WHERE b.granularity = :granularity AND b.bucketStart >= :from "
+            + "AND b.bucketStart < :to ORDER BY b.bucketStart, b.ingredientId" )
+    List<ConsumptionBucket> findRange ( @Param ( "granularity" ) String granularity,
+            @Param ( "from" ) LocalDateTime from, @Param ( "to" ) LocalDateTime to );
+
+    /**
+     * Returns the first bucket of one granularity kept for each ingredient,
+     * the one that starts earliest.
+     *
+     * @param granularity
+     *            hour or day
+     * @return the first bucket of each ingredient that has any
+     */
+    @Query ( "SELECT b FROM ConsumptionBucket b WHERE b.granularity = :granularity AND b.bucketStart = "
+            + "(SELECT MIN(f.bucketStart) FROM ConsumptionBucket f WHERE f.granularity = :granularity "
+            + "AND f.ingredientId = b.ingredientId)" )
+    List<ConsumptionBucket> findFirst ( @Param ( "granularity" ) String granularity );
+
+    /**
+     * Drops the buckets of one granularity that start before the given time.
+     *
+     * @param granularity
+     *            hour or day
+     * @param before
+     *            buckets starting before this are dropped
+     * @return number of buckets dropped
+     */
+    @Modifying
+    @Query ( "DELETE FROM ConsumptionBucket b WHERE b.granularity = :granularity AND b.bucketStart < :before" )
+    int deleteBefore ( @Param ( "granularity" ) String granularity, @Param ( "before" ) LocalDateTime before );
+
+}
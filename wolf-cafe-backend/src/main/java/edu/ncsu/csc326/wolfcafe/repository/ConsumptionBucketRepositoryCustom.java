@@ -0,0 +1,24 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.util.Collection;
+
+import edu.ncsu.csc326.wolfcafe.entity.ConsumptionBucket;
+
+/**
+ * Consumption bucket writes that Spring Data can't generate from a method
+ * name. Implemented by ConsumptionBucketRepositoryCustomImpl and exposed
+ * through ConsumptionBucketRepository.
+ */
+public interface ConsumptionBucketRepositoryCustom {
+
+    /**
+     * Adds amounts to buckets with one upsert per bucket, sent to the
+     * database as a JDBC batch. Each upsert adds to the bucket in the
+     * database, so flushes that overlap never lose an amount.
+     *
+     * @param buckets
+     *            amounts to add to each bucket
+     */
+    void addAll ( Collection<ConsumptionBucket> buckets );
+
+}
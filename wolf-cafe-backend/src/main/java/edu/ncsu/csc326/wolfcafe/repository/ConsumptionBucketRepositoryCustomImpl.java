@@ -0,0 +1,55 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ncsu.csc326.wolfcafe.entity.ConsumptionBucket;
+
+/**
+ * Implements the consumption bucket writes with plain JDBC, sharing the JPA
+ * transaction's connection.
+ */
+public class ConsumptionBucketRepositoryCustomImpl implements ConsumptionBucketRepositoryCustom {
+
+    /** Adds to a bucket, creating it if it is new */
+    private static final String                        ADD_SQL = "INSERT INTO consumption_bucket "
+            + "(granularity, bucket_start, ingredient_id, amount) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE amount = amount + ?";
+
+    /** Order of the upserts, so concurrent batches lock rows in the same order */
+    private static final Comparator<ConsumptionBucket> ORDER   = Comparator
+            .comparing( ConsumptionBucket::getGranularity ).thenComparing( ConsumptionBucket::getBucketStart )
+            .thenComparing( ConsumptionBucket::getIngredientId );
+
+    /** Runs the batched upserts */
+    private final JdbcTemplate                         jdbcTemplate;
+
+    /**
+     * Constructs the repository fragment.
+     *
+     * @param jdbcTemplate
+     *            template to run the upserts with
+     */
+    public ConsumptionBucketRepositoryCustomImpl ( final JdbcTemplate jdbcTemplate ) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void addAll ( final Collection<ConsumptionBucket> buckets ) {
+        if ( buckets.isEmpty() ) {
+            return;
+        }
+        final List<Object[]> rows = buckets.stream().sorted( ORDER )
+                .map( b -> new Object[] { b.getGranularity(), Timestamp.valueOf( b.getBucketStart() ),
+                        b.getIngredientId(), b.getAmount(), b.getAmount() } )
+                .toList();
+        jdbcTemplate.batchUpdate( ADD_SQL, rows );
+    }
+
+}
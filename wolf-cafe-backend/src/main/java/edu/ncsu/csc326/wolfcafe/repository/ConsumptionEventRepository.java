@@ -0,0 +1,28 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import edu.ncsu.csc326.wolfcafe.entity.ConsumptionEvent;
+
+/**
+ * Repository interface for the consumption log.
+ */
+public interface ConsumptionEventRepository extends JpaRepository<ConsumptionEvent, Long> {
+
+    /**
+     * Drops the log entries from before the given time.
+     *
+     * @param before
+     *            entries older than this are dropped
+     * @return number of entries dropped
+     */
+    @Modifying
+    @Query ( "DELETE FROM ConsumptionEvent e WHERE e.consumedAt < :before" )
+    int deleteBefore ( @Param ( "before" ) LocalDateTime before );
+
+}
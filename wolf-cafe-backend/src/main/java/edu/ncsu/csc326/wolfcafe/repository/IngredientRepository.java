@@ -12,7 +12,7 @@ import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
  *
  * @author- Michael Lewis
  */
-public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
+public interface IngredientRepository extends JpaRepository<Ingredient, Long>, IngredientRepositoryCustom {
 
     /**
      * Finds a Recipe object with the provided name. Spring will generate code
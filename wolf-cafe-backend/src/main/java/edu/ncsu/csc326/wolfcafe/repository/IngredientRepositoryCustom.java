@@ -0,0 +1,27 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.util.Map;
+
+/**
+ * Ingredient operations that Spring Data can't generate from a method name.
+ * Implemented by IngredientRepositoryCustomImpl and exposed through
+ * IngredientRepository.
+ */
+public interface IngredientRepositoryCustom {
+
+    /**
+     * Takes the given quantities out of stock with one conditional update per
+     * ingredient, sent to the database as a single JDBC batch. An update only
+     * applies if the ingredient has enough left, so stock can never go
+     * negative and no concurrent update is lost.
+     *
+     * If this returns false some of the ingredients may already have been
+     * decremented, so the caller must roll back the transaction.
+     *
+     * @param amounts
+     *            quantity to take, keyed by ingredient id
+     * @return true if every ingredient had enough stock and was decremented
+     */
+    boolean decrementAll ( Map<Long, Integer> amounts );
+
+}
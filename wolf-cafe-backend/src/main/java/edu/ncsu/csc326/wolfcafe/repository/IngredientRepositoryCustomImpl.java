@@ -0,0 +1,73 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.hibernate.Hibernate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Implements the custom ingredient operations with plain JDBC, sharing the
+ * JPA transaction's connection.
+ */
+public class IngredientRepositoryCustomImpl implements IngredientRepositoryCustom {
+
+    /** Decrements one ingredient if it has enough stock, bumping its version */
+    private static final String DECREMENT_SQL = "UPDATE ingredient SET quantity = quantity - ?, version = version + 1 "
+            + "WHERE id = ? AND quantity >= ?";
+
+    /** Runs the batched updates */
+    private final JdbcTemplate  jdbcTemplate;
+
+    /** Entity manager of the current transaction */
+    @PersistenceContext
+    private EntityManager       entityManager;
+
+    /**
+     * Constructs the repository fragment.
+     *
+     * @param jdbcTemplate
+     *            template to run the updates with
+     */
+    public IngredientRepositoryCustomImpl ( final JdbcTemplate jdbcTemplate ) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public boolean decrementAll ( final Map<Long, Integer> amounts ) {
+        if ( amounts.isEmpty() ) {
+            return true;
+        }
+        // Write out pending changes first so the batch sees them
+        entityManager.flush();
+
+        // Update in id order so concurrent batches lock rows in the same order
+        final List<Object[]> rows = new ArrayList<>( amounts.size() );
+        new TreeMap<>( amounts ).forEach( ( id, amount ) -> rows.add( new Object[] { amount, id, amount } ) );
+        final int[] counts = jdbcTemplate.batchUpdate( DECREMENT_SQL, rows );
+
+        boolean all = true;
+        for ( final int count : counts ) {
+            all &= count == 1;
+        }
+
+        // Ingredients already loaded in this transaction are now stale. Ones
+        // that aren't loaded cost nothing, getReference only makes a proxy
+        for ( final Long id : amounts.keySet() ) {
+            final Ingredient ingredient = entityManager.getReference( Ingredient.class, id );
+            if ( Hibernate.isInitialized( ingredient ) ) {
+                entityManager.refresh( ingredient );
+            }
+        }
+        return all;
+    }
+
+}
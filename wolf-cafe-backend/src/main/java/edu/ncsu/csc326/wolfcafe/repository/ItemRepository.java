@@ -1,10 +1,20 @@
 package edu.ncsu.csc326.wolfcafe.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
+import edu.ncsu.csc326.wolfcafe.dto.ItemIngredientDto;
 import edu.ncsu.csc326.wolfcafe.entity.Item;
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository interface for Items.
@@ -21,4 +31,56 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
      * @return Found recipe, null if none.
      */
     Optional<Item> findByName ( String name );
+
+    /**
+     * Finds the items with any of the given names in one query.
+     *
+     * @param names
+     *            names of the items
+     * @return the items found, which may be fewer than the names given
+     */
+    List<Item> findByNameIn ( Collection<String> names );
+
+    /**
+     * Returns every item read straight into DTOs, without their recipes.
+     *
+     * @return all items, by id
+     */
+    @QueryHints ( @QueryHint ( name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL" ) )
+    @Query ( "SELECT new edu.ncsu.csc326.wolfcafe.dto.ItemDto(i.id, i.name, i.description, i.price) FROM Item i "
+            + "ORDER BY i.id" )
+    List<ItemDto> findMenu ();
+
+    /**
+     * Returns the recipe lines of every item read straight into DTOs, with
+     * their ingredients.
+     *
+     * @return every recipe line, by id
+     */
+    @QueryHints ( @QueryHint ( name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL" ) )
+    @Query ( "SELECT new edu.ncsu.csc326.wolfcafe.dto.ItemIngredientDto(ii.id, ii.item.id, g.id, g.name, "
+            + "g.quantity, ii.quantity, ii.unit) FROM ItemIngredient ii JOIN ii.ingredient g ORDER BY ii.id" )
+    List<ItemIngredientDto> findMenuIngredients ();
+
+    /**
+     * Finds an item with its recipe and the recipe's ingredients, in one
+     * query.
+     *
+     * @param id
+     *            id of the item
+     * @return the item, if found
+     */
+    @EntityGraph ( attributePaths = { "ingredients", "ingredients.ingredient" } )
+    Optional<Item> findWithIngredientsById ( Long id );
+
+    /**
+     * Finds an item by name with its recipe and the recipe's ingredients, in
+     * one query.
+     *
+     * @param name
+     *            name of the item
+     * @return the item, if found
+     */
+    @EntityGraph ( attributePaths = { "ingredients", "ingredients.ingredient" } )
+    Optional<Item> findWithIngredientsByName ( String name );
 }
@@ -0,0 +1,35 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import edu.ncsu.csc326.wolfcafe.entity.ItemSalesRollup;
+
+/**
+ * Repository interface for item sales rollups. They are written through
+ * SalesRollupRepository, together with the totals.
+ */
+public interface ItemSalesRollupRepository extends JpaRepository<ItemSalesRollup, ItemSalesRollup.Key> {
+
+    /**
+     * Returns the item buckets of one granularity that start in a time range,
+     * oldest first.
+     *
+     * @param granularity
+     *            hour or day
+     * @param from
+     *            start of the range, inclusive
+     * @param to
+     *            end of the range, exclusive
+     * @return the item buckets
+     */
+    @Query ( "SELECT r FROM ItemSalesRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from "
+            + "AND r.bucketStart < :to ORDER BY r.bucketStart, r.itemId" )
+    List<ItemSalesRollup> findRange ( @Param ( "granularity" ) String granularity,
+            @Param ( "from" ) LocalDateTime from, @Param ( "to" ) LocalDateTime to );
+
+}
@@ -1,19 +1,56 @@
 package edu.ncsu.csc326.wolfcafe.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderExportRowDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
 import edu.ncsu.csc326.wolfcafe.entity.Order;
+import jakarta.persistence.QueryHint;
 
 /**
  * Repository interface for Orders.
  */
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    /** Constructor expression that reads an order into a DTO without its lines */
+    String ORDER_DTO = "new edu.ncsu.csc326.wolfcafe.dto.OrderDto(o.id, o.created, o.status, o.subtotal, o.tax, "
+            + "o.tip, c.id, o.itemStr)";
+
+    /**
+     * Finds an order with its lines and their items, in one query.
+     *
+     * @param id
+     *            id of the order
+     * @return the order, if found
+     */
+    @EntityGraph ( attributePaths = { "items", "items.item" } )
+    Optional<Order> findWithItemsById ( Long id );
+
+    /**
+     * Returns every order with its lines and their items, in one query.
+     *
+     * @return all orders
+     */
+    @EntityGraph ( attributePaths = { "items", "items.item" } )
+    @Query ( "SELECT o FROM Order o" )
+    List<Order> findAllWithItems ();
+
     /**
-     * Filters orders between the given created date
+     * Filters orders between the given created date, with their lines and
+     * items fetched in the same query
      *
      * @param start
      *            the beginning of the range
@@ -21,14 +58,127 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      *            the end of the range
      * @return a list of all orders between the start and end
      */
+    @EntityGraph ( attributePaths = { "items", "items.item" } )
     List<Order> findByCreatedAfterAndCreatedBefore ( LocalDateTime start, LocalDateTime end );
 
     /**
-     * Filters orders by the given customer's user id
+     * Filters orders by the given customer's user id, with their lines and
+     * items fetched in the same query
      *
      * @param userId
      *            the id of the customer
      * @return a list of all orders made by the customer with the given id
      */
+    @EntityGraph ( attributePaths = { "items", "items.item" } )
     List<Order> findByCustomerId ( Long userId );
+
+    /**
+     * Filters orders by status
+     *
+     * @param status
+     *            the status to look for
+     * @return a list of all orders with the given status
+     */
+    List<Order> findByStatus ( String status );
+
+    /**
+     * Returns the orders that come after the given position, newest first,
+     * read straight into DTOs without their lines. Orders are ordered by
+     * created time and then id, so the position is the last order of the
+     * previous page.
+     *
+     * @param created
+     *            created time of the last order already seen
+     * @param id
+     *            id of the last order already seen
+     * @param page
+     *            limits how many orders are returned
+     * @return the next orders
+     */
+    @QueryHints ( @QueryHint ( name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL" ) )
+    @Query ( "SELECT " + ORDER_DTO + " FROM Order o LEFT JOIN o.customer c "
+            + "WHERE o.created < :created OR (o.created = :created AND o.id < :id) "
+            + "ORDER BY o.created DESC, o.id DESC" )
+    List<OrderDto> findPageAfter ( @Param ( "created" ) LocalDateTime created, @Param ( "id" ) Long id,
+            Pageable page );
+
+    /**
+     * Returns a customer's orders that come after the given position, newest
+     * first, read straight into DTOs without their lines.
+     *
+     * @param customerId
+     *            id of the customer
+     * @param created
+     *            created time of the last order already seen
+     * @param id
+     *            id of the last order already seen
+     * @param page
+     *            limits how many orders are returned
+     * @return the next orders
+     */
+    @QueryHints ( @QueryHint ( name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL" ) )
+    @Query ( "SELECT " + ORDER_DTO + " FROM Order o LEFT JOIN o.customer c WHERE o.customer.id = :customerId "
+            + "AND (o.created < :created OR (o.created = :created AND o.id < :id)) "
+            + "ORDER BY o.created DESC, o.id DESC" )
+    List<OrderDto> findCustomerPageAfter ( @Param ( "customerId" ) Long customerId,
+            @Param ( "created" ) LocalDateTime created, @Param ( "id" ) Long id, Pageable page );
+
+    /**
+     * Returns the orders created in a time range that come after the given
+     * position, newest first, read straight into DTOs without their lines.
+     *
+     * @param from
+     *            start of the range, inclusive
+     * @param to
+     *            end of the range, exclusive
+     * @param created
+     *            created time of the last order already seen
+     * @param id
+     *            id of the last order already seen
+     * @param page
+     *            limits how many orders are returned
+     * @return the next orders
+     */
+    @QueryHints ( @QueryHint ( name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL" ) )
+    @Query ( "SELECT " + ORDER_DTO + " FROM Order o LEFT JOIN o.customer c "
+            + "WHERE o.created >= :from AND o.created < :to "
+            + "AND (o.created < :created OR (o.created = :created AND o.id < :id)) "
+            + "ORDER BY o.created DESC, o.id DESC" )
+    List<OrderDto> findRangePageAfter ( @Param ( "from" ) LocalDateTime from, @Param ( "to" ) LocalDateTime to,
+            @Param ( "created" ) LocalDateTime created, @Param ( "id" ) Long id, Pageable page );
+
+    /**
+     * Returns the lines of the given orders, read straight into DTOs, in the
+     * order they were added.
+     *
+     * @param orderIds
+     *            ids of the orders
+     * @return the lines of every order
+     */
+    @QueryHints ( @QueryHint ( name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL" ) )
+    @Query ( "SELECT new edu.ncsu.csc326.wolfcafe.dto.OrderItemDto(oi.id, oi.order.id, i.name, oi.quantity) "
+            + "FROM OrderItem oi JOIN oi.item i WHERE oi.order.id IN :orderIds ORDER BY oi.id" )
+    List<OrderItemDto> findLines ( @Param ( "orderIds" ) Collection<Long> orderIds );
+
+    /**
+     * Streams the lines of the orders created in a time range, oldest order
+     * first, with each order's lines together. Rows are read as flat values
+     * rather than entities, so nothing builds up in the persistence context,
+     * and the MySQL driver is asked to stream them from the server one at a
+     * time instead of reading the whole result into memory. Must be called in
+     * a transaction and the stream closed when done.
+     *
+     * @param from
+     *            start of the range, inclusive
+     * @param to
+     *            end of the range, exclusive
+     * @return the rows, one per order line
+     */
+    @QueryHints ( @QueryHint ( name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE ) )
+    @Query ( "SELECT new edu.ncsu.csc326.wolfcafe.dto.OrderExportRowDto(o.id, o.created, o.status, o.subtotal, "
+            + "o.tax, o.tip, c.id, o.itemStr, oi.id, i.name, oi.quantity) FROM Order o LEFT JOIN o.customer c "
+            + "LEFT JOIN o.items oi LEFT JOIN oi.item i WHERE o.created >= :from AND o.created < :to "
+            + "ORDER BY o.created, o.id, oi.id" )
+    Stream<OrderExportRowDto> streamExportRows ( @Param ( "from" ) LocalDateTime from,
+            @Param ( "to" ) LocalDateTime to );
 }
@@ -0,0 +1,38 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import edu.ncsu.csc326.wolfcafe.entity.RevokedToken;
+
+/**
+ * Repository interface for revoked tokens.
+ */
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Returns the revoked tokens that haven't expired yet.
+     *
+     * @param now
+     *            the current time
+     * @return the tokens
+     */
+    List<RevokedToken> findByExpiresAtAfter ( LocalDateTime now );
+
+    /**
+     * Drops the revoked tokens that expired before the given time.
+     *
+     * @param before
+     *            tokens that expired before this are dropped
+     * @return number of tokens dropped
+     */
+    @Modifying
+    @Query ( "DELETE FROM RevokedToken t WHERE t.expiresAt < :before" )
+    int deleteBefore ( @Param ( "before" ) LocalDateTime before );
+
+}
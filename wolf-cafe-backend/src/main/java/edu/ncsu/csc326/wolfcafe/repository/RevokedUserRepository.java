@@ -0,0 +1,38 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import edu.ncsu.csc326.wolfcafe.entity.RevokedUser;
+
+/**
+ * Repository interface for users whose tokens were revoked.
+ */
+public interface RevokedUserRepository extends JpaRepository<RevokedUser, Long> {
+
+    /**
+     * Returns the users whose tokens were revoked after the given time.
+     *
+     * @param after
+     *            revocations at or before this are left out
+     * @return the users
+     */
+    List<RevokedUser> findByRevokedAtAfter ( LocalDateTime after );
+
+    /**
+     * Drops the revocations made before the given time.
+     *
+     * @param before
+     *            revocations made before this are dropped
+     * @return number of revocations dropped
+     */
+    @Modifying
+    @Query ( "DELETE FROM RevokedUser u WHERE u.revokedAt < :before" )
+    int deleteBefore ( @Param ( "before" ) LocalDateTime before );
+
+}
@@ -0,0 +1,35 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import edu.ncsu.csc326.wolfcafe.entity.SalesRollup;
+
+/**
+ * Repository interface for sales rollups.
+ */
+public interface SalesRollupRepository
+        extends JpaRepository<SalesRollup, SalesRollup.Key>, SalesRollupRepositoryCustom {
+
+    /**
+     * Returns the buckets of one granularity that start in a time range,
+     * oldest first.
+     *
+     * @param granularity
+     *            hour or day
+     * @param from
+     *            start of the range, inclusive
+     * @param to
+     *            end of the range, exclusive
+     * @return the buckets
+     */
+    @Query ( "SELECT r FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart >= :from "
+            + "AND r.bucketStart < :to ORDER BY r.bucketStart" )
+    List<SalesRollup> findRange ( @Param ( "granularity" ) String granularity, @Param ( "from" ) LocalDateTime from,
+            @Param ( "to" ) LocalDateTime to );
+
+}
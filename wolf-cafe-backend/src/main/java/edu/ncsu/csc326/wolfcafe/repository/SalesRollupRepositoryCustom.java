@@ -0,0 +1,51 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import edu.ncsu.csc326.wolfcafe.entity.ItemSalesRollup;
+import edu.ncsu.csc326.wolfcafe.entity.SalesRollup;
+
+/**
+ * Rollup writes that Spring Data can't generate from a method name.
+ * Implemented by SalesRollupRepositoryCustomImpl and exposed through
+ * SalesRollupRepository. Writes both the totals and the item rollups.
+ */
+public interface SalesRollupRepositoryCustom {
+
+    /**
+     * Adds amounts to rollups with one upsert per bucket, sent to the
+     * database as a JDBC batch. Each upsert adds to the bucket in the
+     * database, so concurrent updates to the same bucket are never lost.
+     * Negative amounts take away.
+     *
+     * @param totals
+     *            amounts to add to each bucket's totals
+     * @param units
+     *            units to add to each item's bucket
+     */
+    void addAll ( Collection<SalesRollup> totals, Collection<ItemSalesRollup> units );
+
+    /**
+     * Adds up the totals of every hour and day from the fulfilled and picked
+     * up orders, with one grouped query per granularity. Plain reads, so they
+     * don't lock the orders.
+     *
+     * @return the totals of every bucket with sales
+     */
+    List<SalesRollup> sumTotals ();
+
+    /**
+     * Adds up the units of each item sold in every hour and day from the
+     * fulfilled and picked up orders.
+     *
+     * @return the units of every item and bucket with sales
+     */
+    List<ItemSalesRollup> sumUnits ();
+
+    /**
+     * Throws away every rollup.
+     */
+    void clearAll ();
+
+}
@@ -0,0 +1,118 @@
+package edu.ncsu.csc326.wolfcafe.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ncsu.csc326.wolfcafe.entity.ItemSalesRollup;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.entity.SalesRollup;
+
+/**
+ * Implements the rollup writes with plain JDBC, sharing the JPA transaction's
+ * connection.
+ */
+public class SalesRollupRepositoryCustomImpl implements SalesRollupRepositoryCustom {
+
+    /** Adds to a bucket's totals, creating the bucket if it is new */
+    private static final String                      TOTALS_SQL     = "INSERT INTO sales_rollup "
+            + "(granularity, bucket_start, order_count, subtotal, tax, tip) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + ?, subtotal = subtotal + ?, tax = tax + ?, "
+            + "tip = tip + ?";
+
+    /** Adds to an item's units in a bucket, creating the bucket if it is new */
+    private static final String                      UNITS_SQL      = "INSERT INTO item_sales_rollup "
+            + "(granularity, bucket_start, item_id, units) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE units = units + ?";
+
+    /** Adds up the totals of one granularity from the orders */
+    private static final String                      SUM_TOTALS     = "SELECT "
+            + "CAST(DATE_FORMAT(created, ?) AS DATETIME) AS b, COUNT(*), SUM(subtotal), SUM(tax), SUM(tip) "
+            + "FROM orders WHERE status IN (?, ?) GROUP BY b";
+
+    /** Adds up the item units of one granularity from the orders */
+    private static final String                      SUM_UNITS      = "SELECT "
+            + "CAST(DATE_FORMAT(o.created, ?) AS DATETIME) AS b, oi.item_id, SUM(oi.quantity) "
+            + "FROM orders o JOIN order_item oi ON oi.order_id = o.id WHERE o.status IN (?, ?) "
+            + "GROUP BY b, oi.item_id";
+
+    /** MySQL format that truncates a time to the start of its bucket */
+    private static final Map<String, String>         BUCKET_FORMATS = Map.of( SalesRollup.HOUR,
+            "%Y-%m-%d %H:00:00", SalesRollup.DAY, "%Y-%m-%d 00:00:00" );
+
+    /** Order of the totals upserts, so concurrent batches lock rows in the same order */
+    private static final Comparator<SalesRollup>     TOTALS_ORDER   = Comparator
+            .comparing( SalesRollup::getGranularity ).thenComparing( SalesRollup::getBucketStart );
+
+    /** Order of the units upserts */
+    private static final Comparator<ItemSalesRollup> UNITS_ORDER    = Comparator
+            .comparing( ItemSalesRollup::getGranularity ).thenComparing( ItemSalesRollup::getBucketStart )
+            .thenComparing( ItemSalesRollup::getItemId );
+
+    /** Runs the batched statements */
+    private final JdbcTemplate                      jdbcTemplate;
+
+    /**
+     * Constructs the repository fragment.
+     *
+     * @param jdbcTemplate
+     *            template to run the statements with
+     */
+    public SalesRollupRepositoryCustomImpl ( final JdbcTemplate jdbcTemplate ) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void addAll ( final Collection<SalesRollup> totals, final Collection<ItemSalesRollup> units ) {
+        final List<Object[]> totalRows = new ArrayList<>( totals.size() );
+        totals.stream().sorted( TOTALS_ORDER ).forEach( r -> totalRows.add( new Object[] { r.getGranularity(),
+                Timestamp.valueOf( r.getBucketStart() ), r.getOrderCount(), r.getSubtotal(), r.getTax(), r.getTip(),
+                r.getOrderCount(), r.getSubtotal(), r.getTax(), r.getTip() } ) );
+        final List<Object[]> unitRows = new ArrayList<>( units.size() );
+        units.stream().sorted( UNITS_ORDER ).forEach( r -> unitRows.add( new Object[] { r.getGranularity(),
+                Timestamp.valueOf( r.getBucketStart() ), r.getItemId(), r.getUnits(), r.getUnits() } ) );
+
+        if ( !totalRows.isEmpty() ) {
+            jdbcTemplate.batchUpdate( TOTALS_SQL, totalRows );
+        }
+        if ( !unitRows.isEmpty() ) {
+            jdbcTemplate.batchUpdate( UNITS_SQL, unitRows );
+        }
+    }
+
+    @Override
+    public List<SalesRollup> sumTotals () {
+        final List<SalesRollup> totals = new ArrayList<>();
+        BUCKET_FORMATS.forEach( ( granularity, format ) -> totals.addAll( jdbcTemplate.query( SUM_TOTALS,
+                ( rs, i ) -> new SalesRollup( granularity, rs.getObject( 1, LocalDateTime.class ), rs.getLong( 2 ),
+                        rs.getLong( 3 ), rs.getLong( 4 ), rs.getLong( 5 ) ),
+                format, Order.FULFILLED, Order.PICKED_UP ) ) );
+        return totals;
+    }
+
+    @Override
+    public List<ItemSalesRollup> sumUnits () {
+        final List<ItemSalesRollup> units = new ArrayList<>();
+        BUCKET_FORMATS.forEach( ( granularity, format ) -> units.addAll( jdbcTemplate.query( SUM_UNITS,
+                ( rs, i ) -> new ItemSalesRollup( granularity, rs.getObject( 1, LocalDateTime.class ),
+                        rs.getLong( 2 ), rs.getLong( 3 ) ),
+                format, Order.FULFILLED, Order.PICKED_UP ) ) );
+        return units;
+    }
+
+    @Override
+    @Transactional
+    public void clearAll () {
+        jdbcTemplate.update( "DELETE FROM sales_rollup" );
+        jdbcTemplate.update( "DELETE FROM item_sales_rollup" );
+    }
+
+}
@@ -1,9 +1,16 @@
 package edu.ncsu.csc326.wolfcafe.repository;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import edu.ncsu.csc326.wolfcafe.dto.UserRoleRowDto;
 import edu.ncsu.csc326.wolfcafe.entity.User;
+import jakarta.persistence.QueryHint;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -39,4 +46,26 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if username exists for a user
      */
     Boolean existsByUsername(String username);
+
+    /**
+     * Returns every user with their roles as flat rows, read straight into
+     * DTOs, with each user's rows together.
+     * @return a row per user and role, by user id
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("SELECT new edu.ncsu.csc326.wolfcafe.dto.UserRoleRowDto(u.id, u.name, u.username, u.email, r.id, r.name) "
+            + "FROM User u LEFT JOIN u.roles r ORDER BY u.id, r.id")
+    List<UserRoleRowDto> findUserRoleRows();
+
+    /**
+     * Returns the users holding a role with all their roles as flat rows,
+     * read straight into DTOs, with each user's rows together.
+     * @param roleName name of the role, such as ROLE_STAFF
+     * @return a row per user and role, by user id
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("SELECT new edu.ncsu.csc326.wolfcafe.dto.UserRoleRowDto(u.id, u.name, u.username, u.email, r.id, r.name) "
+            + "FROM User u JOIN u.roles r WHERE EXISTS (SELECT 1 FROM User h JOIN h.roles hr "
+            + "WHERE h.id = u.id AND hr.name = :roleName) ORDER BY u.id, r.id")
+    List<UserRoleRowDto> findUserRoleRowsByRole(@Param("roleName") String roleName);
 }
@@ -0,0 +1,152 @@
+package edu.ncsu.csc326.wolfcafe.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+
+/**
+ * BCrypt password encoder that hashes and checks passwords on its own small
+ * pool of threads. A hash takes a lot of CPU, so a burst of logins would
+ * otherwise take every core and starve the rest of the application. Only so
+ * many hashes run at once, only so many more wait, and the rest are turned
+ * away at once with TOO_MANY_REQUESTS so the client can retry. The calling
+ * thread waits for its hash without using CPU.
+ *
+ * Hashes made with a lower strength than configured report that they need
+ * upgrading, so they are rehashed when their user next logs in.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    /** Encoder doing the hashing */
+    private final BCryptPasswordEncoder delegate;
+
+    /** Pool the hashing runs on */
+    private final ExecutorService       executor;
+
+    /**
+     * Constructs the encoder with its own pool.
+     *
+     * @param strength
+     *            BCrypt strength, the log2 of the rounds, for new hashes
+     * @param threads
+     *            most hashes run at once
+     * @param queueLimit
+     *            most hashes waiting to run, or 0 to turn away any that
+     *            can't run at once
+     */
+    public BoundedPasswordEncoder ( final int strength, final int threads, final int queueLimit ) {
+        this( strength, pool( threads, queueLimit ) );
+    }
+
+    /**
+     * Constructs the encoder on the given pool.
+     *
+     * @param strength
+     *            BCrypt strength, the log2 of the rounds, for new hashes
+     * @param executor
+     *            pool to hash on, which rejects work it has no room for
+     */
+    BoundedPasswordEncoder ( final int strength, final ExecutorService executor ) {
+        this.delegate = new BCryptPasswordEncoder( strength );
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode ( final CharSequence rawPassword ) {
+        return run( () -> delegate.encode( rawPassword ) );
+    }
+
+    @Override
+    public boolean matches ( final CharSequence rawPassword, final String encodedPassword ) {
+        return run( () -> delegate.matches( rawPassword, encodedPassword ) );
+    }
+
+    @Override
+    public boolean upgradeEncoding ( final String encodedPassword ) {
+        return delegate.upgradeEncoding( encodedPassword );
+    }
+
+    /**
+     * Stops the pool once the hashes already started are done.
+     */
+    public void shutdown () {
+        executor.shutdown();
+    }
+
+    /**
+     * Helper method that runs hashing work on the pool and waits for it.
+     *
+     * @param <T>
+     *            type of the result
+     * @param work
+     *            the work
+     * @return the result
+     * @throws WolfCafeAPIException
+     *             with TOO_MANY_REQUESTS status if the pool has no room
+     */
+    private <T> T run ( final Callable<T> work ) {
+        final Future<T> future;
+        try {
+            future = executor.submit( work );
+        }
+        catch ( final RejectedExecutionException e ) {
+            throw new WolfCafeAPIException( HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many sign-ins at once, please try again shortly" );
+        }
+        try {
+            return future.get();
+        }
+        catch ( final InterruptedException e ) {
+            future.cancel( true );
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while hashing a password", e );
+        }
+        catch ( final ExecutionException e ) {
+            if ( e.getCause() instanceof final RuntimeException cause ) {
+                throw cause;
+            }
+            if ( e.getCause() instanceof final Error cause ) {
+                throw cause;
+            }
+            throw new IllegalStateException( e.getCause() );
+        }
+    }
+
+    /**
+     * Helper method that builds the hashing pool, with a fixed number of
+     * daemon threads and a bounded queue, that rejects work it has no room
+     * for.
+     *
+     * @param threads
+     *            number of threads
+     * @param queueLimit
+     *            most work waiting, or 0 for none
+     * @return the pool
+     */
+    private static ExecutorService pool ( final int threads, final int queueLimit ) {
+        final int size = Math.max( 1, threads );
+        final BlockingQueue<Runnable> queue = queueLimit > 0 ? new ArrayBlockingQueue<>( queueLimit )
+                : new SynchronousQueue<>();
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor( size, size, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            final Thread thread = new Thread( runnable, "password-hashing-" + count.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy() );
+    }
+
+}
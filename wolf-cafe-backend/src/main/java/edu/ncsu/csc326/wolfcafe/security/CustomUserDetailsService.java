@@ -1,29 +1,32 @@
 package edu.ncsu.csc326.wolfcafe.security;
 
 import lombok.AllArgsConstructor;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import edu.ncsu.csc326.wolfcafe.entity.User;
 import edu.ncsu.csc326.wolfcafe.repository.UserRepository;
 
-import java.util.Set;
-import java.util.stream.Collectors;
-
 /**
- * Supports finding and logging in a user by username or email.
+ * Supports finding and logging in a user by username or email. Users are
+ * served from the {@link UserDetailsCache} when they were looked up recently.
+ * After a successful login with a password hashed more weakly than now
+ * configured, Spring Security rehashes it and saves it through here.
  */
 @Service
 @AllArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
 	/** Link to userRepository */
     private UserRepository userRepository;
 
+    /** Recently loaded users */
+    private UserDetailsCache userDetailsCache;
+
     /**
      * Returns UserDetails for the user associated with the username or email address.
      * @param usernameOrEmail username or email to search for
@@ -31,17 +34,25 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
-        User user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User does not exist with the given username or email."));
-
-        Set<GrantedAuthority> authorities = user.getRoles().stream()
-                .map((role) -> new SimpleGrantedAuthority(role.getName()))
-                .collect(Collectors.toSet());
+        return userDetailsCache.get(usernameOrEmail, key -> userRepository.findByUsernameOrEmail(key, key)
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "User does not exist with the given username or email.")));
+    }
 
-        return new org.springframework.security.core.userdetails.User(
-                usernameOrEmail,
-                user.getPassword(),
-                authorities
-        );
+    /**
+     * Saves a user's rehashed password after they logged in with it.
+     * @param user the user, named by the username or email they logged in with
+     * @param newPassword the new password hash
+     * @return the user with the new password hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByUsernameOrEmail(user.getUsername(), user.getUsername()).ifPresent(account -> {
+            account.setPassword(newPassword);
+            userRepository.save(account);
+            userDetailsCache.invalidate(account.getId());
+        });
+        return User.withUserDetails(user).password(newPassword).build();
     }
 }
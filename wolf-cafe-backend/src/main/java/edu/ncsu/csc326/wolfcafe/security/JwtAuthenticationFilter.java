@@ -12,6 +12,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,11 +26,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     /** Token provider */
     @Autowired
-    private final JwtTokenProvider   jwtTokenProvider;
+    private final JwtTokenProvider    jwtTokenProvider;
 
     /** Service for UserDetails */
     @Autowired
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsService  userDetailsService;
+
+    /** Tokens revoked before they expire */
+    @Autowired
+    private final TokenRevocationList tokenRevocationList;
 
     /**
      * Constructs the authentication filter
@@ -38,11 +43,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      *            token provide
      * @param userDetailsService
      *            service for UserDetails
+     * @param tokenRevocationList
+     *            tokens revoked before they expire
      */
     public JwtAuthenticationFilter ( final JwtTokenProvider jwtTokenProvider,
-            final UserDetailsService userDetailsService ) {
+            final UserDetailsService userDetailsService, final TokenRevocationList tokenRevocationList ) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     /**
@@ -68,19 +76,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        // Validate token
-        if ( jwtTokenProvider.validateToken( token ) ) {
-            final String username = jwtTokenProvider.getUsername( token );
+        // Validate the token and read its claims in one pass. An invalid
+        // token throws, as validating it always has.
+        final Claims claims = jwtTokenProvider.parseAndValidate( token );
+
+        // A revoked token is treated as no token at all
+        if ( tokenRevocationList.isRevoked( claims ) ) {
+            filterChain.doFilter( request, response );
+            return;
+        }
 
-            final UserDetails userDetails = userDetailsService.loadUserByUsername( username );
+        // Stateless tokens carry the user, others need it loaded
+        UserDetails userDetails = jwtTokenProvider.getUserDetails( claims );
+        if ( userDetails == null ) {
+            userDetails = userDetailsService.loadUserByUsername( claims.getSubject() );
+        }
 
-            final UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities() );
+        final UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities() );
 
-            authenticationToken.setDetails( new WebAuthenticationDetailsSource().buildDetails( request ) );
+        authenticationToken.setDetails( new WebAuthenticationDetailsSource().buildDetails( request ) );
 
-            SecurityContextHolder.getContext().setAuthentication( authenticationToken );
-        }
+        SecurityContextHolder.getContext().setAuthentication( authenticationToken );
 
         filterChain.doFilter( request, response );
     }
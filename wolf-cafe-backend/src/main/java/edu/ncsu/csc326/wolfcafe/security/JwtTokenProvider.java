@@ -1,52 +1,125 @@
 package edu.ncsu.csc326.wolfcafe.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 /**
- * Provides a token for the user.
+ * Provides a token for the user. The signing key and the parser are built
+ * once from the secret, since both are immutable and safe to share between
+ * requests.
+ *
+ * In stateless mode, tokens also carry the user's id and roles, so a request
+ * can be authenticated from the token alone without loading the user. Since
+ * those claims are trusted until the token expires, stateless tokens are
+ * kept short lived, and revoked through the {@link TokenRevocationList}.
  */
 @Component
 public class JwtTokenProvider {
 
-	/** Pulls secret from application.properties */
-    @Value("${app.jwt-secret}")
-    private String jwtSecret;
+    /** Claim holding the names of the user's roles */
+    public static final String ROLES = "roles";
+
+    /** Signing key, decoded from the secret in application.properties */
+    private final SecretKey key;
+
+    /** Parser that verifies tokens against the key */
+    private final JwtParser parser;
 
     /** Pulls experiation of user login from application.properties */
-    @Value("${app.jwt-expiration-milliseconds}")
-    private Long jwtExpirationDate;
+    private final Long      jwtExpirationDate;
+
+    /** Whether tokens carry the user's id and roles */
+    private final boolean   stateless;
 
     /**
-     * Generates the token
+     * Constructs the token provider.
+     * @param jwtSecret base64 encoded secret to sign tokens with
+     * @param jwtExpirationDate how long a token lasts, in milliseconds
+     * @param stateless whether tokens carry the user's id and roles
+     * @param statelessExpirationDate how long a token lasts in stateless mode,
+     *            in milliseconds, if shorter
+     */
+    public JwtTokenProvider(@Value("${app.jwt-secret}") String jwtSecret,
+            @Value("${app.jwt-expiration-milliseconds}") Long jwtExpirationDate,
+            @Value("${app.jwt-stateless:false}") boolean stateless,
+            @Value("${app.jwt-stateless-expiration-milliseconds:900000}") Long statelessExpirationDate) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.jwtExpirationDate = stateless ? Math.min(jwtExpirationDate, statelessExpirationDate)
+                : jwtExpirationDate;
+        this.stateless = stateless;
+    }
+
+    /**
+     * Generates the token, with a random id so it can be revoked by itself
      * @param authentication authentication object
+     * @param userId id of the user, put in the token in stateless mode
      * @return the generated token
      */
-    public String generateToken(Authentication authentication) {
+    public String generateToken(Authentication authentication, Long userId) {
         String username = authentication.getName();
 
         Date currentDate = new Date();
         Date expireDate = new Date(currentDate.getTime() + jwtExpirationDate);
 
-
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(currentDate)
-                .expiration(expireDate)
-                .signWith(key())
-                .compact();
+                .expiration(expireDate);
+        if (stateless) {
+            builder.claim(TokenRevocationList.USER_ID, userId)
+                    .claim(ROLES, authentication.getAuthorities().stream()
+                            .map(GrantedAuthority::getAuthority).toList());
+        }
+        return builder.signWith(key).compact();
     }
 
-    private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    /**
+     * Builds the user a token was issued to from its claims alone, in
+     * stateless mode.
+     * @param claims the token's verified claims
+     * @return the user, or null if not in stateless mode or the token
+     *         doesn't carry roles, so the user has to be loaded
+     */
+    public UserDetails getUserDetails(Claims claims) {
+        if (!stateless) {
+            return null;
+        }
+        List<?> roles = claims.get(ROLES, List.class);
+        if (roles == null) {
+            return null;
+        }
+        return new User(claims.getSubject(), "", roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.toString())).toList());
+    }
+
+    /**
+     * Verifies the token's signature and expiration and returns its claims,
+     * so a request only has to check the token once.
+     * @param token token to check
+     * @return the token's claims
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, expired
+     *             or not signed with the key
+     */
+    public Claims parseAndValidate(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     /**
@@ -55,14 +128,7 @@ public class JwtTokenProvider {
      * @return the username that is authenticated
      */
     public String getUsername(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject(); //username
-
+        return parseAndValidate(token).getSubject(); //username
     }
 
     /**
@@ -71,10 +137,7 @@ public class JwtTokenProvider {
      * @return true if valid
      */
     public boolean validateToken(String token) {
-        Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parse(token);
+        parser.parse(token);
         return true;
     }
 }
@@ -0,0 +1,285 @@
+package edu.ncsu.csc326.wolfcafe.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Tokens that must stop working before they expire, kept in memory. When a
+ * user is deleted or changed, every token issued to them until then is
+ * revoked. This matters for tokens that carry their own principal, since
+ * those are never checked against the database. Single tokens are revoked
+ * by their jti claim, such as on logout. Both kinds are persisted by the
+ * TokenRevocationService, which also loads them into this list.
+ *
+ * Every request checks its token here, and almost none are revoked, so
+ * revoked token ids go into a Bloom filter as well as an exact set. A token
+ * the filter has never seen is let through after a few hashes, without
+ * touching the set. Since a Bloom filter can't forget, it is rebuilt from
+ * the set whenever expired entries are pruned, or when it fills up. An entry
+ * is only kept as long as the tokens it revokes could still be live.
+ */
+@Component
+public class TokenRevocationList {
+
+    /** Claim holding the id of the user a token was issued to */
+    public static final String      USER_ID       = "uid";
+
+    /** Time each user's tokens were last revoked, in milliseconds, by id */
+    private final Map<Long, Long>   revokedAt     = new ConcurrentHashMap<>();
+
+    /** Expiration of each revoked token, in milliseconds, by jti */
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /** Longest a token can live, in milliseconds */
+    private final long              maxTokenAge;
+
+    /** Fewest revoked tokens the filter is sized for */
+    private final int               expectedTokens;
+
+    /** Filter over the revoked token ids, replaced when rebuilt */
+    private volatile BloomFilter    filter;
+
+    /**
+     * Constructs the revocation list.
+     *
+     * @param maxTokenAge
+     *            longest a token can live, in milliseconds
+     * @param expectedTokens
+     *            fewest revoked tokens to size the filter for
+     */
+    public TokenRevocationList ( @Value ( "${app.jwt-expiration-milliseconds}" ) final long maxTokenAge,
+            @Value ( "${app.token-revocation-expected:10000}" ) final int expectedTokens ) {
+        this.maxTokenAge = maxTokenAge;
+        this.expectedTokens = Math.max( 1, expectedTokens );
+        this.filter = new BloomFilter( this.expectedTokens );
+    }
+
+    /**
+     * Revokes every token issued to a user up to now. A token issued in the
+     * same second is revoked too, since tokens only record their issue time
+     * to the second.
+     *
+     * @param userId
+     *            id of the user
+     */
+    public void revokeUser ( final Long userId ) {
+        revokeUser( userId, System.currentTimeMillis() );
+    }
+
+    /**
+     * Revokes every token issued to a user up to the given time. An earlier
+     * time than the one already held is ignored.
+     *
+     * @param userId
+     *            id of the user
+     * @param at
+     *            tokens issued up to this time are revoked, in milliseconds
+     */
+    public void revokeUser ( final Long userId, final long at ) {
+        revokedAt.values().removeIf( time -> time < System.currentTimeMillis() - maxTokenAge );
+        revokedAt.merge( userId, at, Math::max );
+    }
+
+    /**
+     * Revokes a single token until it expires.
+     *
+     * @param jti
+     *            id of the token
+     * @param expiresAt
+     *            when the token expires, in milliseconds
+     */
+    public synchronized void revokeToken ( final String jti, final long expiresAt ) {
+        if ( expiresAt <= System.currentTimeMillis() ) {
+            return;
+        }
+        revokedTokens.put( jti, expiresAt );
+        if ( revokedTokens.size() > filter.capacity() ) {
+            rebuild();
+        }
+        else {
+            filter.add( jti );
+        }
+    }
+
+    /**
+     * Adds the given revoked tokens and users, drops the ones whose tokens
+     * have all expired, and rebuilds the filter from what is left.
+     *
+     * @param tokens
+     *            revoked tokens to add, with their expirations in
+     *            milliseconds, by jti
+     * @param users
+     *            users to add, with the time their tokens were revoked in
+     *            milliseconds, by user id
+     */
+    public synchronized void prune ( final Map<String, Long> tokens, final Map<Long, Long> users ) {
+        final long now = System.currentTimeMillis();
+        revokedTokens.putAll( tokens );
+        users.forEach( ( userId, at ) -> revokedAt.merge( userId, at, Math::max ) );
+        revokedTokens.values().removeIf( expiresAt -> expiresAt <= now );
+        revokedAt.values().removeIf( at -> at < now - maxTokenAge );
+        rebuild();
+    }
+
+    /**
+     * Checks whether a token has been revoked, either by itself or with the
+     * rest of its user's tokens. Tokens that don't say who they were issued
+     * to can't be revoked by user.
+     *
+     * @param claims
+     *            the token's verified claims
+     * @return true if the token must not be accepted
+     */
+    public boolean isRevoked ( final Claims claims ) {
+        final String jti = claims.getId();
+        if ( jti != null && filter.mightContain( jti ) && revokedTokens.containsKey( jti ) ) {
+            return true;
+        }
+        final Long userId = claims.get( USER_ID, Long.class );
+        if ( userId == null ) {
+            return false;
+        }
+        final Long at = revokedAt.get( userId );
+        final Date issuedAt = claims.getIssuedAt();
+        return at != null && ( issuedAt == null || issuedAt.getTime() <= at );
+    }
+
+    /**
+     * Returns how many single tokens are revoked.
+     *
+     * @return number of revoked tokens
+     */
+    public int getRevokedTokenCount () {
+        return revokedTokens.size();
+    }
+
+    /**
+     * Helper method that builds a new filter holding every revoked token,
+     * with room for at least as many again, and swaps it in.
+     */
+    private void rebuild () {
+        final BloomFilter rebuilt = new BloomFilter( Math.max( expectedTokens, revokedTokens.size() * 2 ) );
+        for ( final String jti : revokedTokens.keySet() ) {
+            rebuilt.add( jti );
+        }
+        filter = rebuilt;
+    }
+
+    /**
+     * Bloom filter over strings, sized for about a 1% false positive rate at
+     * its capacity. Adding is safe alongside lookups.
+     */
+    private static final class BloomFilter {
+
+        /** Hashes per entry, best for a 1% false positive rate */
+        private static final int      HASHES        = 7;
+
+        /** Bits per entry for a 1% false positive rate */
+        private static final int      BITS_PER_ITEM = 10;
+
+        /** The bits */
+        private final AtomicLongArray bits;
+
+        /** Number of bits */
+        private final int             size;
+
+        /** Entries the filter is sized for */
+        private final int             capacity;
+
+        /**
+         * Constructs an empty filter.
+         *
+         * @param capacity
+         *            entries to size the filter for
+         */
+        BloomFilter ( final int capacity ) {
+            this.capacity = capacity;
+            this.bits = new AtomicLongArray( (int) Math.min( Integer.MAX_VALUE / 64,
+                    ( (long) capacity * BITS_PER_ITEM + 63 ) / 64 ) );
+            this.size = bits.length() * 64;
+        }
+
+        /**
+         * Returns the entries the filter is sized for.
+         *
+         * @return the capacity
+         */
+        int capacity () {
+            return capacity;
+        }
+
+        /**
+         * Adds an entry.
+         *
+         * @param value
+         *            the entry
+         */
+        void add ( final String value ) {
+            final long hash = hash( value );
+            final int h1 = (int) hash;
+            final int h2 = (int) ( hash >>> 32 );
+            for ( int i = 0; i < HASHES; i++ ) {
+                final int bit = Math.floorMod( h1 + i * h2, size );
+                final int word = bit >>> 6;
+                final long mask = 1L << bit;
+                long current = bits.get( word );
+                while ( ( current & mask ) == 0 && !bits.compareAndSet( word, current, current | mask ) ) {
+                    current = bits.get( word );
+                }
+            }
+        }
+
+        /**
+         * Checks whether an entry may have been added. False means it
+         * certainly wasn't.
+         *
+         * @param value
+         *            the entry
+         * @return true if it may have been added
+         */
+        boolean mightContain ( final String value ) {
+            final long hash = hash( value );
+            final int h1 = (int) hash;
+            final int h2 = (int) ( hash >>> 32 );
+            for ( int i = 0; i < HASHES; i++ ) {
+                final int bit = Math.floorMod( h1 + i * h2, size );
+                if ( ( bits.get( bit >>> 6 ) & ( 1L << bit ) ) == 0 ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Helper method that hashes an entry to 64 bits with FNV-1a and a
+         * final mix, to be split into the two hashes the filter's positions
+         * are made from.
+         *
+         * @param value
+         *            the entry
+         * @return the hash
+         */
+        private static long hash ( final String value ) {
+            long hash = 0xcbf29ce484222325L;
+            for ( final byte b : value.getBytes( StandardCharsets.UTF_8 ) ) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+            // Spread the bits, so both halves of the hash are well mixed
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+
+    }
+
+}
@@ -0,0 +1,254 @@
+package edu.ncsu.csc326.wolfcafe.security;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ncsu.csc326.wolfcafe.dto.UserDetailsCacheMetricsDto;
+import edu.ncsu.csc326.wolfcafe.entity.User;
+
+/**
+ * Keeps users loaded for authentication for a short while, so a request with
+ * a token doesn't have to look its user and roles up again. Each user is
+ * found by both username and email. The cache holds a bounded number of
+ * users, dropping the longest cached first, and drops each after a time to
+ * live. Anything that changes an account or its roles must invalidate it, so
+ * old privileges never outlast the change. Setting the size to 0 turns the
+ * cache off.
+ */
+@Component
+public class UserDetailsCache {
+
+    /** Cached users by username and by email */
+    private final Map<String, CachedUser> byKey         = new ConcurrentHashMap<>();
+
+    /** Cached users by id */
+    private final Map<Long, CachedUser>   byId          = new ConcurrentHashMap<>();
+
+    /** Cached users, longest cached first */
+    private final Queue<CachedUser>       order         = new ConcurrentLinkedQueue<>();
+
+    /** Bumped by every invalidation, so a load that raced one isn't cached */
+    private final AtomicLong              generation    = new AtomicLong();
+
+    /** Lookups answered from the cache */
+    private final AtomicLong              hits          = new AtomicLong();
+
+    /** Lookups that had to load the user */
+    private final AtomicLong              misses        = new AtomicLong();
+
+    /** Users dropped because they expired or the cache was full */
+    private final AtomicLong              evictions     = new AtomicLong();
+
+    /** Users dropped because their account changed */
+    private final AtomicLong              invalidations = new AtomicLong();
+
+    /** Most users cached */
+    private final int                     capacity;
+
+    /** How long a user is cached, in nanoseconds */
+    private final long                    ttlNanos;
+
+    /**
+     * Constructs the cache.
+     *
+     * @param capacity
+     *            most users to cache, or 0 to not cache
+     * @param ttlMillis
+     *            how long a user is cached, in milliseconds
+     */
+    public UserDetailsCache ( @Value ( "${app.user-details-cache-size:1000}" ) final int capacity,
+            @Value ( "${app.user-details-cache-ttl-milliseconds:60000}" ) final long ttlMillis ) {
+        this.capacity = capacity;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /**
+     * Returns the user with the given username or email, from the cache if
+     * it's there and hasn't expired, otherwise by loading and caching it. The
+     * user's name is the username or email given, as if it had been loaded.
+     *
+     * @param usernameOrEmail
+     *            username or email of the user
+     * @param loader
+     *            loads the user, or throws if there is none
+     * @return the user
+     */
+    public UserDetails get ( final String usernameOrEmail, final Function<String, User> loader ) {
+        final CachedUser cached = byKey.get( usernameOrEmail );
+        if ( cached != null ) {
+            if ( System.nanoTime() - cached.loaded() < ttlNanos ) {
+                hits.incrementAndGet();
+                return cached.toUserDetails( usernameOrEmail );
+            }
+            if ( remove( cached ) ) {
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+
+        final long loadedIn = generation.get();
+        final User user = loader.apply( usernameOrEmail );
+        final CachedUser loaded = new CachedUser( user.getId(), user.getUsername(), user.getEmail(),
+                user.getPassword(), user.getRoles().stream()
+                        .<GrantedAuthority> map( role -> new SimpleGrantedAuthority( role.getName() ) ).toList(),
+                System.nanoTime() );
+        if ( capacity > 0 ) {
+            put( loaded, loadedIn );
+        }
+        return loaded.toUserDetails( usernameOrEmail );
+    }
+
+    /**
+     * Drops a user, so the next lookup loads them again. Call whenever an
+     * account or its roles change. Inside a transaction, the user is dropped
+     * again once it commits.
+     *
+     * @param userId
+     *            id of the user
+     */
+    public void invalidate ( final Long userId ) {
+        drop( userId );
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            // A load that read the user before the commit must not be kept
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+                @Override
+                public void afterCommit () {
+                    drop( userId );
+                }
+            } );
+        }
+    }
+
+    /**
+     * Drops every user.
+     */
+    public void invalidateAll () {
+        generation.incrementAndGet();
+        for ( final CachedUser cached : byId.values() ) {
+            if ( remove( cached ) ) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns how well the cache is doing.
+     *
+     * @return the cache metrics
+     */
+    public UserDetailsCacheMetricsDto getMetrics () {
+        return new UserDetailsCacheMetricsDto( byId.size(), capacity, hits.get(), misses.get(), evictions.get(),
+                invalidations.get() );
+    }
+
+    /**
+     * Helper method that drops a user and bumps the generation, so a load
+     * already under way isn't cached.
+     *
+     * @param userId
+     *            id of the user
+     */
+    private void drop ( final Long userId ) {
+        generation.incrementAndGet();
+        final CachedUser cached = byId.get( userId );
+        if ( cached != null && remove( cached ) ) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    /**
+     * Helper method that caches a user, unless an invalidation happened
+     * since it was loaded, and drops the longest cached users while there
+     * are too many.
+     *
+     * @param user
+     *            the user
+     * @param loadedIn
+     *            generation the user was loaded in
+     */
+    private synchronized void put ( final CachedUser user, final long loadedIn ) {
+        if ( generation.get() != loadedIn ) {
+            return;
+        }
+        final CachedUser previous = byId.get( user.id() );
+        if ( previous != null ) {
+            remove( previous );
+        }
+        byId.put( user.id(), user );
+        byKey.put( user.username(), user );
+        byKey.put( user.email(), user );
+        order.add( user );
+        while ( byId.size() > capacity ) {
+            final CachedUser oldest = order.poll();
+            if ( oldest == null ) {
+                break;
+            }
+            if ( remove( oldest ) ) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Helper method that drops a cached user, if it's still the one cached.
+     *
+     * @param user
+     *            the user
+     * @return true if it was dropped by this call
+     */
+    private synchronized boolean remove ( final CachedUser user ) {
+        if ( !byId.remove( user.id(), user ) ) {
+            return false;
+        }
+        byKey.remove( user.username(), user );
+        byKey.remove( user.email(), user );
+        order.remove( user );
+        return true;
+    }
+
+    /**
+     * What is kept of a user.
+     *
+     * @param id
+     *            id of the user
+     * @param username
+     *            username
+     * @param email
+     *            email
+     * @param password
+     *            password hash
+     * @param authorities
+     *            the user's roles
+     * @param loaded
+     *            when the user was loaded, from {@link System#nanoTime()}
+     */
+    private record CachedUser ( Long id, String username, String email, String password,
+            List<GrantedAuthority> authorities, long loaded ) {
+
+        /**
+         * Builds the user as authentication sees it.
+         *
+         * @param name
+         *            name the user was looked up by
+         * @return the user
+         */
+        UserDetails toUserDetails ( final String name ) {
+            return new org.springframework.security.core.userdetails.User( name, password, authorities );
+        }
+
+    }
+
+}
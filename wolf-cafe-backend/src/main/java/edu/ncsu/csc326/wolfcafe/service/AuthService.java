@@ -1,9 +1,13 @@
 package edu.ncsu.csc326.wolfcafe.service;
 
+import java.util.List;
+
 import edu.ncsu.csc326.wolfcafe.dto.EditUserDto;
 import edu.ncsu.csc326.wolfcafe.dto.JwtAuthResponse;
 import edu.ncsu.csc326.wolfcafe.dto.LoginDto;
 import edu.ncsu.csc326.wolfcafe.dto.RegisterDto;
+import edu.ncsu.csc326.wolfcafe.dto.UserDetailsCacheMetricsDto;
+import edu.ncsu.csc326.wolfcafe.dto.UserDto;
 
 /**
  * Authorization service
@@ -37,6 +41,15 @@ public interface AuthService {
      */
     JwtAuthResponse login ( LoginDto loginDto );
 
+    /**
+     * Logs out by revoking the given token until it expires. A token that
+     * is already invalid or expired is left alone.
+     *
+     * @param token
+     *            the token, without the Bearer prefix
+     */
+    void logout ( String token );
+
     /**
      * Gets the name of the user with the given id
      *
@@ -45,6 +58,16 @@ public interface AuthService {
      */
     String getNameById ( Long id );
 
+    /**
+     * Gets the id of the user with the given username or email, such as the
+     * name an authenticated request was made under
+     *
+     * @param usernameOrEmail
+     *            username or email of the user
+     * @return the user's id, or null if there is no such user
+     */
+    Long getIdByUsernameOrEmail ( String usernameOrEmail );
+
     /**
      * Deletes the given user by id
      *
@@ -59,4 +82,22 @@ public interface AuthService {
      * @param dto DTO containing updated user info
      */
     String editUser(Long id, EditUserDto dto);
+
+    /**
+     * Returns every user, without their password hashes
+     * @return all users, by id
+     */
+    List<UserDto> getAllUsers();
+
+    /**
+     * Returns every user with the staff role, without their password hashes
+     * @return all staff, by id
+     */
+    List<UserDto> getAllStaff();
+
+    /**
+     * Returns how well the cache of users loaded for authentication is doing
+     * @return the cache metrics
+     */
+    UserDetailsCacheMetricsDto getUserCacheMetrics();
 }
@@ -0,0 +1,45 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.util.Map;
+
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+
+/**
+ * Cache of each menu item's bill of materials: the ingredients, and the
+ * quantity of each, that one unit of the item uses. Lets orders sum up their
+ * ingredient needs without walking the item and ingredient associations.
+ */
+public interface BillOfMaterialsService {
+
+    /**
+     * Adds the ingredients needed to make the given number of an item to a
+     * running total.
+     *
+     * @param itemId
+     *            id of the item
+     * @param count
+     *            number of the item being made
+     * @param needs
+     *            running total of ingredient quantities, keyed by ingredient
+     *            id
+     */
+    void accumulate ( Long itemId, int count, Map<Long, Integer> needs );
+
+    /**
+     * Rebuilds the bill of materials for the given item. The new bill is used
+     * once the current transaction commits.
+     *
+     * @param item
+     *            the item that was saved
+     */
+    void put ( Item item );
+
+    /**
+     * Drops the bill of materials for the given item.
+     *
+     * @param itemId
+     *            id of the item
+     */
+    void evict ( Long itemId );
+
+}
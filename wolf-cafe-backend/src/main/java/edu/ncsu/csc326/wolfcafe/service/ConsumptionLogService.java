@@ -0,0 +1,76 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc326.wolfcafe.dto.ConsumptionDto;
+import edu.ncsu.csc326.wolfcafe.dto.ConsumptionForecastDto;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+
+/**
+ * Logs the ingredients taken by fulfillments and forecasts when each
+ * ingredient will run out. Debits are buffered in memory and written in the
+ * background, to an append-only log and to hourly and daily totals per
+ * ingredient. Hourly totals and log entries are dropped as they age, and the
+ * daily totals are kept.
+ */
+public interface ConsumptionLogService {
+
+    /**
+     * Records ingredients taken by a fulfillment. If called in a transaction
+     * they are recorded once it commits. Only buffers the debit, so it adds
+     * no database work to the caller.
+     *
+     * @param amounts
+     *            quantity taken, keyed by ingredient id
+     */
+    void record ( Map<Long, Integer> amounts );
+
+    /**
+     * Writes the buffered debits to the log and the totals. Runs in the
+     * background on a schedule, and early once the buffer fills up.
+     */
+    void flush ();
+
+    /**
+     * Returns the number of debits dropped since startup because the buffer
+     * was full. These are missing from the log and the totals.
+     *
+     * @return the number of debits dropped
+     */
+    long getDropped ();
+
+    /**
+     * Drops the hourly totals and log entries that are older than their
+     * retention periods. Runs in the background on a schedule.
+     */
+    void compact ();
+
+    /**
+     * Returns the quantity of each ingredient used in each hour or day of a
+     * time range, oldest first. Debits not yet flushed aren't included.
+     *
+     * @param granularity
+     *            "hour" or "day"
+     * @param from
+     *            start of the range, inclusive, or null for the first bucket
+     * @param to
+     *            end of the range, exclusive, or null for the last bucket
+     * @return the quantities used
+     * @throws WolfCafeAPIException
+     *             with BAD_REQUEST status if the granularity is unknown
+     */
+    List<ConsumptionDto> getConsumption ( String granularity, LocalDateTime from, LocalDateTime to );
+
+    /**
+     * Projects when each ingredient will run out, from its stock and an
+     * exponentially smoothed rate of its daily use over the last few weeks.
+     * Smoothing starts at the first day the ingredient was used, so a new
+     * ingredient isn't counted as unused for the days before it was added.
+     *
+     * @return the forecast for each ingredient
+     */
+    List<ConsumptionForecastDto> forecast ();
+
+}
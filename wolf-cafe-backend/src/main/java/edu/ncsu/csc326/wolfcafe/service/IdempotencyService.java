@@ -0,0 +1,35 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Remembers the results of requests sent with a client-chosen key, so that a
+ * client retrying a request gets the first result back instead of having the
+ * request run again. Results are kept for a limited time, and only a limited
+ * number of them are kept at once.
+ */
+public interface IdempotencyService {
+
+    /**
+     * Runs the work once for the given key. A later call with the same key
+     * returns the first result without running the work, and a call made
+     * while the first is still running waits for it. If the work fails the
+     * key is forgotten, so the client can try again.
+     *
+     * @param <T>
+     *            type of the result
+     * @param key
+     *            key the client sent with the request
+     * @param work
+     *            the work to run, outside of any transaction so its result
+     *            is only shared once it is committed
+     * @return the result of the first call with this key
+     */
+    <T> T execute ( String key, Supplier<T> work );
+
+    /**
+     * Forgets every key that has been kept longer than the time to live.
+     */
+    void evictExpired ();
+
+}
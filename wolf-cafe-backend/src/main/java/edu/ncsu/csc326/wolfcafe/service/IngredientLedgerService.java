@@ -0,0 +1,100 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+
+/**
+ * In-memory ledger of the current ingredient stock. Keeps one counter per
+ * ingredient, keyed by the ingredient's id, so that orders can be checked and
+ * debited without loading the whole inventory from the database.
+ *
+ * Stock held by a reservation is not available to anyone else. The available
+ * quantity is always the quantity in the database minus what is reserved.
+ *
+ * The database remains the source of truth. Counters are loaded lazily on
+ * first use, refreshed whenever the inventory is saved, and any change made
+ * inside a transaction that rolls back is undone.
+ */
+public interface IngredientLedgerService {
+
+    /**
+     * Returns the quantity of the given ingredient that is in stock and not
+     * reserved.
+     *
+     * @param ingredientId
+     *            id of the ingredient
+     * @return quantity available, 0 if the ingredient does not exist
+     */
+    int getQuantity ( Long ingredientId );
+
+    /**
+     * Debits every ingredient in the given map if, and only if, there is enough
+     * stock for all of them. Nothing is debited if any one is short.
+     *
+     * @param needs
+     *            quantity needed, keyed by ingredient id
+     * @return true if the stock was debited
+     */
+    boolean tryDebit ( Map<Long, Integer> needs );
+
+    /**
+     * Reserves every ingredient in the given map if, and only if, there is
+     * enough available stock for all of them. Reserved stock stays in the
+     * database until the reservation is committed.
+     *
+     * @param needs
+     *            quantity needed, keyed by ingredient id
+     * @return true if the stock was reserved
+     */
+    boolean tryReserve ( Map<Long, Integer> needs );
+
+    /**
+     * Releases a reservation, making its stock available again.
+     *
+     * @param needs
+     *            quantity reserved, keyed by ingredient id
+     */
+    void release ( Map<Long, Integer> needs );
+
+    /**
+     * Commits a reservation whose stock is being taken out of the database.
+     * Available stock is unchanged, since it was debited when reserving.
+     *
+     * @param needs
+     *            quantity reserved, keyed by ingredient id
+     */
+    void commit ( Map<Long, Integer> needs );
+
+    /**
+     * Replaces the ledger's counters with the quantities of the given
+     * ingredients, which have just been saved to the database.
+     *
+     * @param ingredients
+     *            the saved ingredients
+     */
+    void refresh ( Collection<Ingredient> ingredients );
+
+    /**
+     * Drops the counters for the given ingredients once the current
+     * transaction completes, so that they are reloaded from the database on
+     * next use. Used when the ledger is found to disagree with the database.
+     *
+     * @param ingredientIds
+     *            ids of the ingredients to drop
+     */
+    void invalidate ( Collection<Long> ingredientIds );
+
+    /**
+     * Registers a listener that is told the ids of ingredients whose
+     * available quantity may have changed, right after the change. Listeners
+     * must be quick and must not change the ledger.
+     *
+     * @param listener
+     *            the listener to register
+     */
+    void addListener ( Consumer<Collection<Long>> listener );
+
+}
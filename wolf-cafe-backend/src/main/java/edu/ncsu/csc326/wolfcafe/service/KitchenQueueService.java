@@ -0,0 +1,49 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import edu.ncsu.csc326.wolfcafe.dto.QueuedOrderDto;
+
+/**
+ * Keeps an in-memory index of the pending orders and recommends the order the
+ * kitchen should make them in. The index is loaded once at startup and then
+ * kept up to date as orders are created, fulfilled, canceled and deleted.
+ */
+public interface KitchenQueueService {
+
+    /**
+     * Adds a new pending order to the queue once the current transaction
+     * commits.
+     *
+     * @param orderId
+     *            id of the order
+     * @param created
+     *            when the order was created
+     * @param needs
+     *            ingredients needed to make the order, keyed by ingredient id
+     */
+    void add ( Long orderId, LocalDateTime created, Map<Long, Integer> needs );
+
+    /**
+     * Removes an order that is no longer pending from the queue once the
+     * current transaction commits.
+     *
+     * @param orderId
+     *            id of the order
+     */
+    void remove ( Long orderId );
+
+    /**
+     * Returns the pending orders in the recommended order. Orders holding a
+     * reservation come first, oldest first, since their stock is set aside.
+     * The rest are picked so that as many as possible can be made from the
+     * available stock, cheapest in scarce ingredients first. Orders that
+     * can't be made come last.
+     *
+     * @return the kitchen queue
+     */
+    List<QueuedOrderDto> getQueue ();
+
+}
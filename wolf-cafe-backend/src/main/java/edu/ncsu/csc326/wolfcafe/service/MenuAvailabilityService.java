@@ -0,0 +1,51 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.util.List;
+
+import edu.ncsu.csc326.wolfcafe.dto.ItemAvailabilityDto;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+
+/**
+ * Index of how many of each menu item can be made from the available stock,
+ * the smallest of stock divided by recipe quantity over the item's
+ * ingredients. Kept up to date as the ingredient ledger changes, so that only
+ * the items using a changed ingredient are worked out again.
+ */
+public interface MenuAvailabilityService {
+
+    /**
+     * Returns how many of each menu item can be made.
+     *
+     * @return the availability of every item
+     */
+    List<ItemAvailabilityDto> getAvailability ();
+
+    /**
+     * Returns how many of the given item can be made.
+     *
+     * @param itemId
+     *            id of the item
+     * @return number of the item that can be made, null if it is not limited
+     *         by stock
+     */
+    Integer getMakeable ( Long itemId );
+
+    /**
+     * Indexes the recipe of an item that was saved. The new recipe is used
+     * once the current transaction commits.
+     *
+     * @param item
+     *            the saved item
+     */
+    void put ( Item item );
+
+    /**
+     * Drops an item that was deleted from the index once the current
+     * transaction commits.
+     *
+     * @param itemId
+     *            id of the item
+     */
+    void remove ( Long itemId );
+
+}
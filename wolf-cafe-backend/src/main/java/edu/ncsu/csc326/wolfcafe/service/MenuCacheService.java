@@ -0,0 +1,47 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
+
+/**
+ * Cache of the whole menu, held as the JSON the items endpoint sends so that
+ * serving it takes no database or serialization work. Each build of the menu
+ * gets a new version, and the menu is built again after an item is added,
+ * updated or deleted.
+ */
+public interface MenuCacheService {
+
+    /**
+     * Returns the cached menu, building it from the given loader if an item
+     * changed since it was last built.
+     *
+     * @param loader
+     *            loads every item on the menu
+     * @return the menu
+     */
+    Menu getMenu ( Supplier<List<ItemDto>> loader );
+
+    /**
+     * Drops the cached menu so it is built again. If called in a transaction
+     * the menu is dropped once the transaction commits, so it can't be built
+     * again from the items as they were before the change.
+     */
+    void invalidate ();
+
+    /**
+     * One build of the menu.
+     *
+     * @param version
+     *            number of the build, higher for later builds
+     * @param etag
+     *            strong entity tag of the JSON, quoted, which changes
+     *            whenever the JSON does
+     * @param json
+     *            the menu as JSON, never changed once built
+     */
+    record Menu ( long version, String etag, byte[] json ) {
+    }
+
+}
@@ -0,0 +1,52 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+
+/**
+ * Pushes committed order changes to the clients watching the order board,
+ * over Server-Sent Events. Subscribers hold no thread while idle, and events
+ * are sent to them from one dispatcher thread.
+ */
+public interface OrderEventService {
+
+    /**
+     * Subscribes a client to order events.
+     *
+     * @param customerId
+     *            only send events for this customer's orders, or null for
+     *            every order
+     * @return the emitter to return from the request
+     * @throws WolfCafeAPIException
+     *             with SERVICE_UNAVAILABLE status if there are too many
+     *             subscribers
+     */
+    SseEmitter subscribe ( Long customerId );
+
+    /**
+     * Publishes an order event. If called in a transaction it is published
+     * once the transaction commits, and dropped if it rolls back.
+     *
+     * @param type
+     *            what happened to the order, one of the OrderEventDto types
+     * @param order
+     *            the order
+     */
+    void publish ( String type, OrderDto order );
+
+    /**
+     * Sends a comment to every subscriber, so idle connections aren't closed
+     * by proxies and dead ones are noticed. Runs on a schedule.
+     */
+    void heartbeat ();
+
+    /**
+     * Returns the number of clients subscribed.
+     *
+     * @return the number of subscribers
+     */
+    int getSubscriberCount ();
+
+}
@@ -0,0 +1,45 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Exports the order history. Orders are streamed from the database and
+ * written out as they are read, so the export takes the same memory however
+ * many orders there are.
+ */
+public interface OrderExportService {
+
+    /**
+     * Writes the orders created in a time range as newline-delimited JSON,
+     * one order with its lines per line, oldest first.
+     *
+     * @param from
+     *            start of the range, inclusive, or null for the first order
+     * @param to
+     *            end of the range, exclusive, or null for the last order
+     * @param out
+     *            stream to write to, left open
+     * @throws IOException
+     *             if writing fails
+     */
+    void writeNdjson ( LocalDateTime from, LocalDateTime to, OutputStream out ) throws IOException;
+
+    /**
+     * Writes the orders created in a time range as CSV with a header row, one
+     * row per order line, oldest first. An order with no lines gets one row
+     * with the line columns empty.
+     *
+     * @param from
+     *            start of the range, inclusive, or null for the first order
+     * @param to
+     *            end of the range, exclusive, or null for the last order
+     * @param out
+     *            stream to write to, left open
+     * @throws IOException
+     *             if writing fails
+     */
+    void writeCsv ( LocalDateTime from, LocalDateTime to, OutputStream out ) throws IOException;
+
+}
@@ -0,0 +1,61 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import edu.ncsu.csc326.wolfcafe.dto.IntakeMetricsDto;
+import edu.ncsu.csc326.wolfcafe.dto.IntakeTicketDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.exception.ResourceNotFoundException;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+
+/**
+ * Accepts orders without saving them on the caller's thread. Orders are
+ * checked, given their id, put on a bounded queue and saved in batches by a
+ * few writer threads. The caller gets the order's id at once, and a ticket to
+ * check whether the order was saved or failed.
+ */
+public interface OrderIntakeService {
+
+    /**
+     * Checks an order and puts it on the queue to be saved.
+     *
+     * @param orderDto
+     *            order to create
+     * @return the ticket for the order, still queued, with the id the order
+     *         will be saved under
+     * @throws WolfCafeAPIException
+     *             with BAD_REQUEST status if the order is malformed, or
+     *             SERVICE_UNAVAILABLE status if the queue is full
+     */
+    IntakeTicketDto submit ( OrderDto orderDto );
+
+    /**
+     * Returns where an accepted order has got to.
+     *
+     * @param ticketId
+     *            id of the ticket given when the order was accepted
+     * @return the ticket
+     * @throws ResourceNotFoundException
+     *             if there is no such ticket, or it finished too long ago
+     */
+    IntakeTicketDto getTicket ( String ticketId );
+
+    /**
+     * Returns how the queue is keeping up.
+     *
+     * @return the queue's metrics
+     */
+    IntakeMetricsDto getMetrics ();
+
+    /**
+     * Returns how long a client turned away by a full queue should wait
+     * before trying again.
+     *
+     * @return seconds to wait
+     */
+    long getRetryAfterSeconds ();
+
+    /**
+     * Forgets the tickets of orders that finished too long ago.
+     */
+    void evictFinished ();
+
+}
@@ -3,21 +3,64 @@ package edu.ncsu.csc326.wolfcafe.service;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import edu.ncsu.csc326.wolfcafe.dto.FulfillmentResultDto;
 import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderPageDto;
+import edu.ncsu.csc326.wolfcafe.exception.ResourceNotFoundException;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
 
 /**
  * Order service
  */
 public interface OrderService {
     /**
-     * Creates an order with the given information.
+     * Creates an order with the given information, reserving the ingredients
+     * needed to make it. The order keeps its id only if it was reserved with
+     * reserveOrderId, and gets a new one otherwise.
      *
      * @param orderDto
      *            order to create
      * @return created order
+     * @throws WolfCafeAPIException
+     *             if there are not enough ingredients to make the order
+     * @throws ResourceNotFoundException
+     *             if an item or the customer doesn't exist
      */
     public OrderDto createOrder ( OrderDto orderDto );
 
+    /**
+     * Creates a batch of orders in one transaction, reserving the ingredients
+     * needed to make each. If any order can't be created, none are.
+     *
+     * @param orderDtos
+     *            orders to create
+     * @return created orders, in the order given
+     * @throws WolfCafeAPIException
+     *             if there are not enough ingredients to make one of the
+     *             orders
+     * @throws ResourceNotFoundException
+     *             if an item or a customer doesn't exist
+     */
+    public List<OrderDto> createOrders ( List<OrderDto> orderDtos );
+
+    /**
+     * Takes an id from the order sequence for an order that will be created
+     * later, such as one accepted through asynchronous intake, so the client
+     * can be told the id up front. The order is created under the id if it
+     * is given on the order passed to createOrder or createOrders.
+     *
+     * @return the reserved id
+     */
+    public Long reserveOrderId ();
+
+    /**
+     * Lets go of a reserved id whose order will never be created.
+     *
+     * @param id
+     *            the reserved id
+     */
+    public void releaseOrderId ( Long id );
+
     /**
      * Gets the orders with the given order id
      *
@@ -52,6 +95,49 @@ public interface OrderService {
      */
     public List<OrderDto> getAllOrders ();
 
+    /**
+     * Returns a page of all orders, newest first.
+     *
+     * @param cursor
+     *            cursor from the previous page, or null for the first page
+     * @param size
+     *            most orders to return, capped at a maximum page size
+     * @return the page, with the cursor for the next one
+     * @throws WolfCafeAPIException
+     *             if the cursor is malformed
+     */
+    public OrderPageDto getOrderPage ( String cursor, int size );
+
+    /**
+     * Returns a page of the orders created on the given day, newest first.
+     *
+     * @param date
+     *            the date to check
+     * @param cursor
+     *            cursor from the previous page, or null for the first page
+     * @param size
+     *            most orders to return, capped at a maximum page size
+     * @return the page, with the cursor for the next one
+     * @throws WolfCafeAPIException
+     *             if the cursor is malformed
+     */
+    public OrderPageDto getOrderPageByCreatedDate ( LocalDateTime date, String cursor, int size );
+
+    /**
+     * Returns a page of the orders created by the given user, newest first.
+     *
+     * @param userId
+     *            the id of the user to check
+     * @param cursor
+     *            cursor from the previous page, or null for the first page
+     * @param size
+     *            most orders to return, capped at a maximum page size
+     * @return the page, with the cursor for the next one
+     * @throws WolfCafeAPIException
+     *             if the cursor is malformed
+     */
+    public OrderPageDto getOrderPageByUser ( Long userId, String cursor, int size );
+
     /**
      * Updates the status of the order if valid if the transition makes sense
      *
@@ -60,9 +146,31 @@ public interface OrderService {
      * @param status
      *            the status to update to
      * @return the dto of the updated order
+     * @throws WolfCafeAPIException
+     *             with CONFLICT status if the order or its ingredients kept
+     *             being changed by concurrent updates
      */
     public OrderDto updateStatus ( Long id, String status );
 
+    /**
+     * Fulfills a batch of pending orders in one transaction. The ingredients
+     * the orders need are added up, checked once and taken out of the
+     * inventory at once.
+     *
+     * @param ids
+     *            ids of the orders to fulfill, in the order they should be
+     *            made
+     * @param allOrNothing
+     *            if true, no order is fulfilled unless every order can be. If
+     *            false, each order that can be fulfilled is
+     * @return the outcome for each order, in the order given
+     * @throws WolfCafeAPIException
+     *             with BAD_REQUEST status if the batch is missing, empty or
+     *             too large, or with CONFLICT status if the orders or their
+     *             ingredients kept being changed by concurrent updates
+     */
+    public List<FulfillmentResultDto> fulfillOrders ( List<Long> ids, boolean allOrNothing );
+
     /**
      * Deletes the order with the given id if it exists
      *
@@ -0,0 +1,86 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import edu.ncsu.csc326.wolfcafe.dto.ItemSalesDto;
+import edu.ncsu.csc326.wolfcafe.dto.SalesRollupDto;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+
+/**
+ * Keeps hourly and daily sales rollups: the order count, subtotal, tax and
+ * tip of the fulfilled orders placed in each hour and day, and the units of
+ * each item sold. An order is counted once it is fulfilled, in the bucket of
+ * the time it was placed. Dashboards read these instead of scanning orders.
+ */
+public interface SalesRollupService {
+
+    /**
+     * Adds orders that were just fulfilled to their buckets once the caller's
+     * transaction commits. Only buffers the change, so fulfillments don't
+     * wait on each other for the same bucket.
+     *
+     * @param orders
+     *            the fulfilled orders
+     */
+    void add ( Collection<Order> orders );
+
+    /**
+     * Takes a fulfilled or picked up order that is being deleted out of its
+     * buckets once the caller's transaction commits. Does nothing for other
+     * orders.
+     *
+     * @param order
+     *            the order
+     */
+    void remove ( Order order );
+
+    /**
+     * Writes the buffered changes to the rollups. Runs in the background on a
+     * schedule.
+     */
+    void flush ();
+
+    /**
+     * Returns the sales totals of each hour or day in a time range that had
+     * sales, oldest first.
+     *
+     * @param granularity
+     *            "hour" or "day"
+     * @param from
+     *            start of the range, inclusive, or null for the first bucket
+     * @param to
+     *            end of the range, exclusive, or null for the last bucket
+     * @return the totals, without the changes not yet flushed
+     * @throws WolfCafeAPIException
+     *             with BAD_REQUEST status if the granularity is unknown
+     */
+    List<SalesRollupDto> getSales ( String granularity, LocalDateTime from, LocalDateTime to );
+
+    /**
+     * Returns the units of each item sold in each hour or day in a time
+     * range, oldest first.
+     *
+     * @param granularity
+     *            "hour" or "day"
+     * @param from
+     *            start of the range, inclusive, or null for the first bucket
+     * @param to
+     *            end of the range, exclusive, or null for the last bucket
+     * @return the units sold
+     * @throws WolfCafeAPIException
+     *             with BAD_REQUEST status if the granularity is unknown
+     */
+    List<ItemSalesDto> getItemSales ( String granularity, LocalDateTime from, LocalDateTime to );
+
+    /**
+     * Works out every rollup again from the order history, for the orders
+     * fulfilled before rollups were kept or if they are ever out of step.
+     * The changes still buffered are dropped, since the orders they came from
+     * are counted again.
+     */
+    void rebuild ();
+
+}
@@ -0,0 +1,62 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.util.Map;
+
+/**
+ * Holds the ingredients for each pending order from the moment it is created,
+ * so that an order that was accepted can always be fulfilled. Reservations
+ * that are neither committed nor released expire after a timeout.
+ */
+public interface StockReservationService {
+
+    /**
+     * Reserves the ingredients needed to make an order.
+     *
+     * @param orderId
+     *            id of the order
+     * @param needs
+     *            quantity needed, keyed by ingredient id
+     * @return true if there was enough stock to reserve
+     */
+    boolean reserve ( Long orderId, Map<Long, Integer> needs );
+
+    /**
+     * Commits an order's reservation because the order is being fulfilled.
+     *
+     * @param orderId
+     *            id of the order
+     * @return the reserved quantities keyed by ingredient id, or null if the
+     *         order has no reservation, for example because it expired
+     * @throws org.springframework.dao.OptimisticLockingFailureException
+     *             if another transaction is committing or releasing the same
+     *             reservation
+     */
+    Map<Long, Integer> commit ( Long orderId );
+
+    /**
+     * Releases an order's reservation, if it has one, because the order will
+     * not be made.
+     *
+     * @param orderId
+     *            id of the order
+     * @throws org.springframework.dao.OptimisticLockingFailureException
+     *             if another transaction is committing or releasing the same
+     *             reservation
+     */
+    void release ( Long orderId );
+
+    /**
+     * Checks if an order holds a reservation.
+     *
+     * @param orderId
+     *            id of the order
+     * @return true if the order's ingredients are reserved
+     */
+    boolean isReserved ( Long orderId );
+
+    /**
+     * Releases every reservation that has passed its timeout.
+     */
+    void releaseExpired ();
+
+}
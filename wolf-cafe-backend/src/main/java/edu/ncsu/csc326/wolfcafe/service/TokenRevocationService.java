@@ -0,0 +1,43 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import java.util.Date;
+
+/**
+ * Revokes tokens before they expire, either one at a time such as on logout,
+ * or every token issued to a user such as when the user is deleted or
+ * changed. Revocations are
+ * persisted, so they survive a restart and reach every instance, and are
+ * kept in the in-memory TokenRevocationList that each request is checked
+ * against. Revocations are dropped once their tokens would have expired.
+ */
+public interface TokenRevocationService {
+
+    /**
+     * Revokes a token until it expires.
+     *
+     * @param jti
+     *            id of the token
+     * @param expiresAt
+     *            when the token expires
+     */
+    void revoke ( String jti, Date expiresAt );
+
+    /**
+     * Revokes every token issued to a user up to now.
+     *
+     * @param userId
+     *            id of the user
+     */
+    void revokeUser ( Long userId );
+
+    /**
+     * Loads every revocation that hasn't expired into memory.
+     */
+    void load ();
+
+    /**
+     * Drops the revocations that have expired, and loads any made elsewhere.
+     */
+    void prune ();
+
+}
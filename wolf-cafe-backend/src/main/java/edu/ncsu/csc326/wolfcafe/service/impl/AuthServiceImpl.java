@@ -1,6 +1,8 @@
 package edu.ncsu.csc326.wolfcafe.service.impl;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -11,11 +13,16 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import edu.ncsu.csc326.wolfcafe.dto.EditUserDto;
 import edu.ncsu.csc326.wolfcafe.dto.JwtAuthResponse;
 import edu.ncsu.csc326.wolfcafe.dto.LoginDto;
 import edu.ncsu.csc326.wolfcafe.dto.RegisterDto;
+import edu.ncsu.csc326.wolfcafe.dto.RoleDto;
+import edu.ncsu.csc326.wolfcafe.dto.UserDetailsCacheMetricsDto;
+import edu.ncsu.csc326.wolfcafe.dto.UserDto;
+import edu.ncsu.csc326.wolfcafe.dto.UserRoleRowDto;
 import edu.ncsu.csc326.wolfcafe.entity.Role;
 import edu.ncsu.csc326.wolfcafe.entity.User;
 import edu.ncsu.csc326.wolfcafe.exception.ResourceNotFoundException;
@@ -23,7 +30,11 @@ import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
 import edu.ncsu.csc326.wolfcafe.repository.RoleRepository;
 import edu.ncsu.csc326.wolfcafe.repository.UserRepository;
 import edu.ncsu.csc326.wolfcafe.security.JwtTokenProvider;
+import edu.ncsu.csc326.wolfcafe.security.UserDetailsCache;
 import edu.ncsu.csc326.wolfcafe.service.AuthService;
+import edu.ncsu.csc326.wolfcafe.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.AllArgsConstructor;
 
 /**
@@ -35,15 +46,19 @@ import lombok.AllArgsConstructor;
 public class AuthServiceImpl implements AuthService {
 
     /** User repository */
-    private final UserRepository        userRepository;
+    private final UserRepository         userRepository;
     /** Role repository */
-    private final RoleRepository        roleRepository;
+    private final RoleRepository         roleRepository;
     /** Password encoder object */
-    private final PasswordEncoder       passwordEncoder;
+    private final PasswordEncoder        passwordEncoder;
     /** Authentication manager */
-    private final AuthenticationManager authenticationManager;
+    private final AuthenticationManager  authenticationManager;
     /** JWT Token provider for working with user tokens */
-    private final JwtTokenProvider      jwtTokenProvider;
+    private final JwtTokenProvider       jwtTokenProvider;
+    /** Users recently loaded for authentication */
+    private final UserDetailsCache       userDetailsCache;
+    /** Revokes tokens on logout, and a user's tokens when it changes */
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * Registers the given user
@@ -93,11 +108,12 @@ public class AuthServiceImpl implements AuthService {
 
         SecurityContextHolder.getContext().setAuthentication( authentication );
 
-        final String token = jwtTokenProvider.generateToken( authentication );
-
         final Optional<User> userOptional = userRepository.findByUsernameOrEmail( loginDto.getUsernameOrEmail(),
                 loginDto.getUsernameOrEmail() );
 
+        final String token = jwtTokenProvider.generateToken( authentication,
+                userOptional.map( User::getId ).orElse( null ) );
+
         String role = null;
         if ( userOptional.isPresent() ) {
             final User loggedInUser = userOptional.get();
@@ -125,6 +141,22 @@ public class AuthServiceImpl implements AuthService {
         return jwtAuthResponse;
     }
 
+    @Override
+    public void logout ( final String token ) {
+        final Claims claims;
+        try {
+            claims = jwtTokenProvider.parseAndValidate( token );
+        }
+        catch ( final JwtException | IllegalArgumentException e ) {
+            // A token that no longer works has nothing left to revoke
+            return;
+        }
+        // Tokens issued before they carried an id can only expire
+        if ( claims.getId() != null ) {
+            tokenRevocationService.revoke( claims.getId(), claims.getExpiration() );
+        }
+    }
+
     @Override
     public String registerStaff ( final RegisterDto registerDto ) {
         if ( registerDto.getName() == null || registerDto.getName().trim().isEmpty() ) {
@@ -185,6 +217,8 @@ public class AuthServiceImpl implements AuthService {
         userRepository.findById( id )
                 .orElseThrow( () -> new ResourceNotFoundException( "User not found with id " + id ) );
         userRepository.deleteById( id );
+        tokenRevocationService.revokeUser( id );
+        userDetailsCache.invalidate( id );
     }
 
     @Override
@@ -198,6 +232,12 @@ public class AuthServiceImpl implements AuthService {
         }
 
     }
+
+    @Override
+    public Long getIdByUsernameOrEmail ( final String usernameOrEmail ) {
+        return userRepository.findByUsernameOrEmail( usernameOrEmail, usernameOrEmail ).map( User::getId )
+                .orElse( null );
+    }
     
     /**
      * Updates info of existing user
@@ -215,8 +255,50 @@ public class AuthServiceImpl implements AuthService {
         if (dto.getEmail() != null) user.setEmail(dto.getEmail());
 
         userRepository.save(user);
+        tokenRevocationService.revokeUser(id);
+        userDetailsCache.invalidate(id);
         
         return "User updated successfully.";
     }
 
+    @Override
+    @Transactional ( readOnly = true )
+    public List<UserDto> getAllUsers () {
+        return users( userRepository.findUserRoleRows() );
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public List<UserDto> getAllStaff () {
+        return users( userRepository.findUserRoleRowsByRole( "ROLE_STAFF" ) );
+    }
+
+    @Override
+    public UserDetailsCacheMetricsDto getUserCacheMetrics () {
+        return userDetailsCache.getMetrics();
+    }
+
+    /**
+     * Helper method that groups user and role rows into users, keeping the
+     * order of the rows.
+     *
+     * @param rows
+     *            the rows, with each user's rows together
+     * @return the users
+     */
+    private static List<UserDto> users ( final List<UserRoleRowDto> rows ) {
+        final List<UserDto> users = new ArrayList<>();
+        UserDto user = null;
+        for ( final UserRoleRowDto row : rows ) {
+            if ( user == null || !user.getId().equals( row.getUserId() ) ) {
+                user = new UserDto( row.getUserId(), row.getName(), row.getUsername(), row.getEmail(),
+                        new ArrayList<>() );
+                users.add( user );
+            }
+            if ( row.getRoleId() != null ) {
+                user.getRoles().add( new RoleDto( row.getRoleId(), row.getRoleName() ) );
+            }
+        }
+        return users;
+    }
 }
@@ -0,0 +1,96 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.exception.ResourceNotFoundException;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.service.BillOfMaterialsService;
+
+/**
+ * Implemented bill of materials cache. Each item's bill is flattened into an
+ * int array of alternating ingredient ids and quantities, which is never
+ * changed once built.
+ */
+@Service
+public class BillOfMaterialsServiceImpl implements BillOfMaterialsService {
+
+    /** Flattened bill of materials, keyed by item id */
+    private final Map<Long, int[]> bills = new ConcurrentHashMap<>();
+
+    /** Item repository, used to build a bill on a miss */
+    private final ItemRepository   itemRepository;
+
+    /**
+     * Constructs the cache.
+     *
+     * @param itemRepository
+     *            repository to load items from
+     */
+    public BillOfMaterialsServiceImpl ( final ItemRepository itemRepository ) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public void accumulate ( final Long itemId, final int count, final Map<Long, Integer> needs ) {
+        int[] bill = bills.get( itemId );
+        if ( bill == null ) {
+            // Load outside the map, so a slow query doesn't hold up other
+            // items' bills. If another thread built it first, use theirs
+            final int[] loaded = flatten( itemRepository.findById( itemId )
+                    .orElseThrow( () -> new ResourceNotFoundException( "Item not found with id " + itemId ) ) );
+            final int[] existing = bills.putIfAbsent( itemId, loaded );
+            bill = existing != null ? existing : loaded;
+        }
+        for ( int i = 0; i < bill.length; i += 2 ) {
+            needs.merge( (long) bill[i], bill[i + 1] * count, Integer::sum );
+        }
+    }
+
+    @Override
+    public void put ( final Item item ) {
+        final Long itemId = item.getId();
+        final int[] bill = flatten( item );
+        bills.remove( itemId );
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            bills.put( itemId, bill );
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCommit () {
+                bills.put( itemId, bill );
+            }
+        } );
+    }
+
+    @Override
+    public void evict ( final Long itemId ) {
+        bills.remove( itemId );
+    }
+
+    /**
+     * Flattens an item's ingredients into alternating ingredient ids and
+     * quantities.
+     *
+     * @param item
+     *            item to flatten
+     * @return the flattened bill of materials
+     */
+    private static int[] flatten ( final Item item ) {
+        final int[] bill = new int[item.getIngredients().size() * 2];
+        int i = 0;
+        for ( final ItemIngredient ii : item.getIngredients() ) {
+            bill[i++] = Math.toIntExact( ii.getIngredient().getId() );
+            bill[i++] = ii.getQuantity();
+        }
+        return bill;
+    }
+
+}
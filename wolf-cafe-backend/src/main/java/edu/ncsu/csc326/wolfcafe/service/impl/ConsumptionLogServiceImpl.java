@@ -0,0 +1,376 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import edu.ncsu.csc326.wolfcafe.dto.ConsumptionDto;
+import edu.ncsu.csc326.wolfcafe.dto.ConsumptionForecastDto;
+import edu.ncsu.csc326.wolfcafe.entity.ConsumptionBucket;
+import edu.ncsu.csc326.wolfcafe.entity.ConsumptionEvent;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.repository.ConsumptionBucketRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ConsumptionEventRepository;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.service.ConsumptionLogService;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Implemented consumption log. Fulfillments only add their debits to an
+ * in-memory buffer once they commit. A scheduled flush drains the buffer,
+ * appends the debits to the log in batched inserts and adds them up into one
+ * upsert per bucket. A flush that fails puts its debits back to be tried
+ * again. The buffer is bounded. Once it fills up a flush is started early in
+ * the background, and debits that don't fit meanwhile are counted and dropped
+ * rather than slowing fulfillment down.
+ */
+@Service
+public class ConsumptionLogServiceImpl implements ConsumptionLogService {
+
+    /** Reports dropped debits and failed early flushes */
+    private static final Logger                  LOG           = LoggerFactory
+            .getLogger( ConsumptionLogServiceImpl.class );
+
+    /** Every granularity kept, with the unit its buckets are truncated to */
+    private static final Map<String, ChronoUnit> GRANULARITIES = Map.of( ConsumptionBucket.HOUR, ChronoUnit.HOURS,
+            ConsumptionBucket.DAY, ChronoUnit.DAYS );
+
+    /** Earlier than any bucket, used when the range has no start */
+    private static final LocalDateTime           EARLIEST      = LocalDateTime.of( 1000, 1, 1, 0, 0 );
+
+    /** Later than any bucket, used when the range has no end */
+    private static final LocalDateTime           LATEST        = LocalDateTime.of( 9999, 12, 31, 0, 0 );
+
+    /** Debits waiting to be flushed */
+    private final Queue<ConsumptionEvent>        buffer        = new ConcurrentLinkedQueue<>();
+
+    /** Number of debits in the buffer */
+    private final AtomicInteger                  buffered      = new AtomicInteger();
+
+    /** Number of debits dropped since startup */
+    private final AtomicLong                     dropped       = new AtomicLong();
+
+    /** Number of debits dropped since the last flush warned of them */
+    private final AtomicLong                     unreported    = new AtomicLong();
+
+    /** Runs the early flushes, at most one waiting */
+    private final ThreadPoolExecutor             flusher;
+
+    /** Consumption log repository */
+    private final ConsumptionEventRepository     consumptionEventRepository;
+
+    /** Consumption bucket repository */
+    private final ConsumptionBucketRepository    consumptionBucketRepository;
+
+    /** Ingredient repository, for names and stock */
+    private final IngredientRepository           ingredientRepository;
+
+    /** Runs each flush and compaction in its own transaction */
+    private final TransactionTemplate            transactionTemplate;
+
+    /** Most debits held in the buffer */
+    private final int                            capacity;
+
+    /** Days hourly buckets are kept */
+    private final int                            hourlyRetentionDays;
+
+    /** Days log entries are kept */
+    private final int                            logRetentionDays;
+
+    /** Number of past days the forecast smooths over */
+    private final int                            forecastDays;
+
+    /** Weight the forecast gives each day over the days before it */
+    private final double                         alpha;
+
+    /**
+     * Constructs the consumption log.
+     *
+     * @param consumptionEventRepository
+     *            repository of the log
+     * @param consumptionBucketRepository
+     *            repository of the buckets
+     * @param ingredientRepository
+     *            repository of the ingredients
+     * @param transactionTemplate
+     *            template to run flushes and compactions in
+     * @param capacity
+     *            most debits held in the buffer
+     * @param hourlyRetentionDays
+     *            days hourly buckets are kept
+     * @param logRetentionDays
+     *            days log entries are kept
+     * @param forecastDays
+     *            number of past days the forecast smooths over
+     * @param alpha
+     *            smoothing factor between 0 and 1, higher follows recent
+     *            days more closely
+     */
+    public ConsumptionLogServiceImpl ( final ConsumptionEventRepository consumptionEventRepository,
+            final ConsumptionBucketRepository consumptionBucketRepository,
+            final IngredientRepository ingredientRepository, final TransactionTemplate transactionTemplate,
+            @Value ( "${app.consumption-buffer-capacity:100000}" ) final int capacity,
+            @Value ( "${app.consumption-hourly-retention-days:7}" ) final int hourlyRetentionDays,
+            @Value ( "${app.consumption-log-retention-days:30}" ) final int logRetentionDays,
+            @Value ( "${app.consumption-forecast-days:28}" ) final int forecastDays,
+            @Value ( "${app.consumption-smoothing-alpha:0.3}" ) final double alpha ) {
+        this.consumptionEventRepository = consumptionEventRepository;
+        this.consumptionBucketRepository = consumptionBucketRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.capacity = capacity;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+        this.logRetentionDays = logRetentionDays;
+        this.forecastDays = Math.max( 1, forecastDays );
+        this.alpha = alpha;
+        this.flusher = new ThreadPoolExecutor( 1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>( 1 ),
+                runnable -> {
+                    final Thread thread = new Thread( runnable, "consumption-flush" );
+                    thread.setDaemon( true );
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy() );
+    }
+
+    /**
+     * Stops the early flushes and writes whatever is left in the buffer.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for an early flush
+     */
+    @PreDestroy
+    public void stop () throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination( 5, TimeUnit.SECONDS );
+        flush();
+    }
+
+    @Override
+    public void record ( final Map<Long, Integer> amounts ) {
+        if ( amounts.isEmpty() ) {
+            return;
+        }
+        final Map<Long, Integer> copy = Map.copyOf( amounts );
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            append( copy );
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCommit () {
+                append( copy );
+            }
+        } );
+    }
+
+    @Override
+    @Scheduled ( fixedDelayString = "${app.consumption-flush-milliseconds:5000}" )
+    public void flush () {
+        final long missed = unreported.getAndSet( 0 );
+        if ( missed > 0 ) {
+            LOG.warn( "Dropped {} consumption debits because the buffer of {} was full", missed, capacity );
+        }
+        final List<ConsumptionEvent> events = new ArrayList<>();
+        for ( ConsumptionEvent event = buffer.poll(); event != null; event = buffer.poll() ) {
+            events.add( event );
+        }
+        if ( events.isEmpty() ) {
+            return;
+        }
+        buffered.addAndGet( -events.size() );
+        try {
+            transactionTemplate.executeWithoutResult( tx -> {
+                consumptionEventRepository.saveAll( events );
+                consumptionBucketRepository.addAll( buckets( events ) );
+            } );
+        }
+        catch ( final RuntimeException e ) {
+            // Nothing was written, so put the debits back for the next flush
+            for ( final ConsumptionEvent event : events ) {
+                event.setId( null );
+                buffer.add( event );
+            }
+            buffered.addAndGet( events.size() );
+            throw e;
+        }
+    }
+
+    @Override
+    public long getDropped () {
+        return dropped.get();
+    }
+
+    @Override
+    @Scheduled ( fixedDelayString = "${app.consumption-compact-milliseconds:3600000}" )
+    public void compact () {
+        final LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult( tx -> {
+            consumptionBucketRepository.deleteBefore( ConsumptionBucket.HOUR,
+                    now.minusDays( hourlyRetentionDays ).truncatedTo( ChronoUnit.HOURS ) );
+            consumptionEventRepository.deleteBefore( now.minusDays( logRetentionDays ) );
+        } );
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public List<ConsumptionDto> getConsumption ( final String granularity, final LocalDateTime from,
+            final LocalDateTime to ) {
+        if ( !GRANULARITIES.containsKey( granularity ) ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "granularity must be hour or day" );
+        }
+        final List<ConsumptionBucket> buckets = consumptionBucketRepository.findRange( granularity,
+                from != null ? from : EARLIEST, to != null ? to : LATEST );
+
+        // Look up the names of every ingredient in the range at once
+        final Set<Long> ids = buckets.stream().map( ConsumptionBucket::getIngredientId ).collect( Collectors.toSet() );
+        final Map<Long, String> names = ingredientRepository.findAllById( ids ).stream()
+                .collect( Collectors.toMap( Ingredient::getId, Ingredient::getName ) );
+
+        return buckets.stream().map( b -> new ConsumptionDto( b.getBucketStart(), b.getIngredientId(),
+                names.get( b.getIngredientId() ), b.getAmount() ) ).collect( Collectors.toList() );
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public List<ConsumptionForecastDto> forecast () {
+        // Only whole days are smoothed, today is still filling up
+        final LocalDate today = LocalDate.now();
+        final LocalDate start = today.minusDays( forecastDays );
+        final Map<Long, long[]> daily = new HashMap<>();
+        for ( final ConsumptionBucket bucket : consumptionBucketRepository.findRange( ConsumptionBucket.DAY,
+                start.atStartOfDay(), today.atStartOfDay() ) ) {
+            final int day = (int) ChronoUnit.DAYS.between( start, bucket.getBucketStart().toLocalDate() );
+            daily.computeIfAbsent( bucket.getIngredientId(), id -> new long[forecastDays] )[day] += bucket
+                    .getAmount();
+        }
+        // Days before an ingredient was first used aren't days it went unused
+        final Map<Long, Integer> firstDays = new HashMap<>();
+        for ( final ConsumptionBucket bucket : consumptionBucketRepository.findFirst( ConsumptionBucket.DAY ) ) {
+            final long day = ChronoUnit.DAYS.between( start, bucket.getBucketStart().toLocalDate() );
+            firstDays.put( bucket.getIngredientId(), (int) Math.max( 0, Math.min( day, forecastDays - 1 ) ) );
+        }
+
+        final List<ConsumptionForecastDto> forecasts = new ArrayList<>();
+        for ( final Ingredient ingredient : ingredientRepository.findAll() ) {
+            final int quantity = ingredient.getQuantity() != null ? ingredient.getQuantity() : 0;
+            final long[] days = daily.get( ingredient.getId() );
+            final double rate = days != null ? smooth( days, firstDays.getOrDefault( ingredient.getId(), 0 ) ) : 0;
+            final Double daysLeft = rate > 0 ? quantity / rate : null;
+            final LocalDate depletesOn = daysLeft != null ? today.plusDays( (long) Math.floor( daysLeft ) ) : null;
+            forecasts.add( new ConsumptionForecastDto( ingredient.getId(), ingredient.getName(), quantity, rate,
+                    daysLeft, depletesOn ) );
+        }
+        // Soonest to run out first, unused ingredients last
+        forecasts.sort( Comparator.comparing( ConsumptionForecastDto::getDaysLeft,
+                Comparator.nullsLast( Comparator.naturalOrder() ) ) );
+        return forecasts;
+    }
+
+    /**
+     * Helper method that adds debits to the buffer. Starts a flush once the
+     * buffer is full, and counts and drops the debits that don't fit.
+     *
+     * @param amounts
+     *            quantity taken, keyed by ingredient id
+     */
+    private void append ( final Map<Long, Integer> amounts ) {
+        final LocalDateTime now = LocalDateTime.now();
+        amounts.forEach( ( ingredientId, amount ) -> {
+            if ( amount <= 0 ) {
+                return;
+            }
+            final int size = buffered.incrementAndGet();
+            if ( size > capacity ) {
+                buffered.decrementAndGet();
+                dropped.incrementAndGet();
+                unreported.incrementAndGet();
+                flushEarly();
+                return;
+            }
+            buffer.add( new ConsumptionEvent( null, ingredientId, now, amount ) );
+            if ( size == capacity ) {
+                flushEarly();
+            }
+        } );
+    }
+
+    /**
+     * Helper method that starts a flush in the background, unless one is
+     * already waiting. A flush that fails leaves its debits for the next one.
+     */
+    private void flushEarly () {
+        flusher.execute( () -> {
+            try {
+                flush();
+            }
+            catch ( final RuntimeException e ) {
+                LOG.warn( "Early flush of the consumption log failed", e );
+            }
+        } );
+    }
+
+    /**
+     * Helper method that adds up debits into the buckets they fall in.
+     *
+     * @param events
+     *            the debits
+     * @return the amount to add to each bucket
+     */
+    private static List<ConsumptionBucket> buckets ( final List<ConsumptionEvent> events ) {
+        final Map<ConsumptionBucket.Key, ConsumptionBucket> buckets = new HashMap<>();
+        for ( final ConsumptionEvent event : events ) {
+            GRANULARITIES.forEach( ( granularity, unit ) -> {
+                final LocalDateTime start = event.getConsumedAt().truncatedTo( unit );
+                final ConsumptionBucket bucket = buckets.computeIfAbsent(
+                        new ConsumptionBucket.Key( granularity, start, event.getIngredientId() ),
+                        k -> new ConsumptionBucket( granularity, start, event.getIngredientId(), 0L ) );
+                bucket.setAmount( bucket.getAmount() + event.getAmount() );
+            } );
+        }
+        return new ArrayList<>( buckets.values() );
+    }
+
+    /**
+     * Helper method that smooths a series of daily amounts exponentially,
+     * each day weighted by alpha against the smoothed days before it.
+     *
+     * @param days
+     *            amount used each day, oldest first
+     * @param first
+     *            index of the day to start smoothing at
+     * @return the smoothed amount per day
+     */
+    private double smooth ( final long[] days, final int first ) {
+        double level = days[first];
+        for ( int i = first + 1; i < days.length; i++ ) {
+            level = alpha * days[i] + ( 1 - alpha ) * level;
+        }
+        return level;
+    }
+
+}
@@ -0,0 +1,194 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.service.IdempotencyService;
+
+/**
+ * Implemented idempotency service. Each key maps to a future that the first
+ * caller completes, so concurrent duplicates wait on the same future and the
+ * work runs once. Keys are evicted once their time to live passes, and when
+ * the store is full the oldest finished key makes room for the new one.
+ *
+ * Every key lives as long, so the order keys were stored in is also the order
+ * they expire in. Keys are queued in that order alongside the map, and making
+ * room takes the oldest from the head of the queue instead of searching the
+ * map. A queued key whose entry has since been removed or replaced is
+ * skipped and dropped.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    /**
+     * A remembered request.
+     *
+     * @param result
+     *            the request's result, done once the first call finishes
+     * @param expires
+     *            when the key is forgotten
+     */
+    private record Entry ( CompletableFuture<Object> result, Instant expires ) {
+    }
+
+    /**
+     * A stored key, in the order they were stored.
+     *
+     * @param key
+     *            the client's key
+     * @param entry
+     *            the entry stored under it
+     */
+    private record Stored ( String key, Entry entry ) {
+    }
+
+    /** Remembered requests, keyed by the client's key */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Stored keys, oldest first */
+    private final Queue<Stored>      order   = new ConcurrentLinkedQueue<>();
+
+    /** How long a key is remembered */
+    private final Duration           ttl;
+
+    /** Most keys remembered at once */
+    private final int                maxEntries;
+
+    /**
+     * Constructs the idempotency service.
+     *
+     * @param ttlMinutes
+     *            minutes a key is remembered
+     * @param maxEntries
+     *            most keys remembered at once
+     */
+    public IdempotencyServiceImpl ( @Value ( "${app.idempotency-ttl-minutes:60}" ) final long ttlMinutes,
+            @Value ( "${app.idempotency-max-entries:10000}" ) final int maxEntries ) {
+        this.ttl = Duration.ofMinutes( ttlMinutes );
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    @SuppressWarnings ( "unchecked" )
+    public <T> T execute ( final String key, final Supplier<T> work ) {
+        final Entry entry = new Entry( new CompletableFuture<>(), Instant.now().plus( ttl ) );
+        final Entry existing = entries.putIfAbsent( key, entry );
+        if ( existing != null && !isExpired( existing, Instant.now() ) ) {
+            return (T) await( existing.result() );
+        }
+        if ( existing != null && !entries.replace( key, existing, entry ) ) {
+            // Someone else replaced the expired key first, share their result
+            return execute( key, work );
+        }
+        order.offer( new Stored( key, entry ) );
+        try {
+            makeRoom();
+            final T result = work.get();
+            entry.result().complete( result );
+            return result;
+        }
+        catch ( final RuntimeException | Error e ) {
+            // Let waiting duplicates see the failure, and let a retry run again
+            entries.remove( key, entry );
+            entry.result().completeExceptionally( e );
+            throw e;
+        }
+    }
+
+    @Override
+    @Scheduled ( fixedDelayString = "${app.idempotency-sweep-milliseconds:60000}" )
+    public void evictExpired () {
+        final Instant now = Instant.now();
+        // Also drops queued keys that failed or were replaced since the last
+        // sweep, so the queue doesn't outgrow the map
+        order.removeIf( stored -> {
+            final Entry entry = entries.get( stored.key() );
+            if ( entry != stored.entry() ) {
+                return true;
+            }
+            return isExpired( entry, now ) && entries.remove( stored.key(), entry );
+        } );
+    }
+
+    /**
+     * Keeps the store within its bound by evicting the oldest finished keys,
+     * which are also the first to expire. Keys still being worked on are
+     * never evicted, and go to the back of the queue instead.
+     *
+     * @throws WolfCafeAPIException
+     *             with SERVICE_UNAVAILABLE status if every key is still
+     *             being worked on
+     */
+    private void makeRoom () {
+        int inProgress = 0;
+        while ( entries.size() > maxEntries ) {
+            final Stored oldest = order.poll();
+            if ( oldest == null || inProgress > entries.size() ) {
+                if ( oldest != null ) {
+                    order.offer( oldest );
+                }
+                throw new WolfCafeAPIException( HttpStatus.SERVICE_UNAVAILABLE,
+                        "Too many requests in progress, please try again" );
+            }
+            if ( entries.get( oldest.key() ) != oldest.entry() ) {
+                // Failed or replaced since it was queued
+                continue;
+            }
+            if ( !oldest.entry().result().isDone() ) {
+                order.offer( oldest );
+                inProgress++;
+                continue;
+            }
+            entries.remove( oldest.key(), oldest.entry() );
+        }
+    }
+
+    /**
+     * Waits for a remembered request to finish.
+     *
+     * @param result
+     *            the request's result
+     * @return the result
+     */
+    private static Object await ( final CompletableFuture<Object> result ) {
+        try {
+            return result.join();
+        }
+        catch ( final CompletionException e ) {
+            if ( e.getCause() instanceof final RuntimeException cause ) {
+                throw cause;
+            }
+            if ( e.getCause() instanceof final Error cause ) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a finished request has outlived its time to live.
+     *
+     * @param entry
+     *            the remembered request
+     * @param now
+     *            the current time
+     * @return true if the key should be forgotten
+     */
+    private static boolean isExpired ( final Entry entry, final Instant now ) {
+        return entry.result().isDone() && entry.expires().isBefore( now );
+    }
+
+}
@@ -0,0 +1,312 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.service.IngredientLedgerService;
+
+/**
+ * Implemented ingredient ledger. Each ingredient's stock is an AtomicInteger
+ * in a ConcurrentHashMap keyed by ingredient id, so checks and debits cost one
+ * map lookup and one compare-and-set per ingredient in the order. Reserving
+ * never takes a lock, so concurrent orders only contend on the ingredients
+ * they share.
+ */
+@Service
+public class IngredientLedgerServiceImpl implements IngredientLedgerService {
+
+    /** Available stock of each ingredient, keyed by ingredient id */
+    private final Map<Long, AtomicInteger>         stock     = new ConcurrentHashMap<>();
+
+    /** Reserved stock of each ingredient, keyed by ingredient id */
+    private final Map<Long, AtomicInteger>         reserved  = new ConcurrentHashMap<>();
+
+    /** Told which ingredients changed after every change */
+    private final List<Consumer<Collection<Long>>> listeners = new CopyOnWriteArrayList<>();
+
+    /** Key the current transaction's undo log is bound under */
+    private final Object                           undoKey   = new Object();
+
+    /** Ingredient repository, used to load counters on a miss */
+    private final IngredientRepository             ingredientRepository;
+
+    /**
+     * Constructs the ledger.
+     *
+     * @param ingredientRepository
+     *            repository to load ingredient stock from
+     */
+    public IngredientLedgerServiceImpl ( final IngredientRepository ingredientRepository ) {
+        this.ingredientRepository = ingredientRepository;
+    }
+
+    @Override
+    public int getQuantity ( final Long ingredientId ) {
+        load( List.of( ingredientId ) );
+        final AtomicInteger counter = stock.get( ingredientId );
+        return counter != null ? counter.get() : 0;
+    }
+
+    @Override
+    public void addListener ( final Consumer<Collection<Long>> listener ) {
+        listeners.add( listener );
+    }
+
+    @Override
+    public boolean tryDebit ( final Map<Long, Integer> needs ) {
+        if ( !takeAvailable( needs ) ) {
+            return false;
+        }
+        onRollback( () -> adjustStock( needs, 1 ) );
+        return true;
+    }
+
+    @Override
+    public boolean tryReserve ( final Map<Long, Integer> needs ) {
+        if ( !takeAvailable( needs ) ) {
+            return false;
+        }
+        adjustReserved( needs, 1 );
+        onRollback( () -> {
+            adjustReserved( needs, -1 );
+            adjustStock( needs, 1 );
+        } );
+        return true;
+    }
+
+    @Override
+    public void release ( final Map<Long, Integer> needs ) {
+        adjustReserved( needs, -1 );
+        adjustStock( needs, 1 );
+        onRollback( () -> {
+            adjustStock( needs, -1 );
+            adjustReserved( needs, 1 );
+        } );
+    }
+
+    @Override
+    public void commit ( final Map<Long, Integer> needs ) {
+        adjustReserved( needs, -1 );
+        onRollback( () -> adjustReserved( needs, 1 ) );
+    }
+
+    @Override
+    public void refresh ( final Collection<Ingredient> ingredients ) {
+        final List<Long> ids = new ArrayList<>();
+        for ( final Ingredient ingredient : ingredients ) {
+            final int quantity = available( ingredient );
+            stock.compute( ingredient.getId(), ( id, counter ) -> {
+                if ( counter == null ) {
+                    return new AtomicInteger( quantity );
+                }
+                counter.set( quantity );
+                return counter;
+            } );
+            ids.add( ingredient.getId() );
+        }
+        changed( ids );
+        onRollback( () -> drop( ids ) );
+    }
+
+    @Override
+    public void invalidate ( final Collection<Long> ingredientIds ) {
+        final List<Long> ids = new ArrayList<>( ingredientIds );
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            drop( ids );
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCompletion ( final int status ) {
+                drop( ids );
+            }
+        } );
+    }
+
+    /**
+     * Loads the counters for any of the given ingredients that are not in the
+     * ledger yet, using a single query.
+     *
+     * @param ingredientIds
+     *            ids of the ingredients that are about to be used
+     */
+    private void load ( final Collection<Long> ingredientIds ) {
+        final List<Long> missing = ingredientIds.stream().filter( id -> id != null && !stock.containsKey( id ) )
+                .toList();
+        if ( missing.isEmpty() ) {
+            return;
+        }
+        final List<Long> loaded = new ArrayList<>();
+        for ( final Ingredient ingredient : ingredientRepository.findAllById( missing ) ) {
+            if ( stock.putIfAbsent( ingredient.getId(), new AtomicInteger( available( ingredient ) ) ) == null ) {
+                loaded.add( ingredient.getId() );
+            }
+        }
+        // Values read inside a transaction that rolls back may never have
+        // been committed
+        onRollback( () -> drop( loaded ) );
+    }
+
+    /**
+     * Returns how much of a saved ingredient is not held by a reservation.
+     *
+     * @param ingredient
+     *            the ingredient as stored in the database
+     * @return quantity available
+     */
+    private int available ( final Ingredient ingredient ) {
+        final int quantity = ingredient.getQuantity() != null ? ingredient.getQuantity() : 0;
+        final AtomicInteger held = reserved.get( ingredient.getId() );
+        return quantity - ( held != null ? held.get() : 0 );
+    }
+
+    /**
+     * Takes every amount from the available stock, or none of them if any one
+     * is short.
+     *
+     * @param needs
+     *            quantity needed, keyed by ingredient id
+     * @return true if the stock was taken
+     */
+    private boolean takeAvailable ( final Map<Long, Integer> needs ) {
+        load( needs.keySet() );
+        final Map<Long, Integer> taken = new HashMap<>();
+        for ( final Map.Entry<Long, Integer> need : needs.entrySet() ) {
+            final AtomicInteger counter = stock.get( need.getKey() );
+            if ( counter == null || !debit( counter, need.getValue() ) ) {
+                // Put back what was already taken so it is all or nothing
+                adjustStock( taken, 1 );
+                return false;
+            }
+            taken.put( need.getKey(), need.getValue() );
+        }
+        changed( needs.keySet() );
+        return true;
+    }
+
+    /**
+     * Adds each amount, times the given sign, to the available stock.
+     * Counters that have been dropped in the meantime are left alone, since
+     * they are reloaded from the database on next use.
+     *
+     * @param amounts
+     *            amounts keyed by ingredient id
+     * @param sign
+     *            1 to add the amounts, -1 to subtract them
+     */
+    private void adjustStock ( final Map<Long, Integer> amounts, final int sign ) {
+        amounts.forEach( ( id, amount ) -> {
+            final AtomicInteger counter = stock.get( id );
+            if ( counter != null ) {
+                counter.addAndGet( sign * amount );
+            }
+        } );
+        changed( amounts.keySet() );
+    }
+
+    /**
+     * Drops the counters for the given ingredients, so they are reloaded
+     * from the database on next use.
+     *
+     * @param ingredientIds
+     *            ids of the ingredients to drop
+     */
+    private void drop ( final Collection<Long> ingredientIds ) {
+        ingredientIds.forEach( stock::remove );
+        changed( ingredientIds );
+    }
+
+    /**
+     * Tells the listeners that the given ingredients changed.
+     *
+     * @param ingredientIds
+     *            ids of the ingredients that changed
+     */
+    private void changed ( final Collection<Long> ingredientIds ) {
+        if ( !ingredientIds.isEmpty() ) {
+            listeners.forEach( listener -> listener.accept( ingredientIds ) );
+        }
+    }
+
+    /**
+     * Adds each amount, times the given sign, to the reserved stock.
+     *
+     * @param amounts
+     *            amounts keyed by ingredient id
+     * @param sign
+     *            1 to add the amounts, -1 to subtract them
+     */
+    private void adjustReserved ( final Map<Long, Integer> amounts, final int sign ) {
+        amounts.forEach( ( id, amount ) -> reserved.computeIfAbsent( id, k -> new AtomicInteger() )
+                .addAndGet( sign * amount ) );
+    }
+
+    /**
+     * Takes the given amount from the counter unless that would make it
+     * negative.
+     *
+     * @param counter
+     *            the counter to debit
+     * @param amount
+     *            the amount to take
+     * @return true if the amount was taken
+     */
+    private static boolean debit ( final AtomicInteger counter, final int amount ) {
+        int current;
+        do {
+            current = counter.get();
+            if ( current < amount ) {
+                return false;
+            }
+        }
+        while ( !counter.compareAndSet( current, current - amount ) );
+        return true;
+    }
+
+    /**
+     * Records an action that undoes a ledger change if the current transaction
+     * rolls back. Undo actions run in reverse order. Outside of a transaction
+     * changes are final and nothing is recorded.
+     *
+     * @param undo
+     *            the action to run on rollback
+     */
+    @SuppressWarnings ( "unchecked" )
+    private void onRollback ( final Runnable undo ) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            return;
+        }
+        Deque<Runnable> undoLog = (Deque<Runnable>) TransactionSynchronizationManager.getResource( undoKey );
+        if ( undoLog == null ) {
+            final Deque<Runnable> newLog = new ArrayDeque<>();
+            TransactionSynchronizationManager.bindResource( undoKey, newLog );
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+                @Override
+                public void afterCompletion ( final int status ) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible( undoKey );
+                    if ( status == STATUS_ROLLED_BACK ) {
+                        newLog.forEach( Runnable::run );
+                    }
+                }
+            } );
+            undoLog = newLog;
+        }
+        undoLog.push( undo );
+    }
+
+}
@@ -12,6 +12,7 @@ import edu.ncsu.csc326.wolfcafe.entity.Inventory;
 import edu.ncsu.csc326.wolfcafe.exception.ResourceNotFoundException;
 import edu.ncsu.csc326.wolfcafe.mapper.InventoryMapper;
 import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.service.IngredientLedgerService;
 import edu.ncsu.csc326.wolfcafe.service.InventoryService;
 
 /**
@@ -22,7 +23,11 @@ public class InventoryServiceImpl implements InventoryService {
 
     /** Connection to the repository to work with the DAO + database */
     @Autowired
-    private InventoryRepository inventoryRepository;
+    private InventoryRepository     inventoryRepository;
+
+    /** In-memory ledger of ingredient stock, kept in step with saves */
+    @Autowired
+    private IngredientLedgerService ingredientLedgerService;
 
     /**
      * Creates the inventory.
@@ -40,6 +45,7 @@ public class InventoryServiceImpl implements InventoryService {
                     .addIngredient( new Ingredient( ingredientDto.getName(), ingredientDto.getQuantity(), inventory ) );
         }
         final Inventory savedInventory = inventoryRepository.save( inventory );
+        ingredientLedgerService.refresh( savedInventory.getIngredients() );
         return InventoryMapper.mapToInventoryDto( savedInventory );
     }
 
@@ -90,6 +96,7 @@ public class InventoryServiceImpl implements InventoryService {
 
         // Save updated entity
         final Inventory savedInventory = inventoryRepository.save( inventory );
+        ingredientLedgerService.refresh( savedInventory.getIngredients() );
 
         return InventoryMapper.mapToInventoryDto( savedInventory );
     }
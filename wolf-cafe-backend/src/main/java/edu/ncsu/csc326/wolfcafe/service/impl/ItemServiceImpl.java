@@ -1,9 +1,11 @@
 package edu.ncsu.csc326.wolfcafe.service.impl;
 
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
 import edu.ncsu.csc326.wolfcafe.dto.ItemIngredientDto;
@@ -15,7 +17,10 @@ import edu.ncsu.csc326.wolfcafe.mapper.ItemIngredientMapper;
 import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
 import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
 import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.service.BillOfMaterialsService;
 import edu.ncsu.csc326.wolfcafe.service.ItemService;
+import edu.ncsu.csc326.wolfcafe.service.MenuAvailabilityService;
+import edu.ncsu.csc326.wolfcafe.service.MenuCacheService;
 import lombok.AllArgsConstructor;
 
 /**
@@ -26,10 +31,19 @@ import lombok.AllArgsConstructor;
 public class ItemServiceImpl implements ItemService {
 
     /** Item repository */
-    private final ItemRepository       itemRepository;
+    private final ItemRepository          itemRepository;
 
     /** Ingredient Repository */
-    private final IngredientRepository ingredientRepository;
+    private final IngredientRepository    ingredientRepository;
+
+    /** Cache of each item's bill of materials */
+    private final BillOfMaterialsService  billOfMaterialsService;
+
+    /** Index of how many of each item can be made */
+    private final MenuAvailabilityService menuAvailabilityService;
+
+    /** Cached JSON of the whole menu */
+    private final MenuCacheService        menuCacheService;
 
     /**
      * Adds given item
@@ -62,6 +76,9 @@ public class ItemServiceImpl implements ItemService {
         } );
 
         final Item savedItem = itemRepository.save( item );
+        billOfMaterialsService.put( savedItem );
+        menuAvailabilityService.put( savedItem );
+        menuCacheService.invalidate();
         return ItemMapper.mapToDto( savedItem );
     }
 
@@ -74,20 +91,32 @@ public class ItemServiceImpl implements ItemService {
      */
     @Override
     public ItemDto getItem ( final Long id ) {
-        final Item item = itemRepository.findById( id )
+        final Item item = itemRepository.findWithIngredientsById( id )
                 .orElseThrow( () -> new ResourceNotFoundException( "Item not found with id " + id ) );
         return ItemMapper.mapToDto( item );
     }
 
     /**
-     * Returns all items
+     * Returns all items. Reads the items and their recipes straight into
+     * DTOs, in two queries, without loading any entities.
      *
      * @return all items
      */
     @Override
+    @Transactional ( readOnly = true )
     public List<ItemDto> getAllItems () {
-        final List<Item> items = itemRepository.findAll();
-        return items.stream().map( ( item ) -> ItemMapper.mapToDto( item ) ).collect( Collectors.toList() );
+        final List<ItemDto> items = itemRepository.findMenu();
+        final Map<Long, ItemDto> byId = new HashMap<>();
+        for ( final ItemDto item : items ) {
+            byId.put( item.getId(), item );
+        }
+        for ( final ItemIngredientDto line : itemRepository.findMenuIngredients() ) {
+            final ItemDto item = byId.get( line.getItemId() );
+            if ( item != null ) {
+                item.getIngredients().add( line );
+            }
+        }
+        return items;
     }
 
     /**
@@ -128,6 +157,9 @@ public class ItemServiceImpl implements ItemService {
             item.getIngredients().add( ii );
         }
         final Item updatedItem = itemRepository.save( ( item ) );
+        billOfMaterialsService.put( updatedItem );
+        menuAvailabilityService.put( updatedItem );
+        menuCacheService.invalidate();
         return ItemMapper.mapToDto( updatedItem );
     }
 
@@ -142,11 +174,14 @@ public class ItemServiceImpl implements ItemService {
         itemRepository.findById( id )
                 .orElseThrow( () -> new ResourceNotFoundException( "Item not found with id " + id ) );
         itemRepository.deleteById( id );
+        billOfMaterialsService.evict( id );
+        menuAvailabilityService.remove( id );
+        menuCacheService.invalidate();
     }
 
     @Override
     public ItemDto getItemByName ( final String name ) {
-        return itemRepository.findByName( name ).map( ItemMapper::mapToDto ).orElse( null );
+        return itemRepository.findWithIngredientsByName( name ).map( ItemMapper::mapToDto ).orElse( null );
 
     }
 
@@ -0,0 +1,226 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ncsu.csc326.wolfcafe.dto.QueuedOrderDto;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.entity.OrderItem;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+import edu.ncsu.csc326.wolfcafe.service.BillOfMaterialsService;
+import edu.ncsu.csc326.wolfcafe.service.IngredientLedgerService;
+import edu.ncsu.csc326.wolfcafe.service.KitchenQueueService;
+import edu.ncsu.csc326.wolfcafe.service.StockReservationService;
+
+/**
+ * Implemented kitchen queue. Each pending order is indexed with the
+ * ingredients it needs, so building the queue never touches the database.
+ */
+@Service
+public class KitchenQueueServiceImpl implements KitchenQueueService {
+
+    /**
+     * A pending order in the index.
+     *
+     * @param id
+     *            id of the order
+     * @param created
+     *            when the order was created
+     * @param needs
+     *            ingredients needed to make the order, keyed by ingredient id
+     */
+    private record PendingOrder ( Long id, LocalDateTime created, Map<Long, Integer> needs ) {
+    }
+
+    /** Oldest order first, by id when created at the same time */
+    private static final Comparator<PendingOrder> OLDEST_FIRST = Comparator.comparing( PendingOrder::created )
+            .thenComparing( PendingOrder::id );
+
+    /** Pending orders, keyed by order id */
+    private final Map<Long, PendingOrder>         pending      = new ConcurrentHashMap<>();
+
+    /** Order repository, used to load the pending orders at startup */
+    private final OrderRepository                 orderRepository;
+
+    /** Bills of materials, used to work out each order's needs at startup */
+    private final BillOfMaterialsService          billOfMaterialsService;
+
+    /** Ledger of the stock available to unreserved orders */
+    private final IngredientLedgerService         ingredientLedgerService;
+
+    /** Reservations, to tell which orders already hold their stock */
+    private final StockReservationService         stockReservationService;
+
+    /**
+     * Constructs the kitchen queue.
+     *
+     * @param orderRepository
+     *            repository to load pending orders from
+     * @param billOfMaterialsService
+     *            bills of materials of the menu items
+     * @param ingredientLedgerService
+     *            ledger of ingredient stock
+     * @param stockReservationService
+     *            reservations held by pending orders
+     */
+    public KitchenQueueServiceImpl ( final OrderRepository orderRepository,
+            final BillOfMaterialsService billOfMaterialsService,
+            final IngredientLedgerService ingredientLedgerService,
+            final StockReservationService stockReservationService ) {
+        this.orderRepository = orderRepository;
+        this.billOfMaterialsService = billOfMaterialsService;
+        this.ingredientLedgerService = ingredientLedgerService;
+        this.stockReservationService = stockReservationService;
+    }
+
+    /**
+     * Loads the orders that were already pending when the application
+     * started. This is the only time the queue reads orders from the
+     * database.
+     */
+    @EventListener ( ApplicationReadyEvent.class )
+    @Transactional ( readOnly = true )
+    public void load () {
+        for ( final Order order : orderRepository.findByStatus( Order.PENDING ) ) {
+            final Map<Long, Integer> needs = new HashMap<>();
+            for ( final OrderItem oi : order.getItems() ) {
+                billOfMaterialsService.accumulate( oi.getItem().getId(), oi.getQuantity(), needs );
+            }
+            pending.putIfAbsent( order.getId(), new PendingOrder( order.getId(), order.getCreated(), needs ) );
+        }
+    }
+
+    @Override
+    public void add ( final Long orderId, final LocalDateTime created, final Map<Long, Integer> needs ) {
+        final PendingOrder order = new PendingOrder( orderId, created, Map.copyOf( needs ) );
+        afterCommit( () -> pending.put( orderId, order ) );
+    }
+
+    @Override
+    public void remove ( final Long orderId ) {
+        afterCommit( () -> pending.remove( orderId ) );
+    }
+
+    @Override
+    public List<QueuedOrderDto> getQueue () {
+        final List<PendingOrder> reserved = new ArrayList<>();
+        final List<PendingOrder> unreserved = new ArrayList<>();
+        for ( final PendingOrder order : pending.values() ) {
+            ( stockReservationService.isReserved( order.id() ) ? reserved : unreserved ).add( order );
+        }
+        reserved.sort( OLDEST_FIRST );
+
+        final List<QueuedOrderDto> queue = new ArrayList<>( pending.size() );
+        for ( final PendingOrder order : reserved ) {
+            queue.add( new QueuedOrderDto( order.id(), order.created(), true, true ) );
+        }
+        schedule( unreserved, queue );
+        return queue;
+    }
+
+    /**
+     * Helper method that picks the unreserved orders to make from the
+     * available stock. Only ingredients the orders ask for more of than is
+     * available are scarce. Each order costs the share of the available
+     * stock of each scarce ingredient it uses, and orders are taken cheapest
+     * first while they still fit. Taking the cheapest first is the usual
+     * greedy way to fit as many orders as possible, and it puts off orders
+     * that compete for the scarcest ingredients.
+     *
+     * @param orders
+     *            the unreserved pending orders
+     * @param queue
+     *            the queue to add the orders to, feasible ones first
+     */
+    private void schedule ( final List<PendingOrder> orders, final List<QueuedOrderDto> queue ) {
+        // Available stock and total demand of every ingredient involved
+        final Map<Long, Integer> stock = new HashMap<>();
+        final Map<Long, Integer> demand = new HashMap<>();
+        for ( final PendingOrder order : orders ) {
+            order.needs().forEach( ( id, n ) -> {
+                stock.computeIfAbsent( id, ingredientLedgerService::getQuantity );
+                demand.merge( id, n, Integer::sum );
+            } );
+        }
+
+        final Map<Long, Double> cost = new HashMap<>();
+        for ( final PendingOrder order : orders ) {
+            double c = 0;
+            for ( final Map.Entry<Long, Integer> need : order.needs().entrySet() ) {
+                final int available = stock.get( need.getKey() );
+                if ( demand.get( need.getKey() ) > available ) {
+                    c += available > 0 ? (double) need.getValue() / available : Double.POSITIVE_INFINITY;
+                }
+            }
+            cost.put( order.id(), c );
+        }
+        orders.sort( Comparator.<PendingOrder> comparingDouble( order -> cost.get( order.id() ) )
+                .thenComparing( OLDEST_FIRST ) );
+
+        final List<PendingOrder> infeasible = new ArrayList<>();
+        for ( final PendingOrder order : orders ) {
+            if ( fits( order.needs(), stock ) ) {
+                order.needs().forEach( ( id, n ) -> stock.merge( id, -n, Integer::sum ) );
+                queue.add( new QueuedOrderDto( order.id(), order.created(), false, true ) );
+            }
+            else {
+                infeasible.add( order );
+            }
+        }
+        infeasible.sort( OLDEST_FIRST );
+        for ( final PendingOrder order : infeasible ) {
+            queue.add( new QueuedOrderDto( order.id(), order.created(), false, false ) );
+        }
+    }
+
+    /**
+     * Helper method that checks if there is enough stock left for an order.
+     *
+     * @param needs
+     *            ingredients the order needs, keyed by ingredient id
+     * @param stock
+     *            stock left, keyed by ingredient id
+     * @return true if every ingredient has enough left
+     */
+    private static boolean fits ( final Map<Long, Integer> needs, final Map<Long, Integer> stock ) {
+        for ( final Map.Entry<Long, Integer> need : needs.entrySet() ) {
+            if ( stock.get( need.getKey() ) < need.getValue() ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Runs the given change to the index once the current transaction
+     * commits, or straight away if there is no transaction.
+     *
+     * @param change
+     *            the change to run
+     */
+    private static void afterCommit ( final Runnable change ) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCommit () {
+                change.run();
+            }
+        } );
+    }
+
+}
@@ -0,0 +1,235 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ncsu.csc326.wolfcafe.dto.ItemAvailabilityDto;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.service.IngredientLedgerService;
+import edu.ncsu.csc326.wolfcafe.service.MenuAvailabilityService;
+
+/**
+ * Implemented menu availability index. Keeps each item's recipe and a reverse
+ * index from each ingredient to the items that use it. When the ledger
+ * reports a change, the cached counts of just those items are dropped, and
+ * they are worked out again the next time they are read. Counts are worked
+ * out without holding any lock, and each item has a version stamp so a count
+ * that raced with a change is dropped rather than kept.
+ */
+@Service
+public class MenuAvailabilityServiceImpl implements MenuAvailabilityService {
+
+    /** Each item's recipe, quantity per ingredient keyed by ingredient id */
+    private final Map<Long, Map<Long, Integer>> recipes  = new ConcurrentHashMap<>();
+
+    /** Ids of the items that use each ingredient, keyed by ingredient id */
+    private final Map<Long, Set<Long>>          usedBy   = new ConcurrentHashMap<>();
+
+    /** Cached number of each item that can be made, keyed by item id */
+    private final Map<Long, Integer>            makeable = new ConcurrentHashMap<>();
+
+    /** Bumped whenever an item's count is dropped, keyed by item id */
+    private final Map<Long, AtomicLong>         versions = new ConcurrentHashMap<>();
+
+    /** Item repository, used to load the menu at startup */
+    private final ItemRepository                itemRepository;
+
+    /** Ledger of the stock available to new orders */
+    private final IngredientLedgerService       ingredientLedgerService;
+
+    /**
+     * Constructs the index and subscribes it to ledger changes.
+     *
+     * @param itemRepository
+     *            repository to load the menu from
+     * @param ingredientLedgerService
+     *            ledger of ingredient stock
+     */
+    public MenuAvailabilityServiceImpl ( final ItemRepository itemRepository,
+            final IngredientLedgerService ingredientLedgerService ) {
+        this.itemRepository = itemRepository;
+        this.ingredientLedgerService = ingredientLedgerService;
+        ingredientLedgerService.addListener( this::ingredientsChanged );
+    }
+
+    /**
+     * Indexes every item on the menu when the application starts.
+     */
+    @EventListener ( ApplicationReadyEvent.class )
+    @Transactional ( readOnly = true )
+    public void load () {
+        for ( final Item item : itemRepository.findAll() ) {
+            index( item.getId(), recipe( item ) );
+        }
+    }
+
+    @Override
+    public List<ItemAvailabilityDto> getAvailability () {
+        final List<ItemAvailabilityDto> availability = new ArrayList<>( recipes.size() );
+        for ( final Long itemId : recipes.keySet() ) {
+            availability.add( new ItemAvailabilityDto( itemId, getMakeable( itemId ) ) );
+        }
+        return availability;
+    }
+
+    @Override
+    public Integer getMakeable ( final Long itemId ) {
+        final Map<Long, Integer> recipe = recipes.get( itemId );
+        if ( recipe == null || recipe.isEmpty() ) {
+            return null;
+        }
+        final Integer cached = makeable.get( itemId );
+        if ( cached != null ) {
+            return cached;
+        }
+
+        // The ledger may go to the database, so count outside the map
+        final AtomicLong version = versions.computeIfAbsent( itemId, id -> new AtomicLong() );
+        final long stamp = version.get();
+        int count = Integer.MAX_VALUE;
+        for ( final Map.Entry<Long, Integer> need : recipe.entrySet() ) {
+            final int available = Math.max( 0, ingredientLedgerService.getQuantity( need.getKey() ) );
+            count = Math.min( count, available / need.getValue() );
+        }
+        final Integer raced = makeable.putIfAbsent( itemId, count );
+        if ( raced != null ) {
+            return raced;
+        }
+        // A change since the stamp may have dropped the entry before it was
+        // put, so drop it here instead
+        if ( version.get() != stamp ) {
+            makeable.remove( itemId, count );
+        }
+        return count;
+    }
+
+    @Override
+    public void put ( final Item item ) {
+        final Long itemId = item.getId();
+        final Map<Long, Integer> recipe = recipe( item );
+        afterCommit( () -> index( itemId, recipe ) );
+    }
+
+    @Override
+    public void remove ( final Long itemId ) {
+        afterCommit( () -> unindex( itemId ) );
+    }
+
+    /**
+     * Drops the cached counts of the items that use the changed ingredients.
+     *
+     * @param ingredientIds
+     *            ids of the ingredients that changed
+     */
+    private void ingredientsChanged ( final Collection<Long> ingredientIds ) {
+        for ( final Long ingredientId : ingredientIds ) {
+            final Set<Long> items = usedBy.get( ingredientId );
+            if ( items != null ) {
+                items.forEach( this::drop );
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces an item's recipe in the index.
+     *
+     * @param itemId
+     *            id of the item
+     * @param recipe
+     *            quantity per ingredient, keyed by ingredient id
+     */
+    private void index ( final Long itemId, final Map<Long, Integer> recipe ) {
+        unindex( itemId );
+        recipes.put( itemId, recipe );
+        recipe.keySet().forEach(
+                ingredientId -> usedBy.computeIfAbsent( ingredientId, id -> ConcurrentHashMap.newKeySet() ).add( itemId ) );
+    }
+
+    /**
+     * Removes an item from the index.
+     *
+     * @param itemId
+     *            id of the item
+     */
+    private void unindex ( final Long itemId ) {
+        final Map<Long, Integer> old = recipes.remove( itemId );
+        if ( old != null ) {
+            old.keySet().forEach( ingredientId -> {
+                final Set<Long> items = usedBy.get( ingredientId );
+                if ( items != null ) {
+                    items.remove( itemId );
+                }
+            } );
+        }
+        drop( itemId );
+    }
+
+    /**
+     * Drops an item's cached count, first bumping its version so a count
+     * being worked out at the same time isn't kept either.
+     *
+     * @param itemId
+     *            id of the item
+     */
+    private void drop ( final Long itemId ) {
+        final AtomicLong version = versions.get( itemId );
+        if ( version != null ) {
+            version.incrementAndGet();
+        }
+        makeable.remove( itemId );
+    }
+
+    /**
+     * Reads an item's recipe. Zero quantities are left out, since they never
+     * limit how many can be made.
+     *
+     * @param item
+     *            the item
+     * @return quantity per ingredient, keyed by ingredient id
+     */
+    private static Map<Long, Integer> recipe ( final Item item ) {
+        final Map<Long, Integer> recipe = new HashMap<>();
+        for ( final ItemIngredient ii : item.getIngredients() ) {
+            if ( ii.getQuantity() != null && ii.getQuantity() > 0 ) {
+                recipe.merge( ii.getIngredient().getId(), ii.getQuantity(), Integer::sum );
+            }
+        }
+        return Map.copyOf( recipe );
+    }
+
+    /**
+     * Runs the given change to the index once the current transaction
+     * commits, or straight away if there is no transaction.
+     *
+     * @param change
+     *            the change to run
+     */
+    private static void afterCommit ( final Runnable change ) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCommit () {
+                change.run();
+            }
+        } );
+    }
+
+}
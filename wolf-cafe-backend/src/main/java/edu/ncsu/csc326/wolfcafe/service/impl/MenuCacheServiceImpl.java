@@ -0,0 +1,147 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import edu.ncsu.csc326.wolfcafe.dto.IngredientDto;
+import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
+import edu.ncsu.csc326.wolfcafe.service.MenuCacheService;
+
+/**
+ * Implemented menu cache. The menu is built on the first request after it is
+ * dropped, outside any lock, and only kept if no item changed while it was
+ * being built. The stock level of each ingredient is left out of the cached
+ * menu, since it changes with every fulfillment; the availability endpoint
+ * serves it live. It is left out by the menu's own JSON writer, so the items
+ * passed in are never changed.
+ */
+@Service
+public class MenuCacheServiceImpl implements MenuCacheService {
+
+    /** Serializes the menu as JSON */
+    private final ObjectWriter menuWriter;
+
+    /** Guards the version and the cached menu */
+    private final Object       lock = new Object();
+
+    /** Version of the items, bumped whenever one changes */
+    private long               version;
+
+    /** The menu built from the current version, or null if not built */
+    private volatile Menu      menu;
+
+    /**
+     * Constructs the menu cache.
+     *
+     * @param objectMapper
+     *            the application's JSON mapper, so the menu looks as it does
+     *            elsewhere in the API
+     */
+    public MenuCacheServiceImpl ( final ObjectMapper objectMapper ) {
+        this.menuWriter = objectMapper.copy().addMixIn( IngredientDto.class, MenuIngredient.class )
+                .writerFor( objectMapper.getTypeFactory().constructCollectionType( List.class, ItemDto.class ) );
+    }
+
+    @Override
+    public Menu getMenu ( final Supplier<List<ItemDto>> loader ) {
+        final Menu cached = menu;
+        if ( cached != null ) {
+            return cached;
+        }
+        final long building;
+        synchronized ( lock ) {
+            building = version;
+        }
+        final Menu built = build( building, loader.get() );
+        synchronized ( lock ) {
+            if ( version == building && menu == null ) {
+                menu = built;
+            }
+        }
+        return built;
+    }
+
+    @Override
+    public void invalidate () {
+        drop();
+        if ( TransactionSynchronizationManager.isSynchronizationActive() ) {
+            // A build that read the items before the commit must not be kept
+            TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+                @Override
+                public void afterCommit () {
+                    drop();
+                }
+            } );
+        }
+    }
+
+    /**
+     * Helper method that drops the cached menu and bumps the version, so a
+     * build already under way isn't kept.
+     */
+    private void drop () {
+        synchronized ( lock ) {
+            version++;
+            menu = null;
+        }
+    }
+
+    /**
+     * Helper method that serializes the items and tags the JSON with its
+     * hash.
+     *
+     * @param number
+     *            version the items were read at
+     * @param items
+     *            every item on the menu
+     * @return the menu
+     */
+    private Menu build ( final long number, final List<ItemDto> items ) {
+        final byte[] json;
+        try {
+            json = menuWriter.writeValueAsBytes( items );
+        }
+        catch ( final JsonProcessingException e ) {
+            throw new IllegalStateException( "Could not serialize the menu", e );
+        }
+        return new Menu( number, etag( json ), json );
+    }
+
+    /**
+     * Helper method that makes a strong entity tag from a hash of the JSON,
+     * so the tag stays the same across restarts as long as the menu does.
+     *
+     * @param json
+     *            the menu as JSON
+     * @return the quoted entity tag
+     */
+    private static String etag ( final byte[] json ) {
+        try {
+            final byte[] hash = MessageDigest.getInstance( "SHA-256" ).digest( json );
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString( hash ) + "\"";
+        }
+        catch ( final NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( "SHA-256 is not available", e );
+        }
+    }
+
+    /**
+     * How an ingredient is written in the menu: without its stock quantity.
+     */
+    @JsonIgnoreProperties ( "quantity" )
+    private abstract static class MenuIngredient {
+    }
+
+}
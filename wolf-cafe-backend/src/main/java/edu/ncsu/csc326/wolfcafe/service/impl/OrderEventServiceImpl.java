@@ -0,0 +1,254 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderEventDto;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.service.OrderEventService;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Implemented order events. Each subscriber is an async response left open,
+ * so an idle subscriber holds no thread. Events are serialized once and sent
+ * to every matching subscriber from a single dispatcher thread, so sends to
+ * the same emitter never overlap and a slow client can't hold up the request
+ * that changed the order. If the dispatcher falls behind, the oldest waiting
+ * events are dropped; clients reload the board when they reconnect.
+ */
+@Service
+public class OrderEventServiceImpl implements OrderEventService {
+
+    /** Subscribers that are connected */
+    private final Set<Subscriber>    subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Subscriber slots taken, reserved before a subscriber is added and let
+     * go once it is removed
+     */
+    private final AtomicInteger      slots       = new AtomicInteger();
+
+    /** Id of the last event sent */
+    private final AtomicLong         lastId      = new AtomicLong();
+
+    /** Sends the events, one at a time */
+    private final ThreadPoolExecutor dispatcher;
+
+    /** Serializes one event as JSON */
+    private final ObjectWriter       eventWriter;
+
+    /** Milliseconds a subscription stays open before the client reconnects */
+    private final long               timeoutMillis;
+
+    /** Most subscribers connected at once */
+    private final int                maxSubscribers;
+
+    /**
+     * Constructs the order event service.
+     *
+     * @param objectMapper
+     *            the application's JSON mapper, so orders look as they do in
+     *            the API
+     * @param timeoutMillis
+     *            milliseconds a subscription stays open before the client
+     *            reconnects
+     * @param maxSubscribers
+     *            most subscribers connected at once
+     * @param backlog
+     *            most events waiting to be sent
+     */
+    public OrderEventServiceImpl ( final ObjectMapper objectMapper,
+            @Value ( "${app.order-events-timeout-milliseconds:1800000}" ) final long timeoutMillis,
+            @Value ( "${app.order-events-max-subscribers:1000}" ) final int maxSubscribers,
+            @Value ( "${app.order-events-backlog:10000}" ) final int backlog ) {
+        this.eventWriter = objectMapper.writerFor( OrderEventDto.class );
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.dispatcher = new ThreadPoolExecutor( 1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>( backlog ), runnable -> {
+                    final Thread thread = new Thread( runnable, "order-events" );
+                    thread.setDaemon( true );
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardOldestPolicy() );
+    }
+
+    /**
+     * Closes every subscription and stops the dispatcher.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the dispatcher
+     */
+    @PreDestroy
+    public void stop () throws InterruptedException {
+        dispatcher.shutdown();
+        dispatcher.awaitTermination( 5, TimeUnit.SECONDS );
+        for ( final Subscriber subscriber : subscribers ) {
+            subscriber.emitter().complete();
+        }
+        subscribers.clear();
+        slots.set( 0 );
+    }
+
+    @Override
+    public SseEmitter subscribe ( final Long customerId ) {
+        // Taking the slot first means concurrent subscribes can't all pass
+        // the check and go over the limit together
+        if ( slots.incrementAndGet() > maxSubscribers ) {
+            slots.decrementAndGet();
+            throw new WolfCafeAPIException( HttpStatus.SERVICE_UNAVAILABLE, "Too many order event subscribers" );
+        }
+        final SseEmitter emitter = new SseEmitter( timeoutMillis );
+        final Subscriber subscriber = new Subscriber( emitter, customerId );
+        emitter.onCompletion( () -> remove( subscriber ) );
+        emitter.onTimeout( () -> {
+            remove( subscriber );
+            emitter.complete();
+        } );
+        emitter.onError( e -> remove( subscriber ) );
+        try {
+            // Sent before the subscriber is added, so the dispatcher can't
+            // send at the same time
+            emitter.send( SseEmitter.event().comment( "connected" ).reconnectTime( 3000 ) );
+        }
+        catch ( final IOException e ) {
+            // Never added, so its slot is let go here
+            slots.decrementAndGet();
+            emitter.completeWithError( e );
+            return emitter;
+        }
+        subscribers.add( subscriber );
+        return emitter;
+    }
+
+    @Override
+    public void publish ( final String type, final OrderDto order ) {
+        final String data;
+        try {
+            data = eventWriter.writeValueAsString( new OrderEventDto( type, order ) );
+        }
+        catch ( final JsonProcessingException e ) {
+            throw new IllegalStateException( "Could not serialize order event", e );
+        }
+        final Long customerId = order.getCustomerId();
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            dispatch( type, customerId, data );
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCommit () {
+                dispatch( type, customerId, data );
+            }
+        } );
+    }
+
+    @Override
+    @Scheduled ( fixedDelayString = "${app.order-events-heartbeat-milliseconds:30000}" )
+    public void heartbeat () {
+        if ( subscribers.isEmpty() || dispatcher.isShutdown() ) {
+            return;
+        }
+        dispatcher.execute( () -> {
+            for ( final Subscriber subscriber : subscribers ) {
+                send( subscriber, SseEmitter.event().comment( "heartbeat" ) );
+            }
+        } );
+    }
+
+    @Override
+    public int getSubscriberCount () {
+        return subscribers.size();
+    }
+
+    /**
+     * Helper method that hands an event to the dispatcher to send to every
+     * subscriber watching its order.
+     *
+     * @param type
+     *            what happened to the order
+     * @param customerId
+     *            customer who placed the order, or null
+     * @param data
+     *            the event as JSON
+     */
+    private void dispatch ( final String type, final Long customerId, final String data ) {
+        if ( subscribers.isEmpty() || dispatcher.isShutdown() ) {
+            return;
+        }
+        final String id = String.valueOf( lastId.incrementAndGet() );
+        dispatcher.execute( () -> {
+            for ( final Subscriber subscriber : subscribers ) {
+                if ( subscriber.customerId() == null || Objects.equals( subscriber.customerId(), customerId ) ) {
+                    send( subscriber,
+                            SseEmitter.event().id( id ).name( type ).data( data, MediaType.APPLICATION_JSON ) );
+                }
+            }
+        } );
+    }
+
+    /**
+     * Helper method that sends to one subscriber, dropping it if the
+     * connection has gone.
+     *
+     * @param subscriber
+     *            the subscriber
+     * @param event
+     *            the event to send
+     */
+    private void send ( final Subscriber subscriber, final SseEmitter.SseEventBuilder event ) {
+        try {
+            subscriber.emitter().send( event );
+        }
+        catch ( final IOException | IllegalStateException e ) {
+            remove( subscriber );
+            subscriber.emitter().completeWithError( e );
+        }
+    }
+
+    /**
+     * Helper method that removes a subscriber and lets go of its slot. Only
+     * the first call for a subscriber does anything, since several of its
+     * callbacks may run.
+     *
+     * @param subscriber
+     *            the subscriber
+     */
+    private void remove ( final Subscriber subscriber ) {
+        if ( subscribers.remove( subscriber ) ) {
+            slots.decrementAndGet();
+        }
+    }
+
+    /**
+     * A connected client.
+     *
+     * @param emitter
+     *            the open response
+     * @param customerId
+     *            only send this customer's orders, or null for every order
+     */
+    private record Subscriber ( SseEmitter emitter, Long customerId ) {
+    }
+
+}
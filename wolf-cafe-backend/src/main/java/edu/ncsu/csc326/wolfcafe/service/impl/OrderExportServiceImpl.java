@@ -0,0 +1,175 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderExportRowDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+import edu.ncsu.csc326.wolfcafe.service.OrderExportService;
+
+/**
+ * Implemented order export. Reads flat order line rows from a streaming
+ * query and writes each order as soon as its last row has been read, so only
+ * one order is held in memory at a time.
+ */
+@Service
+public class OrderExportServiceImpl implements OrderExportService {
+
+    /** Earliest time MySQL can store, used when the range has no start */
+    private static final LocalDateTime EARLIEST   = LocalDateTime.of( 1000, 1, 1, 0, 0 );
+
+    /** Later than any order, used when the range has no end */
+    private static final LocalDateTime LATEST     = LocalDateTime.of( 9999, 12, 31, 23, 59, 59 );
+
+    /** Header row of the CSV export */
+    private static final String        CSV_HEADER = "orderId,created,status,subtotal,tax,tip,customerId,itemStr,"
+            + "lineId,itemName,quantity";
+
+    /** Order repository */
+    private final OrderRepository      orderRepository;
+
+    /** Serializes one order as JSON */
+    private final ObjectWriter         orderWriter;
+
+    /**
+     * Constructs the export service.
+     *
+     * @param orderRepository
+     *            repository to stream orders from
+     * @param objectMapper
+     *            the application's JSON mapper, so exported orders look as
+     *            they do in the API
+     */
+    public OrderExportServiceImpl ( final OrderRepository orderRepository, final ObjectMapper objectMapper ) {
+        this.orderRepository = orderRepository;
+        this.orderWriter = objectMapper.writerFor( OrderDto.class );
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public void writeNdjson ( final LocalDateTime from, final LocalDateTime to, final OutputStream out )
+            throws IOException {
+        final Writer writer = writer( out );
+        try ( Stream<OrderExportRowDto> rows = rows( from, to ) ) {
+            final Iterator<OrderExportRowDto> it = rows.iterator();
+            OrderDto order = null;
+            while ( it.hasNext() ) {
+                final OrderExportRowDto row = it.next();
+                if ( order == null || !order.getId().equals( row.getOrderId() ) ) {
+                    if ( order != null ) {
+                        writeJsonLine( writer, order );
+                    }
+                    order = new OrderDto( row.getOrderId(), row.getCreated(), row.getStatus(), row.getSubtotal(),
+                            row.getTax(), row.getTip(), row.getCustomerId(), row.getItemStr(), new ArrayList<>() );
+                }
+                if ( row.getLineId() != null ) {
+                    order.getItems().add(
+                            new OrderItemDto( row.getLineId(), row.getOrderId(), row.getItemName(), row.getQuantity() ) );
+                }
+            }
+            if ( order != null ) {
+                writeJsonLine( writer, order );
+            }
+        }
+        writer.flush();
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public void writeCsv ( final LocalDateTime from, final LocalDateTime to, final OutputStream out )
+            throws IOException {
+        final Writer writer = writer( out );
+        writer.write( CSV_HEADER );
+        writer.write( '\n' );
+        try ( Stream<OrderExportRowDto> rows = rows( from, to ) ) {
+            final Iterator<OrderExportRowDto> it = rows.iterator();
+            while ( it.hasNext() ) {
+                final OrderExportRowDto row = it.next();
+                writer.write( row.getOrderId() + "," + row.getCreated() + "," + csv( row.getStatus() ) + ","
+                        + row.getSubtotal() + "," + row.getTax() + "," + row.getTip() + ","
+                        + csv( row.getCustomerId() ) + "," + csv( row.getItemStr() ) + "," + csv( row.getLineId() )
+                        + "," + csv( row.getItemName() ) + "," + csv( row.getQuantity() ) );
+                writer.write( '\n' );
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Helper method that opens the row stream for a range, filling in the
+     * ends left open.
+     *
+     * @param from
+     *            start of the range, or null
+     * @param to
+     *            end of the range, or null
+     * @return the rows
+     */
+    private Stream<OrderExportRowDto> rows ( final LocalDateTime from, final LocalDateTime to ) {
+        return orderRepository.streamExportRows( from != null ? from : EARLIEST, to != null ? to : LATEST );
+    }
+
+    /**
+     * Helper method that writes one order and the newline after it.
+     *
+     * @param writer
+     *            where to write
+     * @param order
+     *            the order
+     * @throws IOException
+     *             if writing fails
+     */
+    private void writeJsonLine ( final Writer writer, final OrderDto order ) throws IOException {
+        writer.write( orderWriter.writeValueAsString( order ) );
+        writer.write( '\n' );
+    }
+
+    /**
+     * Helper method that wraps the output in a buffered UTF-8 writer. The
+     * writer is flushed, not closed, so the caller's stream stays open.
+     *
+     * @param out
+     *            the output
+     * @return the writer
+     */
+    private static Writer writer ( final OutputStream out ) {
+        return new BufferedWriter( new OutputStreamWriter( out, StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Helper method that formats a value as a CSV field, empty if null and
+     * quoted if it holds a comma, quote or line break.
+     *
+     * @param value
+     *            the value
+     * @return the field
+     */
+    private static String csv ( final Object value ) {
+        if ( value == null ) {
+            return "";
+        }
+        final String text = value.toString();
+        if ( text.indexOf( ',' ) < 0 && text.indexOf( '"' ) < 0 && text.indexOf( '\n' ) < 0
+                && text.indexOf( '\r' ) < 0 ) {
+            return text;
+        }
+        return "\"" + text.replace( "\"", "\"\"" ) + "\"";
+    }
+
+}
@@ -0,0 +1,380 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import edu.ncsu.csc326.wolfcafe.dto.IntakeMetricsDto;
+import edu.ncsu.csc326.wolfcafe.dto.IntakeTicketDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.exception.ResourceNotFoundException;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.service.OrderIntakeService;
+import edu.ncsu.csc326.wolfcafe.service.OrderService;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Implemented order intake service. Each order is given its id from the
+ * order sequence when it is accepted, so the client knows it at once. Each
+ * writer takes the first order off the queue, waits up to the flush interval
+ * for more to fill a batch, and saves the batch in one transaction. If the
+ * batch fails, its orders are saved one at a time so one bad order doesn't
+ * fail the others.
+ */
+@Service
+public class OrderIntakeServiceImpl implements OrderIntakeService {
+
+    /**
+     * An order waiting on the queue.
+     *
+     * @param ticketId
+     *            id of the order's ticket
+     * @param order
+     *            the order to save
+     * @param enqueued
+     *            when the order was accepted, from System.nanoTime
+     */
+    private record Intake ( String ticketId, OrderDto order, long enqueued ) {
+    }
+
+    /**
+     * Where an order has got to.
+     *
+     * @param status
+     *            queued, created or failed
+     * @param orderId
+     *            id reserved for the order when it was accepted
+     * @param message
+     *            why the order failed, null unless it did
+     * @param finished
+     *            when the order was created or failed, null while queued
+     */
+    private record Ticket ( String status, Long orderId, String message, Instant finished ) {
+    }
+
+    /** Orders waiting to be saved */
+    private final BlockingQueue<Intake> queue;
+
+    /** Tickets of accepted orders, keyed by ticket id */
+    private final Map<String, Ticket>   tickets          = new ConcurrentHashMap<>();
+
+    /** Order service the batches are saved through */
+    private final OrderService          orderService;
+
+    /** Number of writer threads */
+    private final int                   writers;
+
+    /** Most orders saved in one batch */
+    private final int                   batchSize;
+
+    /** Longest a writer waits for a batch to fill, in nanoseconds */
+    private final long                  flushIntervalNanos;
+
+    /** How long a finished ticket can still be looked up */
+    private final Duration              ticketTtl;
+
+    /** Runs the writers */
+    private final ExecutorService       pool;
+
+    /** Cleared when the application shuts down, so writers drain and stop */
+    private volatile boolean            running          = true;
+
+    /** Orders accepted onto the queue */
+    private final AtomicLong            accepted         = new AtomicLong();
+
+    /** Orders turned away because the queue was full */
+    private final AtomicLong            rejected         = new AtomicLong();
+
+    /** Orders saved */
+    private final AtomicLong            created          = new AtomicLong();
+
+    /** Orders that could not be saved */
+    private final AtomicLong            failed           = new AtomicLong();
+
+    /** Batches written */
+    private final AtomicLong            batches          = new AtomicLong();
+
+    /** Total time from acceptance to being saved or failing, in nanoseconds */
+    private final AtomicLong            totalLagNanos    = new AtomicLong();
+
+    /** Longest time from acceptance to being saved or failing, in nanoseconds */
+    private final AtomicLong            maxLagNanos      = new AtomicLong();
+
+    /**
+     * Constructs the intake service.
+     *
+     * @param orderService
+     *            service the orders are saved through
+     * @param capacity
+     *            most orders the queue holds
+     * @param writers
+     *            number of writer threads
+     * @param batchSize
+     *            most orders saved in one batch
+     * @param flushIntervalMillis
+     *            longest a writer waits for a batch to fill
+     * @param ticketTtlMinutes
+     *            minutes a finished ticket can still be looked up
+     */
+    public OrderIntakeServiceImpl ( final OrderService orderService,
+            @Value ( "${app.order-intake-queue-capacity:1000}" ) final int capacity,
+            @Value ( "${app.order-intake-writers:2}" ) final int writers,
+            @Value ( "${app.order-intake-batch-size:50}" ) final int batchSize,
+            @Value ( "${app.order-intake-flush-interval-milliseconds:50}" ) final long flushIntervalMillis,
+            @Value ( "${app.order-intake-ticket-ttl-minutes:30}" ) final long ticketTtlMinutes ) {
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>( capacity );
+        this.writers = writers;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos( flushIntervalMillis );
+        this.ticketTtl = Duration.ofMinutes( ticketTtlMinutes );
+        this.pool = Executors.newFixedThreadPool( writers, runnable -> {
+            final Thread thread = new Thread( runnable, "order-intake" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+    }
+
+    /**
+     * Starts the writers once the application is up.
+     */
+    @EventListener ( ApplicationReadyEvent.class )
+    public void start () {
+        for ( int i = 0; i < writers; i++ ) {
+            pool.execute( this::write );
+        }
+    }
+
+    /**
+     * Lets the writers save what is left on the queue, then stops them.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the writers
+     */
+    @PreDestroy
+    public void stop () throws InterruptedException {
+        running = false;
+        pool.shutdown();
+        pool.awaitTermination( 10, TimeUnit.SECONDS );
+    }
+
+    @Override
+    public IntakeTicketDto submit ( final OrderDto orderDto ) {
+        validate( orderDto );
+        if ( orderDto.getCreated() == null ) {
+            orderDto.setCreated( LocalDateTime.now() );
+        }
+
+        final String ticketId = UUID.randomUUID().toString();
+        final Long orderId = orderService.reserveOrderId();
+        orderDto.setId( orderId );
+        tickets.put( ticketId, new Ticket( IntakeTicketDto.QUEUED, orderId, null, null ) );
+        if ( !running || !queue.offer( new Intake( ticketId, orderDto, System.nanoTime() ) ) ) {
+            tickets.remove( ticketId );
+            orderService.releaseOrderId( orderId );
+            rejected.incrementAndGet();
+            throw new WolfCafeAPIException( HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many orders are waiting to be saved, please try again" );
+        }
+        accepted.incrementAndGet();
+        return new IntakeTicketDto( ticketId, IntakeTicketDto.QUEUED, orderId, null );
+    }
+
+    @Override
+    public IntakeTicketDto getTicket ( final String ticketId ) {
+        final Ticket ticket = tickets.get( ticketId );
+        if ( ticket == null ) {
+            throw new ResourceNotFoundException( "Ticket not found with id " + ticketId );
+        }
+        return new IntakeTicketDto( ticketId, ticket.status(), ticket.orderId(), ticket.message() );
+    }
+
+    @Override
+    public IntakeMetricsDto getMetrics () {
+        final Intake oldest = queue.peek();
+        final long oldestWait = oldest != null ? System.nanoTime() - oldest.enqueued() : 0;
+        final long finished = created.get() + failed.get();
+        final double averageLag = finished > 0 ? (double) totalLagNanos.get() / finished : 0;
+        return new IntakeMetricsDto( queue.size(), queue.size() + queue.remainingCapacity(),
+                TimeUnit.NANOSECONDS.toMillis( oldestWait ), accepted.get(), rejected.get(), created.get(),
+                failed.get(), batches.get(), averageLag / 1_000_000, TimeUnit.NANOSECONDS.toMillis( maxLagNanos.get() ) );
+    }
+
+    @Override
+    public long getRetryAfterSeconds () {
+        // Roughly how long the writers take to work through a full queue
+        final long capacity = queue.size() + queue.remainingCapacity();
+        final long rounds = ( capacity + (long) batchSize * writers - 1 ) / ( (long) batchSize * writers );
+        return Math.max( 1, TimeUnit.NANOSECONDS.toSeconds( rounds * flushIntervalNanos ) );
+    }
+
+    @Override
+    @Scheduled ( fixedDelayString = "${app.order-intake-ticket-sweep-milliseconds:60000}" )
+    public void evictFinished () {
+        final Instant cutoff = Instant.now().minus( ticketTtl );
+        tickets.forEach( ( ticketId, ticket ) -> {
+            if ( ticket.finished() != null && ticket.finished().isBefore( cutoff ) ) {
+                tickets.remove( ticketId, ticket );
+            }
+        } );
+    }
+
+    /**
+     * Checks the parts of an order that can be checked without the database.
+     *
+     * @param orderDto
+     *            the order
+     * @throws WolfCafeAPIException
+     *             with BAD_REQUEST status if the order is malformed
+     */
+    private static void validate ( final OrderDto orderDto ) {
+        if ( orderDto.getItems() == null || orderDto.getItems().isEmpty() ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "An order must have at least one item" );
+        }
+        for ( final OrderItemDto item : orderDto.getItems() ) {
+            if ( item.getItemName() == null || item.getQuantity() == null || item.getQuantity() <= 0 ) {
+                throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST,
+                        "Each item needs a name and a positive quantity" );
+            }
+        }
+        if ( orderDto.getSubtotal() == null || orderDto.getTax() == null || orderDto.getTip() == null
+                || orderDto.getSubtotal() < 0 || orderDto.getTax() < 0 || orderDto.getTip() < 0 ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST,
+                    "Subtotal, tax and tip must be given and not negative" );
+        }
+    }
+
+    /**
+     * Runs a writer, saving batches until the application shuts down and the
+     * queue is empty.
+     */
+    private void write () {
+        final List<Intake> batch = new ArrayList<>( batchSize );
+        while ( running || !queue.isEmpty() ) {
+            try {
+                final Intake first = queue.poll( flushIntervalNanos, TimeUnit.NANOSECONDS );
+                if ( first == null ) {
+                    continue;
+                }
+                batch.add( first );
+                fill( batch );
+                save( batch );
+            }
+            catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds orders to a batch until it is full or the flush interval passes.
+     *
+     * @param batch
+     *            the batch, holding at least one order
+     * @throws InterruptedException
+     *             if interrupted while waiting for orders
+     */
+    private void fill ( final List<Intake> batch ) throws InterruptedException {
+        final long deadline = System.nanoTime() + flushIntervalNanos;
+        while ( batch.size() < batchSize ) {
+            queue.drainTo( batch, batchSize - batch.size() );
+            final long remaining = deadline - System.nanoTime();
+            if ( batch.size() == batchSize || remaining <= 0 ) {
+                return;
+            }
+            final Intake next = queue.poll( remaining, TimeUnit.NANOSECONDS );
+            if ( next == null ) {
+                return;
+            }
+            batch.add( next );
+        }
+    }
+
+    /**
+     * Saves a batch in one transaction, or one order at a time if the batch
+     * fails.
+     *
+     * @param batch
+     *            the orders to save
+     */
+    private void save ( final List<Intake> batch ) {
+        batches.incrementAndGet();
+        try {
+            final List<OrderDto> saved = orderService.createOrders( batch.stream().map( Intake::order ).toList() );
+            for ( int i = 0; i < batch.size(); i++ ) {
+                finish( batch.get( i ), new Ticket( IntakeTicketDto.CREATED, saved.get( i ).getId(), null,
+                        Instant.now() ) );
+            }
+        }
+        catch ( final RuntimeException batchFailure ) {
+            if ( batch.size() == 1 ) {
+                finish( batch.get( 0 ), failedTicket( batch.get( 0 ), batchFailure ) );
+                return;
+            }
+            for ( final Intake intake : batch ) {
+                try {
+                    final OrderDto saved = orderService.createOrder( intake.order() );
+                    finish( intake, new Ticket( IntakeTicketDto.CREATED, saved.getId(), null, Instant.now() ) );
+                }
+                catch ( final RuntimeException e ) {
+                    finish( intake, failedTicket( intake, e ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the ticket of an order that could not be saved, and lets go of
+     * the id reserved for it.
+     *
+     * @param intake
+     *            the order
+     * @param cause
+     *            why it could not be saved
+     * @return the failed ticket
+     */
+    private Ticket failedTicket ( final Intake intake, final RuntimeException cause ) {
+        orderService.releaseOrderId( intake.order().getId() );
+        return new Ticket( IntakeTicketDto.FAILED, intake.order().getId(), cause.getMessage(), Instant.now() );
+    }
+
+    /**
+     * Records how an order finished.
+     *
+     * @param intake
+     *            the order
+     * @param ticket
+     *            where it got to
+     */
+    private void finish ( final Intake intake, final Ticket ticket ) {
+        tickets.put( intake.ticketId(), ticket );
+        ( IntakeTicketDto.CREATED.equals( ticket.status() ) ? created : failed ).incrementAndGet();
+        final long lag = System.nanoTime() - intake.enqueued();
+        totalLagNanos.addAndGet( lag );
+        maxLagNanos.accumulateAndGet( lag, Math::max );
+    }
+
+}
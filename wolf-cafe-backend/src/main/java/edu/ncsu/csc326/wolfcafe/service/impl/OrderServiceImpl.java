@@ -1,24 +1,63 @@
 package edu.ncsu.csc326.wolfcafe.service.impl;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import edu.ncsu.csc326.wolfcafe.dto.FulfillmentResultDto;
 import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
-import edu.ncsu.csc326.wolfcafe.entity.Inventory;
-import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.dto.OrderEventDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderPageDto;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
 import edu.ncsu.csc326.wolfcafe.entity.Order;
 import edu.ncsu.csc326.wolfcafe.entity.OrderItem;
+import edu.ncsu.csc326.wolfcafe.entity.User;
+import edu.ncsu.csc326.wolfcafe.exception.ResourceNotFoundException;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
 import edu.ncsu.csc326.wolfcafe.mapper.OrderMapper;
-import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
 import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
 import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
 import edu.ncsu.csc326.wolfcafe.repository.UserRepository;
+import edu.ncsu.csc326.wolfcafe.service.BillOfMaterialsService;
+import edu.ncsu.csc326.wolfcafe.service.ConsumptionLogService;
+import edu.ncsu.csc326.wolfcafe.service.IngredientLedgerService;
+import edu.ncsu.csc326.wolfcafe.service.KitchenQueueService;
+import edu.ncsu.csc326.wolfcafe.service.OrderEventService;
 import edu.ncsu.csc326.wolfcafe.service.OrderService;
+import edu.ncsu.csc326.wolfcafe.service.SalesRollupService;
+import edu.ncsu.csc326.wolfcafe.service.StockReservationService;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.AllArgsConstructor;
 
 /**
@@ -27,32 +66,124 @@ import lombok.AllArgsConstructor;
 @Service
 @AllArgsConstructor
 public class OrderServiceImpl implements OrderService {
+
+    /** Most times a status update is tried before giving up on conflicts */
+    private static final int           MAX_ATTEMPTS       = 5;
+
+    /** Backoff before the first retry, doubled on each retry after that */
+    private static final long          BACKOFF_MILLIS     = 10;
+
+    /** Longest backoff between two tries */
+    private static final long          MAX_BACKOFF_MILLIS = 200;
+
+    /** Most orders that can be fulfilled in one batch */
+    private static final int           MAX_BATCH          = 200;
+
+    /** Most orders returned in one page */
+    private static final int           MAX_PAGE           = 200;
+
+    /** Created time before the first page, later than any order */
+    private static final LocalDateTime START_CREATED      = LocalDateTime.of( 9999, 12, 31, 23, 59, 59 );
+
     // References to repositories used
 
     /** Order repository */
-    private final OrderRepository     orderRepository;
+    private final OrderRepository         orderRepository;
 
     /** Item Repository */
-    private final ItemRepository      itemRepository;
+    private final ItemRepository          itemRepository;
 
     /** User repository */
-    private final UserRepository      userRepository;
+    private final UserRepository          userRepository;
+
+    /** Ingredient Repository */
+    private final IngredientRepository    ingredientRepository;
+
+    /** In-memory ledger of ingredient stock */
+    private final IngredientLedgerService ingredientLedgerService;
+
+    /** Cache of each item's bill of materials */
+    private final BillOfMaterialsService  billOfMaterialsService;
+
+    /** Reservations of the stock held by pending orders */
+    private final StockReservationService stockReservationService;
+
+    /** Index of the pending orders, for the kitchen queue */
+    private final KitchenQueueService     kitchenQueueService;
 
-    /** Inventory Repository */
-    private final InventoryRepository inventoryRepository;
+    /** Runs each try of a status update in its own transaction */
+    private final TransactionTemplate     transactionTemplate;
+
+    /** Hourly and daily sales totals, updated as orders are fulfilled */
+    private final SalesRollupService      salesRollupService;
+
+    /** Log of the ingredients taken by fulfillments */
+    private final ConsumptionLogService   consumptionLogService;
+
+    /** Pushes committed order changes to live boards */
+    private final OrderEventService       orderEventService;
+
+    /** Source of the order sequence, for reserving ids */
+    private final EntityManagerFactory    entityManagerFactory;
+
+    /** Ids reserved for orders not yet committed */
+    private final Set<Long>               reservedIds        = ConcurrentHashMap.newKeySet();
 
     @Override
+    @Transactional
     public OrderDto createOrder ( final OrderDto orderDto ) {
-        final Order order = OrderMapper.mapToEntity( orderDto, itemRepository, userRepository );
+        final Order order = OrderMapper.mapToEntity( orderDto, itemsByName( List.of( orderDto ) ),
+                customers( List.of( orderDto ) ).get( orderDto.getCustomerId() ) );
+        order.setId( claim( orderDto.getId() ) );
         order.setStatus( Order.PENDING );
 
         final Order savedOrder = orderRepository.save( order );
-        return OrderMapper.mapToDto( savedOrder );
+
+        // Hold the ingredients now so a paid order can't fail at fulfillment
+        final Map<Long, Integer> needs = ingredientNeeds( savedOrder );
+        if ( !stockReservationService.reserve( savedOrder.getId(), needs ) ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "Not enough ingredients to make this order" );
+        }
+        kitchenQueueService.add( savedOrder.getId(), savedOrder.getCreated(), needs );
+        final OrderDto created = OrderMapper.mapToDto( savedOrder );
+        orderEventService.publish( OrderEventDto.CREATED, created );
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public List<OrderDto> createOrders ( final List<OrderDto> orderDtos ) {
+        final Map<String, Item> itemsByName = itemsByName( orderDtos );
+        final Map<Long, User> customers = customers( orderDtos );
+        final List<Order> orders = new ArrayList<>( orderDtos.size() );
+        for ( final OrderDto orderDto : orderDtos ) {
+            final Order order = OrderMapper.mapToEntity( orderDto, itemsByName,
+                    customers.get( orderDto.getCustomerId() ) );
+            order.setId( claim( orderDto.getId() ) );
+            order.setStatus( Order.PENDING );
+            orders.add( order );
+        }
+        final List<Order> savedOrders = orderRepository.saveAll( orders );
+
+        final List<OrderDto> created = new ArrayList<>( savedOrders.size() );
+        for ( final Order savedOrder : savedOrders ) {
+            final Map<Long, Integer> needs = ingredientNeeds( savedOrder );
+            if ( !stockReservationService.reserve( savedOrder.getId(), needs ) ) {
+                throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST,
+                        "Not enough ingredients to make order " + savedOrder.getId() );
+            }
+            kitchenQueueService.add( savedOrder.getId(), savedOrder.getCreated(), needs );
+            created.add( OrderMapper.mapToDto( savedOrder ) );
+        }
+        for ( final OrderDto order : created ) {
+            orderEventService.publish( OrderEventDto.CREATED, order );
+        }
+        return created;
     }
 
     @Override
     public OrderDto getOrderbyId ( final Long id ) {
-        return OrderMapper.mapToDto( orderRepository.findById( id ).get() );
+        return OrderMapper.mapToDto( orderRepository.findWithItemsById( id ).get() );
     }
 
     @Override
@@ -73,18 +204,127 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public List<OrderDto> getAllOrders () {
-        return orderRepository.findAll().stream().map( OrderMapper::mapToDto ).collect( Collectors.toList() );
+        return orderRepository.findAllWithItems().stream().map( OrderMapper::mapToDto )
+                .collect( Collectors.toList() );
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public OrderPageDto getOrderPage ( final String cursor, final int size ) {
+        final Cursor after = decodeCursor( cursor );
+        return page( orderRepository.findPageAfter( after.created(), after.id(), pageRequest( size ) ), size );
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public OrderPageDto getOrderPageByCreatedDate ( final LocalDateTime date, final String cursor, final int size ) {
+        final LocalDateTime from = date.toLocalDate().atStartOfDay();
+        final Cursor after = decodeCursor( cursor );
+        return page( orderRepository.findRangePageAfter( from, from.plusDays( 1 ), after.created(), after.id(),
+                pageRequest( size ) ), size );
     }
 
     @Override
+    @Transactional ( readOnly = true )
+    public OrderPageDto getOrderPageByUser ( final Long userId, final String cursor, final int size ) {
+        final Cursor after = decodeCursor( cursor );
+        return page( orderRepository.findCustomerPageAfter( userId, after.created(), after.id(), pageRequest( size ) ),
+                size );
+    }
+
+    @Override
+    public Long reserveOrderId () {
+        final SessionFactoryImplementor sessionFactory = entityManagerFactory
+                .unwrap( SessionFactoryImplementor.class );
+        final BeforeExecutionGenerator generator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor( Order.class ).getGenerator();
+        // The pooled optimizer is shared with inserts, so the id is never
+        // handed to another order. It only reads the sequence once per block
+        try ( SessionImplementor session = (SessionImplementor) sessionFactory.openSession() ) {
+            final Long id = (Long) generator.generate( session, null, null, EventType.INSERT );
+            reservedIds.add( id );
+            return id;
+        }
+    }
+
+    @Override
+    public void releaseOrderId ( final Long id ) {
+        reservedIds.remove( id );
+    }
+
+    @Override
+    @Transactional
     public void deleteOrder ( final Long id ) {
-        orderRepository.findById( id ).get();
+        final Order order = orderRepository.findById( id ).get();
+        salesRollupService.remove( order );
+        orderEventService.publish( OrderEventDto.DELETED, OrderMapper.mapToDto( order ) );
         orderRepository.deleteById( id );
+        stockReservationService.release( id );
+        kitchenQueueService.remove( id );
 
     }
 
     @Override
     public OrderDto updateStatus ( final Long id, final String status ) {
+        return retrying( "Order " + id, tx -> changeStatus( id, status ) );
+    }
+
+    @Override
+    public List<FulfillmentResultDto> fulfillOrders ( final List<Long> ids, final boolean allOrNothing ) {
+        if ( ids == null || ids.isEmpty() ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "A batch must name at least one order" );
+        }
+        if ( ids.size() > MAX_BATCH ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST,
+                    "A batch can fulfill at most " + MAX_BATCH + " orders" );
+        }
+        return retrying( "One of the orders", tx -> fulfillBatch( ids, allOrNothing, tx ) );
+    }
+
+    /**
+     * Helper method that runs work in its own transaction, and runs it again
+     * if it fails on an optimistic locking conflict.
+     *
+     * @param <T>
+     *            type of the work's result
+     * @param subject
+     *            what the work changes, for the error if it keeps conflicting
+     * @param work
+     *            the work to run
+     * @return the work's result
+     * @throws WolfCafeAPIException
+     *             with CONFLICT status if every try conflicted
+     */
+    private <T> T retrying ( final String subject, final TransactionCallback<T> work ) {
+        // In a caller's transaction the template joins it, and a failed try
+        // can't be undone on its own, so only the caller can start over
+        final boolean joined = TransactionSynchronizationManager.isActualTransactionActive();
+        for ( int attempt = 1;; attempt++ ) {
+            try {
+                return transactionTemplate.execute( work );
+            }
+            catch ( final OptimisticLockingFailureException e ) {
+                // Someone else changed the same rows first. Everything this
+                // try did was rolled back, so start over
+                if ( joined || attempt == MAX_ATTEMPTS ) {
+                    throw conflict( subject );
+                }
+                backoff( attempt, subject );
+            }
+        }
+    }
+
+    /**
+     * Helper method that moves an order to the given status, in the current
+     * transaction.
+     *
+     * @param id
+     *            id of the order
+     * @param status
+     *            status to move the order to
+     * @return the updated order
+     */
+    private OrderDto changeStatus ( final Long id, final String status ) {
         final Order order = orderRepository.findById( id ).get();
 
         // If canceling ensure in pending
@@ -92,6 +332,8 @@ public class OrderServiceImpl implements OrderService {
             if ( !order.getStatus().equals( Order.PENDING ) ) {
                 throw new IllegalStateException( "Order with " + order.getStatus() + " status cannot be canceled" );
             }
+            stockReservationService.release( id );
+            kitchenQueueService.remove( id );
         }
         // if picking up ensure order was fulfilled
         else if ( status.equals( Order.PICKED_UP ) ) {
@@ -105,40 +347,25 @@ public class OrderServiceImpl implements OrderService {
                 throw new IllegalStateException( "Order with " + order.getStatus() + " status cannot be fulfilled" );
             }
 
-            // Fetch the existing inventory from DB instead of creating a
-            // new
-            // one
-            final Inventory inventory = inventoryRepository.findAll().stream().findFirst()
-                    .orElseThrow( () -> new IllegalStateException( "No inventory exists" ) );
-
-            // Sum up the ingredients in the order
-            final HashMap<String, Integer> quantities = new HashMap<String, Integer>();
-            for ( final OrderItem oi : order.getItems() ) {
-                for ( final ItemIngredient ii : oi.getItem().getIngredients() ) {
-                    // increase quantity if it exists, add it to the map
-                    // otherwise
-                    final String name = ii.getIngredient().getName();
-                    if ( quantities.containsKey( name ) ) {
-                        quantities.put( name, quantities.get( name ) + ( ( ii.getQuantity() * oi.getQuantity() ) ) );
-                    }
-                    else {
-                        quantities.put( name, ii.getQuantity() * oi.getQuantity() );
-                    }
-
-                }
-            }
-
-            // Deduct the ingredients if there are enough ingredients
-            if ( enoughIngredients( inventory, quantities ) ) {
-                for ( final String name : quantities.keySet() ) {
-                    inventory.updateIngredientQuantity( name, -quantities.get( name ) );
-
+            // Take the ingredients reserved when the order was created. If the
+            // reservation expired, check and debit the ledger instead. Either
+            // way, take the same amounts out of the database in one batch of
+            // conditional updates
+            Map<Long, Integer> needs = stockReservationService.commit( id );
+            if ( needs == null ) {
+                needs = ingredientNeeds( order );
+                if ( !ingredientLedgerService.tryDebit( needs ) ) {
+                    throw new IllegalStateException( "Not enough ingredients" );
                 }
-
             }
-            else {
+            if ( !ingredientRepository.decrementAll( needs ) ) {
+                // The ledger is out of step with the database, reload it
+                ingredientLedgerService.invalidate( needs.keySet() );
                 throw new IllegalStateException( "Not enough ingredients" );
             }
+            kitchenQueueService.remove( id );
+            salesRollupService.add( List.of( order ) );
+            consumptionLogService.record( needs );
 
         }
         else {
@@ -146,33 +373,350 @@ public class OrderServiceImpl implements OrderService {
         }
         order.setStatus( status );
         orderRepository.save( order );
-        return OrderMapper.mapToDto( order );
+        final OrderDto updated = OrderMapper.mapToDto( order );
+        orderEventService.publish( OrderEventDto.STATUS, updated );
+        return updated;
 
     }
 
     /**
-     * Helper method that returns true if there is enough inventory to fulfill
-     * the order.
+     * Helper method that fulfills a batch of orders in the current
+     * transaction. The ingredients of every order that can be made are added
+     * up and taken out of the database at once.
      *
-     * @param inventory
-     *            the inventory to check
-     * @param order
-     *            order to check if there are enough ingredients
-     * @return true if enough ingredients to fulfill the order
+     * @param ids
+     *            ids of the orders to fulfill
+     * @param allOrNothing
+     *            whether one failure fails the whole batch
+     * @param tx
+     *            the current transaction, rolled back if nothing is fulfilled
+     * @return the outcome for each order, in the order given
      */
-    private boolean enoughIngredients ( final Inventory inventory, final Map<String, Integer> quantities ) {
-        // check if we have enough of each ingredient
-        for ( final String name : quantities.keySet() ) {
-            final int requiredInventory = quantities.get( name );
-            final int availableInventory = inventory.getIngredients().stream()
-                    .filter( i -> i.getName().equalsIgnoreCase( name ) ).mapToInt( i -> i.getQuantity() ).findFirst()
-                    .orElse( 0 );
+    private List<FulfillmentResultDto> fulfillBatch ( final List<Long> ids, final boolean allOrNothing,
+            final TransactionStatus tx ) {
+        final Set<Long> unique = new LinkedHashSet<>( ids );
+        final Map<Long, Order> orders = new HashMap<>();
+        for ( final Order order : orderRepository.findAllById( unique ) ) {
+            orders.put( order.getId(), order );
+        }
+
+        // Why each order that can't be fulfilled failed, keyed by order id
+        final Map<Long, String> failures = new HashMap<>();
+        final List<Order> pending = new ArrayList<>();
+        for ( final Long id : unique ) {
+            final Order order = orders.get( id );
+            if ( order == null ) {
+                failures.put( id, "Order not found" );
+            }
+            else if ( !order.getStatus().equals( Order.PENDING ) ) {
+                failures.put( id, "Order with " + order.getStatus() + " status cannot be fulfilled" );
+            }
+            else {
+                pending.add( order );
+            }
+        }
+        if ( allOrNothing && !failures.isEmpty() ) {
+            return batchResults( unique, failures, "Another order in the batch cannot be fulfilled" );
+        }
 
-            if ( availableInventory < requiredInventory ) {
-                return false;
+        // Orders with a reservation already hold their stock. The rest are
+        // checked against the ledger, one at a time unless all or nothing
+        final Map<Long, Integer> total = new HashMap<>();
+        final Map<Long, Integer> unreserved = new HashMap<>();
+        final List<Order> fulfilled = new ArrayList<>();
+        for ( final Order order : pending ) {
+            Map<Long, Integer> needs = stockReservationService.commit( order.getId() );
+            if ( needs == null ) {
+                needs = ingredientNeeds( order );
+                if ( allOrNothing ) {
+                    needs.forEach( ( ingredientId, n ) -> unreserved.merge( ingredientId, n, Integer::sum ) );
+                }
+                else if ( !ingredientLedgerService.tryDebit( needs ) ) {
+                    failures.put( order.getId(), "Not enough ingredients" );
+                    continue;
+                }
             }
+            needs.forEach( ( ingredientId, n ) -> total.merge( ingredientId, n, Integer::sum ) );
+            fulfilled.add( order );
+        }
+        if ( allOrNothing && !ingredientLedgerService.tryDebit( unreserved ) ) {
+            tx.setRollbackOnly();
+            return batchResults( unique, Map.of(), "Not enough ingredients" );
+        }
+        if ( !ingredientRepository.decrementAll( total ) ) {
+            // The ledger is out of step with the database, reload it
+            ingredientLedgerService.invalidate( total.keySet() );
+            tx.setRollbackOnly();
+            return batchResults( unique, Map.of(), "Not enough ingredients" );
+        }
+
+        for ( final Order order : fulfilled ) {
+            order.setStatus( Order.FULFILLED );
+            kitchenQueueService.remove( order.getId() );
+        }
+        orderRepository.saveAll( fulfilled );
+        salesRollupService.add( fulfilled );
+        consumptionLogService.record( total );
+        for ( final Order order : fulfilled ) {
+            orderEventService.publish( OrderEventDto.STATUS, OrderMapper.mapToDto( order ) );
+        }
+        return batchResults( unique, failures, null );
+    }
+
+    /**
+     * Helper method that builds the results of a batch.
+     *
+     * @param ids
+     *            ids of the orders in the batch
+     * @param failures
+     *            why each order that failed on its own failed
+     * @param otherwise
+     *            why every other order failed, or null if they were fulfilled
+     * @return the outcome for each order
+     */
+    private static List<FulfillmentResultDto> batchResults ( final Collection<Long> ids,
+            final Map<Long, String> failures, final String otherwise ) {
+        final List<FulfillmentResultDto> results = new ArrayList<>( ids.size() );
+        for ( final Long id : ids ) {
+            final String failure = failures.containsKey( id ) ? failures.get( id ) : otherwise;
+            results.add( new FulfillmentResultDto( id, failure == null, failure ) );
+        }
+        return results;
+    }
+
+    /**
+     * Helper method that waits before retrying a transaction. The wait
+     * doubles with each try, up to a limit, and is jittered so that the
+     * transactions that conflicted don't all retry at once.
+     *
+     * @param attempt
+     *            number of the try that just failed, starting at 1
+     * @param subject
+     *            what is being changed, for the error if the wait is
+     *            interrupted
+     */
+    private static void backoff ( final int attempt, final String subject ) {
+        final long limit = Math.min( MAX_BACKOFF_MILLIS, BACKOFF_MILLIS << ( attempt - 1 ) );
+        try {
+            Thread.sleep( ThreadLocalRandom.current().nextLong( limit / 2, limit + 1 ) );
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw conflict( subject );
+        }
+    }
+
+    /**
+     * Helper method that builds the error returned when something can't be
+     * updated because of concurrent changes.
+     *
+     * @param subject
+     *            what was being changed
+     * @return the exception to throw
+     */
+    private static WolfCafeAPIException conflict ( final String subject ) {
+        return new WolfCafeAPIException( HttpStatus.CONFLICT,
+                subject + " was changed by someone else at the same time, please try again" );
+    }
+
+    /**
+     * A position in the orders, newest first: the last order already seen.
+     *
+     * @param created
+     *            created time of the order
+     * @param id
+     *            id of the order
+     */
+    private record Cursor ( LocalDateTime created, Long id ) {
+    }
+
+    /**
+     * Helper method that asks for one more order than the page holds, to tell
+     * whether there is a next page.
+     *
+     * @param size
+     *            requested page size
+     * @return the request for the page
+     */
+    private static Pageable pageRequest ( final int size ) {
+        return PageRequest.of( 0, clampPageSize( size ) + 1 );
+    }
+
+    /**
+     * Helper method that keeps a requested page size between one and the
+     * largest page.
+     *
+     * @param size
+     *            requested page size
+     * @return the page size to use
+     */
+    private static int clampPageSize ( final int size ) {
+        return Math.max( 1, Math.min( size, MAX_PAGE ) );
+    }
+
+    /**
+     * Helper method that builds a page from the orders fetched for it, which
+     * include one extra order if there is a next page, and reads the lines of
+     * the orders on the page in one query.
+     *
+     * @param orders
+     *            the orders fetched
+     * @param size
+     *            requested page size
+     * @return the page
+     */
+    private OrderPageDto page ( final List<OrderDto> orders, final int size ) {
+        final int limit = clampPageSize( size );
+        final List<OrderDto> onPage = orders.size() <= limit ? orders : orders.subList( 0, limit );
+        if ( !onPage.isEmpty() ) {
+            final Map<Long, OrderDto> byId = new HashMap<>();
+            for ( final OrderDto order : onPage ) {
+                byId.put( order.getId(), order );
+            }
+            for ( final OrderItemDto line : orderRepository.findLines( byId.keySet() ) ) {
+                byId.get( line.getOrderId() ).getItems().add( line );
+            }
+        }
+        if ( orders.size() <= limit ) {
+            return new OrderPageDto( onPage, null );
+        }
+        final OrderDto last = onPage.get( limit - 1 );
+        return new OrderPageDto( onPage, encodeCursor( new Cursor( last.getCreated(), last.getId() ) ) );
+    }
+
+    /**
+     * Helper method that turns a position into an opaque cursor token.
+     *
+     * @param cursor
+     *            the position
+     * @return the token
+     */
+    private static String encodeCursor ( final Cursor cursor ) {
+        final String raw = cursor.created() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString( raw.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Helper method that reads a cursor token back into a position.
+     *
+     * @param token
+     *            the token, or null for the start
+     * @return the position
+     * @throws WolfCafeAPIException
+     *             if the token is malformed
+     */
+    private static Cursor decodeCursor ( final String token ) {
+        if ( token == null || token.isBlank() ) {
+            return new Cursor( START_CREATED, Long.MAX_VALUE );
+        }
+        try {
+            final String raw = new String( Base64.getUrlDecoder().decode( token ), StandardCharsets.UTF_8 );
+            final int split = raw.indexOf( '|' );
+            return new Cursor( LocalDateTime.parse( raw.substring( 0, split ) ),
+                    Long.parseLong( raw.substring( split + 1 ) ) );
+        }
+        catch ( final IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "Invalid cursor" );
+        }
+    }
+
+    /**
+     * Helper method that looks up every item named in the given orders with
+     * one query, and reports all the names that don't exist at once.
+     *
+     * @param orderDtos
+     *            the orders
+     * @return the items, keyed by name ignoring case as the database compares
+     *         them
+     * @throws ResourceNotFoundException
+     *             if any of the items don't exist
+     */
+    private Map<String, Item> itemsByName ( final List<OrderDto> orderDtos ) {
+        final Set<String> names = new TreeSet<>( String.CASE_INSENSITIVE_ORDER );
+        for ( final OrderDto orderDto : orderDtos ) {
+            if ( orderDto.getItems() != null ) {
+                for ( final OrderItemDto item : orderDto.getItems() ) {
+                    if ( item.getItemName() == null ) {
+                        throw new ResourceNotFoundException( "Every item in an order needs a name" );
+                    }
+                    names.add( item.getItemName() );
+                }
+            }
+        }
+        final Map<String, Item> items = new TreeMap<>( String.CASE_INSENSITIVE_ORDER );
+        if ( names.isEmpty() ) {
+            return items;
+        }
+        itemRepository.findByNameIn( names ).forEach( item -> items.put( item.getName(), item ) );
+        if ( items.size() < names.size() ) {
+            names.removeAll( items.keySet() );
+            throw new ResourceNotFoundException( "Items not found with names " + names );
+        }
+        return items;
+    }
+
+    /**
+     * Helper method that returns the id a new order is saved under. An id
+     * reserved by reserveOrderId is kept, and let go once the order commits.
+     * Any other id is dropped, so the sequence hands out a new one.
+     *
+     * @param id
+     *            id given on the order, may be null
+     * @return the id to save the order under, or null for a new one
+     */
+    private Long claim ( final Long id ) {
+        if ( id == null || !reservedIds.contains( id ) ) {
+            return null;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCommit () {
+                reservedIds.remove( id );
+            }
+        } );
+        return id;
+    }
+
+    /**
+     * Helper method that returns the customers placing orders. Only the
+     * foreign key is needed, so each customer is checked to exist and a
+     * reference is returned without loading the user.
+     *
+     * @param orderDtos
+     *            the orders
+     * @return reference to each customer, keyed by id
+     * @throws ResourceNotFoundException
+     *             if a customer doesn't exist
+     */
+    private Map<Long, User> customers ( final List<OrderDto> orderDtos ) {
+        final Map<Long, User> customers = new HashMap<>();
+        for ( final OrderDto orderDto : orderDtos ) {
+            final Long customerId = orderDto.getCustomerId();
+            if ( customerId != null && !customers.containsKey( customerId ) ) {
+                if ( !userRepository.existsById( customerId ) ) {
+                    throw new ResourceNotFoundException( "User not found with id " + customerId );
+                }
+                customers.put( customerId, userRepository.getReferenceById( customerId ) );
+            }
+        }
+        return customers;
+    }
+
+    /**
+     * Helper method that sums up the ingredients needed to make the order from
+     * each item's cached bill of materials. Only the item ids are read from
+     * the order's items, so no item or ingredient is loaded.
+     *
+     * @param order
+     *            order to sum the ingredients of
+     * @return quantity of each ingredient needed, keyed by ingredient id
+     */
+    private Map<Long, Integer> ingredientNeeds ( final Order order ) {
+        final Map<Long, Integer> needs = new HashMap<>();
+        for ( final OrderItem oi : order.getItems() ) {
+            billOfMaterialsService.accumulate( oi.getItem().getId(), oi.getQuantity(), needs );
         }
-        return true;
+        return needs;
     }
 
 }
@@ -0,0 +1,293 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import edu.ncsu.csc326.wolfcafe.dto.ItemSalesDto;
+import edu.ncsu.csc326.wolfcafe.dto.SalesRollupDto;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemSalesRollup;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.entity.OrderItem;
+import edu.ncsu.csc326.wolfcafe.entity.SalesRollup;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemSalesRollupRepository;
+import edu.ncsu.csc326.wolfcafe.repository.SalesRollupRepository;
+import edu.ncsu.csc326.wolfcafe.service.SalesRollupService;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+
+/**
+ * Implemented sales rollups. The changes an order makes to its hour and day
+ * buckets are added to an in-memory buffer once its transaction commits, so
+ * fulfillments never wait on each other for the lock on the current hour's
+ * row. A scheduled flush writes the buffer with one upsert per bucket touched.
+ * A rebuild stops commits from reaching the buffer while it reads the orders,
+ * so each change is either in what it reads or left in the buffer, never both.
+ */
+@Service
+@AllArgsConstructor
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    /** Every granularity kept, with the unit its buckets are truncated to */
+    private static final Map<String, ChronoUnit>            GRANULARITIES = Map.of( SalesRollup.HOUR, ChronoUnit.HOURS,
+            SalesRollup.DAY, ChronoUnit.DAYS );
+
+    /** Earlier than any bucket, used when the range has no start */
+    private static final LocalDateTime                      EARLIEST      = LocalDateTime.of( 1000, 1, 1, 0, 0 );
+
+    /** Later than any bucket, used when the range has no end */
+    private static final LocalDateTime                      LATEST        = LocalDateTime.of( 9999, 12, 31, 0, 0 );
+
+    /** Sales rollup repository, also writes the item rollups */
+    private final SalesRollupRepository                     salesRollupRepository;
+
+    /** Item sales rollup repository */
+    private final ItemSalesRollupRepository                 itemSalesRollupRepository;
+
+    /** Item repository, for the names of the items sold */
+    private final ItemRepository                            itemRepository;
+
+    /** Runs each flush and rebuild in its own transaction */
+    private final TransactionTemplate                       transactionTemplate;
+
+    /** Totals waiting to be flushed, guarded by itself */
+    private final Map<SalesRollup.Key, SalesRollup>         pendingTotals = new HashMap<>();
+
+    /** Item units waiting to be flushed, guarded by pendingTotals */
+    private final Map<ItemSalesRollup.Key, ItemSalesRollup> pendingUnits  = new HashMap<>();
+
+    /**
+     * Held for reading by a transaction from just before it commits until its
+     * changes are in the buffer, and for writing by a rebuild while it reads
+     * the orders
+     */
+    private final ReadWriteLock                             commits       = new ReentrantReadWriteLock();
+
+    @Override
+    @Transactional
+    public void add ( final Collection<Order> orders ) {
+        apply( orders, 1 );
+    }
+
+    @Override
+    @Transactional
+    public void remove ( final Order order ) {
+        if ( Order.FULFILLED.equals( order.getStatus() ) || Order.PICKED_UP.equals( order.getStatus() ) ) {
+            apply( List.of( order ), -1 );
+        }
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public List<SalesRollupDto> getSales ( final String granularity, final LocalDateTime from,
+            final LocalDateTime to ) {
+        checkGranularity( granularity );
+        return salesRollupRepository
+                .findRange( granularity, from != null ? from : EARLIEST, to != null ? to : LATEST ).stream()
+                .map( r -> new SalesRollupDto( r.getBucketStart(), r.getOrderCount(), r.getSubtotal(), r.getTax(),
+                        r.getTip() ) )
+                .collect( Collectors.toList() );
+    }
+
+    @Override
+    @Transactional ( readOnly = true )
+    public List<ItemSalesDto> getItemSales ( final String granularity, final LocalDateTime from,
+            final LocalDateTime to ) {
+        checkGranularity( granularity );
+        final List<ItemSalesRollup> rows = itemSalesRollupRepository.findRange( granularity,
+                from != null ? from : EARLIEST, to != null ? to : LATEST );
+
+        // Look up the names of every item in the range at once
+        final Set<Long> itemIds = rows.stream().map( ItemSalesRollup::getItemId ).collect( Collectors.toSet() );
+        final Map<Long, String> names = itemRepository.findAllById( itemIds ).stream()
+                .collect( Collectors.toMap( Item::getId, Item::getName ) );
+
+        return rows.stream().map( r -> new ItemSalesDto( r.getBucketStart(), r.getItemId(),
+                names.get( r.getItemId() ), r.getUnits() ) ).collect( Collectors.toList() );
+    }
+
+    @Override
+    @PreDestroy
+    @Scheduled ( fixedDelayString = "${app.sales-rollup-flush-milliseconds:5000}" )
+    public synchronized void flush () {
+        final List<SalesRollup> totals;
+        final List<ItemSalesRollup> units;
+        synchronized ( pendingTotals ) {
+            totals = new ArrayList<>( pendingTotals.values() );
+            units = new ArrayList<>( pendingUnits.values() );
+            pendingTotals.clear();
+            pendingUnits.clear();
+        }
+        if ( totals.isEmpty() && units.isEmpty() ) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult( tx -> salesRollupRepository.addAll( totals, units ) );
+        }
+        catch ( final RuntimeException e ) {
+            // Nothing was written, so put the changes back for the next flush
+            buffer( totals, units );
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void rebuild () {
+        // Synchronized with flush, so nothing else writes the rollups meanwhile
+        transactionTemplate.executeWithoutResult( tx -> {
+            final List<SalesRollup> totals;
+            final List<ItemSalesRollup> units;
+            commits.writeLock().lock();
+            try {
+                // No order that changes the rollups can commit until the sums
+                // are read, and every one that did is in the buffer, which the
+                // sums replace
+                totals = salesRollupRepository.sumTotals();
+                units = salesRollupRepository.sumUnits();
+                synchronized ( pendingTotals ) {
+                    pendingTotals.clear();
+                    pendingUnits.clear();
+                }
+            }
+            finally {
+                commits.writeLock().unlock();
+            }
+            salesRollupRepository.clearAll();
+            salesRollupRepository.addAll( totals, units );
+        } );
+    }
+
+    /**
+     * Helper method that adds orders to, or takes them out of, every bucket
+     * they fall in, once the caller's transaction commits.
+     *
+     * @param orders
+     *            the orders
+     * @param sign
+     *            1 to add the orders, -1 to take them out
+     */
+    private void apply ( final Collection<Order> orders, final int sign ) {
+        final Map<SalesRollup.Key, SalesRollup> totals = new HashMap<>();
+        final Map<ItemSalesRollup.Key, ItemSalesRollup> units = new HashMap<>();
+        for ( final Order order : orders ) {
+            GRANULARITIES.forEach( ( granularity, unit ) -> {
+                final LocalDateTime bucket = order.getCreated().truncatedTo( unit );
+                final SalesRollup total = totals.computeIfAbsent( new SalesRollup.Key( granularity, bucket ),
+                        k -> new SalesRollup( granularity, bucket, 0L, 0L, 0L, 0L ) );
+                total.setOrderCount( total.getOrderCount() + sign );
+                total.setSubtotal( total.getSubtotal() + sign * order.getSubtotal() );
+                total.setTax( total.getTax() + sign * order.getTax() );
+                total.setTip( total.getTip() + sign * order.getTip() );
+
+                for ( final OrderItem line : order.getItems() ) {
+                    // Only the id is read, so the item itself isn't loaded
+                    final Long itemId = line.getItem().getId();
+                    final ItemSalesRollup sold = units.computeIfAbsent(
+                            new ItemSalesRollup.Key( granularity, bucket, itemId ),
+                            k -> new ItemSalesRollup( granularity, bucket, itemId, 0L ) );
+                    sold.setUnits( sold.getUnits() + sign * line.getQuantity() );
+                }
+            } );
+        }
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            commits.readLock().lock();
+            try {
+                buffer( totals.values(), units.values() );
+            }
+            finally {
+                commits.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+
+            /** Whether this transaction holds the commit lock */
+            private boolean locked;
+
+            @Override
+            public void beforeCommit ( final boolean readOnly ) {
+                commits.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCommit () {
+                buffer( totals.values(), units.values() );
+            }
+
+            @Override
+            public void afterCompletion ( final int status ) {
+                if ( locked ) {
+                    commits.readLock().unlock();
+                }
+            }
+        } );
+    }
+
+    /**
+     * Helper method that adds changes to the ones waiting to be flushed.
+     *
+     * @param totals
+     *            changes to each bucket's totals
+     * @param units
+     *            changes to each item's units in a bucket
+     */
+    private void buffer ( final Collection<SalesRollup> totals, final Collection<ItemSalesRollup> units ) {
+        synchronized ( pendingTotals ) {
+            for ( final SalesRollup r : totals ) {
+                pendingTotals.merge( new SalesRollup.Key( r.getGranularity(), r.getBucketStart() ),
+                        new SalesRollup( r.getGranularity(), r.getBucketStart(), r.getOrderCount(),
+                                r.getSubtotal(), r.getTax(), r.getTip() ),
+                        ( a, b ) -> {
+                            a.setOrderCount( a.getOrderCount() + b.getOrderCount() );
+                            a.setSubtotal( a.getSubtotal() + b.getSubtotal() );
+                            a.setTax( a.getTax() + b.getTax() );
+                            a.setTip( a.getTip() + b.getTip() );
+                            return a;
+                        } );
+            }
+            for ( final ItemSalesRollup r : units ) {
+                pendingUnits.merge( new ItemSalesRollup.Key( r.getGranularity(), r.getBucketStart(), r.getItemId() ),
+                        new ItemSalesRollup( r.getGranularity(), r.getBucketStart(), r.getItemId(), r.getUnits() ),
+                        ( a, b ) -> {
+                            a.setUnits( a.getUnits() + b.getUnits() );
+                            return a;
+                        } );
+            }
+        }
+    }
+
+    /**
+     * Helper method that rejects an unknown granularity.
+     *
+     * @param granularity
+     *            the granularity asked for
+     * @throws WolfCafeAPIException
+     *             with BAD_REQUEST status if it isn't hour or day
+     */
+    private static void checkGranularity ( final String granularity ) {
+        if ( !GRANULARITIES.containsKey( granularity ) ) {
+            throw new WolfCafeAPIException( HttpStatus.BAD_REQUEST, "granularity must be hour or day" );
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ncsu.csc326.wolfcafe.service.IngredientLedgerService;
+import edu.ncsu.csc326.wolfcafe.service.StockReservationService;
+
+/**
+ * Implemented stock reservation service. Reservations are kept in memory and
+ * the stock they hold is tracked by the ingredient ledger, so reserving takes
+ * no database locks. A transaction claims a reservation before committing or
+ * releasing it, so each reservation is used exactly once, and a transaction
+ * that finds it already claimed fails as an optimistic locking conflict.
+ */
+@Service
+public class StockReservationServiceImpl implements StockReservationService {
+
+    /**
+     * A reservation held for one order.
+     *
+     * @param needs
+     *            quantity reserved, keyed by ingredient id
+     * @param expires
+     *            when the reservation is released if still held
+     * @param claimed
+     *            whether a transaction is committing or releasing it
+     */
+    private record Reservation ( Map<Long, Integer> needs, Instant expires, boolean claimed ) {
+
+        /**
+         * Returns a copy of this reservation claimed by a transaction.
+         *
+         * @return the claimed reservation
+         */
+        Reservation claim () {
+            return new Reservation( needs, expires, true );
+        }
+    }
+
+    /** Live reservations, keyed by order id */
+    private final Map<Long, Reservation>  reservations = new ConcurrentHashMap<>();
+
+    /** In-memory ledger of ingredient stock */
+    private final IngredientLedgerService ingredientLedgerService;
+
+    /** How long a reservation is held */
+    private final Duration                timeout;
+
+    /**
+     * Constructs the reservation service.
+     *
+     * @param ingredientLedgerService
+     *            ledger the reserved stock is taken from
+     * @param timeoutMinutes
+     *            minutes a reservation is held before it expires
+     */
+    public StockReservationServiceImpl ( final IngredientLedgerService ingredientLedgerService,
+            @Value ( "${app.order-reservation-timeout-minutes:30}" ) final long timeoutMinutes ) {
+        this.ingredientLedgerService = ingredientLedgerService;
+        this.timeout = Duration.ofMinutes( timeoutMinutes );
+    }
+
+    @Override
+    public boolean reserve ( final Long orderId, final Map<Long, Integer> needs ) {
+        if ( !ingredientLedgerService.tryReserve( needs ) ) {
+            return false;
+        }
+        final Reservation reservation = new Reservation( Map.copyOf( needs ), Instant.now().plus( timeout ), false );
+        reservations.put( orderId, reservation );
+        onRollback( () -> reservations.remove( orderId, reservation ) );
+        return true;
+    }
+
+    @Override
+    public Map<Long, Integer> commit ( final Long orderId ) {
+        final Reservation reservation = claim( orderId );
+        if ( reservation == null ) {
+            return null;
+        }
+        ingredientLedgerService.commit( reservation.needs() );
+        return reservation.needs();
+    }
+
+    @Override
+    public void release ( final Long orderId ) {
+        final Reservation reservation = claim( orderId );
+        if ( reservation == null ) {
+            return;
+        }
+        ingredientLedgerService.release( reservation.needs() );
+    }
+
+    @Override
+    public boolean isReserved ( final Long orderId ) {
+        return reservations.containsKey( orderId );
+    }
+
+    @Override
+    @Scheduled ( fixedDelayString = "${app.order-reservation-sweep-milliseconds:60000}" )
+    public void releaseExpired () {
+        final Instant now = Instant.now();
+        reservations.forEach( ( orderId, reservation ) -> {
+            if ( !reservation.claimed() && reservation.expires().isBefore( now )
+                    && reservations.remove( orderId, reservation ) ) {
+                ingredientLedgerService.release( reservation.needs() );
+            }
+        } );
+    }
+
+    /**
+     * Claims an order's reservation for the current transaction. The
+     * reservation is dropped when the transaction commits and given back if
+     * it rolls back, and until then no one else can use it. Without a
+     * transaction it is dropped straight away.
+     *
+     * @param orderId
+     *            id of the order
+     * @return the reservation, or null if the order has none
+     * @throws OptimisticLockingFailureException
+     *             if another transaction has claimed it and not yet finished
+     */
+    private Reservation claim ( final Long orderId ) {
+        final Reservation reservation = reservations.get( orderId );
+        if ( reservation == null ) {
+            return null;
+        }
+        if ( reservation.claimed() ) {
+            throw new OptimisticLockingFailureException(
+                    "The reservation for order " + orderId + " is in use by another transaction" );
+        }
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            return reservations.remove( orderId, reservation ) ? reservation : claim( orderId );
+        }
+        final Reservation claimed = reservation.claim();
+        if ( !reservations.replace( orderId, reservation, claimed ) ) {
+            return claim( orderId );
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCompletion ( final int status ) {
+                if ( status == STATUS_COMMITTED ) {
+                    reservations.remove( orderId, claimed );
+                }
+                else {
+                    reservations.replace( orderId, claimed, reservation );
+                }
+            }
+        } );
+        return reservation;
+    }
+
+    /**
+     * Runs the given action if the current transaction rolls back. The ledger
+     * undoes its own changes, this only puts the reservation map back.
+     *
+     * @param undo
+     *            the action to run on rollback
+     */
+    private static void onRollback ( final Runnable undo ) {
+        if ( !TransactionSynchronizationManager.isSynchronizationActive() ) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization( new TransactionSynchronization() {
+            @Override
+            public void afterCompletion ( final int status ) {
+                if ( status == STATUS_ROLLED_BACK ) {
+                    undo.run();
+                }
+            }
+        } );
+    }
+
+}
@@ -0,0 +1,142 @@
+package edu.ncsu.csc326.wolfcafe.service.impl;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ncsu.csc326.wolfcafe.entity.RevokedToken;
+import edu.ncsu.csc326.wolfcafe.entity.RevokedUser;
+import edu.ncsu.csc326.wolfcafe.repository.RevokedTokenRepository;
+import edu.ncsu.csc326.wolfcafe.repository.RevokedUserRepository;
+import edu.ncsu.csc326.wolfcafe.security.TokenRevocationList;
+import edu.ncsu.csc326.wolfcafe.service.TokenRevocationService;
+
+/**
+ * Implemented token revocation. Saves each revocation, of a token or of a
+ * user's tokens, and then adds it to the in-memory list. Periodically deletes
+ * the rows that no longer cover a live token and reloads the rest, which also
+ * picks up revocations made by other instances.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    /** Revoked token repository */
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    /** Revoked user repository */
+    private final RevokedUserRepository  revokedUserRepository;
+
+    /** Revoked tokens checked on each request */
+    private final TokenRevocationList    tokenRevocationList;
+
+    /** Longest a token can live, in milliseconds */
+    private final long                   maxTokenAge;
+
+    /**
+     * Constructs the revocation service.
+     *
+     * @param revokedTokenRepository
+     *            repository to persist token revocations in
+     * @param revokedUserRepository
+     *            repository to persist user revocations in
+     * @param tokenRevocationList
+     *            revoked tokens checked on each request
+     * @param maxTokenAge
+     *            longest a token can live, in milliseconds
+     */
+    public TokenRevocationServiceImpl ( final RevokedTokenRepository revokedTokenRepository,
+            final RevokedUserRepository revokedUserRepository, final TokenRevocationList tokenRevocationList,
+            @Value ( "${app.jwt-expiration-milliseconds}" ) final long maxTokenAge ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.revokedUserRepository = revokedUserRepository;
+        this.tokenRevocationList = tokenRevocationList;
+        this.maxTokenAge = maxTokenAge;
+    }
+
+    @Override
+    public void revoke ( final String jti, final Date expiresAt ) {
+        if ( expiresAt.getTime() <= System.currentTimeMillis() ) {
+            return;
+        }
+        revokedTokenRepository.save(
+                new RevokedToken( jti, LocalDateTime.ofInstant( expiresAt.toInstant(), ZoneId.systemDefault() ) ) );
+        tokenRevocationList.revokeToken( jti, expiresAt.getTime() );
+    }
+
+    @Override
+    public void revokeUser ( final Long userId ) {
+        final long now = System.currentTimeMillis();
+        revokedUserRepository.save( new RevokedUser( userId, toDateTime( now ) ) );
+        tokenRevocationList.revokeUser( userId, now );
+    }
+
+    @Override
+    @EventListener ( ApplicationReadyEvent.class )
+    @Transactional ( readOnly = true )
+    public void load () {
+        tokenRevocationList.prune( liveTokens(), liveUsers() );
+    }
+
+    @Override
+    @Scheduled ( fixedDelayString = "${app.token-revocation-prune-milliseconds:60000}" )
+    @Transactional
+    public void prune () {
+        revokedTokenRepository.deleteBefore( LocalDateTime.now() );
+        revokedUserRepository.deleteBefore( toDateTime( System.currentTimeMillis() - maxTokenAge ) );
+        tokenRevocationList.prune( liveTokens(), liveUsers() );
+    }
+
+    /**
+     * Helper method that reads the token revocations that haven't expired.
+     *
+     * @return their expirations in milliseconds, by jti
+     */
+    private Map<String, Long> liveTokens () {
+        final Map<String, Long> tokens = new HashMap<>();
+        for ( final RevokedToken token : revokedTokenRepository.findByExpiresAtAfter( LocalDateTime.now() ) ) {
+            tokens.put( token.getJti(),
+                    token.getExpiresAt().atZone( ZoneId.systemDefault() ).toInstant().toEpochMilli() );
+        }
+        return tokens;
+    }
+
+    /**
+     * Helper method that reads the user revocations that may still cover a
+     * live token.
+     *
+     * @return the time each user's tokens were revoked in milliseconds, by
+     *         user id
+     */
+    private Map<Long, Long> liveUsers () {
+        final Map<Long, Long> users = new HashMap<>();
+        for ( final RevokedUser user : revokedUserRepository
+                .findByRevokedAtAfter( toDateTime( System.currentTimeMillis() - maxTokenAge ) ) ) {
+            users.put( user.getUserId(),
+                    user.getRevokedAt().atZone( ZoneId.systemDefault() ).toInstant().toEpochMilli() );
+        }
+        return users;
+    }
+
+    /**
+     * Helper method that converts a time in milliseconds to a local date and
+     * time.
+     *
+     * @param millis
+     *            the time in milliseconds
+     * @return the local date and time
+     */
+    private static LocalDateTime toDateTime ( final long millis ) {
+        return LocalDateTime.ofInstant( Instant.ofEpochMilli( millis ), ZoneId.systemDefault() );
+    }
+
+}
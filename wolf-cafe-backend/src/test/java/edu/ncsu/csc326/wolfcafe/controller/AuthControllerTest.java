@@ -175,4 +175,34 @@ public class AuthControllerTest {
 
     }
 
+    /**
+     * Tests that a token stops working once logged out.
+     *
+     * @throws Exception
+     *             if error
+     */
+    @Test
+    @Transactional
+    public void testLogout () throws Exception {
+        final LoginDto adminLogin = new LoginDto( "admin", adminUserPassword );
+
+        final String loginResponse = mvc
+                .perform( post( "/api/auth/login" ).contentType( MediaType.APPLICATION_JSON )
+                        .content( TestUtils.asJsonString( adminLogin ) ).accept( MediaType.APPLICATION_JSON ) )
+                .andExpect( status().isOk() ).andReturn().getResponse().getContentAsString();
+
+        final String token = loginResponse.replaceAll( ".*\"accessToken\"\\s*:\\s*\"([^\"]+)\".*", "$1" );
+
+        mvc.perform( get( "/api/auth/all" ).header( "Authorization", "Bearer " + token )
+                .accept( MediaType.APPLICATION_JSON ) ).andExpect( status().isOk() );
+
+        mvc.perform( post( "/api/auth/logout" ).header( "Authorization", "Bearer " + token ) )
+                .andExpect( status().isOk() ).andExpect( content().string( "Logged out successfully." ) );
+
+        mvc.perform( get( "/api/auth/all" ).header( "Authorization", "Bearer " + token )
+                .accept( MediaType.APPLICATION_JSON ) ).andExpect( status().isUnauthorized() );
+
+        mvc.perform( post( "/api/auth/logout" ) ).andExpect( status().isBadRequest() );
+    }
+
 }
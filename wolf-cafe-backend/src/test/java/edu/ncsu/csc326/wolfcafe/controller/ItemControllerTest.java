@@ -1,7 +1,10 @@
 package edu.ncsu.csc326.wolfcafe.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -9,12 +12,14 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
@@ -24,8 +29,11 @@ import org.springframework.test.web.servlet.MockMvc;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.ncsu.csc326.wolfcafe.WolfCafeApplication;
+import edu.ncsu.csc326.wolfcafe.dto.IngredientDto;
 import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
+import edu.ncsu.csc326.wolfcafe.dto.ItemIngredientDto;
 import edu.ncsu.csc326.wolfcafe.service.ItemService;
+import edu.ncsu.csc326.wolfcafe.service.MenuCacheService;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -48,6 +56,10 @@ public class ItemControllerTest {
     @MockitoBean
     private ItemService               itemService;
 
+    /** Cached menu, dropped before each test so it is built from the mock */
+    @Autowired
+    private MenuCacheService          menuCacheService;
+
     /** Object mapper */
     private static final ObjectMapper MAPPER           = new ObjectMapper();
 
@@ -62,6 +74,14 @@ public class ItemControllerTest {
     /** Item price */
     private static final Integer      ITEM_PRICE       = 325;
 
+    /**
+     * Drops the cached menu.
+     */
+    @BeforeEach
+    public void setUp () {
+        menuCacheService.invalidate();
+    }
+
     /**
      * Test adding an item
      *
@@ -235,4 +255,68 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[1].name", Matchers.equalTo("Latte")));
     }
 
+    /**
+     * Tests the shape of the menu: each recipe line keeps the quantity the
+     * item needs and its ingredient's id and name, but not the ingredient's
+     * stock, and the items passed in are left as they were.
+     *
+     * @throws Exception
+     *             if error
+     */
+    @Test
+    @WithMockUser ( username = "staff", roles = "STAFF" )
+    public void testGetAllItemsShape () throws Exception {
+        final IngredientDto coffee = new IngredientDto( "Coffee", 40 );
+        coffee.setId( 7L );
+        final ItemDto item = new ItemDto();
+        item.setId( 1L );
+        item.setName( ITEM_NAME );
+        item.setDescription( ITEM_DESCRIPTION );
+        item.setPrice( ITEM_PRICE );
+        item.getIngredients().add( new ItemIngredientDto( 3L, coffee, 2, "shots", 1L ) );
+        Mockito.when( itemService.getAllItems() ).thenReturn( List.of( item ) );
+
+        mvc.perform( get( API_PATH ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$[0].price", Matchers.equalTo( ITEM_PRICE ) ) )
+                .andExpect( jsonPath( "$[0].ingredients[0].quantity", Matchers.equalTo( 2 ) ) )
+                .andExpect( jsonPath( "$[0].ingredients[0].unit", Matchers.equalTo( "shots" ) ) )
+                .andExpect( jsonPath( "$[0].ingredients[0].ingredient.id", Matchers.equalTo( 7 ) ) )
+                .andExpect( jsonPath( "$[0].ingredients[0].ingredient.name", Matchers.equalTo( "coffee" ) ) )
+                .andExpect( jsonPath( "$[0].ingredients[0].ingredient.quantity" ).doesNotExist() );
+        assertEquals( 40, coffee.getQuantity() );
+    }
+
+    /**
+     * Tests that the menu is served from the cache with an ETag, and that a
+     * request with that ETag gets NOT MODIFIED without loading the items.
+     *
+     * @throws Exception
+     *             if error
+     */
+    @Test
+    @WithMockUser ( username = "staff", roles = "STAFF" )
+    public void testGetAllItemsNotModified () throws Exception {
+        final ItemDto item = new ItemDto();
+        item.setId( 1L );
+        item.setName( ITEM_NAME );
+        item.setDescription( ITEM_DESCRIPTION );
+        item.setPrice( ITEM_PRICE );
+        Mockito.when( itemService.getAllItems() ).thenReturn( List.of( item ) );
+
+        final String etag = mvc.perform( get( API_PATH ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$[0].name", Matchers.equalTo( ITEM_NAME ) ) )
+                .andExpect( header().exists( HttpHeaders.ETAG ) ).andReturn().getResponse()
+                .getHeader( HttpHeaders.ETAG );
+
+        mvc.perform( get( API_PATH ).header( HttpHeaders.IF_NONE_MATCH, etag ) )
+                .andExpect( status().isNotModified() ).andExpect( content().bytes( new byte[0] ) );
+        Mockito.verify( itemService, Mockito.times( 1 ) ).getAllItems();
+
+        // A changed menu gets a new ETag
+        menuCacheService.invalidate();
+        item.setPrice( ITEM_PRICE + 1 );
+        mvc.perform( get( API_PATH ).header( HttpHeaders.IF_NONE_MATCH, etag ) ).andExpect( status().isOk() )
+                .andExpect( header().string( HttpHeaders.ETAG, Matchers.not( etag ) ) );
+    }
+
 }
@@ -1,5 +1,6 @@
 package edu.ncsu.csc326.wolfcafe.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -12,6 +13,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,9 +27,11 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 
 import edu.ncsu.csc326.wolfcafe.TestUtils;
 import edu.ncsu.csc326.wolfcafe.WolfCafeApplication;
+import edu.ncsu.csc326.wolfcafe.dto.BatchFulfillmentDto;
 import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
 import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
 import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
@@ -251,6 +255,58 @@ class OrderControllerTest {
 
     }
 
+    @Test
+    @Transactional
+    @WithMockUser ( username = "staff", roles = "STAFF" )
+    void testFulfillOrders () throws Exception {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 640 );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        final OrderItemDto item1 = new OrderItemDto();
+        item1.setItemName( "Coffee" );
+        item1.setQuantity( 2 );
+        items.add( item1 );
+        orderDto.setItems( items );
+        orderDto.setCreated( LocalDateTime.now() );
+
+        final Long id = orderService.createOrder( orderDto ).getId();
+
+        // The missing order makes an all or nothing batch fail
+        final BatchFulfillmentDto batch = new BatchFulfillmentDto( List.of( id, -1L ), true );
+        mvc.perform( post( "/api/orders/status/batch" ).contentType( MediaType.APPLICATION_JSON )
+                .content( TestUtils.asJsonString( batch ) ).accept( MediaType.APPLICATION_JSON ) )
+                .andExpect( status().isBadRequest() ).andExpect( jsonPath( "$[0].fulfilled" ).value( false ) )
+                .andExpect( jsonPath( "$[1].message" ).value( "Order not found" ) );
+
+        // Best effort fulfills the order that exists
+        batch.setAllOrNothing( false );
+        mvc.perform( post( "/api/orders/status/batch" ).contentType( MediaType.APPLICATION_JSON )
+                .content( TestUtils.asJsonString( batch ) ).accept( MediaType.APPLICATION_JSON ) )
+                .andExpect( status().isOk() ).andExpect( jsonPath( "$[0].orderId" ).value( id ) )
+                .andExpect( jsonPath( "$[0].fulfilled" ).value( true ) )
+                .andExpect( jsonPath( "$[1].fulfilled" ).value( false ) );
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser ( username = "staff", roles = "STAFF" )
+    void testFulfillOrdersWithoutIds () throws Exception {
+        // A batch missing its ids is a bad request, not a server error
+        final BatchFulfillmentDto batch = new BatchFulfillmentDto( null, false );
+        mvc.perform( post( "/api/orders/status/batch" ).contentType( MediaType.APPLICATION_JSON )
+                .content( TestUtils.asJsonString( batch ) ).accept( MediaType.APPLICATION_JSON ) )
+                .andExpect( status().isBadRequest() );
+
+        // An empty all or nothing batch is turned away before it runs
+        batch.setOrderIds( List.of() );
+        batch.setAllOrNothing( true );
+        mvc.perform( post( "/api/orders/status/batch" ).contentType( MediaType.APPLICATION_JSON )
+                .content( TestUtils.asJsonString( batch ) ).accept( MediaType.APPLICATION_JSON ) )
+                .andExpect( status().isBadRequest() ).andExpect( jsonPath( "$.message" ).exists() );
+    }
+
     @Test
     @Transactional
     @WithMockUser ( username = "customer", roles = "CUSTOMER" )
@@ -296,10 +352,23 @@ class OrderControllerTest {
         final Long id2 = orderService.createOrder( orderDto2 ).getId();
 
         mvc.perform( get( API_PATH ).contentType( MediaType.APPLICATION_JSON ) ).andExpect( status().isOk() )
-                .andExpect( jsonPath( "$[0].subtotal", Matchers.is( 1960 ) ) )
-                .andExpect( jsonPath( "$[1].subtotal", Matchers.is( 2120 ) ) )
-                .andExpect( jsonPath( "$[0].id", Matchers.is( id1.intValue() ) ) )
-                .andExpect( jsonPath( "$[1].id", Matchers.is( id2.intValue() ) ) );
+                .andExpect( jsonPath( "$.orders[0].subtotal", Matchers.is( 1960 ) ) )
+                .andExpect( jsonPath( "$.orders[1].subtotal", Matchers.is( 2120 ) ) )
+                .andExpect( jsonPath( "$.orders[0].id", Matchers.is( id1.intValue() ) ) )
+                .andExpect( jsonPath( "$.orders[1].id", Matchers.is( id2.intValue() ) ) )
+                .andExpect( jsonPath( "$.nextCursor" ).value( Matchers.nullValue() ) );
+
+        // One at a time, newest first
+        final String first = mvc.perform( get( API_PATH ).param( "size", "1" ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.orders.length()" ).value( 1 ) )
+                .andExpect( jsonPath( "$.orders[0].id", Matchers.is( id1.intValue() ) ) ).andReturn().getResponse()
+                .getContentAsString();
+        final String cursor = JsonPath.read( first, "$.nextCursor" );
+        mvc.perform( get( API_PATH ).param( "size", "1" ).param( "cursor", cursor ) ).andExpect( status().isOk() )
+                .andExpect( jsonPath( "$.orders.length()" ).value( 1 ) )
+                .andExpect( jsonPath( "$.orders[0].id", Matchers.is( id2.intValue() ) ) );
+
+        mvc.perform( get( API_PATH ).param( "cursor", "not a cursor" ) ).andExpect( status().isBadRequest() );
     }
 
     @Test
@@ -364,6 +433,41 @@ class OrderControllerTest {
                 .andExpect( jsonPath( "$.subtotal", Matchers.is( 1960 ) ) );
     }
 
+    @Test
+    @Transactional
+    @WithMockUser ( username = "customer", roles = "CUSTOMER" )
+    public void testCreateOrderIdempotent () throws Exception {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 640 );
+        orderDto.setTax( 30 );
+        orderDto.setTip( 0 );
+        final OrderItemDto item = new OrderItemDto();
+        item.setItemName( "Coffee" );
+        item.setQuantity( 2 );
+        orderDto.setItems( new ArrayList<>( List.of( item ) ) );
+        orderDto.setCreated( LocalDateTime.now() );
+        final String json = TestUtils.asJsonString( orderDto );
+        final String key = UUID.randomUUID().toString();
+
+        final String first = mvc
+                .perform( post( API_PATH ).contentType( MediaType.APPLICATION_JSON ).characterEncoding( ENCODING )
+                        .header( "Idempotency-Key", key ).content( json ).accept( MediaType.APPLICATION_JSON ) )
+                .andExpect( status().isOk() ).andReturn().getResponse().getContentAsString();
+        final Long id = MAPPER.readTree( first ).get( "id" ).asLong();
+
+        // A retry with the same key gets the same order back
+        mvc.perform( post( API_PATH ).contentType( MediaType.APPLICATION_JSON ).characterEncoding( ENCODING )
+                .header( "Idempotency-Key", key ).content( json ).accept( MediaType.APPLICATION_JSON ) )
+                .andExpect( status().isOk() ).andExpect( jsonPath( "$.id", Matchers.is( id.intValue() ) ) );
+        assertEquals( 1, orderRepository.count() );
+
+        // A new key is a new order
+        mvc.perform( post( API_PATH ).contentType( MediaType.APPLICATION_JSON ).characterEncoding( ENCODING )
+                .header( "Idempotency-Key", UUID.randomUUID().toString() ).content( json )
+                .accept( MediaType.APPLICATION_JSON ) ).andExpect( status().isOk() );
+        assertEquals( 2, orderRepository.count() );
+    }
+
     @Test
     @Transactional
 
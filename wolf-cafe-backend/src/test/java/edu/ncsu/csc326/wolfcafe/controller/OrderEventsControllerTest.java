@@ -0,0 +1,264 @@
+package edu.ncsu.csc326.wolfcafe.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import edu.ncsu.csc326.wolfcafe.WolfCafeApplication;
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.entity.Role;
+import edu.ncsu.csc326.wolfcafe.entity.User;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+import edu.ncsu.csc326.wolfcafe.repository.RoleRepository;
+import edu.ncsu.csc326.wolfcafe.repository.UserRepository;
+import edu.ncsu.csc326.wolfcafe.service.InventoryService;
+import edu.ncsu.csc326.wolfcafe.service.ItemService;
+import edu.ncsu.csc326.wolfcafe.service.OrderEventService;
+import edu.ncsu.csc326.wolfcafe.service.OrderService;
+
+/**
+ * Tests the live order event streams. Not transactional, since events are
+ * only sent once a change commits.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ContextConfiguration ( classes = WolfCafeApplication.class )
+class OrderEventsControllerTest {
+
+    /** Mocked MVC */
+    @Autowired
+    private MockMvc              mvc;
+
+    @Autowired
+    private OrderEventService    orderEventService;
+
+    @Autowired
+    private OrderService         orderService;
+
+    @Autowired
+    private ItemService          itemService;
+
+    @Autowired
+    private InventoryService     inventoryService;
+
+    @Autowired
+    private OrderRepository      orderRepository;
+
+    @Autowired
+    private ItemRepository       itemRepository;
+
+    @Autowired
+    private InventoryRepository  inventoryRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private UserRepository       userRepository;
+
+    @Autowired
+    private RoleRepository       roleRepository;
+
+    private static final String  API_PATH = "/api/orders";
+
+    /** Customer saved by the test, deleted afterwards */
+    private Long                 customerId;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 100 );
+        inventoryService.updateInventory( inventory );
+
+        final Item item = new Item();
+        item.setName( "Coffee" );
+        item.setDescription( "Yummy" );
+        item.setPrice( 320 );
+        item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 1, "grams", item ) );
+        itemService.addItem( ItemMapper.mapToDto( item ) );
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+        if ( customerId != null ) {
+            userRepository.deleteById( customerId );
+            customerId = null;
+        }
+    }
+
+    /**
+     * The board stream gets an event when an order is created and when its
+     * status changes.
+     *
+     * @throws Exception
+     *             if the request fails
+     */
+    @Test
+    @WithMockUser ( username = "staff", roles = "STAFF" )
+    void testBoardStream () throws Exception {
+        final MvcResult result = mvc.perform( get( API_PATH + "/events" ) ).andExpect( request().asyncStarted() )
+                .andReturn();
+        try {
+            final Long id = orderService.createOrder( order() ).getId();
+            orderService.updateStatus( id, Order.FULFILLED );
+
+            final String body = awaitHeartbeat( result );
+            assertTrue( body.contains( "event:created\n" ) );
+            assertTrue( body.contains( "event:status\n" ) );
+            assertTrue( body.contains( "\"id\":" + id ) );
+            assertTrue( body.contains( "\"status\":\"" + Order.FULFILLED + "\"" ) );
+        }
+        finally {
+            result.getRequest().getAsyncContext().complete();
+        }
+    }
+
+    /**
+     * A customer's stream doesn't get events for orders that aren't theirs.
+     *
+     * @throws Exception
+     *             if the request fails
+     */
+    @Test
+    @WithMockUser ( username = "streamer", roles = "CUSTOMER" )
+    void testCustomerStreamIsFiltered () throws Exception {
+        customerId = saveCustomer();
+        final MvcResult result = mvc.perform( get( API_PATH + "/events/user/" + customerId ) )
+                .andExpect( request().asyncStarted() ).andReturn();
+        try {
+            orderService.createOrder( order() );
+
+            assertFalse( awaitHeartbeat( result ).contains( "event:" ) );
+        }
+        finally {
+            result.getRequest().getAsyncContext().complete();
+        }
+    }
+
+    /**
+     * A customer can't follow another customer's orders, but staff can.
+     *
+     * @throws Exception
+     *             if the request fails
+     */
+    @Test
+    @WithMockUser ( username = "streamer", roles = "CUSTOMER" )
+    void testCustomerStreamOfOtherCustomerIsForbidden () throws Exception {
+        customerId = saveCustomer();
+        mvc.perform( get( API_PATH + "/events/user/" + ( customerId + 1 ) ) ).andExpect( status().isForbidden() );
+    }
+
+    /**
+     * Staff can follow any customer's orders.
+     *
+     * @throws Exception
+     *             if the request fails
+     */
+    @Test
+    @WithMockUser ( username = "staff", roles = "STAFF" )
+    void testStaffCanStreamAnyCustomer () throws Exception {
+        final MvcResult result = mvc.perform( get( API_PATH + "/events/user/" + Long.MAX_VALUE ) )
+                .andExpect( request().asyncStarted() ).andReturn();
+        result.getRequest().getAsyncContext().complete();
+    }
+
+    /**
+     * Saves the customer the mock user stands for.
+     *
+     * @return id of the customer
+     */
+    private Long saveCustomer () {
+        final User user = new User();
+        user.setName( "Streamer" );
+        user.setUsername( "streamer" );
+        user.setEmail( "streamer@email.com" );
+        user.setPassword( "unhashedpw" );
+        final Set<Role> roles = new HashSet<>();
+        roles.add( roleRepository.findByName( "ROLE_CUSTOMER" ) );
+        user.setRoles( roles );
+        return userRepository.save( user ).getId();
+    }
+
+    /**
+     * Sends a heartbeat and waits for it to reach the stream. Events are sent
+     * in order, so everything published before it has been sent too.
+     *
+     * @param result
+     *            the open stream
+     * @return what the stream has received
+     * @throws Exception
+     *             if interrupted or the response can't be read
+     */
+    private String awaitHeartbeat ( final MvcResult result ) throws Exception {
+        orderEventService.heartbeat();
+        for ( int i = 0; i < 100; i++ ) {
+            final String body = result.getResponse().getContentAsString();
+            if ( body.contains( ":heartbeat" ) ) {
+                return body;
+            }
+            Thread.sleep( 20 );
+        }
+        return result.getResponse().getContentAsString();
+    }
+
+    /**
+     * Builds an order for one coffee.
+     *
+     * @return the order
+     */
+    private static OrderDto order () {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        final OrderItemDto item = new OrderItemDto();
+        item.setItemName( "Coffee" );
+        item.setQuantity( 1 );
+        items.add( item );
+        orderDto.setItems( items );
+        orderDto.setCreated( LocalDateTime.now() );
+        return orderDto;
+    }
+
+}
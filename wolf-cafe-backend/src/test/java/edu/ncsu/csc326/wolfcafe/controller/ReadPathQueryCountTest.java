@@ -0,0 +1,297 @@
+package edu.ncsu.csc326.wolfcafe.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import edu.ncsu.csc326.wolfcafe.WolfCafeApplication;
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.entity.Role;
+import edu.ncsu.csc326.wolfcafe.entity.User;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+import edu.ncsu.csc326.wolfcafe.repository.RoleRepository;
+import edu.ncsu.csc326.wolfcafe.repository.UserRepository;
+import edu.ncsu.csc326.wolfcafe.service.InventoryService;
+import edu.ncsu.csc326.wolfcafe.service.ItemService;
+import edu.ncsu.csc326.wolfcafe.service.MenuCacheService;
+import edu.ncsu.csc326.wolfcafe.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Caps the statements each read endpoint runs, using Hibernate statistics, so
+ * that mapping items and orders to DTOs can't go back to loading their
+ * associations one row at a time. The menu and orders are big enough that any
+ * per-row loading would blow well past the caps. Not transactional, so each
+ * request opens its own session as it would in production.
+ */
+@SpringBootTest ( properties = "spring.jpa.properties.hibernate.generate_statistics=true" )
+@AutoConfigureMockMvc
+@ContextConfiguration ( classes = WolfCafeApplication.class )
+class ReadPathQueryCountTest {
+
+    /** Number of items on the menu */
+    private static final int          ITEMS       = 10;
+
+    /** Number of orders placed */
+    private static final int          ORDERS      = 20;
+
+    /** Ingredients in every item's recipe */
+    private static final List<String> INGREDIENTS = List.of( "Coffee", "Milk", "Sugar" );
+
+    /** API path */
+    private static final String       API_PATH    = "/api";
+
+    /** Mocked MVC */
+    @Autowired
+    private MockMvc                   mvc;
+
+    @Autowired
+    private OrderService              orderService;
+
+    @Autowired
+    private ItemService               itemService;
+
+    @Autowired
+    private InventoryService          inventoryService;
+
+    @Autowired
+    private MenuCacheService          menuCacheService;
+
+    @Autowired
+    private OrderRepository           orderRepository;
+
+    @Autowired
+    private ItemRepository            itemRepository;
+
+    @Autowired
+    private InventoryRepository       inventoryRepository;
+
+    @Autowired
+    private IngredientRepository      ingredientRepository;
+
+    @Autowired
+    private UserRepository            userRepository;
+
+    @Autowired
+    private RoleRepository            roleRepository;
+
+    @Autowired
+    private EntityManagerFactory      entityManagerFactory;
+
+    private Statistics                statistics;
+
+    private Long                      customerId;
+
+    private Long                      itemId;
+
+    private Long                      orderId;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        for ( final String ingredient : INGREDIENTS ) {
+            inventory.withQuantity( ingredient.toLowerCase(), 1000 );
+        }
+        inventoryService.updateInventory( inventory );
+
+        for ( int i = 0; i < ITEMS; i++ ) {
+            final Item item = new Item();
+            item.setName( "Item" + i );
+            item.setDescription( "Yummy" );
+            item.setPrice( 100 );
+            for ( final String ingredient : INGREDIENTS ) {
+                item.addIngredient( new ItemIngredient( null, new Ingredient( ingredient, null ), 1, "grams", item ) );
+            }
+            itemId = itemService.addItem( ItemMapper.mapToDto( item ) ).getId();
+        }
+
+        customerId = saveCustomer();
+        for ( int i = 0; i < ORDERS; i++ ) {
+            orderId = orderService.createOrder( order( i, i % 2 == 0 ? customerId : null ) ).getId();
+        }
+
+        menuCacheService.invalidate();
+        statistics = entityManagerFactory.unwrap( SessionFactory.class ).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+        userRepository.deleteById( customerId );
+    }
+
+    /**
+     * The menu is read in one query, or two if the inventory the ingredients
+     * belong to is loaded too, and not at all once cached. A single item is
+     * read the same way.
+     *
+     * @throws Exception
+     *             if a request fails
+     */
+    @Test
+    @WithMockUser ( username = "staff", roles = "STAFF" )
+    void testItemEndpoints () throws Exception {
+        assertAtMost( 2, API_PATH + "/items", jsonPath( "$.length()" ).value( ITEMS ) );
+        assertAtMost( 0, API_PATH + "/items", status().isOk() );
+        assertAtMost( 2, API_PATH + "/items/" + itemId,
+                jsonPath( "$.ingredients.length()" ).value( INGREDIENTS.size() ) );
+    }
+
+    /**
+     * A page of orders takes one query for the page, one for the lines of
+     * every order on it and one for the items on those lines, however many
+     * orders there are.
+     *
+     * @throws Exception
+     *             if a request fails
+     */
+    @Test
+    @WithMockUser ( username = "staff", roles = "STAFF" )
+    void testOrderPageEndpoints () throws Exception {
+        assertAtMost( 3, API_PATH + "/orders?size=50", jsonPath( "$.orders.length()" ).value( ORDERS ) );
+        assertAtMost( 3, API_PATH + "/orders/today?size=50", jsonPath( "$.orders.length()" ).value( ORDERS ) );
+        assertAtMost( 3, API_PATH + "/orders/user/" + customerId + "?size=50",
+                jsonPath( "$.orders.length()" ).value( ORDERS / 2 ) );
+        assertAtMost( 1, API_PATH + "/orders/" + orderId, jsonPath( "$.items.length()" ).value( ITEMS / 2 ) );
+    }
+
+    /**
+     * The unpaged order lists fetch each order's lines and items in the same
+     * query.
+     */
+    @Test
+    void testOrderListServices () {
+        assertAtMost( 1, () -> orderService.getAllOrders(), ORDERS );
+        assertAtMost( 1, () -> orderService.getOrdersByUser( customerId ), ORDERS / 2 );
+        assertAtMost( 1, () -> orderService.getOrdersByCreatedDate( LocalDateTime.now() ), ORDERS );
+    }
+
+    /**
+     * Performs a GET and checks that it ran no more than the given number of
+     * statements.
+     *
+     * @param max
+     *            most statements allowed
+     * @param path
+     *            path to get
+     * @param matcher
+     *            checks the response
+     * @throws Exception
+     *             if the request fails
+     */
+    private void assertAtMost ( final int max, final String path, final ResultMatcher matcher ) throws Exception {
+        statistics.clear();
+        mvc.perform( get( path ) ).andExpect( status().isOk() ).andExpect( matcher );
+        final long statements = statistics.getPrepareStatementCount();
+        assertTrue( statements <= max, () -> path + " ran " + statements + " statements, at most " + max
+                + " allowed" );
+    }
+
+    /**
+     * Runs an order list and checks its size and that it ran no more than the
+     * given number of statements.
+     *
+     * @param max
+     *            most statements allowed
+     * @param list
+     *            the list to run
+     * @param size
+     *            number of orders expected
+     */
+    private void assertAtMost ( final int max, final Supplier<List<OrderDto>> list, final int size ) {
+        statistics.clear();
+        final List<OrderDto> orders = list.get();
+        final long statements = statistics.getPrepareStatementCount();
+        assertEquals( size, orders.size() );
+        assertTrue( orders.stream().allMatch( order -> !order.getItems().isEmpty() ) );
+        assertTrue( statements <= max, () -> statements + " statements, at most " + max + " allowed" );
+    }
+
+    /**
+     * Saves a customer to place half the orders.
+     *
+     * @return id of the customer
+     */
+    private Long saveCustomer () {
+        final User user = new User();
+        user.setName( "Reader" );
+        user.setUsername( "reader" );
+        user.setEmail( "reader@email.com" );
+        user.setPassword( "unhashedpw" );
+        final Set<Role> roles = new HashSet<>();
+        roles.add( roleRepository.findByName( "ROLE_CUSTOMER" ) );
+        user.setRoles( roles );
+        return userRepository.save( user ).getId();
+    }
+
+    /**
+     * Builds an order for one of each of half the items, starting from a
+     * different item each time.
+     *
+     * @param n
+     *            number of the order
+     * @param customer
+     *            id of the customer, or null for a guest
+     * @return the order
+     */
+    private static OrderDto order ( final int n, final Long customer ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 100 * ( ITEMS / 2 ) );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        for ( int i = 0; i < ITEMS / 2; i++ ) {
+            final OrderItemDto item = new OrderItemDto();
+            item.setItemName( "Item" + ( ( n + i ) % ITEMS ) );
+            item.setQuantity( 1 );
+            items.add( item );
+        }
+        orderDto.setItems( items );
+        orderDto.setCreated( LocalDateTime.now() );
+        orderDto.setCustomerId( customer );
+        return orderDto;
+    }
+
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -142,4 +143,28 @@ class IngredientRepositoryTest {
         assertTrue( ingredient1.equals( ingredient1 ) );
         assertFalse( ingredient1.equals( null ) );
     }
+
+    @Test
+    public void testDecrementAll () {
+        final Long oldVersion = ingredient1.getVersion();
+
+        assertTrue( ingredientRepository
+                .decrementAll( Map.of( ingredient1.getId(), 2, ingredient2.getId(), 3 ) ) );
+
+        // Ingredients loaded in this transaction see the new quantities
+        assertEquals( 3, ingredient1.getQuantity() );
+        assertEquals( 0, ingredient2.getQuantity() );
+        assertEquals( oldVersion + 1, ingredient1.getVersion() );
+        assertEquals( 3, ingredientRepository.findByName( "Chocolate" ).get().getQuantity() );
+
+        assertTrue( ingredientRepository.decrementAll( Map.of() ) );
+    }
+
+    @Test
+    public void testDecrementAllNotEnough () {
+        // Milk only has 3, so its update must not apply
+        assertFalse( ingredientRepository
+                .decrementAll( Map.of( ingredient1.getId(), 2, ingredient2.getId(), 4 ) ) );
+        assertEquals( 3, ingredientRepository.findByName( "Milk" ).get().getQuantity() );
+    }
 }
@@ -0,0 +1,85 @@
+package edu.ncsu.csc326.wolfcafe.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+
+/**
+ * Tests hashing passwords on a bounded pool.
+ */
+class BoundedPasswordEncoderTest {
+
+    /**
+     * Passwords hash and check as with plain BCrypt.
+     */
+    @Test
+    void testEncodeAndMatches () {
+        final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder( 4, 2, 2 );
+        final String hash = encoder.encode( "secret" );
+        assertTrue( hash.startsWith( "$2a$04$" ) );
+        assertTrue( encoder.matches( "secret", hash ) );
+        assertFalse( encoder.matches( "guess", hash ) );
+        encoder.shutdown();
+    }
+
+    /**
+     * Hashes weaker than the configured strength need upgrading, and others
+     * don't.
+     */
+    @Test
+    void testUpgradeEncoding () {
+        final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder( 5, 1, 1 );
+        assertTrue( encoder.upgradeEncoding( new BCryptPasswordEncoder( 4 ).encode( "secret" ) ) );
+        assertFalse( encoder.upgradeEncoding( encoder.encode( "secret" ) ) );
+        encoder.shutdown();
+    }
+
+    /**
+     * A hash that can't run or wait is turned away at once with
+     * TOO_MANY_REQUESTS.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the pool
+     */
+    @Test
+    void testRejectsWhenFull () throws InterruptedException {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor( 1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy() );
+        final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder( 4, pool );
+
+        // Hold the only thread
+        final CountDownLatch started = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+        pool.execute( () -> {
+            started.countDown();
+            try {
+                release.await();
+            }
+            catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        } );
+        started.await();
+
+        final WolfCafeAPIException e = assertThrows( WolfCafeAPIException.class,
+                () -> encoder.encode( "secret" ) );
+        assertEquals( HttpStatus.TOO_MANY_REQUESTS, e.getStatus() );
+
+        release.countDown();
+        pool.shutdown();
+        assertTrue( pool.awaitTermination( 5, TimeUnit.SECONDS ) );
+    }
+
+}
@@ -0,0 +1,211 @@
+package edu.ncsu.csc326.wolfcafe.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Tests authenticating requests from their tokens, with and without loading
+ * the user, and revoking tokens.
+ */
+class JwtAuthenticationFilterTest {
+
+    /** A 256 bit secret, base64 encoded as in application.properties */
+    private static final String      SECRET     = Base64.getEncoder().encodeToString( new byte[32] );
+
+    /** How long a token lasts */
+    private static final long        EXPIRATION = 3_600_000L;
+
+    /** User every token is issued to */
+    private static final UserDetails USER       = new User( "staff", "unused",
+            List.of( new SimpleGrantedAuthority( "ROLE_STAFF" ) ) );
+
+    @AfterEach
+    void tearDown () {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * In stateless mode the user and roles come from the token, and the user
+     * isn't loaded.
+     *
+     * @throws Exception
+     *             if the filter fails
+     */
+    @Test
+    void testStatelessTokenIsNotLookedUp () throws Exception {
+        final JwtTokenProvider provider = new JwtTokenProvider( SECRET, EXPIRATION, true, 900_000L );
+        final JwtAuthenticationFilter filter = new JwtAuthenticationFilter( provider, username -> {
+            throw new UsernameNotFoundException( username );
+        }, new TokenRevocationList( EXPIRATION, 100 ) );
+
+        final Authentication authentication = filter( filter, token( provider ) );
+        assertEquals( "staff", authentication.getName() );
+        assertEquals( List.of( "ROLE_STAFF" ),
+                authentication.getAuthorities().stream().map( a -> a.getAuthority() ).toList() );
+    }
+
+    /**
+     * Otherwise the user is loaded once per request.
+     *
+     * @throws Exception
+     *             if the filter fails
+     */
+    @Test
+    void testTokenIsLookedUp () throws Exception {
+        final JwtTokenProvider provider = new JwtTokenProvider( SECRET, EXPIRATION, false, 900_000L );
+        final AtomicInteger loads = new AtomicInteger();
+        final JwtAuthenticationFilter filter = new JwtAuthenticationFilter( provider, username -> {
+            loads.incrementAndGet();
+            return USER;
+        }, new TokenRevocationList( EXPIRATION, 100 ) );
+
+        assertEquals( "staff", filter( filter, token( provider ) ).getName() );
+        assertEquals( 1, loads.get() );
+    }
+
+    /**
+     * A token issued before its user was revoked doesn't authenticate.
+     *
+     * @throws Exception
+     *             if the filter fails
+     */
+    @Test
+    void testRevokedTokenIsIgnored () throws Exception {
+        final JwtTokenProvider provider = new JwtTokenProvider( SECRET, EXPIRATION, true, 900_000L );
+        final TokenRevocationList revocations = new TokenRevocationList( EXPIRATION, 100 );
+        final JwtAuthenticationFilter filter = new JwtAuthenticationFilter( provider, username -> USER,
+                revocations );
+
+        final String token = token( provider );
+        revocations.revokeUser( 2L );
+        assertEquals( "staff", filter( filter, token ).getName() );
+        SecurityContextHolder.clearContext();
+
+        revocations.revokeUser( 1L );
+        assertNull( filter( filter, token ) );
+    }
+
+    /**
+     * A user revocation loaded from the database, such as one made by another
+     * instance or before a restart, revokes the user's tokens too, and an
+     * older one doesn't undo a newer one.
+     *
+     * @throws Exception
+     *             if the filter fails
+     */
+    @Test
+    void testLoadedUserRevocation () throws Exception {
+        final JwtTokenProvider provider = new JwtTokenProvider( SECRET, EXPIRATION, true, 900_000L );
+        final TokenRevocationList revocations = new TokenRevocationList( EXPIRATION, 100 );
+        final JwtAuthenticationFilter filter = new JwtAuthenticationFilter( provider, username -> USER,
+                revocations );
+
+        final String token = token( provider );
+        revocations.prune( Map.of(), Map.of( 1L, System.currentTimeMillis() ) );
+        assertNull( filter( filter, token ) );
+
+        revocations.prune( Map.of(), Map.of( 1L, System.currentTimeMillis() - EXPIRATION ) );
+        assertNull( filter( filter, token ) );
+    }
+
+    /**
+     * A token revoked by its id doesn't authenticate, and other tokens for
+     * the same user still do, whether or not they are stateless.
+     *
+     * @throws Exception
+     *             if the filter fails
+     */
+    @Test
+    void testRevokedTokenIdIsIgnored () throws Exception {
+        final JwtTokenProvider provider = new JwtTokenProvider( SECRET, EXPIRATION, false, 900_000L );
+        final TokenRevocationList revocations = new TokenRevocationList( EXPIRATION, 100 );
+        final JwtAuthenticationFilter filter = new JwtAuthenticationFilter( provider, username -> USER,
+                revocations );
+
+        final String revoked = token( provider );
+        final String other = token( provider );
+        final Claims claims = provider.parseAndValidate( revoked );
+        revocations.revokeToken( claims.getId(), claims.getExpiration().getTime() );
+
+        assertNull( filter( filter, revoked ) );
+        assertEquals( "staff", filter( filter, other ).getName() );
+        SecurityContextHolder.clearContext();
+
+        // Rebuilding the filter keeps what hasn't expired
+        revocations.prune( Map.of( "expired", System.currentTimeMillis() - 1 ), Map.of() );
+        assertEquals( 1, revocations.getRevokedTokenCount() );
+        assertNull( filter( filter, revoked ) );
+    }
+
+    /**
+     * Lots of revocations grow the filter without losing any.
+     */
+    @Test
+    void testManyRevocations () {
+        final TokenRevocationList revocations = new TokenRevocationList( EXPIRATION, 10 );
+        final long expiresAt = System.currentTimeMillis() + EXPIRATION;
+        for ( int i = 0; i < 1000; i++ ) {
+            revocations.revokeToken( "token" + i, expiresAt );
+        }
+        assertEquals( 1000, revocations.getRevokedTokenCount() );
+        for ( int i = 0; i < 1000; i++ ) {
+            assertTrue( revocations.isRevoked( Jwts.claims().id( "token" + i ).build() ) );
+        }
+        assertFalse( revocations.isRevoked( Jwts.claims().id( "other" ).build() ) );
+    }
+
+    /**
+     * Issues a token to the user, with id 1.
+     *
+     * @param provider
+     *            provider to issue it
+     * @return the token
+     */
+    private static String token ( final JwtTokenProvider provider ) {
+        return provider.generateToken( new UsernamePasswordAuthenticationToken( USER, null, USER.getAuthorities() ),
+                1L );
+    }
+
+    /**
+     * Sends a request with a token through the filter.
+     *
+     * @param filter
+     *            the filter
+     * @param token
+     *            the token
+     * @return the authentication the filter set, or null if none
+     * @throws Exception
+     *             if the filter fails
+     */
+    private static Authentication filter ( final JwtAuthenticationFilter filter, final String token )
+            throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest( "GET", "/api/orders" );
+        request.addHeader( "Authorization", "Bearer " + token );
+        filter.doFilter( request, new MockHttpServletResponse(), new MockFilterChain() );
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+}
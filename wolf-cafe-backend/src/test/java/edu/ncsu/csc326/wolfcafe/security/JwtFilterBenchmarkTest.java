@@ -0,0 +1,126 @@
+package edu.ncsu.csc326.wolfcafe.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Compares the token work the JWT filter used to do on each request, which
+ * decoded the key and built a parser twice to check the signature twice, with
+ * the cached parser checking it once, and times a whole pass through the
+ * filter. Only runs when asked for, with -Dbenchmark=true, since its timings
+ * depend on the machine.
+ */
+@EnabledIfSystemProperty ( named = "benchmark", matches = "true" )
+class JwtFilterBenchmarkTest {
+
+    /** Calls run before measuring, to warm up the JIT */
+    private static final int         WARMUP = 20_000;
+
+    /** Calls measured */
+    private static final int         RUNS   = 100_000;
+
+    /** A 256 bit secret, base64 encoded as in application.properties */
+    private static final String      SECRET = Base64.getEncoder().encodeToString( new byte[32] );
+
+    /** User every token is issued to */
+    private static final UserDetails USER   = new User( "admin", "unused",
+            List.of( new SimpleGrantedAuthority( "ROLE_ADMIN" ) ) );
+
+    private JwtTokenProvider         jwtTokenProvider;
+
+    private JwtAuthenticationFilter  filter;
+
+    private String                   token;
+
+    @BeforeEach
+    void setUp () {
+        jwtTokenProvider = new JwtTokenProvider( SECRET, 3_600_000L, false, 900_000L );
+        filter = new JwtAuthenticationFilter( jwtTokenProvider, username -> USER,
+                new TokenRevocationList( 3_600_000L, 100 ) );
+        token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken( USER, null, USER.getAuthorities() ), 1L );
+    }
+
+    /**
+     * Checking the token once with the cached parser takes less time than the
+     * old two checks with a fresh key and parser each.
+     */
+    @Test
+    void testTokenCheck () {
+        final double before = measure( "token, fresh key and parser x2", () -> {
+            final boolean valid = Jwts.parser().verifyWith( Keys.hmacShaKeyFor( Decoders.BASE64.decode( SECRET ) ) )
+                    .build().parse( token ) != null;
+            final String username = Jwts.parser()
+                    .verifyWith( Keys.hmacShaKeyFor( Decoders.BASE64.decode( SECRET ) ) ).build()
+                    .parseSignedClaims( token ).getPayload().getSubject();
+            assertTrue( valid );
+            assertEquals( "admin", username );
+        } );
+        final double after = measure( "token, cached parser x1",
+                () -> assertEquals( "admin", jwtTokenProvider.parseAndValidate( token ).getSubject() ) );
+        assertTrue( after < before );
+    }
+
+    /**
+     * Times a whole authenticated request through the filter, with the user
+     * details served from memory.
+     */
+    @Test
+    void testFilter () {
+        measure( "filter, whole request", () -> {
+            final MockHttpServletRequest request = new MockHttpServletRequest( "GET", "/api/items" );
+            request.addHeader( "Authorization", "Bearer " + token );
+            try {
+                filter.doFilter( request, new MockHttpServletResponse(), new MockFilterChain() );
+            }
+            catch ( final Exception e ) {
+                throw new IllegalStateException( e );
+            }
+            assertEquals( "admin", SecurityContextHolder.getContext().getAuthentication().getName() );
+            SecurityContextHolder.clearContext();
+        } );
+    }
+
+    /**
+     * Runs a call until warmed up, then measures it and prints the time it
+     * took per call.
+     *
+     * @param name
+     *            name of the path, to print
+     * @param call
+     *            the call
+     * @return microseconds per call
+     */
+    private static double measure ( final String name, final Runnable call ) {
+        for ( int i = 0; i < WARMUP; i++ ) {
+            call.run();
+        }
+        final long start = System.nanoTime();
+        for ( int i = 0; i < RUNS; i++ ) {
+            call.run();
+        }
+        final double micros = ( System.nanoTime() - start ) / 1000.0 / RUNS;
+        System.out.printf( "%-32s %8.2f us/op%n", name, micros );
+        return micros;
+    }
+
+}
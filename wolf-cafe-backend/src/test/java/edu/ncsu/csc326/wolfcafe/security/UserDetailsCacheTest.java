@@ -0,0 +1,95 @@
+package edu.ncsu.csc326.wolfcafe.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import edu.ncsu.csc326.wolfcafe.dto.UserDetailsCacheMetricsDto;
+import edu.ncsu.csc326.wolfcafe.entity.Role;
+import edu.ncsu.csc326.wolfcafe.entity.User;
+
+/**
+ * Tests the cache of users loaded for authentication.
+ */
+class UserDetailsCacheTest {
+
+    /** Times a user was loaded */
+    private final AtomicInteger          loads  = new AtomicInteger();
+
+    /** Loads one of three users, by username or email */
+    private final Function<String, User> loader = key -> {
+        loads.incrementAndGet();
+        for ( long id = 1; id <= 3; id++ ) {
+            if ( key.equals( "user" + id ) || key.equals( "user" + id + "@ncsu.edu" ) ) {
+                return new User( id, "User " + id, "user" + id, "user" + id + "@ncsu.edu", "hash",
+                        List.of( new Role( 1L, "ROLE_CUSTOMER" ) ) );
+            }
+        }
+        throw new UsernameNotFoundException( key );
+    };
+
+    /**
+     * A user is loaded once and then found by username or email, under the
+     * name it was asked for.
+     */
+    @Test
+    void testHitsByUsernameAndEmail () {
+        final UserDetailsCache cache = new UserDetailsCache( 10, 60_000 );
+        assertEquals( "user1", cache.get( "user1", loader ).getUsername() );
+        final UserDetails byEmail = cache.get( "user1@ncsu.edu", loader );
+        assertEquals( "user1@ncsu.edu", byEmail.getUsername() );
+        assertEquals( "ROLE_CUSTOMER", byEmail.getAuthorities().iterator().next().getAuthority() );
+        assertEquals( 1, loads.get() );
+
+        final UserDetailsCacheMetricsDto metrics = cache.getMetrics();
+        assertEquals( 1, metrics.getSize() );
+        assertEquals( 1, metrics.getHits() );
+        assertEquals( 1, metrics.getMisses() );
+    }
+
+    /**
+     * An invalidated user is loaded again, and unknown users aren't cached.
+     */
+    @Test
+    void testInvalidate () {
+        final UserDetailsCache cache = new UserDetailsCache( 10, 60_000 );
+        cache.get( "user1", loader );
+        cache.invalidate( 1L );
+        cache.get( "user1@ncsu.edu", loader );
+        assertEquals( 2, loads.get() );
+        assertEquals( 1, cache.getMetrics().getInvalidations() );
+
+        assertThrows( UsernameNotFoundException.class, () -> cache.get( "nobody", loader ) );
+        assertEquals( 1, cache.getMetrics().getSize() );
+    }
+
+    /**
+     * The longest cached user is dropped when the cache is full, and expired
+     * users are loaded again.
+     */
+    @Test
+    void testEvictions () {
+        final UserDetailsCache cache = new UserDetailsCache( 2, 60_000 );
+        cache.get( "user1", loader );
+        cache.get( "user2", loader );
+        cache.get( "user3", loader );
+        assertEquals( 2, cache.getMetrics().getSize() );
+        assertEquals( 1, cache.getMetrics().getEvictions() );
+        cache.get( "user1", loader );
+        assertEquals( 4, loads.get() );
+
+        final UserDetailsCache expiring = new UserDetailsCache( 2, 0 );
+        expiring.get( "user1", loader );
+        expiring.get( "user1", loader );
+        assertEquals( 6, loads.get() );
+        assertEquals( 1, expiring.getMetrics().getEvictions() );
+    }
+
+}
@@ -0,0 +1,219 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import edu.ncsu.csc326.wolfcafe.dto.ConsumptionDto;
+import edu.ncsu.csc326.wolfcafe.dto.ConsumptionForecastDto;
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.ConsumptionBucket;
+import edu.ncsu.csc326.wolfcafe.entity.ConsumptionEvent;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.ConsumptionBucketRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ConsumptionEventRepository;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+
+/**
+ * Tests the ingredient consumption log and forecast. Not transactional, since
+ * debits are only buffered once a fulfillment commits.
+ */
+@SpringBootTest
+class ConsumptionLogServiceTest {
+
+    @Autowired
+    private ConsumptionLogService       consumptionLogService;
+
+    @Autowired
+    private OrderService                orderService;
+
+    @Autowired
+    private ItemService                 itemService;
+
+    @Autowired
+    private InventoryService            inventoryService;
+
+    @Autowired
+    private OrderRepository             orderRepository;
+
+    @Autowired
+    private ItemRepository              itemRepository;
+
+    @Autowired
+    private InventoryRepository         inventoryRepository;
+
+    @Autowired
+    private IngredientRepository        ingredientRepository;
+
+    @Autowired
+    private ConsumptionEventRepository  consumptionEventRepository;
+
+    @Autowired
+    private ConsumptionBucketRepository consumptionBucketRepository;
+
+    private Long                        coffeeId;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+        consumptionLogService.flush();
+        consumptionEventRepository.deleteAll();
+        consumptionBucketRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 100 );
+        inventoryService.updateInventory( inventory );
+
+        final Item item = new Item();
+        item.setName( "Coffee" );
+        item.setDescription( "Yummy" );
+        item.setPrice( 320 );
+        item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 1, "grams", item ) );
+        itemService.addItem( ItemMapper.mapToDto( item ) );
+
+        coffeeId = ingredientRepository.findAll().get( 0 ).getId();
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+        consumptionLogService.flush();
+        consumptionEventRepository.deleteAll();
+        consumptionBucketRepository.deleteAll();
+    }
+
+    /**
+     * Fulfilling orders logs the ingredients they took, whether one at a time
+     * or in a batch, once the buffer is flushed.
+     */
+    @Test
+    void testFulfillmentIsLogged () {
+        final Long first = create( 3 );
+        final Long second = create( 2 );
+        final Long third = create( 1 );
+        orderService.updateStatus( first, Order.FULFILLED );
+        orderService.fulfillOrders( List.of( second, third ), true );
+
+        consumptionLogService.flush();
+
+        assertEquals( 2, consumptionEventRepository.count() );
+        final List<ConsumptionDto> days = consumptionLogService.getConsumption( ConsumptionBucket.DAY, null, null );
+        assertEquals( 1, days.size() );
+        assertEquals( coffeeId, days.get( 0 ).getIngredientId() );
+        assertEquals( 6, days.get( 0 ).getAmount() );
+        final List<ConsumptionDto> hours = consumptionLogService.getConsumption( ConsumptionBucket.HOUR, null,
+                null );
+        assertEquals( 6, hours.stream().mapToLong( ConsumptionDto::getAmount ).sum() );
+    }
+
+    /**
+     * An ingredient used at a steady rate is projected to run out when its
+     * stock divided by that rate says, and an unused one never is.
+     */
+    @Test
+    void testForecast () {
+        List<ConsumptionForecastDto> forecast = consumptionLogService.forecast();
+        assertEquals( 1, forecast.size() );
+        assertNull( forecast.get( 0 ).getDaysLeft() );
+
+        final LocalDate today = LocalDate.now();
+        final List<ConsumptionBucket> history = new ArrayList<>();
+        for ( int i = 1; i <= 28; i++ ) {
+            history.add( new ConsumptionBucket( ConsumptionBucket.DAY, today.minusDays( i ).atStartOfDay(), coffeeId,
+                    10L ) );
+        }
+        consumptionBucketRepository.addAll( history );
+
+        forecast = consumptionLogService.forecast();
+        assertEquals( 10.0, forecast.get( 0 ).getDailyRate(), 0.001 );
+        assertEquals( 10.0, forecast.get( 0 ).getDaysLeft(), 0.001 );
+        assertEquals( today.plusDays( 10 ), forecast.get( 0 ).getDepletesOn() );
+    }
+
+    /**
+     * An ingredient first used a few days ago is forecast from those days
+     * alone, not as if it went unused for the rest of the window.
+     */
+    @Test
+    void testForecastStartsAtFirstUse () {
+        final LocalDate today = LocalDate.now();
+        final List<ConsumptionBucket> history = new ArrayList<>();
+        for ( int i = 1; i <= 3; i++ ) {
+            history.add( new ConsumptionBucket( ConsumptionBucket.DAY, today.minusDays( i ).atStartOfDay(), coffeeId,
+                    20L ) );
+        }
+        consumptionBucketRepository.addAll( history );
+
+        final List<ConsumptionForecastDto> forecast = consumptionLogService.forecast();
+        assertEquals( 20.0, forecast.get( 0 ).getDailyRate(), 0.001 );
+        assertEquals( 5.0, forecast.get( 0 ).getDaysLeft(), 0.001 );
+    }
+
+    /**
+     * Compaction drops old hourly buckets and log entries, and keeps the
+     * daily buckets.
+     */
+    @Test
+    void testCompact () {
+        final LocalDateTime old = LocalDateTime.now().minusDays( 60 ).withMinute( 0 ).withSecond( 0 ).withNano( 0 );
+        consumptionBucketRepository.addAll( List.of( new ConsumptionBucket( ConsumptionBucket.HOUR, old, coffeeId, 5L ),
+                new ConsumptionBucket( ConsumptionBucket.DAY, old.toLocalDate().atStartOfDay(), coffeeId, 5L ) ) );
+        consumptionEventRepository.save( new ConsumptionEvent( null, coffeeId, old, 5 ) );
+
+        consumptionLogService.compact();
+
+        assertEquals( 0, consumptionEventRepository.count() );
+        assertEquals( 0, consumptionLogService.getConsumption( ConsumptionBucket.HOUR, null, null ).size() );
+        assertEquals( 1, consumptionLogService.getConsumption( ConsumptionBucket.DAY, null, null ).size() );
+    }
+
+    /**
+     * Creates an order for some coffee.
+     *
+     * @param quantity
+     *            how many coffees
+     * @return id of the order
+     */
+    private Long create ( final int quantity ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 * quantity );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        final OrderItemDto item = new OrderItemDto();
+        item.setItemName( "Coffee" );
+        item.setQuantity( quantity );
+        items.add( item );
+        orderDto.setItems( items );
+        orderDto.setCreated( LocalDateTime.now() );
+        return orderService.createOrder( orderDto ).getId();
+    }
+
+}
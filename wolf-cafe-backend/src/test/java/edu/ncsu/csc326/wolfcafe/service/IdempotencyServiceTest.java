@@ -0,0 +1,134 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.service.impl.IdempotencyServiceImpl;
+
+/**
+ * Tests the idempotency service on its own, without the application context.
+ */
+class IdempotencyServiceTest {
+
+    /**
+     * Concurrent calls with the same key run the work once and all get its
+     * result.
+     *
+     * @throws Exception
+     *             if a thread fails
+     */
+    @Test
+    void testConcurrentDuplicatesRunOnce () throws Exception {
+        final IdempotencyService service = new IdempotencyServiceImpl( 60, 100 );
+        final AtomicInteger runs = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch( 1 );
+
+        final ExecutorService pool = Executors.newFixedThreadPool( 8 );
+        final List<Future<Integer>> results = new ArrayList<>();
+        for ( int i = 0; i < 8; i++ ) {
+            results.add( pool.submit( () -> {
+                start.await();
+                return service.execute( "key", () -> {
+                    sleep( 50 );
+                    return runs.incrementAndGet();
+                } );
+            } ) );
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue( pool.awaitTermination( 10, TimeUnit.SECONDS ) );
+
+        assertEquals( 1, runs.get() );
+        for ( final Future<Integer> result : results ) {
+            assertEquals( 1, result.get() );
+        }
+    }
+
+    /**
+     * A failed call forgets its key, so a retry runs the work again.
+     */
+    @Test
+    void testFailureIsNotRemembered () {
+        final IdempotencyService service = new IdempotencyServiceImpl( 60, 100 );
+        assertThrows( IllegalStateException.class, () -> service.execute( "key", () -> {
+            throw new IllegalStateException( "Not enough ingredients" );
+        } ) );
+        assertEquals( "made", service.execute( "key", () -> "made" ) );
+        assertEquals( "made", service.execute( "key", () -> "made again" ) );
+    }
+
+    /**
+     * A full store makes room by forgetting its oldest key.
+     */
+    @Test
+    void testBounded () {
+        final IdempotencyService service = new IdempotencyServiceImpl( 60, 2 );
+        service.execute( "a", () -> 1 );
+        sleep( 5 );
+        service.execute( "b", () -> 2 );
+        sleep( 5 );
+        service.execute( "c", () -> 3 );
+        assertEquals( 3, service.execute( "c", () -> -1 ) );
+        assertEquals( -1, service.execute( "a", () -> -1 ) );
+    }
+
+    /**
+     * A key still being worked on is passed over when making room, and the
+     * oldest finished key is evicted instead.
+     */
+    @Test
+    void testInProgressKeyIsKept () {
+        final IdempotencyService service = new IdempotencyServiceImpl( 60, 2 );
+        service.execute( "a", () -> 1 );
+        final int slow = service.execute( "slow", () -> {
+            service.execute( "b", () -> 2 );
+            service.execute( "c", () -> 3 );
+            return 4;
+        } );
+        assertEquals( 4, slow );
+        assertEquals( 4, service.execute( "slow", () -> -1 ) );
+        assertEquals( -1, service.execute( "b", () -> -1 ) );
+    }
+
+    /**
+     * A full store with every key being worked on turns new keys away.
+     */
+    @Test
+    void testFullOfInProgressKeys () {
+        final IdempotencyService service = new IdempotencyServiceImpl( 60, 1 );
+        final WolfCafeAPIException e = assertThrows( WolfCafeAPIException.class,
+                () -> service.execute( "x", () -> service.execute( "y", () -> 1 ) ) );
+        assertEquals( HttpStatus.SERVICE_UNAVAILABLE, e.getStatus() );
+        assertEquals( 2, service.execute( "y", () -> 2 ) );
+    }
+
+    /**
+     * Sleeps without a checked exception.
+     *
+     * @param millis
+     *            how long to sleep
+     */
+    private static void sleep ( final long millis ) {
+        try {
+            Thread.sleep( millis );
+        }
+        catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
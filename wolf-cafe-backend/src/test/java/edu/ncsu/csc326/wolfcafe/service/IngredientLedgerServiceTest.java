@@ -0,0 +1,107 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+
+/**
+ * Tests the in-memory ingredient ledger.
+ */
+@SpringBootTest
+class IngredientLedgerServiceTest {
+
+    @Autowired
+    private IngredientLedgerService ingredientLedgerService;
+
+    @Autowired
+    private InventoryService        inventoryService;
+
+    @Autowired
+    private InventoryRepository     inventoryRepository;
+
+    @Autowired
+    private IngredientRepository    ingredientRepository;
+
+    @Autowired
+    private ItemRepository          itemRepository;
+
+    @Autowired
+    private OrderRepository         orderRepository;
+
+    private Long                    coffeeId;
+
+    private Long                    milkId;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        ingredientRepository.deleteAll();
+        inventoryRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 10 ).withQuantity( "milk", 5 );
+        final InventoryDto saved = inventoryService.updateInventory( inventory );
+
+        coffeeId = saved.getIngredientByName( "coffee" ).getId();
+        milkId = saved.getIngredientByName( "milk" ).getId();
+    }
+
+    @Test
+    void testDebit () {
+        assertTrue( ingredientLedgerService.tryDebit( Map.of( coffeeId, 4, milkId, 5 ) ) );
+        assertAll( "ledger after debit", () -> assertEquals( 6, ingredientLedgerService.getQuantity( coffeeId ) ),
+                () -> assertEquals( 0, ingredientLedgerService.getQuantity( milkId ) ) );
+    }
+
+    @Test
+    void testDebitIsAllOrNothing () {
+        // Enough coffee but not enough milk, so nothing should be taken
+        assertFalse( ingredientLedgerService.tryDebit( Map.of( coffeeId, 4, milkId, 6 ) ) );
+        assertAll( "ledger after failed debit",
+                () -> assertEquals( 10, ingredientLedgerService.getQuantity( coffeeId ) ),
+                () -> assertEquals( 5, ingredientLedgerService.getQuantity( milkId ) ) );
+
+        // Unknown ingredients can never be debited
+        assertFalse( ingredientLedgerService.tryDebit( Map.of( coffeeId, 1, -1L, 1 ) ) );
+        assertEquals( 10, ingredientLedgerService.getQuantity( coffeeId ) );
+    }
+
+    @Test
+    void testRefreshOnInventoryUpdate () {
+        assertTrue( ingredientLedgerService.tryDebit( Map.of( coffeeId, 10 ) ) );
+        assertEquals( 0, ingredientLedgerService.getQuantity( coffeeId ) );
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.setQuantity( "coffee", 25 );
+        inventoryService.updateInventory( inventory );
+
+        assertEquals( 25, ingredientLedgerService.getQuantity( coffeeId ) );
+    }
+
+    @Test
+    void testInvalidateReloadsFromDatabase () {
+        assertTrue( ingredientLedgerService.tryDebit( Map.of( milkId, 2 ) ) );
+        assertEquals( 3, ingredientLedgerService.getQuantity( milkId ) );
+
+        // Nothing was written back, so the database still has the old value
+        ingredientLedgerService.invalidate( List.of( milkId ) );
+        assertEquals( 5, ingredientLedgerService.getQuantity( milkId ) );
+    }
+
+}
@@ -0,0 +1,170 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.dto.QueuedOrderDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+
+/**
+ * Tests the kitchen queue. Not transactional, since the queue only changes
+ * once the transaction that changed an order commits.
+ */
+@SpringBootTest
+class KitchenQueueServiceTest {
+
+    @Autowired
+    private KitchenQueueService  kitchenQueueService;
+
+    @Autowired
+    private OrderService         orderService;
+
+    @Autowired
+    private ItemService          itemService;
+
+    @Autowired
+    private InventoryService     inventoryService;
+
+    @Autowired
+    private OrderRepository      orderRepository;
+
+    @Autowired
+    private ItemRepository       itemRepository;
+
+    @Autowired
+    private InventoryRepository  inventoryRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    /** Ids of orders added straight to the queue, removed after each test */
+    private final List<Long>     added = new ArrayList<>();
+
+    private Long                 coffee;
+    private Long                 milk;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 10 ).withQuantity( "milk", 10 );
+        inventoryService.updateInventory( inventory );
+        coffee = ingredientRepository.findByName( "coffee" ).get().getId();
+        milk = ingredientRepository.findByName( "milk" ).get().getId();
+    }
+
+    @AfterEach
+    void tearDown () {
+        added.forEach( kitchenQueueService::remove );
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+    }
+
+    /**
+     * Unreserved orders are picked cheapest in scarce ingredients first, and
+     * orders that no longer fit go last.
+     */
+    @Test
+    void testQueueFavorsOrdersLightOnScarceIngredients () {
+        final LocalDateTime now = LocalDateTime.now();
+        add( -1L, now, Map.of( coffee, 6 ) );
+        add( -2L, now.plusSeconds( 1 ), Map.of( coffee, 3, milk, 2 ) );
+        add( -3L, now.plusSeconds( 2 ), Map.of( coffee, 3 ) );
+        add( -4L, now.plusSeconds( 3 ), Map.of( milk, 20 ) );
+
+        final List<QueuedOrderDto> queue = kitchenQueueService.getQueue();
+        assertEquals( List.of( -3L, -2L, -1L, -4L ), queue.stream().map( QueuedOrderDto::getOrderId ).toList() );
+        assertTrue( queue.get( 0 ).isFeasible() );
+        assertTrue( queue.get( 1 ).isFeasible() );
+        assertFalse( queue.get( 2 ).isFeasible() );
+        assertFalse( queue.get( 3 ).isFeasible() );
+    }
+
+    /**
+     * Orders holding a reservation come first, and leave the queue once they
+     * are fulfilled.
+     */
+    @Test
+    void testQueueReservedFirst () {
+        final Item item = new Item();
+        item.setName( "Coffee" );
+        item.setDescription( "Yummy" );
+        item.setPrice( 320 );
+        item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 2, "grams", item ) );
+        final ItemDto itemDto = ItemMapper.mapToDto( item );
+        itemService.addItem( itemDto );
+
+        add( -1L, LocalDateTime.now().minusHours( 1 ), Map.of( coffee, 1 ) );
+
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final OrderItemDto orderItem = new OrderItemDto();
+        orderItem.setItemName( "Coffee" );
+        orderItem.setQuantity( 1 );
+        orderDto.setItems( new ArrayList<>( List.of( orderItem ) ) );
+        orderDto.setCreated( LocalDateTime.now() );
+        final Long id = orderService.createOrder( orderDto ).getId();
+
+        List<QueuedOrderDto> queue = kitchenQueueService.getQueue();
+        assertEquals( 2, queue.size() );
+        assertEquals( id, queue.get( 0 ).getOrderId() );
+        assertTrue( queue.get( 0 ).isReserved() );
+        assertEquals( -1L, queue.get( 1 ).getOrderId() );
+        assertFalse( queue.get( 1 ).isReserved() );
+
+        orderService.updateStatus( id, Order.FULFILLED );
+        queue = kitchenQueueService.getQueue();
+        assertEquals( 1, queue.size() );
+        assertEquals( -1L, queue.get( 0 ).getOrderId() );
+    }
+
+    /**
+     * Adds an order straight to the queue, without creating it.
+     *
+     * @param id
+     *            id to give the order
+     * @param created
+     *            when the order was created
+     * @param needs
+     *            ingredients the order needs, keyed by ingredient id
+     */
+    private void add ( final Long id, final LocalDateTime created, final Map<Long, Integer> needs ) {
+        kitchenQueueService.add( id, created, needs );
+        added.add( id );
+    }
+
+}
@@ -0,0 +1,153 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+
+/**
+ * Tests the menu availability index. Not transactional, since the index only
+ * picks up recipe changes once they commit.
+ */
+@SpringBootTest
+class MenuAvailabilityServiceTest {
+
+    @Autowired
+    private MenuAvailabilityService menuAvailabilityService;
+
+    @Autowired
+    private ItemService             itemService;
+
+    @Autowired
+    private InventoryService        inventoryService;
+
+    @Autowired
+    private OrderService            orderService;
+
+    @Autowired
+    private OrderRepository         orderRepository;
+
+    @Autowired
+    private ItemRepository          itemRepository;
+
+    @Autowired
+    private InventoryRepository     inventoryRepository;
+
+    @Autowired
+    private IngredientRepository    ingredientRepository;
+
+    private Long                    coffeeId;
+    private Long                    latteId;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 10 ).withQuantity( "milk", 9 );
+        inventoryService.updateInventory( inventory );
+
+        final Item coffee = new Item();
+        coffee.setName( "Coffee" );
+        coffee.setDescription( "Yummy" );
+        coffee.setPrice( 320 );
+        coffee.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 2, "grams", coffee ) );
+        coffeeId = itemService.addItem( ItemMapper.mapToDto( coffee ) ).getId();
+
+        final Item latte = new Item();
+        latte.setName( "Latte" );
+        latte.setDescription( "A yummy beverage" );
+        latte.setPrice( 360 );
+        latte.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 1, "grams", latte ) );
+        latte.addIngredient( new ItemIngredient( null, new Ingredient( "Milk", null ), 3, "cups", latte ) );
+        latteId = itemService.addItem( ItemMapper.mapToDto( latte ) ).getId();
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+    }
+
+    /**
+     * The count follows the scarcest ingredient of each item as the inventory
+     * changes and orders hold stock.
+     */
+    @Test
+    void testMakeableFollowsStock () {
+        assertEquals( 5, menuAvailabilityService.getMakeable( coffeeId ) );
+        assertEquals( 3, menuAvailabilityService.getMakeable( latteId ) );
+        assertTrue( menuAvailabilityService.getAvailability().stream()
+                .anyMatch( a -> a.getItemId().equals( latteId ) && a.getMakeable() == 3 ) );
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 4 );
+        inventoryService.updateInventory( inventory );
+        assertEquals( 2, menuAvailabilityService.getMakeable( coffeeId ) );
+        assertEquals( 3, menuAvailabilityService.getMakeable( latteId ) );
+
+        // A latte order holds 1 coffee and 3 milk
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 360 );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final OrderItemDto item = new OrderItemDto();
+        item.setItemName( "Latte" );
+        item.setQuantity( 1 );
+        orderDto.setItems( new ArrayList<>( List.of( item ) ) );
+        orderDto.setCreated( LocalDateTime.now() );
+        final Long orderId = orderService.createOrder( orderDto ).getId();
+        assertEquals( 1, menuAvailabilityService.getMakeable( coffeeId ) );
+        assertEquals( 2, menuAvailabilityService.getMakeable( latteId ) );
+
+        // Canceling gives the stock back
+        orderService.updateStatus( orderId, Order.CANCELED );
+        assertEquals( 2, menuAvailabilityService.getMakeable( coffeeId ) );
+        assertEquals( 3, menuAvailabilityService.getMakeable( latteId ) );
+    }
+
+    /**
+     * Changing a recipe re-indexes the item.
+     */
+    @Test
+    void testMakeableFollowsRecipe () {
+        final ItemDto latte = itemService.getItem( latteId );
+        latte.getIngredient( "milk" ).setQuantity( 1 );
+        itemService.updateItem( latteId, latte );
+        assertEquals( 9, menuAvailabilityService.getMakeable( latteId ) );
+
+        itemService.deleteItem( latteId );
+        assertNull( menuAvailabilityService.getMakeable( latteId ) );
+    }
+
+}
@@ -0,0 +1,223 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.entity.Role;
+import edu.ncsu.csc326.wolfcafe.entity.User;
+import edu.ncsu.csc326.wolfcafe.exception.ResourceNotFoundException;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+import edu.ncsu.csc326.wolfcafe.repository.RoleRepository;
+import edu.ncsu.csc326.wolfcafe.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the statements order creation runs, using Hibernate statistics. Not
+ * transactional, so each order is flushed and committed as it would be in a
+ * request.
+ */
+@SpringBootTest ( properties = "spring.jpa.properties.hibernate.generate_statistics=true" )
+class OrderCreationQueryCountTest {
+
+    /** Number of different items on the menu */
+    private static final int     ITEMS = 12;
+
+    @Autowired
+    private OrderService         orderService;
+
+    @Autowired
+    private ItemService          itemService;
+
+    @Autowired
+    private InventoryService     inventoryService;
+
+    @Autowired
+    private OrderRepository      orderRepository;
+
+    @Autowired
+    private ItemRepository       itemRepository;
+
+    @Autowired
+    private InventoryRepository  inventoryRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private UserRepository       userRepository;
+
+    @Autowired
+    private RoleRepository       roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics           statistics;
+
+    private Long                 customerId;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 1000 );
+        inventoryService.updateInventory( inventory );
+
+        for ( int i = 0; i < ITEMS; i++ ) {
+            final Item item = new Item();
+            item.setName( "Item" + i );
+            item.setDescription( "Yummy" );
+            item.setPrice( 100 );
+            item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 1, "grams", item ) );
+            itemService.addItem( ItemMapper.mapToDto( item ) );
+        }
+
+        statistics = entityManagerFactory.unwrap( SessionFactory.class ).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+        if ( customerId != null ) {
+            userRepository.deleteById( customerId );
+            customerId = null;
+        }
+    }
+
+    /**
+     * An order with twelve lines runs as many statements as an order with
+     * one: one query for all its items, one to check the customer exists
+     * without loading it, and one batched insert per table.
+     */
+    @Test
+    void testCreateOrderStatementsDontGrowWithLines () {
+        customerId = saveCustomer();
+
+        // Warm up the ingredient ledger so its loads aren't counted
+        orderService.createOrder( order( 1 ) );
+
+        statistics.clear();
+        orderService.createOrder( order( 1 ) );
+        final long oneLine = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        orderService.createOrder( order( ITEMS ) );
+        final long manyLines = statistics.getPrepareStatementCount();
+
+        // Either order may have to refill the order and order item id pools,
+        // a select and an update each
+        assertTrue( manyLines <= oneLine + 4, () -> oneLine + " statements for one line, " + manyLines + " for "
+                + ITEMS );
+        assertEquals( 2, statistics.getQueryExecutionCount() );
+        assertEquals( 0, statistics.getEntityFetchCount() );
+        assertEquals( 1 + ITEMS, statistics.getEntityInsertCount() );
+    }
+
+    /**
+     * Every missing item is reported at once.
+     */
+    @Test
+    void testCreateOrderMissingItems () {
+        final OrderDto orderDto = order( 2 );
+        orderDto.getItems().get( 0 ).setItemName( "Missing1" );
+        orderDto.getItems().get( 1 ).setItemName( "Missing2" );
+
+        final ResourceNotFoundException e = assertThrows( ResourceNotFoundException.class,
+                () -> orderService.createOrder( orderDto ) );
+        assertEquals( "Items not found with names [Missing1, Missing2]", e.getMessage() );
+    }
+
+    /**
+     * An order for a customer that doesn't exist is rejected before anything
+     * is saved, rather than failing when the order is flushed.
+     */
+    @Test
+    void testCreateOrderMissingCustomer () {
+        final OrderDto orderDto = order( 1 );
+        orderDto.setCustomerId( Long.MAX_VALUE );
+
+        final ResourceNotFoundException e = assertThrows( ResourceNotFoundException.class,
+                () -> orderService.createOrder( orderDto ) );
+        assertEquals( "User not found with id " + Long.MAX_VALUE, e.getMessage() );
+        assertThrows( ResourceNotFoundException.class, () -> orderService.createOrders( List.of( orderDto ) ) );
+        assertEquals( 0, orderRepository.count() );
+    }
+
+    /**
+     * Saves a customer to place the orders.
+     *
+     * @return id of the customer
+     */
+    private Long saveCustomer () {
+        final User user = new User();
+        user.setName( "Counter" );
+        user.setUsername( "counter" );
+        user.setEmail( "counter@email.com" );
+        user.setPassword( "unhashedpw" );
+        final Set<Role> roles = new HashSet<>();
+        roles.add( roleRepository.findByName( "ROLE_CUSTOMER" ) );
+        user.setRoles( roles );
+        return userRepository.save( user ).getId();
+    }
+
+    /**
+     * Builds an order for one of each of the first few items.
+     *
+     * @param lines
+     *            number of different items in the order
+     * @return the order
+     */
+    private OrderDto order ( final int lines ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 100 * lines );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        for ( int i = 0; i < lines; i++ ) {
+            final OrderItemDto item = new OrderItemDto();
+            item.setItemName( "Item" + i );
+            item.setQuantity( 1 );
+            items.add( item );
+        }
+        orderDto.setItems( items );
+        orderDto.setCreated( LocalDateTime.now() );
+        orderDto.setCustomerId( customerId );
+        return orderDto;
+    }
+
+}
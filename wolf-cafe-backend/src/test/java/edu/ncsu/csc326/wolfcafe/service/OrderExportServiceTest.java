@@ -0,0 +1,197 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+
+/**
+ * Tests the order history export. Not transactional, since the export reads
+ * in its own transaction.
+ */
+@SpringBootTest
+class OrderExportServiceTest {
+
+    @Autowired
+    private OrderExportService   orderExportService;
+
+    @Autowired
+    private OrderService         orderService;
+
+    @Autowired
+    private ItemService          itemService;
+
+    @Autowired
+    private InventoryService     inventoryService;
+
+    @Autowired
+    private OrderRepository      orderRepository;
+
+    @Autowired
+    private ItemRepository       itemRepository;
+
+    @Autowired
+    private InventoryRepository  inventoryRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private ObjectMapper         objectMapper;
+
+    private Long                 firstId;
+
+    private Long                 secondId;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 100 );
+        inventoryService.updateInventory( inventory );
+
+        for ( final String name : List.of( "Coffee", "Coffee, Large" ) ) {
+            final Item item = new Item();
+            item.setName( name );
+            item.setDescription( "Yummy" );
+            item.setPrice( 320 );
+            item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 1, "grams", item ) );
+            itemService.addItem( ItemMapper.mapToDto( item ) );
+        }
+
+        firstId = orderService.createOrder( order( LocalDateTime.of( 2025, 1, 1, 9, 0 ), "Coffee" ) ).getId();
+        secondId = orderService
+                .createOrder( order( LocalDateTime.of( 2025, 1, 2, 9, 0 ), "Coffee", "Coffee, Large" ) ).getId();
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+    }
+
+    /**
+     * Each order is one JSON line with all its lines, oldest first.
+     *
+     * @throws IOException
+     *             if the export can't be written or read
+     */
+    @Test
+    void testNdjson () throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.writeNdjson( null, null, out );
+
+        final String[] lines = out.toString( StandardCharsets.UTF_8 ).split( "\n" );
+        assertEquals( 2, lines.length );
+        final OrderDto first = objectMapper.readValue( lines[0], OrderDto.class );
+        final OrderDto second = objectMapper.readValue( lines[1], OrderDto.class );
+        assertEquals( firstId, first.getId() );
+        assertEquals( 1, first.getItems().size() );
+        assertEquals( secondId, second.getId() );
+        assertEquals( 2, second.getItems().size() );
+        assertEquals( "Coffee, Large", second.getItems().get( 1 ).getItemName() );
+    }
+
+    /**
+     * The range keeps orders created at or after its start and before its
+     * end.
+     *
+     * @throws IOException
+     *             if the export can't be written or read
+     */
+    @Test
+    void testNdjsonRange () throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.writeNdjson( LocalDateTime.of( 2025, 1, 2, 9, 0 ), null, out );
+        String[] lines = out.toString( StandardCharsets.UTF_8 ).split( "\n" );
+        assertEquals( 1, lines.length );
+        assertEquals( secondId, objectMapper.readValue( lines[0], OrderDto.class ).getId() );
+
+        out.reset();
+        orderExportService.writeNdjson( null, LocalDateTime.of( 2025, 1, 2, 9, 0 ), out );
+        lines = out.toString( StandardCharsets.UTF_8 ).split( "\n" );
+        assertEquals( 1, lines.length );
+        assertEquals( firstId, objectMapper.readValue( lines[0], OrderDto.class ).getId() );
+    }
+
+    /**
+     * The CSV has a header and a row per order line, with fields that hold a
+     * comma quoted.
+     *
+     * @throws IOException
+     *             if the export can't be written
+     */
+    @Test
+    void testCsv () throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.writeCsv( null, null, out );
+
+        final String[] lines = out.toString( StandardCharsets.UTF_8 ).split( "\n" );
+        assertEquals( 4, lines.length );
+        assertEquals( "orderId,created,status,subtotal,tax,tip,customerId,itemStr,lineId,itemName,quantity",
+                lines[0] );
+        assertTrue( lines[1].startsWith( firstId + ",2025-01-01T09:00," + Order.PENDING + ",320," ) );
+        assertTrue( lines[3].endsWith( ",\"Coffee, Large\",1" ) );
+    }
+
+    /**
+     * Builds an order for one of each of the given items.
+     *
+     * @param created
+     *            when the order was placed
+     * @param names
+     *            names of the items
+     * @return the order
+     */
+    private static OrderDto order ( final LocalDateTime created, final String... names ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 * names.length );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        for ( final String name : names ) {
+            final OrderItemDto item = new OrderItemDto();
+            item.setItemName( name );
+            item.setQuantity( 1 );
+            items.add( item );
+        }
+        orderDto.setItems( items );
+        orderDto.setCreated( created );
+        return orderDto;
+    }
+
+}
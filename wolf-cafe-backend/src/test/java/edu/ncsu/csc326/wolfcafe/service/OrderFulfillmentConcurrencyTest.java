@@ -0,0 +1,203 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+
+/**
+ * Stress tests fulfilling orders from many threads at once. Not transactional,
+ * so that every status update commits and races the others for the same
+ * ingredient rows.
+ */
+@SpringBootTest
+class OrderFulfillmentConcurrencyTest {
+
+    /** Coffee in stock at the start of each test */
+    private static final int        START_COFFEE     = 1000;
+
+    /** Coffee used by one order */
+    private static final int        COFFEE_PER_ORDER = 2;
+
+    /** Number of orders placed */
+    private static final int        ORDERS           = 200;
+
+    /** Number of threads fulfilling orders */
+    private static final int        THREADS          = 16;
+
+    @Autowired
+    private OrderService            orderService;
+
+    @Autowired
+    private ItemService             itemService;
+
+    @Autowired
+    private InventoryService        inventoryService;
+
+    @Autowired
+    private IngredientLedgerService ingredientLedgerService;
+
+    @Autowired
+    private OrderRepository         orderRepository;
+
+    @Autowired
+    private ItemRepository          itemRepository;
+
+    @Autowired
+    private InventoryRepository     inventoryRepository;
+
+    @Autowired
+    private IngredientRepository    ingredientRepository;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", START_COFFEE );
+        inventoryService.updateInventory( inventory );
+
+        final Item item = new Item();
+        item.setName( "Coffee" );
+        item.setDescription( "Yummy" );
+        item.setPrice( 320 );
+        item.addIngredient(
+                new ItemIngredient( null, new Ingredient( "Coffee", null ), COFFEE_PER_ORDER, "grams", item ) );
+        final ItemDto itemDto = ItemMapper.mapToDto( item );
+        itemService.addItem( itemDto );
+    }
+
+    @AfterEach
+    void tearDown () {
+        // Cancel what is left through the service so the reservations go too
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+    }
+
+    /**
+     * Fulfills every order twice, from many threads at once. Each order may be
+     * fulfilled once, and the coffee in the database must drop by exactly
+     * what the fulfilled orders used.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the threads
+     */
+    @Test
+    void testParallelFulfillment () throws InterruptedException {
+        final List<Long> calls = new ArrayList<>();
+        for ( int i = 0; i < ORDERS; i++ ) {
+            final Long id = orderService.createOrder( coffeeOrder() ).getId();
+            calls.add( id );
+            calls.add( id );
+        }
+        Collections.shuffle( calls );
+
+        final AtomicInteger fulfilled = new AtomicInteger();
+        final AtomicInteger conflicts = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        final ExecutorService pool = Executors.newFixedThreadPool( THREADS );
+        final CountDownLatch start = new CountDownLatch( 1 );
+        for ( final Long id : calls ) {
+            pool.execute( () -> {
+                try {
+                    start.await();
+                    orderService.updateStatus( id, Order.FULFILLED );
+                    fulfilled.incrementAndGet();
+                }
+                catch ( final WolfCafeAPIException e ) {
+                    if ( e.getStatus() == HttpStatus.CONFLICT ) {
+                        conflicts.incrementAndGet();
+                    }
+                    else {
+                        unexpected.add( e );
+                    }
+                }
+                catch ( final IllegalStateException e ) {
+                    // The other call for the same order got there first
+                    rejected.incrementAndGet();
+                }
+                catch ( final Throwable e ) {
+                    unexpected.add( e );
+                }
+            } );
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue( pool.awaitTermination( 2, TimeUnit.MINUTES ) );
+
+        assertTrue( unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected );
+        assertEquals( calls.size(), fulfilled.get() + conflicts.get() + rejected.get() );
+        assertTrue( fulfilled.get() > 0 );
+        assertTrue( fulfilled.get() <= ORDERS );
+
+        final long fulfilledInDb = orderRepository.findAll().stream()
+                .filter( order -> Order.FULFILLED.equals( order.getStatus() ) ).count();
+        assertEquals( fulfilled.get(), fulfilledInDb );
+
+        final Ingredient coffee = ingredientRepository.findByName( "Coffee" ).get();
+        assertEquals( START_COFFEE - COFFEE_PER_ORDER * fulfilled.get(), coffee.getQuantity() );
+
+        // Every order still holds or has used its coffee, so the ledger agrees
+        assertEquals( START_COFFEE - COFFEE_PER_ORDER * ORDERS, ingredientLedgerService.getQuantity( coffee.getId() ) );
+    }
+
+    /**
+     * Builds an order for one coffee.
+     *
+     * @return the order
+     */
+    private OrderDto coffeeOrder () {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final OrderItemDto item = new OrderItemDto();
+        item.setItemName( "Coffee" );
+        item.setQuantity( 1 );
+        orderDto.setItems( new ArrayList<>( List.of( item ) ) );
+        orderDto.setCreated( LocalDateTime.now() );
+        return orderDto;
+    }
+
+}
@@ -0,0 +1,165 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks that large orders are inserted in JDBC batches now that ids come
+ * from pooled sequences, by the statements Hibernate prepares. How long the
+ * inserts take is measured by {@link OrderInsertBenchmarkTest}. Uses the same
+ * statistics setting as {@link OrderCreationQueryCountTest} so they share a
+ * context.
+ */
+@SpringBootTest ( properties = "spring.jpa.properties.hibernate.generate_statistics=true" )
+class OrderInsertBatchingTest {
+
+    /** Lines in a large order */
+    private static final int     LINES  = 100;
+
+    /** Orders in the bulk import */
+    private static final int     ORDERS = 20;
+
+    @Autowired
+    private OrderService         orderService;
+
+    @Autowired
+    private ItemService          itemService;
+
+    @Autowired
+    private InventoryService     inventoryService;
+
+    @Autowired
+    private OrderRepository      orderRepository;
+
+    @Autowired
+    private ItemRepository       itemRepository;
+
+    @Autowired
+    private InventoryRepository  inventoryRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics           statistics;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 1_000_000 );
+        inventoryService.updateInventory( inventory );
+
+        final Item item = new Item();
+        item.setName( "Coffee" );
+        item.setDescription( "Yummy" );
+        item.setPrice( 320 );
+        item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 1, "grams", item ) );
+        itemService.addItem( ItemMapper.mapToDto( item ) );
+
+        statistics = entityManagerFactory.unwrap( SessionFactory.class ).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+    }
+
+    /**
+     * The lines of a large order go to the database in a few batches rather
+     * than one statement each.
+     */
+    @Test
+    void testLargeOrderInsertedInBatches () {
+        // Warm up the ledger and the id pools so their loads aren't counted
+        orderService.createOrder( order( 1 ) );
+
+        statistics.clear();
+        orderService.createOrder( order( LINES ) );
+
+        assertEquals( 1 + LINES, statistics.getEntityInsertCount() );
+        assertTrue( statistics.getPrepareStatementCount() < LINES / 4,
+                () -> "Prepared " + statistics.getPrepareStatementCount() + " statements for " + LINES + " lines" );
+    }
+
+    /**
+     * A bulk import of large orders in one transaction is batched too.
+     */
+    @Test
+    void testBulkImport () {
+        final List<OrderDto> orders = new ArrayList<>();
+        for ( int i = 0; i < ORDERS; i++ ) {
+            orders.add( order( LINES ) );
+        }
+
+        statistics.clear();
+        orderService.createOrders( orders );
+
+        final long rows = statistics.getEntityInsertCount();
+        assertEquals( ORDERS * ( 1 + LINES ), rows );
+        assertTrue( statistics.getPrepareStatementCount() < rows / 4,
+                () -> "Prepared " + statistics.getPrepareStatementCount() + " statements for " + rows + " rows" );
+    }
+
+    /**
+     * Builds an order with the given number of lines of coffee.
+     *
+     * @param lines
+     *            number of lines
+     * @return the order
+     */
+    private static OrderDto order ( final int lines ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 * lines );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        for ( int i = 0; i < lines; i++ ) {
+            final OrderItemDto item = new OrderItemDto();
+            item.setItemName( "Coffee" );
+            item.setQuantity( 1 );
+            items.add( item );
+        }
+        orderDto.setItems( items );
+        orderDto.setCreated( LocalDateTime.now() );
+        return orderDto;
+    }
+
+}
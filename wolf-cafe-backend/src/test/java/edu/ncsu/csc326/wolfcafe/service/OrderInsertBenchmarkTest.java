@@ -0,0 +1,333 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import edu.ncsu.csc326.wolfcafe.config.PersistenceConfig;
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+
+/**
+ * Compares inserting large orders the way IDENTITY ids force, one statement
+ * and one round trip per row with the id read back before the order's lines
+ * can be written, with taking ids from a pooled sequence and sending the rows
+ * in JDBC batches. Both write the same rows into scratch copies of the order
+ * tables on the application's own connection pool, so the batches go through
+ * the driver settings from {@link PersistenceConfig}. Also times a bulk import
+ * through the order service. Only runs when asked for, with -Dbenchmark=true,
+ * since it takes a while and its timings depend on the machine and database.
+ * Prints a line per path and checks that batching is faster.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty ( named = "benchmark", matches = "true" )
+class OrderInsertBenchmarkTest {
+
+    /** Lines in each order */
+    private static final int           LINES      = 100;
+
+    /** Orders in each import */
+    private static final int           ORDERS     = 50;
+
+    /** Imports run before measuring, to warm up the JIT and connections */
+    private static final int           WARMUP     = 3;
+
+    /** Imports measured */
+    private static final int           RUNS       = 10;
+
+    /** Ids a pooled sequence hands out from one fetch, as on the entities */
+    private static final int           ALLOCATION = 50;
+
+    @Autowired
+    private OrderService               orderService;
+
+    @Autowired
+    private ItemService                itemService;
+
+    @Autowired
+    private InventoryService           inventoryService;
+
+    @Autowired
+    private OrderRepository            orderRepository;
+
+    @Autowired
+    private ItemRepository             itemRepository;
+
+    @Autowired
+    private InventoryRepository        inventoryRepository;
+
+    @Autowired
+    private IngredientRepository       ingredientRepository;
+
+    @Autowired
+    private JdbcTemplate               jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate        transaction;
+
+    /** Next id to hand out on the sequence path */
+    private long                       nextId;
+
+    /** Last id fetched on the sequence path */
+    private long                       lastFetched;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 10_000_000 );
+        inventoryService.updateInventory( inventory );
+
+        final Item item = new Item();
+        item.setName( "Coffee" );
+        item.setDescription( "Yummy" );
+        item.setPrice( 320 );
+        item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 1, "grams", item ) );
+        itemService.addItem( ItemMapper.mapToDto( item ) );
+
+        dropScratchTables();
+        jdbcTemplate.execute( "CREATE TABLE bench_identity_orders ( id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "created DATETIME(6) NOT NULL, status VARCHAR(255), subtotal INT NOT NULL, tax INT NOT NULL, "
+                + "tip INT NOT NULL )" );
+        jdbcTemplate.execute( "CREATE TABLE bench_identity_order_item ( id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "order_id BIGINT NOT NULL, item_id BIGINT NOT NULL, quantity INT NOT NULL )" );
+        jdbcTemplate.execute( "CREATE TABLE bench_sequence_orders ( id BIGINT PRIMARY KEY, "
+                + "created DATETIME(6) NOT NULL, status VARCHAR(255), subtotal INT NOT NULL, tax INT NOT NULL, "
+                + "tip INT NOT NULL )" );
+        jdbcTemplate.execute( "CREATE TABLE bench_sequence_order_item ( id BIGINT PRIMARY KEY, "
+                + "order_id BIGINT NOT NULL, item_id BIGINT NOT NULL, quantity INT NOT NULL )" );
+        jdbcTemplate.execute( "CREATE TABLE bench_sequence ( next_val BIGINT NOT NULL )" );
+        jdbcTemplate.update( "INSERT INTO bench_sequence VALUES ( 1 )" );
+
+        transaction = new TransactionTemplate( transactionManager );
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+        dropScratchTables();
+    }
+
+    /**
+     * Inserts the same orders both ways, and through the order service.
+     */
+    @Test
+    void testInsertThroughput () {
+        final long identity = measure( "IDENTITY, row by row", () -> transaction.executeWithoutResult(
+                tx -> insertRowByRow() ), "bench_identity_order_item" );
+        final long sequence = measure( "sequence, batched", () -> transaction.executeWithoutResult(
+                tx -> insertBatched() ), "bench_sequence_order_item" );
+        measure( "bulk import, order service", () -> orderService.createOrders( orders() ), "order_item" );
+        assertTrue( sequence < identity, () -> "Batched inserts took " + sequence + " us, row by row took "
+                + identity + " us" );
+    }
+
+    /**
+     * Runs an import until warmed up, then measures it and prints the time it
+     * took per import and the rows it wrote per second.
+     *
+     * @param name
+     *            name of the path, to print
+     * @param insert
+     *            the import
+     * @param lineTable
+     *            table the import writes order lines to, to check its rows
+     * @return microseconds taken per import
+     */
+    private long measure ( final String name, final Runnable insert, final String lineTable ) {
+        for ( int i = 0; i < WARMUP; i++ ) {
+            insert.run();
+        }
+        final long startNanos = System.nanoTime();
+        for ( int i = 0; i < RUNS; i++ ) {
+            insert.run();
+        }
+        final long micros = ( System.nanoTime() - startNanos ) / RUNS / 1000;
+        assertEquals( (long) ( WARMUP + RUNS ) * ORDERS * LINES,
+                jdbcTemplate.queryForObject( "SELECT COUNT(*) FROM " + lineTable, Long.class ) );
+        final long rows = (long) ORDERS * ( 1 + LINES );
+        System.out.printf( "%-32s %10d us/import %10.0f rows/s%n", name, micros, rows * 1_000_000.0 / micros );
+        return micros;
+    }
+
+    /**
+     * Helper method that writes the orders as IDENTITY ids force, each row on
+     * its own with the order's id read back before its lines are written.
+     */
+    private void insertRowByRow () {
+        final Long itemId = itemId();
+        final Timestamp created = Timestamp.valueOf( LocalDateTime.now() );
+        for ( int n = 0; n < ORDERS; n++ ) {
+            final KeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.update( connection -> {
+                final PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO bench_identity_orders ( created, status, subtotal, tax, tip ) "
+                                + "VALUES ( ?, ?, ?, ?, ? )",
+                        Statement.RETURN_GENERATED_KEYS );
+                setOrder( ps, 0, created );
+                return ps;
+            }, keys );
+            final long orderId = keys.getKey().longValue();
+            for ( int i = 0; i < LINES; i++ ) {
+                jdbcTemplate.update(
+                        "INSERT INTO bench_identity_order_item ( order_id, item_id, quantity ) VALUES ( ?, ?, 1 )",
+                        orderId, itemId );
+            }
+        }
+    }
+
+    /**
+     * Helper method that writes the orders as pooled sequence ids allow, with
+     * ids taken in blocks and the rows sent in batches of the configured
+     * size.
+     */
+    private void insertBatched () {
+        final Long itemId = itemId();
+        final Timestamp created = Timestamp.valueOf( LocalDateTime.now() );
+        final List<Long> orderIds = new ArrayList<>();
+        final List<Object[]> lines = new ArrayList<>();
+        for ( int n = 0; n < ORDERS; n++ ) {
+            final long orderId = nextId();
+            orderIds.add( orderId );
+            for ( int i = 0; i < LINES; i++ ) {
+                lines.add( new Object[] { nextId(), orderId, itemId } );
+            }
+        }
+        jdbcTemplate.batchUpdate( "INSERT INTO bench_sequence_orders ( id, created, status, subtotal, tax, tip ) "
+                + "VALUES ( ?, ?, ?, ?, ?, ? )", orderIds, PersistenceConfig.JDBC_BATCH_SIZE, ( ps, orderId ) -> {
+                    ps.setLong( 1, orderId );
+                    setOrder( ps, 1, created );
+                } );
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO bench_sequence_order_item ( id, order_id, item_id, quantity ) VALUES ( ?, ?, ?, 1 )",
+                lines, PersistenceConfig.JDBC_BATCH_SIZE, ( ps, line ) -> {
+                    ps.setLong( 1, (Long) line[0] );
+                    ps.setLong( 2, (Long) line[1] );
+                    ps.setLong( 3, (Long) line[2] );
+                } );
+    }
+
+    /**
+     * Helper method that hands out the next id on the sequence path, fetching
+     * a new block from the sequence table each time the last one runs out,
+     * as a pooled sequence does.
+     *
+     * @return the id
+     */
+    private long nextId () {
+        if ( nextId >= lastFetched ) {
+            jdbcTemplate.update( "UPDATE bench_sequence SET next_val = next_val + ?", ALLOCATION );
+            lastFetched = jdbcTemplate.queryForObject( "SELECT next_val FROM bench_sequence", Long.class );
+            nextId = lastFetched - ALLOCATION;
+        }
+        return nextId++;
+    }
+
+    /**
+     * Helper method that sets an order's columns.
+     *
+     * @param ps
+     *            the insert
+     * @param offset
+     *            parameters before the order's columns
+     * @param created
+     *            when the order was created
+     * @throws SQLException
+     *             if a column can't be set
+     */
+    private static void setOrder ( final PreparedStatement ps, final int offset, final Timestamp created )
+            throws SQLException {
+        ps.setTimestamp( offset + 1, created );
+        ps.setString( offset + 2, Order.PENDING );
+        ps.setInt( offset + 3, 320 * LINES );
+        ps.setInt( offset + 4, 10 );
+        ps.setInt( offset + 5, 0 );
+    }
+
+    /**
+     * Helper method that returns the id of the item the scratch lines point
+     * at.
+     *
+     * @return the item's id
+     */
+    private Long itemId () {
+        return itemRepository.findAll().get( 0 ).getId();
+    }
+
+    /**
+     * Helper method that drops the scratch tables, if they exist.
+     */
+    private void dropScratchTables () {
+        for ( final String table : List.of( "bench_identity_orders", "bench_identity_order_item",
+                "bench_sequence_orders", "bench_sequence_order_item", "bench_sequence" ) ) {
+            jdbcTemplate.execute( "DROP TABLE IF EXISTS " + table );
+        }
+    }
+
+    /**
+     * Builds an import of large orders for coffee.
+     *
+     * @return the orders
+     */
+    private static List<OrderDto> orders () {
+        final List<OrderDto> orders = new ArrayList<>();
+        for ( int n = 0; n < ORDERS; n++ ) {
+            final OrderDto orderDto = new OrderDto();
+            orderDto.setSubtotal( 320 * LINES );
+            orderDto.setTax( 10 );
+            orderDto.setTip( 0 );
+            final List<OrderItemDto> items = new ArrayList<>();
+            for ( int i = 0; i < LINES; i++ ) {
+                final OrderItemDto item = new OrderItemDto();
+                item.setItemName( "Coffee" );
+                item.setQuantity( 1 );
+                items.add( item );
+            }
+            orderDto.setItems( items );
+            orderDto.setCreated( LocalDateTime.now() );
+            orders.add( orderDto );
+        }
+        return orders;
+    }
+
+}
@@ -0,0 +1,216 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import edu.ncsu.csc326.wolfcafe.dto.IntakeMetricsDto;
+import edu.ncsu.csc326.wolfcafe.dto.IntakeTicketDto;
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+import edu.ncsu.csc326.wolfcafe.service.impl.OrderIntakeServiceImpl;
+
+/**
+ * Tests the asynchronous order intake. Not transactional, since the writers
+ * save orders on their own threads.
+ */
+@SpringBootTest
+class OrderIntakeServiceTest {
+
+    @Autowired
+    private OrderIntakeService   orderIntakeService;
+
+    @Autowired
+    private OrderService         orderService;
+
+    @Autowired
+    private ItemService          itemService;
+
+    @Autowired
+    private InventoryService     inventoryService;
+
+    @Autowired
+    private OrderRepository      orderRepository;
+
+    @Autowired
+    private ItemRepository       itemRepository;
+
+    @Autowired
+    private InventoryRepository  inventoryRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 100 );
+        inventoryService.updateInventory( inventory );
+
+        final Item item = new Item();
+        item.setName( "Coffee" );
+        item.setDescription( "Yummy" );
+        item.setPrice( 320 );
+        item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 2, "grams", item ) );
+        itemService.addItem( ItemMapper.mapToDto( item ) );
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+    }
+
+    /**
+     * Queued orders are saved in the background under the ids given when they
+     * were accepted, and one order that can't be made fails on its own
+     * without failing the others.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting for the writers
+     */
+    @Test
+    void testOrdersAreSaved () throws InterruptedException {
+        final IntakeMetricsDto before = orderIntakeService.getMetrics();
+
+        final List<IntakeTicketDto> accepted = new ArrayList<>();
+        for ( int i = 0; i < 20; i++ ) {
+            accepted.add( orderIntakeService.submit( coffeeOrder( 1 ) ) );
+        }
+        final String tooBig = orderIntakeService.submit( coffeeOrder( 1000 ) ).getTicketId();
+
+        for ( final IntakeTicketDto queued : accepted ) {
+            assertNotNull( queued.getOrderId() );
+            final IntakeTicketDto ticket = await( queued.getTicketId() );
+            assertEquals( IntakeTicketDto.CREATED, ticket.getStatus() );
+            assertEquals( queued.getOrderId(), ticket.getOrderId() );
+            assertEquals( Order.PENDING, orderService.getOrderbyId( queued.getOrderId() ).getStatus() );
+        }
+        final IntakeTicketDto failed = await( tooBig );
+        assertEquals( IntakeTicketDto.FAILED, failed.getStatus() );
+        assertEquals( 20, orderRepository.count() );
+
+        final IntakeMetricsDto after = orderIntakeService.getMetrics();
+        assertEquals( 21, after.getAccepted() - before.getAccepted() );
+        assertEquals( 20, after.getCreated() - before.getCreated() );
+        assertEquals( 1, after.getFailed() - before.getFailed() );
+        assertTrue( after.getBatches() > before.getBatches() );
+    }
+
+    /**
+     * An order keeps an id reserved for it, but not one the client made up.
+     */
+    @Test
+    void testOnlyReservedIdsKept () {
+        final Long reserved = orderService.reserveOrderId();
+        final OrderDto orderDto = coffeeOrder( 1 );
+        orderDto.setId( reserved );
+        assertEquals( reserved, orderService.createOrder( orderDto ).getId() );
+
+        final Long madeUpId = reserved + 1_000_000;
+        final OrderDto madeUp = coffeeOrder( 1 );
+        madeUp.setId( madeUpId );
+        assertNotEquals( madeUpId, orderService.createOrder( madeUp ).getId() );
+    }
+
+    /**
+     * A malformed order is turned away straight away.
+     */
+    @Test
+    void testMalformedOrderRejected () {
+        final OrderDto orderDto = coffeeOrder( 1 );
+        orderDto.setItems( new ArrayList<>() );
+        final WolfCafeAPIException e = assertThrows( WolfCafeAPIException.class,
+                () -> orderIntakeService.submit( orderDto ) );
+        assertEquals( HttpStatus.BAD_REQUEST, e.getStatus() );
+    }
+
+    /**
+     * A full queue turns orders away as unavailable.
+     */
+    @Test
+    void testFullQueueRejected () {
+        // Writers are never started, so the one slot stays full
+        final OrderIntakeService full = new OrderIntakeServiceImpl( orderService, 1, 1, 10, 50, 30 );
+        full.submit( coffeeOrder( 1 ) );
+        final WolfCafeAPIException e = assertThrows( WolfCafeAPIException.class,
+                () -> full.submit( coffeeOrder( 1 ) ) );
+        assertEquals( HttpStatus.SERVICE_UNAVAILABLE, e.getStatus() );
+        assertEquals( 1, full.getMetrics().getRejected() );
+        assertTrue( full.getRetryAfterSeconds() >= 1 );
+    }
+
+    /**
+     * Waits for a ticket to leave the queue.
+     *
+     * @param ticketId
+     *            id of the ticket
+     * @return the finished ticket
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    private IntakeTicketDto await ( final String ticketId ) throws InterruptedException {
+        for ( int i = 0; i < 500; i++ ) {
+            final IntakeTicketDto ticket = orderIntakeService.getTicket( ticketId );
+            if ( !IntakeTicketDto.QUEUED.equals( ticket.getStatus() ) ) {
+                return ticket;
+            }
+            Thread.sleep( 10 );
+        }
+        throw new AssertionError( "Ticket " + ticketId + " was never saved" );
+    }
+
+    /**
+     * Builds an order for some coffee.
+     *
+     * @param quantity
+     *            how many coffees
+     * @return the order
+     */
+    private static OrderDto coffeeOrder ( final int quantity ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 * quantity );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final OrderItemDto item = new OrderItemDto();
+        item.setItemName( "Coffee" );
+        item.setQuantity( quantity );
+        orderDto.setItems( new ArrayList<>( List.of( item ) ) );
+        orderDto.setCreated( LocalDateTime.now() );
+        return orderDto;
+    }
+
+}
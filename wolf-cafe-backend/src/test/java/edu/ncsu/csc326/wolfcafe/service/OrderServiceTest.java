@@ -3,6 +3,7 @@ package edu.ncsu.csc326.wolfcafe.service;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -17,7 +18,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
 
+import edu.ncsu.csc326.wolfcafe.dto.FulfillmentResultDto;
 import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
 import edu.ncsu.csc326.wolfcafe.dto.ItemDto;
 import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
@@ -28,6 +31,7 @@ import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
 import edu.ncsu.csc326.wolfcafe.entity.Order;
 import edu.ncsu.csc326.wolfcafe.entity.Role;
 import edu.ncsu.csc326.wolfcafe.entity.User;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
 import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
 import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
 import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
@@ -280,6 +284,128 @@ class OrderServiceTest {
 
     }
 
+    /**
+     * Fulfilling an order after its item's recipe changes uses the new recipe,
+     * not a stale bill of materials.
+     */
+    @Test
+    @Transactional
+    void testFulfillOrderAfterRecipeUpdate () {
+        final ItemDto coffee = itemService.getItemByName( "Coffee" );
+        coffee.getIngredient( "coffee" ).setQuantity( 4 );
+        itemService.updateItem( coffee.getId(), coffee );
+
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final OrderItemDto item1 = new OrderItemDto();
+        item1.setItemName( "Coffee" );
+        item1.setQuantity( 3 );
+        orderDto.setItems( List.of( item1 ) );
+        orderDto.setCreated( LocalDateTime.now() );
+
+        final Long orderId = orderService.createOrder( orderDto ).getId();
+        orderService.updateStatus( orderId, Order.FULFILLED );
+
+        assertEquals( 88, inventoryService.getInventory().getIngredientByName( "coffee" ).getQuantity() );
+    }
+
+    /**
+     * Creating an order reserves its ingredients, so later orders can't take
+     * them, and canceling it releases them.
+     */
+    @Test
+    @Transactional
+    void testCreateOrderReservesStock () {
+        // 40 coffees use 80 of the 100 coffee in stock
+        final OrderDto first = coffeeOrder( 40 );
+        final Long firstId = orderService.createOrder( first ).getId();
+
+        // 15 more would need 30, but only 20 are left unreserved
+        assertThrows( WolfCafeAPIException.class, () -> orderService.createOrder( coffeeOrder( 15 ) ) );
+        assertDoesNotThrow( () -> orderService.createOrder( coffeeOrder( 10 ) ) );
+
+        // Reserving doesn't take anything out of the inventory yet
+        assertEquals( 100, inventoryService.getInventory().getIngredientByName( "coffee" ).getQuantity() );
+
+        orderService.updateStatus( firstId, Order.CANCELED );
+        assertDoesNotThrow( () -> orderService.createOrder( coffeeOrder( 15 ) ) );
+    }
+
+    /**
+     * A best effort batch fulfills every order it can and reports why the
+     * others failed.
+     */
+    @Test
+    @Transactional
+    void testFulfillOrdersBestEffort () {
+        final Long first = orderService.createOrder( coffeeOrder( 10 ) ).getId();
+        final Long second = orderService.createOrder( coffeeOrder( 5 ) ).getId();
+        final Long canceled = orderService.createOrder( coffeeOrder( 1 ) ).getId();
+        orderService.updateStatus( canceled, Order.CANCELED );
+
+        final List<FulfillmentResultDto> results = orderService
+                .fulfillOrders( List.of( first, second, canceled, -1L ), false );
+        assertEquals( 4, results.size() );
+        assertTrue( results.get( 0 ).isFulfilled() );
+        assertTrue( results.get( 1 ).isFulfilled() );
+        assertFalse( results.get( 2 ).isFulfilled() );
+        assertEquals( "Order with canceled status cannot be fulfilled", results.get( 2 ).getMessage() );
+        assertEquals( -1L, results.get( 3 ).getOrderId() );
+        assertEquals( "Order not found", results.get( 3 ).getMessage() );
+
+        assertEquals( Order.FULFILLED, orderService.getOrderbyId( first ).getStatus() );
+        assertEquals( Order.FULFILLED, orderService.getOrderbyId( second ).getStatus() );
+        assertEquals( 70, inventoryService.getInventory().getIngredientByName( "coffee" ).getQuantity() );
+    }
+
+    /**
+     * An all or nothing batch fulfills nothing if any one order can't be.
+     */
+    @Test
+    @Transactional
+    void testFulfillOrdersAllOrNothing () {
+        final Long first = orderService.createOrder( coffeeOrder( 10 ) ).getId();
+        final Long canceled = orderService.createOrder( coffeeOrder( 1 ) ).getId();
+        orderService.updateStatus( canceled, Order.CANCELED );
+
+        final List<FulfillmentResultDto> results = orderService.fulfillOrders( List.of( first, canceled ), true );
+        assertFalse( results.get( 0 ).isFulfilled() );
+        assertEquals( "Another order in the batch cannot be fulfilled", results.get( 0 ).getMessage() );
+        assertFalse( results.get( 1 ).isFulfilled() );
+        assertEquals( Order.PENDING, orderService.getOrderbyId( first ).getStatus() );
+        assertEquals( 100, inventoryService.getInventory().getIngredientByName( "coffee" ).getQuantity() );
+
+        final Long second = orderService.createOrder( coffeeOrder( 5 ) ).getId();
+        assertTrue( orderService.fulfillOrders( List.of( first, second ), true ).stream()
+                .allMatch( FulfillmentResultDto::isFulfilled ) );
+        assertEquals( 70, inventoryService.getInventory().getIngredientByName( "coffee" ).getQuantity() );
+    }
+
+    /**
+     * A batch with no order ids is turned away rather than failing inside.
+     */
+    @Test
+    @Transactional
+    void testFulfillOrdersMissingIds () {
+        final WolfCafeAPIException e = assertThrows( WolfCafeAPIException.class,
+                () -> orderService.fulfillOrders( null, false ) );
+        assertEquals( HttpStatus.BAD_REQUEST, e.getStatus() );
+    }
+
+    /**
+     * An empty batch is turned away, whether or not it is all or nothing.
+     */
+    @Test
+    @Transactional
+    void testFulfillOrdersEmpty () {
+        final WolfCafeAPIException e = assertThrows( WolfCafeAPIException.class,
+                () -> orderService.fulfillOrders( List.of(), true ) );
+        assertEquals( HttpStatus.BAD_REQUEST, e.getStatus() );
+        assertThrows( WolfCafeAPIException.class, () -> orderService.fulfillOrders( List.of(), false ) );
+    }
+
     @Test
     @Transactional
     void testCancelOrder () {
@@ -465,4 +591,24 @@ class OrderServiceTest {
 
     }
 
+    /**
+     * Builds an order of the given number of coffees.
+     *
+     * @param count
+     *            number of coffees
+     * @return the order
+     */
+    private OrderDto coffeeOrder ( final int count ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 * count );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final OrderItemDto item = new OrderItemDto();
+        item.setItemName( "Coffee" );
+        item.setQuantity( count );
+        orderDto.setItems( new ArrayList<>( List.of( item ) ) );
+        orderDto.setCreated( LocalDateTime.now() );
+        return orderDto;
+    }
+
 }
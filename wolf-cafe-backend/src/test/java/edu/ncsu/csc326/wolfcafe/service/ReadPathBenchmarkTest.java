@@ -0,0 +1,227 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sun.management.ThreadMXBean;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.mapper.OrderMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+
+/**
+ * Compares reading the menu and a page of orders through entities and the
+ * mappers with reading them through DTO projections, by bytes allocated and
+ * time taken per read on the calling thread. Only runs when asked for, with
+ * -Dbenchmark=true, since it takes a while and its timings depend on the
+ * machine. Prints a line per path and checks that the projections allocate
+ * less.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty ( named = "benchmark", matches = "true" )
+class ReadPathBenchmarkTest {
+
+    /** Number of items on the menu */
+    private static final int           ITEMS       = 20;
+
+    /** Number of orders, one full page */
+    private static final int           ORDERS      = 200;
+
+    /** Lines in each order */
+    private static final int           LINES       = 5;
+
+    /** Ingredients in every item's recipe */
+    private static final List<String>  INGREDIENTS = List.of( "Coffee", "Milk", "Sugar" );
+
+    /** Reads run before measuring, to warm up the JIT and caches */
+    private static final int           WARMUP      = 200;
+
+    /** Reads measured */
+    private static final int           RUNS        = 500;
+
+    @Autowired
+    private ItemService                itemService;
+
+    @Autowired
+    private OrderService               orderService;
+
+    @Autowired
+    private InventoryService           inventoryService;
+
+    @Autowired
+    private ItemRepository             itemRepository;
+
+    @Autowired
+    private OrderRepository            orderRepository;
+
+    @Autowired
+    private InventoryRepository        inventoryRepository;
+
+    @Autowired
+    private IngredientRepository       ingredientRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate        readOnly;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        for ( final String ingredient : INGREDIENTS ) {
+            inventory.withQuantity( ingredient.toLowerCase(), ORDERS * LINES * 10 );
+        }
+        inventoryService.updateInventory( inventory );
+
+        for ( int i = 0; i < ITEMS; i++ ) {
+            final Item item = new Item();
+            item.setName( "Item" + i );
+            item.setDescription( "Yummy" );
+            item.setPrice( 100 );
+            for ( final String ingredient : INGREDIENTS ) {
+                item.addIngredient( new ItemIngredient( null, new Ingredient( ingredient, null ), 1, "grams", item ) );
+            }
+            itemService.addItem( ItemMapper.mapToDto( item ) );
+        }
+
+        final List<OrderDto> orders = new ArrayList<>();
+        for ( int n = 0; n < ORDERS; n++ ) {
+            orders.add( order( n ) );
+        }
+        orderService.createOrders( orders );
+
+        readOnly = new TransactionTemplate( transactionManager );
+        readOnly.setReadOnly( true );
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+    }
+
+    /**
+     * Reads the menu both ways.
+     */
+    @Test
+    void testMenu () {
+        final Result mapper = measure( "menu, entities and mapper", () -> readOnly.execute(
+                tx -> itemRepository.findAll().stream().map( ItemMapper::mapToDto ).toList() ), ITEMS );
+        final Result projection = measure( "menu, projection", itemService::getAllItems, ITEMS );
+        assertTrue( projection.bytes() < mapper.bytes() );
+    }
+
+    /**
+     * Reads a page of orders both ways.
+     */
+    @Test
+    void testOrderPage () {
+        final Result mapper = measure( "order page, entities and mapper",
+                () -> readOnly.execute(
+                        tx -> orderRepository.findAllWithItems().stream().map( OrderMapper::mapToDto ).toList() ),
+                ORDERS );
+        final Result projection = measure( "order page, projection",
+                () -> orderService.getOrderPage( null, ORDERS ).getOrders(), ORDERS );
+        assertTrue( projection.bytes() < mapper.bytes() );
+    }
+
+    /**
+     * Runs a read until warmed up, then measures it and prints the bytes it
+     * allocated and time it took per read, and its allocation rate.
+     *
+     * @param name
+     *            name of the path, to print
+     * @param read
+     *            the read
+     * @param size
+     *            number of DTOs the read should return
+     * @return bytes allocated and nanoseconds taken per read
+     */
+    private static Result measure ( final String name, final Supplier<? extends List<?>> read, final int size ) {
+        for ( int i = 0; i < WARMUP; i++ ) {
+            assertEquals( size, read.get().size() );
+        }
+        final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long startBytes = threads.getCurrentThreadAllocatedBytes();
+        final long startNanos = System.nanoTime();
+        for ( int i = 0; i < RUNS; i++ ) {
+            read.get();
+        }
+        final long nanos = ( System.nanoTime() - startNanos ) / RUNS;
+        final long bytes = ( threads.getCurrentThreadAllocatedBytes() - startBytes ) / RUNS;
+        System.out.printf( "%-32s %10d bytes/op %8.1f us/op %8.1f MB/s%n", name, bytes, nanos / 1000.0,
+                bytes * 1000.0 / nanos );
+        return new Result( bytes, nanos );
+    }
+
+    /**
+     * Builds an order for a few items, starting from a different item each
+     * time.
+     *
+     * @param n
+     *            number of the order
+     * @return the order
+     */
+    private static OrderDto order ( final int n ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 100 * LINES );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        for ( int i = 0; i < LINES; i++ ) {
+            final OrderItemDto item = new OrderItemDto();
+            item.setItemName( "Item" + ( ( n + i ) % ITEMS ) );
+            item.setQuantity( 1 );
+            items.add( item );
+        }
+        orderDto.setItems( items );
+        orderDto.setCreated( LocalDateTime.now().minusSeconds( n ) );
+        return orderDto;
+    }
+
+    /**
+     * What one read cost.
+     *
+     * @param bytes
+     *            bytes allocated per read
+     * @param nanos
+     *            nanoseconds taken per read
+     */
+    private record Result ( long bytes, long nanos ) {
+    }
+
+}
@@ -0,0 +1,214 @@
+package edu.ncsu.csc326.wolfcafe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+
+import edu.ncsu.csc326.wolfcafe.dto.InventoryDto;
+import edu.ncsu.csc326.wolfcafe.dto.ItemSalesDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderDto;
+import edu.ncsu.csc326.wolfcafe.dto.OrderItemDto;
+import edu.ncsu.csc326.wolfcafe.dto.SalesRollupDto;
+import edu.ncsu.csc326.wolfcafe.entity.Ingredient;
+import edu.ncsu.csc326.wolfcafe.entity.Item;
+import edu.ncsu.csc326.wolfcafe.entity.ItemIngredient;
+import edu.ncsu.csc326.wolfcafe.entity.Order;
+import edu.ncsu.csc326.wolfcafe.entity.SalesRollup;
+import edu.ncsu.csc326.wolfcafe.exception.WolfCafeAPIException;
+import edu.ncsu.csc326.wolfcafe.mapper.ItemMapper;
+import edu.ncsu.csc326.wolfcafe.repository.IngredientRepository;
+import edu.ncsu.csc326.wolfcafe.repository.InventoryRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemRepository;
+import edu.ncsu.csc326.wolfcafe.repository.ItemSalesRollupRepository;
+import edu.ncsu.csc326.wolfcafe.repository.OrderRepository;
+import edu.ncsu.csc326.wolfcafe.repository.SalesRollupRepository;
+
+/**
+ * Tests the sales rollups. Not transactional, so each status change commits
+ * as it would in a request.
+ */
+@SpringBootTest
+class SalesRollupServiceTest {
+
+    @Autowired
+    private SalesRollupService        salesRollupService;
+
+    @Autowired
+    private OrderService              orderService;
+
+    @Autowired
+    private ItemService               itemService;
+
+    @Autowired
+    private InventoryService          inventoryService;
+
+    @Autowired
+    private OrderRepository           orderRepository;
+
+    @Autowired
+    private ItemRepository            itemRepository;
+
+    @Autowired
+    private InventoryRepository       inventoryRepository;
+
+    @Autowired
+    private IngredientRepository      ingredientRepository;
+
+    @Autowired
+    private SalesRollupRepository     salesRollupRepository;
+
+    @Autowired
+    private ItemSalesRollupRepository itemSalesRollupRepository;
+
+    @BeforeEach
+    void setUp () {
+        orderRepository.deleteAll();
+        itemRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        ingredientRepository.deleteAll();
+        salesRollupService.flush();
+        salesRollupRepository.deleteAll();
+        itemSalesRollupRepository.deleteAll();
+
+        final InventoryDto inventory = inventoryService.getInventory();
+        inventory.withQuantity( "coffee", 100 );
+        inventoryService.updateInventory( inventory );
+
+        final Item item = new Item();
+        item.setName( "Coffee" );
+        item.setDescription( "Yummy" );
+        item.setPrice( 320 );
+        item.addIngredient( new ItemIngredient( null, new Ingredient( "Coffee", null ), 1, "grams", item ) );
+        itemService.addItem( ItemMapper.mapToDto( item ) );
+    }
+
+    @AfterEach
+    void tearDown () {
+        for ( final Order order : orderRepository.findAll() ) {
+            if ( Order.PENDING.equals( order.getStatus() ) ) {
+                orderService.updateStatus( order.getId(), Order.CANCELED );
+            }
+        }
+        orderRepository.deleteAll();
+        salesRollupService.flush();
+        salesRollupRepository.deleteAll();
+        itemSalesRollupRepository.deleteAll();
+    }
+
+    /**
+     * Fulfilled orders are added to the hour and day they were placed in,
+     * whether fulfilled one at a time or in a batch, and orders that aren't
+     * fulfilled aren't counted. Nothing is written until the flush.
+     */
+    @Test
+    void testFulfilledOrdersAreRolledUp () {
+        final Long first = create( LocalDateTime.of( 2025, 3, 1, 9, 10 ), 2 );
+        final Long second = create( LocalDateTime.of( 2025, 3, 1, 9, 50 ), 1 );
+        final Long third = create( LocalDateTime.of( 2025, 3, 1, 14, 5 ), 3 );
+        create( LocalDateTime.of( 2025, 3, 1, 15, 0 ), 1 );
+
+        orderService.updateStatus( first, Order.FULFILLED );
+        orderService.fulfillOrders( List.of( second, third ), true );
+        orderService.updateStatus( first, Order.PICKED_UP );
+        assertTrue( salesRollupService.getSales( SalesRollup.HOUR, null, null ).isEmpty() );
+        salesRollupService.flush();
+
+        final List<SalesRollupDto> hours = salesRollupService.getSales( SalesRollup.HOUR, null, null );
+        assertEquals( 2, hours.size() );
+        assertEquals( LocalDateTime.of( 2025, 3, 1, 9, 0 ), hours.get( 0 ).getBucketStart() );
+        assertEquals( 2, hours.get( 0 ).getOrderCount() );
+        assertEquals( 960, hours.get( 0 ).getSubtotal() );
+        assertEquals( 20, hours.get( 0 ).getTax() );
+        assertEquals( LocalDateTime.of( 2025, 3, 1, 14, 0 ), hours.get( 1 ).getBucketStart() );
+        assertEquals( 1, hours.get( 1 ).getOrderCount() );
+
+        final List<SalesRollupDto> days = salesRollupService.getSales( SalesRollup.DAY, null, null );
+        assertEquals( 1, days.size() );
+        assertEquals( 3, days.get( 0 ).getOrderCount() );
+        assertEquals( 1920, days.get( 0 ).getSubtotal() );
+
+        final List<ItemSalesDto> items = salesRollupService.getItemSales( SalesRollup.DAY, null, null );
+        assertEquals( 1, items.size() );
+        assertEquals( "Coffee", items.get( 0 ).getItemName() );
+        assertEquals( 6, items.get( 0 ).getUnits() );
+
+        // The range only keeps the buckets that start in it
+        assertEquals( 1, salesRollupService
+                .getSales( SalesRollup.HOUR, LocalDateTime.of( 2025, 3, 1, 10, 0 ), null ).size() );
+    }
+
+    /**
+     * Rebuilding from history gives the same rollups as keeping them up to
+     * date, drops the buffered changes it counted again, and deleting a
+     * fulfilled order takes it back out.
+     */
+    @Test
+    void testRebuildAndDelete () {
+        final Long first = create( LocalDateTime.of( 2025, 3, 2, 8, 0 ), 2 );
+        final Long second = create( LocalDateTime.of( 2025, 3, 2, 8, 30 ), 1 );
+        orderService.fulfillOrders( List.of( first, second ), true );
+
+        salesRollupService.rebuild();
+        salesRollupService.flush();
+
+        List<SalesRollupDto> hours = salesRollupService.getSales( SalesRollup.HOUR, null, null );
+        assertEquals( 1, hours.size() );
+        assertEquals( LocalDateTime.of( 2025, 3, 2, 8, 0 ), hours.get( 0 ).getBucketStart() );
+        assertEquals( 2, hours.get( 0 ).getOrderCount() );
+        assertEquals( 960, hours.get( 0 ).getSubtotal() );
+        assertEquals( 3, salesRollupService.getItemSales( SalesRollup.HOUR, null, null ).get( 0 ).getUnits() );
+
+        orderService.deleteOrder( first );
+        salesRollupService.flush();
+        hours = salesRollupService.getSales( SalesRollup.HOUR, null, null );
+        assertEquals( 1, hours.get( 0 ).getOrderCount() );
+        assertEquals( 320, hours.get( 0 ).getSubtotal() );
+        assertEquals( 1, salesRollupService.getItemSales( SalesRollup.DAY, null, null ).get( 0 ).getUnits() );
+    }
+
+    /**
+     * Only hours and days are kept.
+     */
+    @Test
+    void testUnknownGranularity () {
+        final WolfCafeAPIException e = assertThrows( WolfCafeAPIException.class,
+                () -> salesRollupService.getSales( "week", null, null ) );
+        assertEquals( HttpStatus.BAD_REQUEST, e.getStatus() );
+    }
+
+    /**
+     * Creates an order for some coffee.
+     *
+     * @param created
+     *            when the order was placed
+     * @param quantity
+     *            how many coffees
+     * @return id of the order
+     */
+    private Long create ( final LocalDateTime created, final int quantity ) {
+        final OrderDto orderDto = new OrderDto();
+        orderDto.setSubtotal( 320 * quantity );
+        orderDto.setTax( 10 );
+        orderDto.setTip( 0 );
+        final List<OrderItemDto> items = new ArrayList<>();
+        final OrderItemDto item = new OrderItemDto();
+        item.setItemName( "Coffee" );
+        item.setQuantity( quantity );
+        items.add( item );
+        orderDto.setItems( items );
+        orderDto.setCreated( created );
+        return orderService.createOrder( orderDto ).getId();
+    }
+
+}
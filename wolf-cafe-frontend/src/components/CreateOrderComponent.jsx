@@ -1,6 +1,6 @@
 import React, { useEffect, useState } from 'react';
 import { useNavigate, useLocation } from 'react-router-dom';
-import { getAllItems } from '../services/ItemService';
+import { getAllItems, getItemAvailability } from '../services/ItemService';
 import { getCurrentUser } from '../services/AuthService';
 import { getTaxRate } from '../services/InventoryService';
 
@@ -18,6 +18,7 @@ const CreateOrderComponent = () => {
   const [tip, setTip] = useState(15);
   const [customTip, setCustomTip] = useState('');
   const [taxRate, setTaxRate] = useState(0); // decimal fraction, e.g., 0.02 for 2%
+  const [makeable, setMakeable] = useState({}); // item id → how many the stock allows, null if unlimited
 
   // Fetch menu items and restore prefilled order
   useEffect(() => {
@@ -55,6 +56,17 @@ const CreateOrderComponent = () => {
 
 
 
+  // Fetch how many of each item the current stock can make
+  useEffect(() => {
+    getItemAvailability()
+      .then(res => {
+        const counts = {};
+        res.data.forEach(a => { counts[a.itemId] = a.makeable; });
+        setMakeable(counts);
+      })
+      .catch(err => console.error('[CreateOrderComponent] Error fetching availability:', err));
+  }, []);
+
   // Fetch current tax rate from backend
   useEffect(() => {
     getTaxRate()
@@ -97,6 +109,12 @@ const CreateOrderComponent = () => {
       return;
     }
 
+    const available = makeable[selectedItem.id];
+    if (available != null && parseInt(quantity, 10) > available) {
+      alert(`Only ${available} ${selectedItem.name} can be made right now.`);
+      return;
+    }
+
     setOrderItems([...orderItems, { ...selectedItem, quantity: parseInt(quantity, 10) }]);
     setSelectedItemId('');
     setQuantity('');
@@ -156,8 +174,9 @@ const CreateOrderComponent = () => {
             >
               <option value="">Select item</option>
               {allItems.map(item => (
-                <option key={item.id} value={item.id}>
+                <option key={item.id} value={item.id} disabled={makeable[item.id] === 0}>
                   {item.name} — {formatCents(item.price)}
+                  {makeable[item.id] === 0 ? ' (sold out)' : makeable[item.id] != null ? ` (${makeable[item.id]} left)` : ''}
                 </option>
               ))}
             </select>
@@ -1,11 +1,18 @@
 import React, { useEffect, useState, useContext } from "react";
 import { ThemeContext } from "../components/ThemeContext";
-import { listOrders, updateOrderStatus } from "../services/OrdersService";
+import {
+  listOrdersPage,
+  listCustomerOrdersPage,
+  updateOrderStatus,
+  subscribeOrderEvents
+} from "../services/OrdersService";
 import { isUserLoggedIn, getCurrentUser } from "../services/AuthService";
 
 const ListGuestOrdersComponent = ({ refreshTrigger, onRefresh }) => {
   const { currentTheme } = useContext(ThemeContext); 
   const [orders, setOrders] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [actionOrderId, setActionOrderId] = useState(null);
   const [showActionModal, setShowActionModal] = useState(false);
   const [actionType, setActionType] = useState(""); 
@@ -15,36 +22,86 @@ const ListGuestOrdersComponent = ({ refreshTrigger, onRefresh }) => {
     fetchOrders();
   }, [refreshTrigger]);
 
-  const fetchOrders = async () => {
-    try {
-      const ordersResponse = await listOrders();
-      const allOrders = ordersResponse.data;
-
-      const userLoggedIn = isUserLoggedIn();
-      const currentUser = getCurrentUser();
-      const userId = currentUser?.id ? parseInt(currentUser.id, 10) : null;
-
-      let filteredOrders = allOrders;
-
-      if (userLoggedIn && userId) {
-        // Logged-in users see all their orders
-        filteredOrders = allOrders.filter(order => order.customerId === userId);
-      } else {
-        // Guests only see today's orders **that have no customerId**
-        const today = new Date();
-        today.setHours(0, 0, 0, 0);
-        filteredOrders = allOrders.filter(order => {
-          const orderDate = new Date(order.created);
-          orderDate.setHours(0, 0, 0, 0);
-          return orderDate.getTime() === today.getTime() && !order.customerId;
-        });
+  // Logged-in customers get their orders' changes pushed as they happen
+  useEffect(() => {
+    const currentUser = getCurrentUser();
+    const userId = currentUser?.id ? parseInt(currentUser.id, 10) : null;
+    if (!isUserLoggedIn() || !userId) return undefined;
+    let connected = false;
+    return subscribeOrderEvents(`/events/user/${userId}`, (type, order) => {
+      if (type === "deleted") {
+        setOrders(prevOrders => (prevOrders || []).filter(o => o.id !== order.id));
+      } else if (type === "status") {
+        setOrders(prevOrders =>
+          (prevOrders || []).map(o => (o.id === order.id ? { ...o, status: order.status } : o))
+        );
+      } else if (type === "created") {
+        setOrders(prevOrders =>
+          (prevOrders || []).some(o => o.id === order.id) ? prevOrders : [order, ...(prevOrders || [])]
+        );
       }
+    }, () => {
+      if (connected) fetchOrders();
+      connected = true;
+    });
+  }, []);
+
+  // Loads one page of orders, newest first. Logged-in users page through
+  // their own orders; guests page through everyone's, keeping today's orders
+  // that have no customerId, and stop once a page reaches an earlier day.
+  const fetchPage = async (cursor) => {
+    const currentUser = getCurrentUser();
+    const userId = currentUser?.id ? parseInt(currentUser.id, 10) : null;
+
+    if (isUserLoggedIn() && userId) {
+      const response = await listCustomerOrdersPage(userId, cursor);
+      return { pageOrders: response.data.orders, cursor: response.data.nextCursor };
+    }
 
-      filteredOrders.sort((a, b) => new Date(b.created) - new Date(a.created));
-      setOrders(filteredOrders);
+    const response = await listOrdersPage(cursor);
+    const today = new Date();
+    today.setHours(0, 0, 0, 0);
+    const isToday = (order) => {
+      const orderDate = new Date(order.created);
+      orderDate.setHours(0, 0, 0, 0);
+      return orderDate.getTime() === today.getTime();
+    };
+    const page = response.data.orders;
+    const reachedEarlierDay = page.length > 0 && !isToday(page[page.length - 1]);
+    return {
+      pageOrders: page.filter(order => isToday(order) && !order.customerId),
+      cursor: reachedEarlierDay ? null : response.data.nextCursor
+    };
+  };
+
+  // Loads the first page; later pages load on demand
+  const fetchOrders = async () => {
+    try {
+      const { pageOrders, cursor } = await fetchPage(null);
+      setOrders(pageOrders);
+      setNextCursor(cursor);
     } catch (err) {
       console.error("Failed to fetch orders:", err);
       setOrders([]);
+      setNextCursor(null);
+    }
+  };
+
+  const loadMoreOrders = async () => {
+    if (!nextCursor || loadingMore) return;
+    setLoadingMore(true);
+    try {
+      const { pageOrders, cursor } = await fetchPage(nextCursor);
+      setOrders(prevOrders => [
+        ...(prevOrders || []),
+        ...pageOrders.filter(order => !(prevOrders || []).some(o => o.id === order.id))
+      ]);
+      setNextCursor(cursor);
+    } catch (err) {
+      console.error("Failed to fetch more orders:", err);
+      setError("Failed to load more orders. Please try again.");
+    } finally {
+      setLoadingMore(false);
     }
   };
 
@@ -98,7 +155,7 @@ const ListGuestOrdersComponent = ({ refreshTrigger, onRefresh }) => {
   };
 
   if (!orders) return <p className="text-center">Loading orders...</p>;
-  if (orders.length === 0) return <p className="text-center">No orders found.</p>;
+  if (orders.length === 0 && !nextCursor) return <p className="text-center">No orders found.</p>;
 
   const getActionButtonClass = () => {
     switch (currentTheme) {
@@ -163,6 +220,14 @@ const ListGuestOrdersComponent = ({ refreshTrigger, onRefresh }) => {
         </tbody>
       </table>
 
+      {nextCursor && (
+        <div className="text-center mb-3">
+          <button className={getActionButtonClass()} onClick={loadMoreOrders} disabled={loadingMore}>
+            {loadingMore ? "Loading..." : "Load more orders"}
+          </button>
+        </div>
+      )}
+
       {showActionModal && (
         <div className="theme-modal-backdrop">
           <div className={`theme-modal-content ${currentTheme}`}>
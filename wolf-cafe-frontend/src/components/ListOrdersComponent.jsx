@@ -1,11 +1,13 @@
-import React, { useEffect, useState, useContext } from 'react'
-import { listOrders, updateOrderStatus } from '../services/OrdersService'
+import React, { useEffect, useRef, useState, useContext } from 'react'
+import { listDayOrdersPage, updateOrderStatus, subscribeOrderEvents } from '../services/OrdersService'
 import { getUserById } from '../services/AuthService'
 import { ThemeContext } from '../components/ThemeContext'
 
 const ListOrdersComponent = () => {
   const { currentTheme } = useContext(ThemeContext)
   const [orders, setOrders] = useState([])
+  const [loading, setLoading] = useState(false)
+  const latestFetch = useRef(0)
   const [modalVisible, setModalVisible] = useState(false)
   const [selectedOrderId, setSelectedOrderId] = useState(null)
   const [error, setError] = useState('')
@@ -20,39 +22,82 @@ const ListOrdersComponent = () => {
     fetchOrders()
   }, [dateFilter])
 
-  const fetchOrders = async () => {
-    try {
-      const ordersResponse = await listOrders()
-      const ordersData = ordersResponse.data
-
-      const enrichedOrders = await Promise.all(
-        ordersData.map(async (order) => {
-          let customerName = 'Guest'
-		  if (order.customerId) {
-		    try {
-		      const userResponse = await getUserById(order.customerId)
-		      if (userResponse?.data?.name) customerName = userResponse.data.name
-		    } catch (err) {
-		      console.warn(`Failed to fetch customer ${order.customerId}`, err)
-		    }
-
+  // Keep the board current from the live order events instead of refetching
+  useEffect(() => {
+    const filterDateStr = dateFilter.toISOString().slice(0, 10)
+    let connected = false
+    return subscribeOrderEvents('/events', async (type, order) => {
+      if (type === 'deleted') {
+        setOrders((prevOrders) => prevOrders.filter((o) => o.id !== order.id))
+      } else if (type === 'status') {
+        setOrders((prevOrders) =>
+          prevOrders.map((o) => (o.id === order.id ? { ...o, status: order.status } : o))
+        )
+      } else if (type === 'created' && order.created?.slice(0, 10) === filterDateStr) {
+        let customerName = 'Guest'
+        if (order.customerId) {
+          try {
+            const userResponse = await getUserById(order.customerId)
+            if (userResponse?.data?.name) customerName = userResponse.data.name
+          } catch (err) {
+            console.warn(`Failed to fetch customer ${order.customerId}`, err)
           }
-          return { ...order, customerName }
-        })
-      )
-
-      const getDateString = (isoStr) => isoStr ? isoStr.slice(0, 10) : ''
-      const filterDateStr = dateFilter.toISOString().slice(0, 10)
+        }
+        setOrders((prevOrders) =>
+          prevOrders.some((o) => o.id === order.id) ? prevOrders : [{ ...order, customerName }, ...prevOrders]
+        )
+      }
+    }, () => {
+      // Catch up on anything missed while reconnecting
+      if (connected) fetchOrders()
+      connected = true
+    })
+  }, [dateFilter])
 
-      const filteredOrders = enrichedOrders.filter(order => getDateString(order.created) === filterDateStr)
+  // Look up the customer's name for each order on a page
+  const withCustomerNames = (pageOrders) => Promise.all(
+    pageOrders.map(async (order) => {
+      let customerName = 'Guest'
+      if (order.customerId) {
+        try {
+          const userResponse = await getUserById(order.customerId)
+          if (userResponse?.data?.name) customerName = userResponse.data.name
+        } catch (err) {
+          console.warn(`Failed to fetch customer ${order.customerId}`, err)
+        }
+      }
+      return { ...order, customerName }
+    })
+  )
 
-      filteredOrders.sort((a, b) => new Date(b.created) - new Date(a.created))
-      setOrders(filteredOrders)
+  // Loads every page of the chosen day's orders, showing each page as it
+  // arrives, so the board and the daily revenue cover the whole day
+  const fetchOrders = async () => {
+    const fetchId = ++latestFetch.current
+    const filterDateStr = dateFilter.toISOString().slice(0, 10)
+    setLoading(true)
+    try {
+      let cursor = null
+      do {
+        const response = await listDayOrdersPage(filterDateStr, cursor)
+        const pageOrders = await withCustomerNames(response.data.orders)
+        // A newer fetch, such as for another day, has taken over
+        if (fetchId !== latestFetch.current) return
+        const firstPage = cursor === null
+        setOrders((prevOrders) => firstPage ? pageOrders : [
+          ...prevOrders,
+          ...pageOrders.filter((order) => !prevOrders.some((o) => o.id === order.id))
+        ])
+        cursor = response.data.nextCursor
+      } while (cursor)
     } catch (err) {
+      if (fetchId !== latestFetch.current) return
       console.error('Failed to fetch orders:', err)
       setOrders([])
       setError('Failed to load orders. Please refresh.')
       setTimeout(() => setError(''), 5000)
+    } finally {
+      if (fetchId === latestFetch.current) setLoading(false)
     }
   }
 
@@ -207,6 +252,10 @@ const ListOrdersComponent = () => {
         </tbody>
       </table>
 
+      {loading && orders.length > 0 && (
+        <div className="text-center mb-4">Loading orders...</div>
+      )}
+
       {modalVisible && (
         <div className="modal d-block" tabIndex="-1" style={{ backgroundColor: 'rgba(0,0,0,0.5)' }}>
           <div className="modal-dialog modal-dialog-centered">
@@ -1,5 +1,5 @@
 import React, { useEffect, useState } from 'react'
-import { listOrders, deleteOrder } from '../services/OrdersService'
+import { listOrdersPage, deleteOrder } from '../services/OrdersService'
 import { useNavigate } from 'react-router-dom'
 
 /**
@@ -16,9 +16,9 @@ const ListOrdersComponent = () => {
   }, [])
 
   function getAllOrders() {
-    listOrders()
+    listOrdersPage()
       .then(response => {
-        setOrders(response.data)
+        setOrders(response.data.orders)
       })
       .catch(error => {
         console.error('Error fetching orders:', error)
@@ -45,6 +45,10 @@ const LoginComponent = ({ setRole }) => {
 
     } catch (error) {
       console.error('[LoginComponent] Login failed:', error);
+      if (error.response?.status === 429) {
+        alert('Too many sign-ins at once. Please try again in a moment.');
+        return;
+      }
       alert('Login failed. Please check your credentials.');
     }
   };
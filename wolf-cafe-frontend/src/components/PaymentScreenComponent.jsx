@@ -15,6 +15,8 @@ const PaymentScreenComponent = () => {
   const [paymentSuccess, setPaymentSuccess] = useState(false);
   const [change, setChange] = useState(0);
   const [paymentAmount, setPaymentAmount] = useState(0);
+  // One key per order, so retrying after a timeout can't save it twice
+  const [idempotencyKey] = useState(() => crypto.randomUUID());
 
   useEffect(() => {
     if (!order) navigate("/orders");
@@ -84,7 +86,7 @@ const PaymentScreenComponent = () => {
     };
 
     try {
-      await saveOrder(orderToSave);
+      await saveOrder(orderToSave, idempotencyKey);
       setChange(enteredPaymentCents - totalCents);
       setPaymentAmount(enteredPaymentCents);
       setPaymentSuccess(true);
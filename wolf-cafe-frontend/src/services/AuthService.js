@@ -40,6 +40,11 @@ export const getCurrentUserID = () => localStorage.getItem('userId');
 export const isUserLoggedIn = () => !!getToken();
 
 export const logout = () => {
+  const token = getToken();
+  if (token) {
+    // Revoke the token on the server too; the local session ends either way
+    axios.post(`${BASE_AUTH_URL}/logout`, null, { headers: { Authorization: token } }).catch(() => {});
+  }
   localStorage.removeItem('token');
   localStorage.removeItem('userId');
   localStorage.removeItem('username');
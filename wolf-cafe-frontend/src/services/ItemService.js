@@ -25,6 +25,7 @@ export const updateItem = (id, item) => axios.put(`${BASE_ITEM_URL}/${id}`, item
 export const deleteItemById = (id) => axios.delete(`${BASE_ITEM_URL}/${id}`);
 export const getItemByName = (name) =>
   axios.get(`${BASE_ITEM_URL}/name/${encodeURIComponent(name)}`);
+export const getItemAvailability = () => axios.get(`${BASE_ITEM_URL}/availability`);
 
 // ========== INGREDIENT OPERATIONS ==========
 export const getAllIngredients = () => axios.get(BASE_INGREDIENT_URL);
@@ -1,12 +1,36 @@
 import axios from 'axios'
+import { getToken } from './AuthService'
 
 // Direct backend URL
 const ORDERS_API_BASE_URL = 'http://localhost:8080/api/orders'
 
 /**
- * Fetch all orders from backend
+ * Fetch one page of orders, newest first
+ * @param {string} [cursor] - nextCursor from the previous page, omitted for the first
+ * @param {number} [size] - most orders to return
  */
-export const listOrders = () => axios.get(ORDERS_API_BASE_URL)
+export const listOrdersPage = (cursor, size = 200) =>
+  axios.get(ORDERS_API_BASE_URL, { params: cursor ? { cursor, size } : { size } })
+
+/**
+ * Fetch one page of the orders placed on a day, newest first
+ * @param {string} [date] - day as YYYY-MM-DD, omitted for today
+ * @param {string} [cursor] - nextCursor from the previous page, omitted for the first
+ * @param {number} [size] - most orders to return
+ */
+export const listDayOrdersPage = (date, cursor, size = 200) =>
+  axios.get(`${ORDERS_API_BASE_URL}/today`, {
+    params: { size, ...(date ? { date } : {}), ...(cursor ? { cursor } : {}) }
+  })
+
+/**
+ * Fetch one page of a customer's orders, newest first
+ * @param {number|string} userId - id of the customer
+ * @param {string} [cursor] - nextCursor from the previous page, omitted for the first
+ * @param {number} [size] - most orders to return
+ */
+export const listCustomerOrdersPage = (userId, cursor, size = 200) =>
+  axios.get(`${ORDERS_API_BASE_URL}/user/${userId}`, { params: cursor ? { cursor, size } : { size } })
 
 /**
  * Delete an order by ID
@@ -15,10 +39,14 @@ export const deleteOrder = (id) => axios.delete(`${ORDERS_API_BASE_URL}/${id}`)
 
 /**
  * Save a new order (POST) with logging
+ * @param {object} order - the order to save
+ * @param {string} [idempotencyKey] - key reused on retries so the order is only saved once
  */
-export const saveOrder = (order) => {
+export const saveOrder = (order, idempotencyKey) => {
   console.log('[OrdersService] Sending order payload:', JSON.stringify(order, null, 2))
-  return axios.post(ORDERS_API_BASE_URL, order)
+  return axios.post(ORDERS_API_BASE_URL, order, {
+    headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {}
+  })
 }
 
 /**
@@ -34,3 +62,62 @@ export const updateOrderStatus = (orderId, newStatus) => {
     }
   })
 }
+
+/**
+ * Subscribe to the live order events at the given path, "/events" for every
+ * order or "/events/user/{id}" for one customer's. Uses fetch rather than
+ * EventSource so the login token can be sent. Reconnects with a growing delay
+ * if the stream drops, and calls onOpen each time it connects so the caller
+ * can reload anything missed while it was down.
+ * @param {string} path - path of the stream under the orders API
+ * @param {function} onEvent - called with (type, order) for each event
+ * @param {function} [onOpen] - called each time the stream connects
+ * @returns {function} call to unsubscribe
+ */
+export const subscribeOrderEvents = (path, onEvent, onOpen) => {
+  const controller = new AbortController()
+  let delay = 1000
+
+  const connect = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        const token = getToken()
+        const response = await fetch(`${ORDERS_API_BASE_URL}${path}`, {
+          headers: token ? { Authorization: token, Accept: 'text/event-stream' } : { Accept: 'text/event-stream' },
+          signal: controller.signal
+        })
+        if (!response.ok) throw new Error(`Order events failed with ${response.status}`)
+        delay = 1000
+        if (onOpen) onOpen()
+
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader()
+        let buffer = ''
+        for (;;) {
+          const { value, done } = await reader.read()
+          if (done) break
+          buffer += value
+          let end
+          while ((end = buffer.indexOf('\n\n')) >= 0) {
+            const block = buffer.slice(0, end)
+            buffer = buffer.slice(end + 2)
+            let type = 'message'
+            let data = ''
+            for (const line of block.split('\n')) {
+              if (line.startsWith('event:')) type = line.slice(6).trim()
+              else if (line.startsWith('data:')) data += line.slice(5)
+            }
+            if (data) onEvent(type, JSON.parse(data).order)
+          }
+        }
+      } catch (err) {
+        if (controller.signal.aborted) return
+        console.warn('[OrdersService] Order events dropped, reconnecting:', err)
+      }
+      await new Promise(resolve => setTimeout(resolve, delay))
+      delay = Math.min(delay * 2, 30000)
+    }
+  }
+
+  connect()
+  return () => controller.abort()
+}